@@ -8,6 +8,7 @@ import enums.MaritalStatus;
 import repository.ApplicantRepository;
 import repository.ApplicationRepository;
 import repository.ProjectRepository;
+import helper.SessionConsole;
 
 import java.io.IOException;
 import java.text.ParseException;
@@ -34,7 +35,7 @@ public class ApplicantController implements ViewProjectInterface {
      */
     public void checkApplicationStatus(User user) {
         try {
-            List<Application> applications = applicationRepository.loadApplications();
+            List<Application> applications = applicationRepository.findApplicationsByNRIC(user.getNRIC());
             boolean found = false;
 
             for (Application application : applications) {
@@ -49,7 +50,7 @@ public class ApplicantController implements ViewProjectInterface {
 
                     // Offer to show receipt if application is BOOKED
                     if (application.getApplicationStatus() == ApplicantAppStatus.BOOKED) {
-                        Scanner scanner = new Scanner(System.in);
+                        Scanner scanner = SessionConsole.getScanner();
                         System.out.print("Would you like to view your booking receipt for Application ID "
                                 + application.getApplicationID() + "? (Y/N): ");
                         String choice = scanner.nextLine().trim().toUpperCase();
@@ -138,6 +139,25 @@ public class ApplicantController implements ViewProjectInterface {
         }
     }
 
+    /**
+     * Checks whether a user is old enough to apply for a flat.
+     * Single applicants must be at least 35 years old and married applicants at least 21.
+     *
+     * @param user The user who wants to apply
+     * @return true if the user may apply, false otherwise
+     */
+    public boolean isEligible(User user) {
+        if (user.getAge()<35 && user.getMaritalStatus() == MaritalStatus.SINGLE) {
+            System.out.println("You are not eligible to apply for a flat.");
+            return false;
+        }
+        if (user.getAge()<21 && user.getMaritalStatus() == MaritalStatus.MARRIED) {
+            System.out.println("You are not eligible to apply for a flat. Applicant needs to be at least 21 years old.");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Checks if a user has already applied for a specific project.
      *
@@ -147,12 +167,8 @@ public class ApplicantController implements ViewProjectInterface {
      */
     public boolean isApplyProject(Project project, User user) {
         try {
-            for (Application application : applicationRepository.loadApplications()) {
-                if (application.getProject().getProjectID().equals(project.getProjectID()) &&
-                        application.getUser().getNRIC().equals(user.getNRIC())) {
-                    return true;
-                }
-            }
+            return !applicationRepository.findApplications(project.getProjectID(), user.getNRIC(),
+                    null, null).isEmpty();
         } catch (Exception e) {
             System.out.println("Error loading applications: " + e.getMessage());
         }
@@ -218,7 +234,7 @@ public class ApplicantController implements ViewProjectInterface {
      * @param user The user viewing projects
      */
     public void viewProject(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Applicant applicant = (Applicant) user;
         MaritalStatus maritalStatus = applicant.getMaritalStatus();
         int age = user.getAge();
@@ -264,19 +280,14 @@ public class ApplicantController implements ViewProjectInterface {
      */
     public void submitApplication(User user) {
         FlatType selectedFlatType;
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         try {
             // First, get the logged in applicant
             Applicant applicant = (Applicant) user;
             MaritalStatus maritalStatus = applicant.getMaritalStatus();
 
             // check eligibility
-            if (user.getAge()<35 && maritalStatus == MaritalStatus.SINGLE) {
-                System.out.println("You are not eligible to apply for a flat.");
-                return;
-            }
-            if (user.getAge()<21 && maritalStatus == MaritalStatus.MARRIED) {
-                System.out.println("You are not eligible to apply for a flat. Applicant needs to be at least 21 years old.");
+            if (!isEligible(user)) {
                 return;
             }
             // Use ApplicationController for submission
@@ -1,6 +1,7 @@
 package controller;
 
 import enums.*;
+import helper.SessionConsole;
 import model.*;
 import repository.ApplicationRepository;
 import repository.ProjectRepository;
@@ -60,7 +61,7 @@ public class ApplicationController {
                 maritalStatus = applicant.getMaritalStatus();
 
                 // Validate duplicate application
-                for (Application app : applicationRepo.loadApplications()) {
+                for (Application app : applicationRepo.findApplicationsByNRIC(nric)) {
                     if (app.getApplicant() != null && app.getApplicant().getNRIC().equals(nric) &&
                             (app.getWithdrawalStatus() == WithdrawalStatus.PENDING ||
                                     app.getWithdrawalStatus() == WithdrawalStatus.NULL ||
@@ -95,7 +96,7 @@ public class ApplicationController {
                 nric = officer.getNRIC();
                 maritalStatus = officer.getMaritalStatus();
 
-                for (Application app : applicationRepo.loadApplications()) {
+                for (Application app : applicationRepo.findApplicationsByNRIC(nric)) {
                     if (app.getOfficer() != null && app.getOfficer().getNRIC().equals(nric) &&
                             (app.getWithdrawalStatus() != WithdrawalStatus.REJECTED)) {
                         System.out.println("Officer has already applied for a project.");
@@ -143,9 +144,9 @@ public class ApplicationController {
      */
     public boolean requestWithdrawal(User user) {
         Application userApplication = null;
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         try {
-            for (Application application : applicationRepo.loadApplications()) {
+            for (Application application : applicationRepo.findApplicationsByNRIC(user.getNRIC())) {
                 if (application.getUser() != null && application.getUser().getNRIC().equals(user.getNRIC())) {
                     userApplication = application;
                     System.out.println("Application ID: " + application.getApplicationID());
@@ -165,6 +166,7 @@ public class ApplicationController {
 
         System.out.println("Enter 1 to confirm withdrawal, 0 to cancel:");
         int choice = scanner.nextInt();
+        scanner.nextLine(); // consume newline
         if (choice == 0) {
             System.out.println("Withdrawal cancelled.");
             return false;
@@ -173,6 +175,18 @@ public class ApplicationController {
             return false;
         }
 
+        return submitWithdrawal(user);
+    }
+
+    /**
+     * Marks the user's application as pending withdrawal, without asking for confirmation.
+     * Used once the user has confirmed the withdrawal, either at the console or through
+     * the HTTP service.
+     *
+     * @param user The user withdrawing their application
+     * @return true if withdrawal request was successfully submitted, false otherwise
+     */
+    public boolean submitWithdrawal(User user) {
         if (user == null) {
             System.out.println("Invalid input: Applicant is null.");
             return false;
@@ -185,7 +199,7 @@ public class ApplicationController {
 
             // Check if the applicant has any applications
             boolean hasApplication = false;
-            for (Application application : applicationRepo.loadApplications()) {
+            for (Application application : applicationRepo.findApplicationsByNRIC(user.getNRIC())) {
                 if (application.getUser().getNRIC().equals(user.getNRIC())) {
                     hasApplication = true;
                     break;
@@ -198,7 +212,7 @@ public class ApplicationController {
             }
 
             // Withdraw the application
-            for (Application application : applicationRepo.loadApplications()) {
+            for (Application application : applicationRepo.findApplicationsByNRIC(user.getNRIC())) {
                 if (application.getUser().getNRIC().equals(user.getNRIC())) {
                     application.setWithdrawalStatus(WithdrawalStatus.PENDING);
                     ApplicationRepository.updateApplicationInCSV(application);
@@ -1,5 +1,7 @@
 package controller;
 
+import helper.SessionConsole;
+
 import java.util.Scanner;
 
 import static controller.SignInController.userLoginRepository;
@@ -19,7 +21,7 @@ public class AuthenticationController {
      */
     public void start() {
         while (true) {
-            Scanner scanner = new Scanner(System.in);
+            Scanner scanner = SessionConsole.getScanner();
             System.out.println("===================================================================");
             System.out.println();
             System.out.println(" ███████████  ███████████    ███████    ██████   ██████  █████████ ");
@@ -0,0 +1,615 @@
+package controller;
+
+import enums.ApplicantAppStatus;
+import enums.BallotCriterion;
+import enums.FlatType;
+import enums.WithdrawalStatus;
+import helper.AliasTable;
+import helper.SessionConsole;
+import model.Application;
+import model.BallotWeight;
+import model.Manager;
+import model.Project;
+import repository.ApplicationRepository;
+import repository.BallotWeightRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Controller class for balloting oversubscribed projects.
+ * <p>
+ * A ballot is drawn separately for every project and flat type. The pending applications
+ * for a flat type are put in a random order, and the first ones in that order are made
+ * successful, up to the number of units still available. The rest are made unsuccessful.
+ * An application decided on or withdrawn by someone else while the ballot was drawn is
+ * passed over, and its unit goes to the next application in the order.
+ * </p>
+ * <p>
+ * Applications can be given priority with the project's {@link BallotWeight} rules, such as
+ * a higher weight for married couples or first-time applicants. An application's weight is
+ * the product of the weights of the rules it matches. Applications are then drawn one at a time,
+ * each with a chance proportional to its weight, from an {@link AliasTable}, so each draw
+ * takes constant time however many applications there are. If no rule makes any difference,
+ * every application has the same chance and the order is a plain Fisher-Yates shuffle.
+ * </p>
+ * <p>
+ * Every draw is seeded from the ballot's seed, the project ID and the flat type, so running
+ * the same ballot again with the same seed over the same applications gives the same result,
+ * whatever order the draws happen to run in. Draws for different projects and flat types run
+ * in parallel on a {@link ForkJoinPool}, and all of their results are saved in a single write.
+ * </p>
+ */
+public class BallotController {
+    /** Multiplier that spreads the seeds of different draws apart */
+    private static final long SEED_MIX = 0x9E3779B97F4A7C15L;
+
+    /** Lock held while a ballot runs, so that two ballots never offer the same units */
+    private static final Object ballotLock = new Object();
+
+    /**
+     * The outcome of the ballot for one project and flat type.
+     */
+    public static class BallotResult {
+        /** The project balloted */
+        private final Project project;
+
+        /** The flat type balloted */
+        private final FlatType flatType;
+
+        /** The pending applications in the order they were drawn */
+        private final List<Application> drawn;
+
+        /** The number of units that were available to the ballot */
+        private final int available;
+
+        /** The priority rules the ballot was drawn with */
+        private final List<BallotWeight> weights;
+
+        /** The applications the ballot made successful, in the order they were drawn */
+        private final List<Application> successful = new ArrayList<>();
+
+        /** The applications the ballot made unsuccessful, in the order they were drawn */
+        private final List<Application> unsuccessful = new ArrayList<>();
+
+        /**
+         * Constructs the outcome of a draw.
+         *
+         * @param project The project balloted
+         * @param flatType The flat type balloted
+         * @param drawn The pending applications in the order they were drawn
+         * @param available The number of units that were available to the ballot
+         * @param weights The priority rules the ballot was drawn with
+         */
+        private BallotResult(Project project, FlatType flatType, List<Application> drawn, int available,
+                             List<BallotWeight> weights) {
+            this.project = project;
+            this.flatType = flatType;
+            this.drawn = drawn;
+            this.available = available;
+            this.weights = weights;
+        }
+
+        /**
+         * Gets the project balloted.
+         *
+         * @return The project
+         */
+        public Project getProject() {
+            return project;
+        }
+
+        /**
+         * Gets the flat type balloted.
+         *
+         * @return The flat type
+         */
+        public FlatType getFlatType() {
+            return flatType;
+        }
+
+        /**
+         * Gets the number of applications in the ballot.
+         *
+         * @return The number of pending applications drawn
+         */
+        public int getApplicants() {
+            return drawn.size();
+        }
+
+        /**
+         * Gets the number of units that were available to the ballot.
+         *
+         * @return The number of units
+         */
+        public int getAvailable() {
+            return available;
+        }
+
+        /**
+         * Gets the priority rules the ballot was drawn with.
+         *
+         * @return The rules, or an empty list if every application had the same chance
+         */
+        public List<BallotWeight> getWeights() {
+            return weights;
+        }
+
+        /**
+         * Gets the applications made successful by the ballot.
+         *
+         * @return The successful applications, in the order they were drawn
+         */
+        public List<Application> getSuccessful() {
+            return successful;
+        }
+
+        /**
+         * Gets the applications made unsuccessful by the ballot.
+         *
+         * @return The unsuccessful applications, in the order they were drawn
+         */
+        public List<Application> getUnsuccessful() {
+            return unsuccessful;
+        }
+    }
+
+    /** Controller used to find the manager's project and its pending applications */
+    private final HDBManagerController hdbManagerController = new HDBManagerController();
+
+    /** Repository used to find the applications already successful */
+    private final ApplicationRepository applicationRepository = new ApplicationRepository();
+
+    /** Repository used to find each project's priority rules */
+    private final BallotWeightRepository ballotWeightRepository = new BallotWeightRepository();
+
+    /**
+     * Allows HDB manager to run the ballot for their active project.
+     * <p>
+     * The manager may give a seed to repeat an earlier ballot, or leave it blank for a new
+     * random seed. The seed used is printed so that the ballot can be audited later.
+     * </p>
+     *
+     * @param manager The HDB manager running the ballot
+     * @return true if the ballot was run and saved, false otherwise
+     */
+    public boolean runBallot(Manager manager) {
+        Scanner scanner = SessionConsole.getScanner();
+
+        Project managedProject = hdbManagerController.getManagedActiveProject(manager);
+        if (managedProject == null) {
+            System.out.println("Error: No project found for manager " + manager.getNRIC());
+            return false;
+        }
+        System.out.println("Found project: " + managedProject.getProjectID() + " - " + managedProject.getProjectName());
+
+        System.out.print("Enter the ballot seed (or leave blank for a random seed): ");
+        String seedInput = scanner.nextLine().trim();
+        long seed;
+        try {
+            seed = seedInput.isEmpty() ? new SplittableRandom().nextLong() : Long.parseLong(seedInput);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid seed. Please enter a whole number.");
+            return false;
+        }
+
+        System.out.println("Enter 1 to confirm the ballot with seed " + seed + ", 0 to cancel:");
+        if (!scanner.nextLine().trim().equals("1")) {
+            System.out.println("Ballot cancelled.");
+            return false;
+        }
+
+        List<BallotResult> results = runBallots(List.of(managedProject), seed);
+        if (results == null) {
+            return false;
+        }
+        printResults(results);
+        System.out.println("Ballot seed: " + seed);
+        return true;
+    }
+
+    /**
+     * Runs the ballot for every flat type of some projects and saves the results in a single write.
+     * <p>
+     * If the results cannot be saved, every application decided on by the ballot is put back
+     * to pending. Ballots run one at a time, because each works out the units still available
+     * when it is drawn and would otherwise offer the same units as a ballot running alongside it.
+     * </p>
+     *
+     * @param projects The projects to ballot
+     * @param seed The seed the draws are derived from
+     * @return The outcome of each draw, or null if the ballot could not be run or saved
+     */
+    public List<BallotResult> runBallots(List<Project> projects, long seed) {
+        synchronized (ballotLock) {
+            List<Callable<BallotResult>> draws = new ArrayList<>();
+            for (Project project : projects) {
+                List<BallotWeight> weights;
+                try {
+                    weights = ballotWeightRepository.findWeightsForProject(project.getProjectID());
+                } catch (IOException e) {
+                    System.out.println("Error loading ballot weights: " + e.getMessage());
+                    return null;
+                }
+                for (FlatType flatType : FlatType.values()) {
+                    draws.add(() -> draw(project, flatType, weights, seed));
+                }
+            }
+
+            List<BallotResult> results = new ArrayList<>();
+            try {
+                for (Future<BallotResult> future : ForkJoinPool.commonPool().invokeAll(draws)) {
+                    results.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                System.out.println("Error running ballot: " + e.getCause().getMessage());
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.out.println("Ballot interrupted.");
+                return null;
+            }
+
+            List<Application> decided = new ArrayList<>();
+            for (BallotResult result : results) {
+                decide(result, decided);
+            }
+            if (decided.isEmpty()) {
+                System.out.println("No pending applications to ballot.");
+                return results;
+            }
+            try {
+                ApplicationRepository.saveApplications(decided);
+            } catch (IOException e) {
+                System.out.println("Error saving ballot results: " + e.getMessage());
+                // Not yet re-indexed, so only the claims need undoing
+                for (BallotResult result : results) {
+                    for (Application application : result.getSuccessful()) {
+                        ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.SUCCESSFUL,
+                                ApplicantAppStatus.PENDING);
+                    }
+                    for (Application application : result.getUnsuccessful()) {
+                        ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.UNSUCCESSFUL,
+                                ApplicantAppStatus.PENDING);
+                    }
+                }
+                return null;
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Gives the applications of a draw their outcome in the order they were drawn.
+     * <p>
+     * Each application is moved on from PENDING with a check-and-set, so one decided on or
+     * withdrawn by someone else since the draw is passed over, and the unit it would have won
+     * goes to the next application in the order.
+     * </p>
+     *
+     * @param result The outcome of the draw, which records the applications given each outcome
+     * @param decided The list the changed applications are added to
+     */
+    private static void decide(BallotResult result, List<Application> decided) {
+        for (Application application : result.drawn) {
+            boolean wins = result.successful.size() < result.available;
+            ApplicantAppStatus status = wins ? ApplicantAppStatus.SUCCESSFUL : ApplicantAppStatus.UNSUCCESSFUL;
+            if (application.getWithdrawalStatus() == WithdrawalStatus.NULL
+                    && ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.PENDING, status)) {
+                (wins ? result.successful : result.unsuccessful).add(application);
+                decided.add(application);
+            }
+        }
+    }
+
+    /**
+     * Draws the ballot for one project and flat type, without changing any application.
+     *
+     * @param project The project
+     * @param flatType The flat type
+     * @param weights The project's priority rules
+     * @param seed The seed of the ballot
+     * @return The outcome of the draw
+     * @throws IOException If the applications cannot be read
+     */
+    private BallotResult draw(Project project, FlatType flatType, List<BallotWeight> weights, long seed)
+            throws IOException {
+        List<Application> pool = findPool(project, flatType);
+        int available = availableUnits(project, flatType);
+        SplittableRandom random = new SplittableRandom(drawSeed(seed, project, flatType));
+        double[] poolWeights = weigh(pool, weights);
+        int[] order = poolWeights == null
+                ? shuffle(firstIndexes(pool.size()), random)
+                : weightedOrder(poolWeights, random);
+        List<Application> drawn = new ArrayList<>(pool.size());
+        for (int index : order) {
+            drawn.add(pool.get(index));
+        }
+        return new BallotResult(project, flatType, drawn, available, weights);
+    }
+
+    /**
+     * Finds the applications that take part in the ballot for a project and flat type.
+     *
+     * @param project The project
+     * @param flatType The flat type
+     * @return The pending applications without a withdrawal request, in the order they were submitted
+     * @throws IOException If the applications cannot be read
+     */
+    List<Application> findPool(Project project, FlatType flatType) throws IOException {
+        List<Application> pool = new ArrayList<>();
+        for (Application application : applicationRepository.findApplications(project.getProjectID(), null,
+                ApplicantAppStatus.PENDING, WithdrawalStatus.NULL)) {
+            if (application.getFlatType() == flatType) {
+                pool.add(application);
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Finds the priority rules each application in a ballot matches.
+     * <p>
+     * Applications matching the same rules have the same weight, so the lists returned for
+     * them are equal.
+     * </p>
+     *
+     * @param pool The applications in the ballot
+     * @param weights The project's priority rules
+     * @return The rules matched by each application, in the order of the pool
+     * @throws IOException If the applications cannot be read
+     */
+    List<List<BallotWeight>> matchRules(List<Application> pool, List<BallotWeight> weights) throws IOException {
+        boolean needsHistory = false;
+        for (BallotWeight weight : weights) {
+            needsHistory |= weight.getCriterion() == BallotCriterion.FIRST_TIME;
+        }
+
+        Map<String, Boolean> firstTimeByNRIC = new HashMap<>();
+        List<List<BallotWeight>> matched = new ArrayList<>(pool.size());
+        for (Application application : pool) {
+            boolean firstTime = false;
+            if (needsHistory) {
+                String nric = application.getUser().getNRIC();
+                Boolean known = firstTimeByNRIC.get(nric);
+                if (known == null) {
+                    // The application being balloted is the applicant's only one if they have never applied before
+                    known = applicationRepository.findApplicationsByNRIC(nric).size() <= 1;
+                    firstTimeByNRIC.put(nric, known);
+                }
+                firstTime = known;
+            }
+            List<BallotWeight> rules = new ArrayList<>();
+            for (BallotWeight weight : weights) {
+                if (weight.matches(application.getUser(), firstTime)) {
+                    rules.add(weight);
+                }
+            }
+            matched.add(rules);
+        }
+        return matched;
+    }
+
+    /**
+     * Works out the weight of an application from the rules it matches.
+     *
+     * @param rules The rules the application matches
+     * @return The product of the rules' weights, or 1 if it matches none
+     */
+    static double weightOf(List<BallotWeight> rules) {
+        double product = 1;
+        for (BallotWeight rule : rules) {
+            product *= rule.getWeight();
+        }
+        return product;
+    }
+
+    /**
+     * Works out the weight of every application in a ballot.
+     *
+     * @param pool The applications in the ballot
+     * @param weights The project's priority rules
+     * @return The weight of each application, or null if every application has the same weight
+     * @throws IOException If the applications cannot be read
+     */
+    private double[] weigh(List<Application> pool, List<BallotWeight> weights) throws IOException {
+        if (weights.isEmpty() || pool.isEmpty()) {
+            return null;
+        }
+        List<List<BallotWeight>> matched = matchRules(pool, weights);
+        double[] poolWeights = new double[pool.size()];
+        boolean allSame = true;
+        for (int i = 0; i < pool.size(); i++) {
+            poolWeights[i] = weightOf(matched.get(i));
+            allSame &= poolWeights[i] == poolWeights[0];
+        }
+        return allSame ? null : poolWeights;
+    }
+
+    /**
+     * Puts the positions of a ballot in a weighted random order.
+     * <p>
+     * The positions are drawn one at a time from an alias table, each with a chance proportional
+     * to its weight among those not yet drawn. A position drawn again is simply drawn over, and
+     * once half of the table's weight has been drawn the table is rebuilt over the positions
+     * left, so a draw never takes more than two tries on average. Every position is drawn by
+     * weight, not only the winners, so that a unit passed over by a winner goes to the next
+     * position with the same chances.
+     * </p>
+     *
+     * @param weights The weight of each position, all above 0
+     * @param random The source of randomness
+     * @return The positions, in the order they were drawn
+     */
+    private static int[] weightedOrder(double[] weights, SplittableRandom random) {
+        int size = weights.length;
+        int[] order = new int[size];
+        boolean[] taken = new boolean[size];
+        int drawn = 0;
+
+        int[] candidates = firstIndexes(size);
+        AliasTable table = new AliasTable(weights);
+        double tableWeight = sum(weights, candidates);
+        double remainingWeight = tableWeight;
+        while (drawn < size) {
+            if (remainingWeight * 2 < tableWeight) {
+                candidates = remaining(taken, size - drawn);
+                double[] candidateWeights = new double[candidates.length];
+                for (int i = 0; i < candidates.length; i++) {
+                    candidateWeights[i] = weights[candidates[i]];
+                }
+                table = new AliasTable(candidateWeights);
+                tableWeight = sum(weights, candidates);
+                remainingWeight = tableWeight;
+            }
+            int position = candidates[table.sample(random)];
+            if (!taken[position]) {
+                taken[position] = true;
+                order[drawn++] = position;
+                remainingWeight -= weights[position];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Lists the positions not yet drawn.
+     *
+     * @param taken Whether each position has been drawn
+     * @param count The number of positions not yet drawn
+     * @return The positions not yet drawn, in increasing order
+     */
+    private static int[] remaining(boolean[] taken, int count) {
+        int[] positions = new int[count];
+        int next = 0;
+        for (int i = 0; i < taken.length; i++) {
+            if (!taken[i]) {
+                positions[next++] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Adds up the weights of some positions.
+     *
+     * @param weights The weight of each position
+     * @param positions The positions to add up
+     * @return The total weight
+     */
+    private static double sum(double[] weights, int[] positions) {
+        double total = 0;
+        for (int position : positions) {
+            total += weights[position];
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of units of a flat type that can still be offered by a ballot.
+     * <p>
+     * Booked units have already been taken off the project's unit count, so only the
+     * applications that are successful but not yet booked, and not withdrawn, hold a unit
+     * on top of that.
+     * </p>
+     *
+     * @param project The project
+     * @param flatType The flat type
+     * @return The number of units available, never negative
+     * @throws IOException If the applications cannot be read
+     */
+    int availableUnits(Project project, FlatType flatType) throws IOException {
+        int available = project.getFlatTypeUnits().getOrDefault(flatType, 0);
+        for (Application application : applicationRepository.findApplications(project.getProjectID(), null,
+                ApplicantAppStatus.SUCCESSFUL, null)) {
+            if (application.getFlatType() == flatType
+                    && application.getWithdrawalStatus() != WithdrawalStatus.APPROVED) {
+                available--;
+            }
+        }
+        return Math.max(available, 0);
+    }
+
+    /**
+     * Derives the seed of one draw from the seed of the ballot.
+     *
+     * @param seed The seed of the ballot
+     * @param project The project drawn
+     * @param flatType The flat type drawn
+     * @return The seed of the draw
+     */
+    static long drawSeed(long seed, Project project, FlatType flatType) {
+        // SplittableRandom steps its state by the same constant, so the sum is scrambled through one
+        // draw to keep nearby seeds from giving the same numbers one step apart
+        return new SplittableRandom(seed + SEED_MIX * (project.getProjectID().hashCode() * 31L + flatType.ordinal() + 1))
+                .nextLong();
+    }
+
+    /**
+     * Lists the numbers 0 to size - 1.
+     *
+     * @param size The number of positions
+     * @return The positions, in increasing order
+     */
+    private static int[] firstIndexes(int size) {
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Puts positions in a random order with a Fisher-Yates shuffle.
+     *
+     * @param positions The positions, which are shuffled in place
+     * @param random The source of randomness
+     * @return The shuffled positions
+     */
+    private static int[] shuffle(int[] positions, SplittableRandom random) {
+        for (int i = positions.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = positions[i];
+            positions[i] = positions[j];
+            positions[j] = swap;
+        }
+        return positions;
+    }
+
+    /**
+     * Prints the outcome of each draw.
+     *
+     * @param results The outcome of each draw
+     */
+    private static void printResults(List<BallotResult> results) {
+        System.out.println("\n======== BALLOT RESULTS ========");
+        System.out.println("+----------------------------------------------------------------------+");
+        System.out.printf("| %-10s | %-12s | %-12s | %-12s | %-12s |\n",
+                "PROJECT", "FLAT TYPE", "APPLICANTS", "SUCCESSFUL", "UNSUCCESSFUL");
+        System.out.println("+----------------------------------------------------------------------+");
+        for (BallotResult result : results) {
+            System.out.printf("| %-10s | %-12s | %-12d | %-12d | %-12d |\n",
+                    result.getProject().getProjectID(),
+                    result.getFlatType(),
+                    result.getApplicants(),
+                    result.getSuccessful().size(),
+                    result.getUnsuccessful().size());
+        }
+        System.out.println("+----------------------------------------------------------------------+");
+        for (BallotResult result : results) {
+            if (result.getFlatType() == results.get(0).getFlatType()) {
+                System.out.println("Priority weights for " + result.getProject().getProjectID() + ": "
+                        + (result.getWeights().isEmpty() ? "none" : result.getWeights()));
+            }
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package controller;
+
+import enums.FlatType;
+import helper.SessionConsole;
+import model.Application;
+import model.BallotWeight;
+import model.Manager;
+import model.Project;
+import repository.BallotWeightRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Controller class for estimating the outcome of a ballot before it is run.
+ * <p>
+ * The simulator draws the ballot for each flat type of a project many times over the current
+ * pending applications and units available, without changing any application, and reports how
+ * likely each group of applicants is to be successful.
+ * </p>
+ * <p>
+ * Applicants matching the same priority rules have the same weight, so a draw only needs to
+ * know how many of each group are left rather than who they are. Each group is held as a count
+ * and a weight in primitive arrays, and each winner is drawn by picking a group with a chance
+ * proportional to its weight times the number of its applicants left. This gives the same
+ * distribution as the real ballot, in time that depends on the number of units and groups but
+ * not on the number of applicants.
+ * </p>
+ * <p>
+ * Simulations run in parallel on a parallel stream. Each one has its own random source, with a
+ * seed drawn in turn from the seed of the run before any of them start, so the same seed always
+ * gives the same report whichever threads the simulations run on.
+ * </p>
+ */
+public class BallotSimulationController {
+    /** The number of simulations run when the manager does not give one */
+    public static final int DEFAULT_SIMULATIONS = 10000;
+
+    /** The largest number of simulations that may be run at once */
+    public static final int MAX_SIMULATIONS = 100000;
+
+    /**
+     * The simulated outcomes of the ballot for one project and flat type.
+     */
+    public static class SimulationResult {
+        /** The project simulated */
+        private final Project project;
+
+        /** The flat type simulated */
+        private final FlatType flatType;
+
+        /** The number of units available to the ballot */
+        private final int available;
+
+        /** The priority rules matched by each group of applicants */
+        private final List<List<BallotWeight>> groups;
+
+        /** The number of applicants in each group */
+        private final int[] sizes;
+
+        /** The weight of each applicant in each group */
+        private final double[] weights;
+
+        /** The number of winners from each group in each simulation, sorted */
+        private final int[][] winners;
+
+        /**
+         * Constructs the simulated outcomes of a ballot.
+         *
+         * @param project The project simulated
+         * @param flatType The flat type simulated
+         * @param available The number of units available to the ballot
+         * @param groups The priority rules matched by each group of applicants
+         * @param sizes The number of applicants in each group
+         * @param weights The weight of each applicant in each group
+         * @param winners The number of winners from each group in each simulation, sorted
+         */
+        private SimulationResult(Project project, FlatType flatType, int available, List<List<BallotWeight>> groups,
+                                 int[] sizes, double[] weights, int[][] winners) {
+            this.project = project;
+            this.flatType = flatType;
+            this.available = available;
+            this.groups = groups;
+            this.sizes = sizes;
+            this.weights = weights;
+            this.winners = winners;
+        }
+
+        /**
+         * Gets the project simulated.
+         *
+         * @return The project
+         */
+        public Project getProject() {
+            return project;
+        }
+
+        /**
+         * Gets the flat type simulated.
+         *
+         * @return The flat type
+         */
+        public FlatType getFlatType() {
+            return flatType;
+        }
+
+        /**
+         * Gets the number of units available to the ballot.
+         *
+         * @return The number of units
+         */
+        public int getAvailable() {
+            return available;
+        }
+
+        /**
+         * Gets the number of applications in the ballot.
+         *
+         * @return The number of pending applications
+         */
+        public int getApplicants() {
+            int total = 0;
+            for (int size : sizes) {
+                total += size;
+            }
+            return total;
+        }
+
+        /**
+         * Gets the number of groups of applicants with the same priority.
+         *
+         * @return The number of groups
+         */
+        public int getGroupCount() {
+            return sizes.length;
+        }
+
+        /**
+         * Gets the priority rules matched by a group of applicants.
+         *
+         * @param group The index of the group
+         * @return The rules, or an empty list if the group matches none
+         */
+        public List<BallotWeight> getGroupRules(int group) {
+            return groups.get(group);
+        }
+
+        /**
+         * Gets the number of applicants in a group.
+         *
+         * @param group The index of the group
+         * @return The number of applicants
+         */
+        public int getGroupSize(int group) {
+            return sizes[group];
+        }
+
+        /**
+         * Gets the weight of each applicant in a group.
+         *
+         * @param group The index of the group
+         * @return The weight
+         */
+        public double getGroupWeight(int group) {
+            return weights[group];
+        }
+
+        /**
+         * Gets the chance of an applicant in a group being successful.
+         *
+         * @param group The index of the group
+         * @return The mean number of winners from the group over its size, between 0 and 1
+         */
+        public double getSuccessChance(int group) {
+            long total = 0;
+            for (int count : winners[group]) {
+                total += count;
+            }
+            return (double) total / winners[group].length / sizes[group];
+        }
+
+        /**
+         * Gets a percentile of the number of winners from a group.
+         *
+         * @param group The index of the group
+         * @param percentile The percentile, from 0 to 100
+         * @return The number of winners that the given share of simulations did not exceed
+         */
+        public int getWinnersPercentile(int group, double percentile) {
+            int[] sorted = winners[group];
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+        }
+    }
+
+    /** Controller used to find the manager's project */
+    private final HDBManagerController hdbManagerController = new HDBManagerController();
+
+    /** Controller used to find the applications and units of each ballot */
+    private final BallotController ballotController = new BallotController();
+
+    /** Repository used to find each project's priority rules */
+    private final BallotWeightRepository ballotWeightRepository = new BallotWeightRepository();
+
+    /**
+     * Allows HDB manager to simulate the ballot for their active project.
+     *
+     * @param manager The HDB manager running the simulation
+     * @return true if the simulation was run, false otherwise
+     */
+    public boolean simulateBallot(Manager manager) {
+        Scanner scanner = SessionConsole.getScanner();
+
+        Project managedProject = hdbManagerController.getManagedActiveProject(manager);
+        if (managedProject == null) {
+            System.out.println("Error: No project found for manager " + manager.getNRIC());
+            return false;
+        }
+        System.out.println("Found project: " + managedProject.getProjectID() + " - " + managedProject.getProjectName());
+
+        System.out.print("Enter the number of simulations (or leave blank for " + DEFAULT_SIMULATIONS + "): ");
+        String simulationsInput = scanner.nextLine().trim();
+        int simulations;
+        try {
+            simulations = simulationsInput.isEmpty() ? DEFAULT_SIMULATIONS : Integer.parseInt(simulationsInput);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number. Please enter a whole number.");
+            return false;
+        }
+        if (simulations < 1 || simulations > MAX_SIMULATIONS) {
+            System.out.println("The number of simulations must be between 1 and " + MAX_SIMULATIONS + ".");
+            return false;
+        }
+
+        System.out.print("Enter the simulation seed (or leave blank for a random seed): ");
+        String seedInput = scanner.nextLine().trim();
+        long seed;
+        try {
+            seed = seedInput.isEmpty() ? new SplittableRandom().nextLong() : Long.parseLong(seedInput);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid seed. Please enter a whole number.");
+            return false;
+        }
+
+        long start = System.nanoTime();
+        List<SimulationResult> results = simulate(managedProject, simulations, seed);
+        if (results == null) {
+            return false;
+        }
+        if (results.isEmpty()) {
+            System.out.println("No pending applications to simulate.");
+            return true;
+        }
+        printResults(results, simulations);
+        System.out.printf("Ran %d simulations in %.1f seconds with seed %d.\n",
+                simulations, (System.nanoTime() - start) / 1e9, seed);
+        return true;
+    }
+
+    /**
+     * Simulates the ballot for every flat type of a project with pending applications.
+     *
+     * @param project The project to simulate
+     * @param simulations The number of ballots to simulate for each flat type
+     * @param seed The seed the simulations are derived from
+     * @return The simulated outcomes for each flat type, or null if the applications could not be read
+     */
+    public List<SimulationResult> simulate(Project project, int simulations, long seed) {
+        List<SimulationResult> results = new ArrayList<>();
+        try {
+            List<BallotWeight> rules = ballotWeightRepository.findWeightsForProject(project.getProjectID());
+            for (FlatType flatType : FlatType.values()) {
+                List<Application> pool = ballotController.findPool(project, flatType);
+                if (pool.isEmpty()) {
+                    continue;
+                }
+                int available = ballotController.availableUnits(project, flatType);
+
+                // Applicants matching the same rules are interchangeable, so only each group's size is kept
+                Map<List<BallotWeight>, Integer> groupIndex = new LinkedHashMap<>();
+                List<Integer> groupSizes = new ArrayList<>();
+                for (List<BallotWeight> matched : ballotController.matchRules(pool, rules)) {
+                    Integer group = groupIndex.get(matched);
+                    if (group == null) {
+                        group = groupSizes.size();
+                        groupIndex.put(matched, group);
+                        groupSizes.add(0);
+                    }
+                    groupSizes.set(group, groupSizes.get(group) + 1);
+                }
+
+                List<List<BallotWeight>> groups = new ArrayList<>(groupIndex.keySet());
+                int[] sizes = new int[groups.size()];
+                double[] weights = new double[groups.size()];
+                for (int i = 0; i < sizes.length; i++) {
+                    sizes[i] = groupSizes.get(i);
+                    weights[i] = BallotController.weightOf(groups.get(i));
+                }
+                int[][] winners = run(sizes, weights, available, simulations,
+                        BallotController.drawSeed(seed, project, flatType));
+                results.add(new SimulationResult(project, flatType, available, groups, sizes, weights, winners));
+            }
+        } catch (IOException e) {
+            System.out.println("Error simulating ballot: " + e.getMessage());
+            return null;
+        }
+        return results;
+    }
+
+    /**
+     * Runs the simulations for one ballot in parallel.
+     *
+     * @param sizes The number of applicants in each group
+     * @param weights The weight of each applicant in each group
+     * @param available The number of units available
+     * @param simulations The number of ballots to simulate
+     * @param seed The seed of the ballot's simulations
+     * @return The number of winners from each group in each simulation, sorted for each group
+     */
+    private static int[][] run(int[] sizes, double[] weights, int available, int simulations, long seed) {
+        // Seeds are drawn up front so that each simulation's numbers do not depend on which thread runs it
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] simulationSeeds = new long[simulations];
+        for (int simulation = 0; simulation < simulations; simulation++) {
+            simulationSeeds[simulation] = seeds.nextLong();
+        }
+
+        int[][] winners = new int[sizes.length][simulations];
+        IntStream.range(0, simulations).parallel().forEach(simulation -> {
+            int[] won = drawOnce(sizes, weights, available, new SplittableRandom(simulationSeeds[simulation]));
+            for (int group = 0; group < won.length; group++) {
+                winners[group][simulation] = won[group];
+            }
+        });
+        for (int[] groupWinners : winners) {
+            Arrays.sort(groupWinners);
+        }
+        return winners;
+    }
+
+    /**
+     * Simulates one ballot.
+     *
+     * @param sizes The number of applicants in each group
+     * @param weights The weight of each applicant in each group
+     * @param available The number of units available
+     * @param random The source of randomness
+     * @return The number of winners from each group
+     */
+    private static int[] drawOnce(int[] sizes, double[] weights, int available, SplittableRandom random) {
+        int[] left = sizes.clone();
+        int[] won = new int[sizes.length];
+        int applicants = 0;
+        int groupsLeft = 0;
+        double totalWeight = 0;
+        for (int group = 0; group < sizes.length; group++) {
+            applicants += sizes[group];
+            groupsLeft += sizes[group] > 0 ? 1 : 0;
+            totalWeight += weights[group] * sizes[group];
+        }
+
+        int draws = Math.min(available, applicants);
+        for (int draw = 0; draw < draws; draw++) {
+            if (groupsLeft == 1) {
+                // Every remaining unit goes to the only group with applicants left
+                for (int group = 0; group < left.length; group++) {
+                    if (left[group] > 0) {
+                        won[group] += draws - draw;
+                    }
+                }
+                break;
+            }
+
+            double target = random.nextDouble() * totalWeight;
+            int chosen = -1;
+            for (int group = 0; group < left.length; group++) {
+                if (left[group] > 0) {
+                    // Falls through to the last group with applicants left if rounding leaves some target over
+                    chosen = group;
+                    target -= weights[group] * left[group];
+                    if (target < 0) {
+                        break;
+                    }
+                }
+            }
+            left[chosen]--;
+            won[chosen]++;
+            totalWeight -= weights[chosen];
+            if (left[chosen] == 0) {
+                groupsLeft--;
+            }
+        }
+        return won;
+    }
+
+    /**
+     * Prints the simulated outcomes of each ballot.
+     *
+     * @param results The simulated outcomes for each flat type
+     * @param simulations The number of simulations run
+     */
+    private static void printResults(List<SimulationResult> results, int simulations) {
+        System.out.println("\n======== BALLOT SIMULATION (" + simulations + " runs) ========");
+        for (SimulationResult result : results) {
+            System.out.println("\n" + result.getProject().getProjectID() + " " + result.getFlatType()
+                    + ": " + result.getApplicants() + " applicants for " + result.getAvailable() + " units");
+            System.out.println("+--------------------------------------------------------------------------------------------+");
+            System.out.printf("| %-36s | %-10s | %-6s | %-8s | %-18s |\n",
+                    "PRIORITY", "APPLICANTS", "WEIGHT", "CHANCE", "WINNERS P5/P50/P95");
+            System.out.println("+--------------------------------------------------------------------------------------------+");
+            for (int group = 0; group < result.getGroupCount(); group++) {
+                List<BallotWeight> rules = result.getGroupRules(group);
+                System.out.printf("| %-36s | %-10d | %-6.2f | %7.2f%% | %-18s |\n",
+                        rules.isEmpty() ? "No priority" : rules.toString().substring(1, rules.toString().length() - 1),
+                        result.getGroupSize(group),
+                        result.getGroupWeight(group),
+                        result.getSuccessChance(group) * 100,
+                        result.getWinnersPercentile(group, 5) + "/" + result.getWinnersPercentile(group, 50)
+                                + "/" + result.getWinnersPercentile(group, 95));
+            }
+            System.out.println("+--------------------------------------------------------------------------------------------+");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package controller;
 import model.*;
 import repository.EnquiryRepository;
 import helper.TableUtil;
+import helper.SessionConsole;
 
 import java.io.IOException;
 import java.util.List;
@@ -25,7 +26,7 @@ public class EnquiryController {
      * @param viewAsApplicant Flag indicating whether to view enquiries as an applicant (true) or officer (false)
      */
     public void handleEnquiries(User user, boolean viewAsApplicant) {
-        Scanner sc = new Scanner(System.in);
+        Scanner sc = SessionConsole.getScanner();
         int choice = -1;
 
         do {
@@ -170,7 +171,7 @@ public class EnquiryController {
             return;
         }
 
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         System.out.print("Do you want to reply to an enquiry? (yes/no): ");
         String response = scanner.nextLine().trim().toLowerCase();
 
@@ -180,15 +181,7 @@ public class EnquiryController {
                 String enquiryID = scanner.nextLine().trim();
 
                 // Check if enquiry exists
-                Enquiry enquiry = enquiryRepository.getEnquiryById(enquiryID);
-                if (enquiry == null) {
-                    System.out.println("Enquiry not found. Please check the ID and try again.");
-                    return;
-                }
-
-                // Check if already replied (optional)
-                if ("REPLIED".equalsIgnoreCase(enquiry.getEnquiryStatus())) {
-                    System.out.println("This enquiry has already been replied to.");
+                if (!canReplyToEnquiry(enquiryID)) {
                     return;
                 }
 
@@ -208,6 +201,59 @@ public class EnquiryController {
         }
     }
 
+    /**
+     * Replies to a pending enquiry without prompting for input.
+     * Used by the HTTP service, where the enquiry ID and reply arrive with the request.
+     *
+     * @param user The officer or manager replying to the enquiry
+     * @param enquiryID The ID of the enquiry to reply to
+     * @param replyText The reply
+     * @return true if the reply was saved, false otherwise
+     */
+    public boolean replyToEnquiry(User user, String enquiryID, String replyText) {
+        if (replyText == null || replyText.isBlank()) {
+            System.out.println("Reply cannot be empty.");
+            return false;
+        }
+        try {
+            if (!canReplyToEnquiry(enquiryID)) {
+                return false;
+            }
+            boolean success = enquiryRepository.replyToEnquiry(enquiryID, replyText.trim(), user.getNRIC());
+            if (success) {
+                System.out.println("Reply submitted successfully.");
+            } else {
+                System.out.println("Failed to submit reply. Enquiry ID might be incorrect.");
+            }
+            return success;
+        } catch (IOException e) {
+            System.out.println("An error occurred while replying to the enquiry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Checks that an enquiry exists and has not been replied to yet.
+     *
+     * @param enquiryID The ID of the enquiry
+     * @return true if the enquiry can be replied to, false otherwise
+     * @throws IOException If the enquiry cannot be read
+     */
+    private boolean canReplyToEnquiry(String enquiryID) throws IOException {
+        Enquiry enquiry = enquiryRepository.getEnquiryById(enquiryID);
+        if (enquiry == null) {
+            System.out.println("Enquiry not found. Please check the ID and try again.");
+            return false;
+        }
+
+        // Check if already replied (optional)
+        if ("REPLIED".equalsIgnoreCase(enquiry.getEnquiryStatus())) {
+            System.out.println("This enquiry has already been replied to.");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Allows a user to submit a new enquiry about a specific project.
      * Validates input to ensure the enquiry text is not empty.
@@ -215,7 +261,7 @@ public class EnquiryController {
      * @param user The user submitting the enquiry
      */
     public void submitEnquiry(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         System.out.print("Enter Project ID: ");
         String projectID = scanner.nextLine().trim();
 
@@ -227,19 +273,38 @@ public class EnquiryController {
             enquiryText = scanner.nextLine().trim();
         }
 
+        submitEnquiry(user, projectID, enquiryText);
+    }
+
+    /**
+     * Submits a new enquiry about a project without prompting for input.
+     * Used by the interactive menu once the text is entered, and by the HTTP service.
+     *
+     * @param user The user submitting the enquiry
+     * @param projectID The ID of the project the enquiry is about
+     * @param enquiryText The text of the enquiry
+     * @return The submitted enquiry, or null if it could not be saved
+     */
+    public Enquiry submitEnquiry(User user, String projectID, String enquiryText) {
+        if (enquiryText == null || enquiryText.isBlank()) {
+            System.out.println("Enquiry text cannot be empty.");
+            return null;
+        }
+
         String enquiryID = enquiryRepository.generateNextEnquiryID();
 
         try {
-            Enquiry newEnquiry = new Enquiry(enquiryID, user.getNRIC(), projectID, enquiryText, null, "PENDING", null);
+            Enquiry newEnquiry = new Enquiry(enquiryID, user.getNRIC(), projectID, enquiryText.trim(), null, "PENDING", null);
             boolean success = enquiryRepository.createNewEnquiry(newEnquiry);
             if (success) {
                 System.out.println("Enquiry submitted successfully.");
-            } else {
-                System.out.println("Failed to submit enquiry. Please try again.");
+                return newEnquiry;
             }
+            System.out.println("Failed to submit enquiry. Please try again.");
         } catch (IOException e) {
             System.out.println("An error occurred while submitting the enquiry: " + e.getMessage());
         }
+        return null;
     }
 
     /**
@@ -249,7 +314,7 @@ public class EnquiryController {
      * @param user The user editing the enquiry
      */
     public void editEnquiry(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         System.out.print("Enter Enquiry ID to edit: ");
         String enquiryID = scanner.nextLine().trim();
 
@@ -305,7 +370,7 @@ public class EnquiryController {
      */
     public void deleteEnquiry(User user) {
         try {
-            Scanner scanner = new Scanner(System.in);
+            Scanner scanner = SessionConsole.getScanner();
             // Ask the user for the enquiry ID
             System.out.print("Enter the Enquiry ID to delete: ");
             String enquiryID = scanner.nextLine().trim();
@@ -1,11 +1,15 @@
 package controller;
 
 import enums.*;
+import helper.SessionConsole;
 import model.*;
 import repository.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -84,7 +88,7 @@ public class HDBManagerController implements ViewProjectInterface {
      * @return true if approval was successful, false otherwise
      */
     public boolean approveOrRejectApplication(Manager manager) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
 
         System.out.println("Manager: " + manager.getNRIC());
 
@@ -149,21 +153,216 @@ public class HDBManagerController implements ViewProjectInterface {
             System.out.println("Invalid input. Please enter 0 or 1.");
             return false;
         }
-        if (actionInput.equals("0")) {
-            // Reject the application
-            selectedApplication.setApplicationStatus(ApplicantAppStatus.UNSUCCESSFUL);
-            System.out.println("Application rejected successfully.");
-        } else if (actionInput.equals("1")) {
-            // Approve the application
-            selectedApplication.setApplicationStatus(ApplicantAppStatus.SUCCESSFUL);
-        }
-        // Update the application status
-        // Save changes to file
-        ApplicationRepository.updateApplicationInCSV(selectedApplication);
-        System.out.println("Application approved successfully.");
+        return decideApplication(manager, selectedApplication, actionInput.equals("1"));
+    }
+
+    /**
+     * Approves or rejects a pending application without prompting for input.
+     * The application must belong to the manager's active project and still be pending.
+     * <p>
+     * The application is claimed from PENDING with a check-and-set before it is saved, so two
+     * managers deciding it at once cannot both succeed. If it cannot be saved, it is put back
+     * to pending.
+     * </p>
+     *
+     * @param manager The HDB manager making the decision
+     * @param application The application to decide on
+     * @param approve true to approve the application, false to reject it
+     * @return true if the decision was saved, false otherwise
+     */
+    public boolean decideApplication(Manager manager, Application application, boolean approve) {
+        Project managedProject = getManagedActiveProject(manager);
+        if (managedProject == null
+                || !application.getProject().getProjectID().equals(managedProject.getProjectID())) {
+            System.out.println("Application " + application.getApplicationID() + " is not for a project you manage.");
+            return false;
+        }
+        ApplicantAppStatus status = approve ? ApplicantAppStatus.SUCCESSFUL : ApplicantAppStatus.UNSUCCESSFUL;
+        if (!ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.PENDING, status)) {
+            System.out.println("Application " + application.getApplicationID() + " is no longer pending.");
+            return false;
+        }
+
+        try {
+            ApplicationRepository.saveApplication(application);
+        } catch (IOException e) {
+            System.out.println("Error saving decision: " + e.getMessage());
+            ApplicationRepository.compareAndSetStatus(application, status, ApplicantAppStatus.PENDING);
+            return false;
+        }
+        System.out.println(approve ? "Application approved successfully." : "Application rejected successfully.");
         return true;
     }
 
+    /**
+     * Allows HDB manager to approve or reject many pending applications at once.
+     * <p>
+     * The applications are chosen by their IDs, by flat type, or as the first N in the order
+     * they were submitted, and every decision is saved in a single write.
+     * </p>
+     *
+     * @param manager The HDB manager making the decisions
+     * @return true if at least one decision was saved, false otherwise
+     */
+    public boolean batchApproveOrRejectApplications(Manager manager) {
+        Scanner scanner = SessionConsole.getScanner();
+
+        Project managedProject = getManagedActiveProject(manager);
+        if (managedProject == null) {
+            System.out.println("Error: No project found for manager " + manager.getNRIC());
+            return false;
+        }
+        System.out.println("Found project: " + managedProject.getProjectID() + " - " + managedProject.getProjectName());
+
+        List<Application> pendingApplications = getPendingApplicationsByProject(managedProject);
+        if (pendingApplications.isEmpty()) {
+            System.out.println("No pending applications to approve for project " + managedProject.getProjectID());
+            return false;
+        }
+
+        Map<FlatType, Integer> pendingByFlatType = new EnumMap<>(FlatType.class);
+        for (Application application : pendingApplications) {
+            pendingByFlatType.merge(application.getFlatType(), 1, Integer::sum);
+        }
+        System.out.println("\nPending applications: " + pendingApplications.size());
+        for (Map.Entry<FlatType, Integer> entry : pendingByFlatType.entrySet()) {
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+        }
+
+        System.out.println("\nSelect applications by:");
+        System.out.println("1. Application IDs");
+        System.out.println("2. Flat type");
+        System.out.println("3. First N in submission order");
+        System.out.println("0. Cancel");
+        System.out.print("Enter your choice: ");
+        String mode = scanner.nextLine().trim();
+
+        List<Application> selected = new ArrayList<>();
+        switch (mode) {
+            case "1":
+                Map<String, Application> pendingByID = new LinkedHashMap<>();
+                for (Application application : pendingApplications) {
+                    pendingByID.put(application.getApplicationID(), application);
+                }
+                System.out.print("Enter the application IDs, separated by commas: ");
+                for (String id : scanner.nextLine().split(",")) {
+                    id = id.trim();
+                    if (id.isEmpty()) {
+                        continue;
+                    }
+                    Application application = pendingByID.get(id);
+                    if (application == null) {
+                        System.out.println("Skipping " + id + ": not a pending application for this project.");
+                    } else {
+                        selected.add(application);
+                    }
+                }
+                break;
+            case "2":
+                System.out.print("Enter flat type (e.g., TWO_ROOMS, THREE_ROOMS): ");
+                FlatType flatType;
+                try {
+                    flatType = FlatType.valueOf(scanner.nextLine().trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Invalid flat type.");
+                    return false;
+                }
+                for (Application application : pendingApplications) {
+                    if (application.getFlatType() == flatType) {
+                        selected.add(application);
+                    }
+                }
+                break;
+            case "3":
+                System.out.print("Enter the number of applications: ");
+                int count;
+                try {
+                    count = Integer.parseInt(scanner.nextLine().trim());
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid number.");
+                    return false;
+                }
+                if (count <= 0) {
+                    System.out.println("Invalid number.");
+                    return false;
+                }
+                // Pending applications are listed in the order they were submitted
+                selected.addAll(pendingApplications.subList(0, Math.min(count, pendingApplications.size())));
+                break;
+            case "0":
+                System.out.println("Operation cancelled.");
+                return false;
+            default:
+                System.out.println("Invalid option.");
+                return false;
+        }
+
+        if (selected.isEmpty()) {
+            System.out.println("No applications selected.");
+            return false;
+        }
+        System.out.println("Enter 1 to approve or 0 to reject the " + selected.size() + " selected applications:");
+        String actionInput = scanner.nextLine().trim();
+        if (!actionInput.equals("0") && !actionInput.equals("1")) {
+            System.out.println("Invalid input. Please enter 0 or 1.");
+            return false;
+        }
+        return decideApplications(manager, selected, actionInput.equals("1")) > 0;
+    }
+
+    /**
+     * Approves or rejects many pending applications without prompting for input, saving every
+     * decision in a single write.
+     * <p>
+     * Each application is moved on from PENDING with a check-and-set, so an application that
+     * another session decided on or withdrew in the meantime is skipped rather than overwritten.
+     * Applications that are not for the manager's active project or are no longer pending are
+     * skipped with a message. The batch is written in one update that either saves every
+     * record or none, and if it cannot be saved every claimed application is returned to PENDING.
+     * </p>
+     *
+     * @param manager The HDB manager making the decisions
+     * @param applications The applications to decide on
+     * @param approve true to approve the applications, false to reject them
+     * @return The number of applications decided on
+     */
+    public int decideApplications(Manager manager, List<Application> applications, boolean approve) {
+        Project managedProject = getManagedActiveProject(manager);
+        if (managedProject == null) {
+            System.out.println("Error: No project found for manager " + manager.getNRIC());
+            return 0;
+        }
+
+        ApplicantAppStatus status = approve ? ApplicantAppStatus.SUCCESSFUL : ApplicantAppStatus.UNSUCCESSFUL;
+        List<Application> decided = new ArrayList<>();
+        for (Application application : new LinkedHashSet<>(applications)) {
+            if (!application.getProject().getProjectID().equals(managedProject.getProjectID())) {
+                System.out.println("Skipping " + application.getApplicationID() + ": not for a project you manage.");
+            } else if (!ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.PENDING, status)) {
+                System.out.println("Skipping " + application.getApplicationID() + ": no longer pending.");
+            } else {
+                decided.add(application);
+            }
+        }
+        if (decided.isEmpty()) {
+            System.out.println("No applications were updated.");
+            return 0;
+        }
+
+        try {
+            ApplicationRepository.saveApplications(decided);
+        } catch (IOException e) {
+            System.out.println("Error saving decisions: " + e.getMessage());
+            // Not yet re-indexed, so only the claims need undoing
+            for (Application application : decided) {
+                ApplicationRepository.compareAndSetStatus(application, status, ApplicantAppStatus.PENDING);
+            }
+            return 0;
+        }
+        System.out.println(decided.size() + (approve ? " applications approved successfully." : " applications rejected successfully."));
+        return decided.size();
+    }
+
     /**
      * Gets all applications with PENDING status for a specific project.
      *
@@ -184,14 +383,8 @@ public class HDBManagerController implements ViewProjectInterface {
 
         // Find all applications for this project with PENDING status
         try {
-            for (Application application : applicationRepository.loadApplications()) {
-                if (projectID.equals(application.getProject().getProjectID()) &&
-                        application.getApplicationStatus() == ApplicantAppStatus.PENDING &&
-                        application.getWithdrawalStatus() == WithdrawalStatus.NULL) {
-
-                    pendingApplications.add(application);
-                }
-            }
+            pendingApplications.addAll(applicationRepository.findApplications(projectID, null,
+                    ApplicantAppStatus.PENDING, WithdrawalStatus.NULL));
         } catch (IOException e) {
             System.out.println("Error loading applications: " + e.getMessage());
             System.out.println("Returning empty list of pending applications");
@@ -290,7 +483,7 @@ public class HDBManagerController implements ViewProjectInterface {
      * @param user The user (HDB manager) viewing the projects
      */
     public void viewProject(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Manager manager = (Manager) user;
 
         // Step 1: Show all projects
@@ -324,7 +517,7 @@ public class HDBManagerController implements ViewProjectInterface {
     public void approveOrRejectWithdrawal(User user) {
         Manager manager = (Manager) user;
         ArrayList<Application> pendingWithdrawal = new ArrayList<>();
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Project managedProject = null;
         Application selectedApp = null; // Added declaration for selectedApp
 
@@ -339,12 +532,8 @@ public class HDBManagerController implements ViewProjectInterface {
         System.out.println("Looking for pending withdrawal applications in project: " + managedProject.getProjectID());
 
         try {
-            for (Application application : applicationRepository.loadApplications()) {
-                if (application.getProject().getProjectID().equals(managedProject.getProjectID()) &&
-                        application.getWithdrawalStatus() == WithdrawalStatus.PENDING) {
-                    pendingWithdrawal.add(application);
-                }
-            }
+            pendingWithdrawal.addAll(applicationRepository.findApplications(managedProject.getProjectID(), null,
+                    null, WithdrawalStatus.PENDING));
         } catch (IOException e) {
             System.out.println("Error loading applications: " + e.getMessage());
             return;
@@ -400,17 +589,45 @@ public class HDBManagerController implements ViewProjectInterface {
             return;
         }
 
-        if (actionInput.equals("1")) {
-            selectedApp.setWithdrawalStatus(WithdrawalStatus.APPROVED);
-            System.out.println("Withdrawal approved for Application ID: " + selectedApp.getApplicationID());
-            // Save changes to CSV
-            ApplicationRepository.updateApplicationInCSV(selectedApp);
-        } else {
-            selectedApp.setWithdrawalStatus(WithdrawalStatus.REJECTED);
-            System.out.println("Withdrawal rejected for Application ID: " + selectedApp.getApplicationID());
-            // Save changes to CSV
-            ApplicationRepository.updateApplicationInCSV(selectedApp);
+        decideWithdrawal(manager, selectedApp, actionInput.equals("1"));
+    }
+
+    /**
+     * Approves or rejects a pending withdrawal without prompting for input.
+     * The application must belong to the manager's active project and have a pending withdrawal.
+     * <p>
+     * The withdrawal is claimed with a check-and-set before it is saved, so two managers deciding
+     * it at once cannot both succeed. If it cannot be saved, it is left pending.
+     * </p>
+     *
+     * @param manager The HDB manager making the decision
+     * @param application The application whose withdrawal is decided on
+     * @param approve true to approve the withdrawal, false to reject it
+     * @return true if the decision was saved, false otherwise
+     */
+    public boolean decideWithdrawal(Manager manager, Application application, boolean approve) {
+        Project managedProject = getManagedActiveProject(manager);
+        if (managedProject == null
+                || !application.getProject().getProjectID().equals(managedProject.getProjectID())) {
+            System.out.println("Application " + application.getApplicationID() + " is not for a project you manage.");
+            return false;
+        }
+        WithdrawalStatus status = approve ? WithdrawalStatus.APPROVED : WithdrawalStatus.REJECTED;
+        if (!ApplicationRepository.compareAndSetWithdrawalStatus(application, WithdrawalStatus.PENDING, status)) {
+            System.out.println("Application " + application.getApplicationID() + " has no pending withdrawal.");
+            return false;
+        }
+
+        try {
+            ApplicationRepository.saveApplication(application);
+        } catch (IOException e) {
+            System.out.println("Error saving decision: " + e.getMessage());
+            ApplicationRepository.compareAndSetWithdrawalStatus(application, status, WithdrawalStatus.PENDING);
+            return false;
         }
+        System.out.println((approve ? "Withdrawal approved" : "Withdrawal rejected") + " for Application ID: "
+                + application.getApplicationID());
+        return true;
     }
 
     /**
@@ -420,7 +637,7 @@ public class HDBManagerController implements ViewProjectInterface {
      * @param user The HDB manager reviewing the registrations
      */
     public void reviewOfficerRegistration(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Manager manager = (Manager) user;
         OfficerRegRepository officerRegRepository = new OfficerRegRepository();
         List<OfficerRegistration> registrations;
@@ -487,7 +704,7 @@ public class HDBManagerController implements ViewProjectInterface {
      */
     public void approveOrRejectOfficerRegistration(User user) {
         Manager manager = (Manager) user;
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Project managedProject;
 
         managedProject = getManagedActiveProject(manager);
@@ -607,7 +824,7 @@ public class HDBManagerController implements ViewProjectInterface {
      * @param user The HDB manager generating the report
      */
     public void generateReports(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         ReportController reportController = new ReportController();
 
         System.out.println("\n+---------------------------------------------------+");
@@ -616,6 +833,7 @@ public class HDBManagerController implements ViewProjectInterface {
         System.out.println("| 1. Application Status Report                      |");
         System.out.println("| 2. Booked Applications Report                     |");
         System.out.println("| 3. Project Summary Report                         |");
+        System.out.println("| 4. Export Report to File                          |");
         System.out.println("| 0. Back to Main Menu                              |");
         System.out.println("+---------------------------------------------------+");
         System.out.print("Enter your choice: ");
@@ -633,6 +851,9 @@ public class HDBManagerController implements ViewProjectInterface {
                 case 3:
                     reportController.generateReport("PROJECT_SUMMARY");
                     break;
+                case 4:
+                    exportReport(scanner, reportController);
+                    break;
                 case 0:
                     System.out.println("Returning to main menu...");
                     return;
@@ -655,4 +876,23 @@ public class HDBManagerController implements ViewProjectInterface {
             System.out.println("Error generating report: " + e.getMessage());
         }
     }
+
+    /**
+     * Asks which report to export and exports it to a file.
+     *
+     * @param scanner The Scanner to read the choice from
+     * @param reportController The controller that exports the report
+     */
+    private void exportReport(Scanner scanner, ReportController reportController) {
+        System.out.println("Select Report to Export:");
+        System.out.println("1. Application Status Report");
+        System.out.println("2. Booked Applications Report");
+        System.out.println("3. Project Summary Report");
+        switch (scanner.nextLine().trim()) {
+            case "1" -> reportController.exportReport("APPLICATION_STATUS");
+            case "2" -> reportController.exportReport("BOOKED_APPLICATIONS");
+            case "3" -> reportController.exportReport("PROJECT_SUMMARY");
+            default -> System.out.println("Invalid choice. Export cancelled.");
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package controller;
 
 import enums.*;
+import helper.SessionConsole;
 import model.*;
 import repository.ApplicationRepository;
 import repository.OfficerRegRepository;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 public class HDBOfficerController extends ApplicantController implements ViewProjectInterface {
     private final ProjectRepository projectRepository = new ProjectRepository();
     private final ApplicantController applicantController = new ApplicantController();
+    private final InventoryController inventoryController = new InventoryController();
 
     /**
      * Displays available projects and provides filtering options.
@@ -29,7 +31,7 @@ public class HDBOfficerController extends ApplicantController implements ViewPro
      * @param user The officer user viewing the projects
      */
     public void viewProject(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Officer officer = (Officer) user;
 
         // Step 1: Show all projects
@@ -205,7 +207,8 @@ public class HDBOfficerController extends ApplicantController implements ViewPro
                 return successfulApplications;
             }
 
-            for (Application application : applicationRepo.loadApplications()) {
+            for (Application application : applicationRepo.findApplications(inChargeProject.getProjectID(), null,
+                    ApplicantAppStatus.SUCCESSFUL, null)) {
                 if (application.getProject().getProjectID().equals(inChargeProject.getProjectID()) &&
                         application.getApplicationStatus() == ApplicantAppStatus.SUCCESSFUL &&
                         application.getWithdrawalStatus() != WithdrawalStatus.PENDING) {
@@ -220,15 +223,15 @@ public class HDBOfficerController extends ApplicantController implements ViewPro
 
     /**
      * Allows an officer to book a BTO flat for successful applicants.
-     * Displays successful applications, allows selection, verifies unit availability,
-     * updates application status to BOOKED, and generates a receipt.
+     * Displays successful applications, allows selection, reserves a unit through the
+     * InventoryController, updates application status to BOOKED, and generates a receipt.
      *
      * @param user The officer user performing the booking
      */
     public void bookBTO(User user) {
         ApplicationController applicationController = new ApplicationController();
         ReceiptController receiptController = new ReceiptController();
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         List<Application> successfulApplications = getSuccessfulApplicationsForOfficerProject(user);
 
         if (successfulApplications.isEmpty()) {
@@ -265,22 +268,9 @@ public class HDBOfficerController extends ApplicantController implements ViewPro
             return;
         }
 
-        Project selectedProject = selectedApplication.getProject();
-        FlatType selectedFlatType = selectedApplication.getFlatType();
-        Map<FlatType, Integer> flatTypeUnits = selectedProject.getFlatTypeUnits();
-
-        int currentUnits = flatTypeUnits.getOrDefault(selectedFlatType, 0);
-        if (currentUnits > 0) {
-            flatTypeUnits.put(selectedFlatType, currentUnits - 1);
-            selectedProject.setFlatTypeUnits(flatTypeUnits);
-            ProjectRepository.updateProjectInCSV(selectedProject);
-
-            selectedApplication.setApplicationStatus(ApplicantAppStatus.BOOKED);
-            ApplicationRepository.updateApplicationInCSV(selectedApplication);
+        if (inventoryController.bookUnit(selectedApplication)) {
             System.out.println("Booking successful! Application status updated to BOOKED.");
             receiptController.generateBookingReceipt(selectedApplication, user);
-        } else {
-            System.out.println("No units left to book for " + selectedFlatType);
         }
     }
 }
\ No newline at end of file
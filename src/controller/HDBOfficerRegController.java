@@ -2,6 +2,7 @@ package controller;
 
 import enums.ApplicantAppStatus;
 import enums.OfficerRegStatus;
+import helper.SessionConsole;
 import model.*;
 import repository.ApplicationRepository;
 import repository.OfficerRegRepository;
@@ -71,7 +72,7 @@ public class HDBOfficerRegController {
         Officer officer = (Officer) user;
         ProjectController projectController = new ProjectController();
         HDBOfficerController officerController = new HDBOfficerController();
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         Project inChargeActiveProject = getInChargeActiveProject(officer);
         if (inChargeActiveProject != null) {
             System.out.println("You are in charge of an active project. You cannot register for another project.");
@@ -154,7 +155,7 @@ public class HDBOfficerRegController {
         ApplicationRepository applicationRepo = new ApplicationRepository();
         List<Application> applications = new ArrayList<>();
         try{
-            applications = applicationRepo.loadApplications();
+            applications = applicationRepo.findApplications(project.getProjectID(), officer.getNRIC(), null, null);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,211 @@
+package controller;
+
+import enums.ApplicantAppStatus;
+import enums.FlatType;
+import model.Application;
+import model.Project;
+import repository.ApplicationRepository;
+import repository.ProjectRepository;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Controller class for reserving flat units when officers book flats.
+ * <p>
+ * The units left in each project are kept in atomic counters, one per flat type, shared by
+ * every officer in the system. A unit is reserved by decrementing its counter with a
+ * compare-and-set, so two officers booking the last unit at the same moment cannot both get
+ * it, and bookings for different projects or flat types never wait for each other.
+ * </p>
+ * <p>
+ * Before a unit is reserved, the application is claimed by moving it from SUCCESSFUL to
+ * BOOKED in one atomic step, so two officers booking the same application at once cannot
+ * both reserve a unit for it. Once a unit is reserved, the project's unit count and the
+ * application are saved. If either write fails, the unit is put back and the application
+ * is returned to SUCCESSFUL.
+ * </p>
+ */
+public class InventoryController {
+    /**
+     * The counters for one project.
+     * <p>
+     * The counters are seeded from the units map the project held at the time. A manager
+     * editing the units, or the project being reloaded from the data files, gives the project
+     * a new map, and the counters are seeded again from it.
+     * </p>
+     */
+    private static class Stock {
+        /** The units map the counters were seeded from */
+        private final Map<FlatType, Integer> source;
+
+        /** Units left for each flat type, indexed by the flat type's ordinal */
+        private final AtomicIntegerArray units;
+
+        /**
+         * Constructs the counters for a project from its units map.
+         *
+         * @param source The project's units map
+         */
+        private Stock(Map<FlatType, Integer> source) {
+            this.source = source;
+            this.units = new AtomicIntegerArray(FlatType.values().length);
+            for (FlatType flatType : FlatType.values()) {
+                units.set(flatType.ordinal(), source.getOrDefault(flatType, 0));
+            }
+        }
+    }
+
+    /** The counters of each project, by project ID */
+    private static final Map<String, Stock> stocks = new ConcurrentHashMap<>();
+
+    /**
+     * Books a unit of the application's flat type and marks the application as booked.
+     * <p>
+     * Nothing is changed if the application is no longer successful, for example because
+     * another officer has just booked it, or if no units are left. If the booking cannot be
+     * saved, the reserved unit is released again so that another applicant can book it.
+     * </p>
+     *
+     * @param application The successful application to book a flat for
+     * @return true if the flat was booked and saved, false otherwise
+     */
+    public boolean bookUnit(Application application) {
+        Project project = application.getProject();
+        FlatType flatType = application.getFlatType();
+        Stock stock = stockFor(project);
+
+        if (!ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.SUCCESSFUL,
+                ApplicantAppStatus.BOOKED)) {
+            System.out.println("Application " + application.getApplicationID() + " is no longer "
+                    + "successful. It may have just been booked by another officer.");
+            return false;
+        }
+
+        if (!reserve(stock, flatType)) {
+            System.out.println("No units left to book for " + flatType);
+            unclaim(application);
+            return false;
+        }
+
+        try {
+            saveUnits(project, stock);
+        } catch (IOException e) {
+            System.out.println("Error saving booking: " + e.getMessage());
+            release(project, stock, flatType);
+            unclaim(application);
+            return false;
+        }
+
+        try {
+            ApplicationRepository.saveApplication(application);
+        } catch (IOException e) {
+            System.out.println("Error saving booking: " + e.getMessage());
+            unclaim(application);
+            release(project, stock, flatType);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a claimed application that could not be booked to SUCCESSFUL.
+     * <p>
+     * The application was only re-indexed if it was saved, so the indexes still list it as
+     * successful.
+     * </p>
+     *
+     * @param application The application
+     */
+    private static void unclaim(Application application) {
+        ApplicationRepository.compareAndSetStatus(application, ApplicantAppStatus.BOOKED,
+                ApplicantAppStatus.SUCCESSFUL);
+    }
+
+    /**
+     * Gets the counters of a project, seeding them if the project has none yet or its units
+     * map was replaced since they were seeded.
+     *
+     * @param project The project
+     * @return The project's counters
+     */
+    private static Stock stockFor(Project project) {
+        Stock stock = stocks.get(project.getProjectID());
+        if (stock != null && stock.source == project.getFlatTypeUnits()) {
+            return stock;
+        }
+        synchronized (project) {
+            Map<FlatType, Integer> source = project.getFlatTypeUnits();
+            return stocks.compute(project.getProjectID(),
+                    (id, current) -> current != null && current.source == source ? current : new Stock(source));
+        }
+    }
+
+    /**
+     * Takes one unit of a flat type if any are left.
+     *
+     * @param stock The project's counters
+     * @param flatType The flat type to reserve
+     * @return true if a unit was reserved, false if none are left
+     */
+    private static boolean reserve(Stock stock, FlatType flatType) {
+        int index = flatType.ordinal();
+        while (true) {
+            int left = stock.units.get(index);
+            if (left <= 0) {
+                return false;
+            }
+            if (stock.units.compareAndSet(index, left, left - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Puts a reserved unit back and saves the project's restored unit count, unless the
+     * project's units were replaced meanwhile.
+     *
+     * @param project The project
+     * @param stock The counters the unit was reserved from
+     * @param flatType The flat type of the unit
+     */
+    private static void release(Project project, Stock stock, FlatType flatType) {
+        stock.units.incrementAndGet(flatType.ordinal());
+        if (project.getFlatTypeUnits() != stock.source) {
+            return; // The counters were replaced, and the new ones never counted this unit as taken
+        }
+        try {
+            saveUnits(project, stock);
+        } catch (IOException e) {
+            System.out.println("Error restoring unit count: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the counters into the project and saves it.
+     * <p>
+     * This is done while holding the project's lock, so saves of one project never overlap and
+     * the last one written always carries the latest counts.
+     * </p>
+     *
+     * @param project The project
+     * @param stock The project's counters
+     * @throws IOException If the project cannot be saved
+     */
+    private static void saveUnits(Project project, Stock stock) throws IOException {
+        synchronized (project) {
+            if (project.getFlatTypeUnits() != stock.source) {
+                // The units were edited while this booking ran, so the counters no longer apply
+                throw new IOException("The unit count of " + project.getProjectID() + " was changed. Please try again.");
+            }
+            for (FlatType flatType : FlatType.values()) {
+                if (stock.source.containsKey(flatType) || stock.units.get(flatType.ordinal()) != 0) {
+                    project.setUnitsForFlatType(flatType, stock.units.get(flatType.ordinal()));
+                }
+            }
+            ProjectRepository.saveProject(project);
+        }
+    }
+}
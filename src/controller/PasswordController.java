@@ -1,5 +1,6 @@
 package controller;
 
+import helper.SessionConsole;
 import model.User;
 
 import java.security.MessageDigest;
@@ -71,7 +72,7 @@ public class PasswordController {
      */
     public void handlePasswordChange(User user){
         String nric = user.getNRIC();
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
 
         String role = userLoginRepository.getUserTypeByNRIC(nric);
         RepositoryController repositoryController = new RepositoryController();
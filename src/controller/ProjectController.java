@@ -9,6 +9,7 @@ import model.User;
 import repository.ApplicationRepository;
 import repository.ManagerRepository;
 import repository.ProjectRepository;
+import helper.SessionConsole;
 
 import java.io.IOException;
 import java.text.ParseException;
@@ -139,7 +140,7 @@ public class ProjectController {
      * @param user The manager creating the project
      */
     public void createProject(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         try {
             // Collect project data from user input
             String projectID = projectRepository.generateNextProjectID();  // auto-generate
@@ -244,7 +245,7 @@ public class ProjectController {
      */
     public void updateProjectDetails(User user) {
         Manager manager = (Manager) user;
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         HDBManagerController hdbManagerController = new HDBManagerController();
         SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
         sdf.setLenient(false);
@@ -374,7 +375,7 @@ public class ProjectController {
      * @param user The manager deleting the project
      */
     public void deleteProject(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         HDBManagerController hdbManagerController = new HDBManagerController();
         ApplicationRepository applicationRepository = new ApplicationRepository();
         hdbManagerController.viewProject(user);
@@ -392,7 +393,7 @@ public class ProjectController {
 
         try{
             // Check if there are any applications associated with the project
-            List<Application> applications = applicationRepository.loadApplications();
+            List<Application> applications = applicationRepository.findApplicationsByProject(projectId);
             for (Application application : applications) {
                 if (application.getProject().getProjectID().equals(projectId)) {
                     System.out.println("Cannot delete project with existing applications.");
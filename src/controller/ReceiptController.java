@@ -110,7 +110,7 @@ public class ReceiptController {
         try {
             ApplicationRepository applicationRepo = new ApplicationRepository();
             Application app = null;
-            for (Application application: applicationRepo.loadApplications()){
+            for (Application application: applicationRepo.findApplicationsByNRIC(user.getNRIC())){
                 if (application.getUser() != null && application.getUser().getNRIC().equals(user.getNRIC())) {
                     app = application;
                 }
@@ -2,30 +2,177 @@ package controller;
 
 import model.Project;
 import model.Application;
+import model.ReportSpec;
 import enums.ApplicantAppStatus;
+import enums.ExportFormat;
 import enums.FlatType;
+import enums.ReportDimension;
+import enums.ReportType;
 import enums.WithdrawalStatus;
 import repository.ApplicationRepository;
 import repository.ProjectRepository;
+import helper.SessionConsole;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Controller class responsible for generating various types of reports.
  * Provides functionality for creating application status reports, booked applications reports,
  * and project summary reports with various filtering options.
+ * <p>
+ * A report is described by a {@link ReportSpec} and produced by {@link #generate(ReportSpec)}
+ * as a {@link ReportResult}, which the menus print and the HTTP service turns into JSON. The
+ * totals every report shows are read from a {@link ReportCube}, which is filled in the same
+ * pass that lists the applications, or from the application counts kept for each project.
+ * </p>
+ * <p>
+ * Results are cached by spec together with the data version they were worked out at. The
+ * data version goes up on every write, so a cached result is reused until something changes
+ * and a refresh in between costs one map lookup.
+ * </p>
+ * <p>
+ * Large application reports are worked out on a fork/join pool: the applications are split
+ * into chunks, each chunk is filtered and counted into its own cube, and the partial results
+ * are merged in order. The pool has one thread per processor unless
+ * {@code -Dbtoms.report.parallelism} says otherwise; a parallelism of 1 works out every report
+ * on the calling thread.
+ * </p>
  */
 public class ReportController {
+    /** The largest number of results kept in the cache */
+    private static final int MAX_CACHED_REPORTS = 64;
+
+    /** Report results by spec, shared by every controller */
+    private static final Map<ReportSpec, ReportResult> cache = new ConcurrentHashMap<>();
+
+    /** The most applications one task goes through before it splits its share in two */
+    private static final int SWEEP_CHUNK_SIZE = 1 << 14;
+
+    /** The number of threads used to work out a report */
+    private static final int PARALLELISM = Math.max(1,
+            Integer.getInteger("btoms.report.parallelism", Runtime.getRuntime().availableProcessors()));
+
+    /** The pool large reports are worked out on, shared by every controller */
+    private static final ForkJoinPool reportPool = new ForkJoinPool(PARALLELISM);
+
     private final ApplicationRepository applicationRepository;
     private final ProjectRepository projectRepository;
 
+    /**
+     * The result of a report.
+     * <p>
+     * Results may be shared between callers through the cache, so they must not be changed.
+     * </p>
+     */
+    public static class ReportResult {
+        /** The spec the report was generated for */
+        private final ReportSpec spec;
+
+        /** The data version the report was worked out at */
+        private final long dataVersion;
+
+        /** When the report was worked out */
+        private final Date generatedAt;
+
+        /** The applications listed by the report */
+        private final List<Application> applications;
+
+        /** The projects summarised by the report */
+        private final List<Project> projects;
+
+        /** The totals of the report */
+        private final ReportCube cube;
+
+        /**
+         * Constructs the result of a report.
+         *
+         * @param spec The spec the report was generated for
+         * @param dataVersion The data version the report was worked out at
+         * @param applications The applications listed by the report
+         * @param projects The projects summarised by the report
+         * @param cube The totals of the report
+         */
+        private ReportResult(ReportSpec spec, long dataVersion, List<Application> applications,
+                             List<Project> projects, ReportCube cube) {
+            this.spec = spec;
+            this.dataVersion = dataVersion;
+            this.generatedAt = new Date();
+            this.applications = List.copyOf(applications);
+            this.projects = List.copyOf(projects);
+            this.cube = cube;
+        }
+
+        /**
+         * Gets the spec the report was generated for.
+         *
+         * @return The report spec
+         */
+        public ReportSpec getSpec() {
+            return spec;
+        }
+
+        /**
+         * Gets the data version the report was worked out at.
+         *
+         * @return The data version
+         */
+        public long getDataVersion() {
+            return dataVersion;
+        }
+
+        /**
+         * Gets when the report was worked out.
+         *
+         * @return The time the report was generated
+         */
+        public Date getGeneratedAt() {
+            return new Date(generatedAt.getTime());
+        }
+
+        /**
+         * Gets the applications listed by the report.
+         *
+         * @return The applications in store order, or an empty list for a project summary
+         */
+        public List<Application> getApplications() {
+            return applications;
+        }
+
+        /**
+         * Gets the projects summarised by the report.
+         *
+         * @return The projects, or an empty list for a report that lists applications
+         */
+        public List<Project> getProjects() {
+            return projects;
+        }
+
+        /**
+         * Gets the totals of the report.
+         * <p>
+         * The cube is over {@link ReportDimension#STATUS} for an application status report,
+         * {@link ReportDimension#FLAT_TYPE} for a booked applications report, and
+         * {@link ReportDimension#PROJECT}, {@link ReportDimension#FLAT_TYPE} and
+         * {@link ReportDimension#STATUS} for a project summary.
+         * </p>
+         *
+         * @return The report cube
+         */
+        public ReportCube getCube() {
+            return cube;
+        }
+    }
+
     /**
      * Constructs a ReportController with initialized repositories.
      * Initializes application and project repositories for data access.
@@ -38,22 +185,23 @@ public class ReportController {
     /**
      * Generates a report based on the specified report type.
      * Available report types include APPLICATION_STATUS, BOOKED_APPLICATIONS, and PROJECT_SUMMARY.
+     * The filters are read from the user, and the report is printed.
      *
      * @param reportType The type of report to generate (case-insensitive)
      */
     public void generateReport(String reportType) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
 
         try {
             switch (reportType.toUpperCase()) {
                 case "APPLICATION_STATUS":
-                    generateApplicationStatusReport(scanner);
+                    printApplicationStatusReport(generate(readApplicationStatusSpec(scanner)));
                     break;
                 case "BOOKED_APPLICATIONS":
-                    generateBookedApplicationsReport(scanner);
+                    printBookedApplicationsReport(generate(readBookedApplicationsSpec(scanner)));
                     break;
                 case "PROJECT_SUMMARY":
-                    generateProjectSummaryReport(scanner);
+                    printProjectSummaryReport(generate(readProjectSummarySpec(scanner)));
                     break;
                 default:
                     System.out.println("Invalid report type. Available reports: APPLICATION_STATUS, BOOKED_APPLICATIONS, PROJECT_SUMMARY");
@@ -64,16 +212,244 @@ public class ReportController {
     }
 
     /**
-     * Generates a report showing application statuses with various filtering options.
+     * Exports a report to a CSV or JSON file.
+     * The filters, the format and the file are read from the user.
+     *
+     * @param reportType The type of report to export (case-insensitive)
+     */
+    public void exportReport(String reportType) {
+        Scanner scanner = SessionConsole.getScanner();
+
+        ReportSpec spec;
+        switch (reportType.toUpperCase()) {
+            case "APPLICATION_STATUS":
+                spec = readApplicationStatusSpec(scanner);
+                break;
+            case "BOOKED_APPLICATIONS":
+                spec = readBookedApplicationsSpec(scanner);
+                break;
+            case "PROJECT_SUMMARY":
+                spec = readProjectSummarySpec(scanner);
+                break;
+            default:
+                System.out.println("Invalid report type. Available reports: APPLICATION_STATUS, BOOKED_APPLICATIONS, PROJECT_SUMMARY");
+                return;
+        }
+
+        System.out.println("Select File Format:");
+        System.out.println("1. CSV");
+        System.out.println("2. JSON");
+        ExportFormat format = switch (scanner.nextLine().trim()) {
+            case "1" -> ExportFormat.CSV;
+            case "2" -> ExportFormat.JSON;
+            default -> null;
+        };
+        if (format == null) {
+            System.out.println("Invalid choice. Export cancelled.");
+            return;
+        }
+
+        String defaultFile = "reports/" + spec.getType().name().toLowerCase() + "_"
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "." + format.name().toLowerCase();
+        System.out.print("Enter the file to write (or leave blank for " + defaultFile + "): ");
+        String file = scanner.nextLine().trim();
+        new ReportExporter().exportToFile(spec, format, Path.of(file.isEmpty() ? defaultFile : file));
+    }
+
+    /**
+     * Generates a report without prompting for input.
+     * <p>
+     * If the same report was generated before and no data has changed since, the earlier
+     * result is returned.
+     * </p>
+     *
+     * @param spec The report type and filters
+     * @return The result of the report
+     * @throws IOException If there's an error loading projects or applications from repositories
+     */
+    public ReportResult generate(ReportSpec spec) throws IOException {
+        // Read the version first, so that a write made while the report is worked out makes it stale
+        long version = applicationRepository.getDataVersion();
+        ReportResult cached = cache.get(spec);
+        if (cached != null && cached.getDataVersion() == version) {
+            return cached;
+        }
+
+        ReportResult result = switch (spec.getType()) {
+            case APPLICATION_STATUS -> listApplications(spec, spec.getStatus(), ReportDimension.STATUS, version);
+            case BOOKED_APPLICATIONS -> listApplications(spec, ApplicantAppStatus.BOOKED, ReportDimension.FLAT_TYPE, version);
+            case PROJECT_SUMMARY -> summarize(spec, version);
+        };
+
+        if (cache.size() >= MAX_CACHED_REPORTS) {
+            // Results from before the last write are never used again, so drop them first
+            cache.values().removeIf(stale -> stale.getDataVersion() != version);
+            if (cache.size() >= MAX_CACHED_REPORTS) {
+                cache.clear();
+            }
+        }
+        cache.put(spec, result);
+        return result;
+    }
+
+    /**
+     * Lists the applications matching a spec and counts them in one pass.
+     *
+     * @param spec The report spec
+     * @param status The application status to list, or null for every status
+     * @param dimension The dimension to count the applications by
+     * @param version The data version the report is worked out at
+     * @return The result of the report
+     * @throws IOException If there's an error loading projects or applications from repositories
+     */
+    private ReportResult listApplications(ReportSpec spec, ApplicantAppStatus status, ReportDimension dimension,
+                                          long version) throws IOException {
+        WithdrawalStatus withdrawalStatus = spec.getType() == ReportType.APPLICATION_STATUS
+                ? spec.getWithdrawalStatus() : null;
+        ReportCube cube = new ReportCube(List.of(dimension), projectRepository.loadProjects());
+        List<Application> found = applicationRepository.findApplications(spec.getProjectID(), null, status,
+                withdrawalStatus);
+        // A task computed on this thread would still fork its halves into the common pool, so small
+        // reports and a parallelism of 1 sweep the applications directly
+        Sweep sweep = PARALLELISM == 1 || found.size() <= SWEEP_CHUNK_SIZE
+                ? SweepTask.sweep(found, 0, found.size(), spec.getFlatType(), cube)
+                : reportPool.invoke(new SweepTask(found, 0, found.size(), spec.getFlatType(), cube));
+        return new ReportResult(spec, version, sweep.applications, List.of(), sweep.cube);
+    }
+
+    /**
+     * The applications a sweep kept and the cube it counted them in.
+     */
+    private static class Sweep {
+        /** The applications kept, in their original order */
+        private final List<Application> applications;
+
+        /** The cube the kept applications were counted in */
+        private final ReportCube cube;
+
+        /**
+         * Constructs the result of a sweep.
+         *
+         * @param applications The applications kept
+         * @param cube The cube they were counted in
+         */
+        Sweep(List<Application> applications, ReportCube cube) {
+            this.applications = applications;
+            this.cube = cube;
+        }
+    }
+
+    /**
+     * Filters a range of applications by flat type and counts the ones kept, splitting the
+     * range between two subtasks while it is larger than {@link #SWEEP_CHUNK_SIZE}.
+     */
+    private static class SweepTask extends RecursiveTask<Sweep> {
+        /** Version of the serialized form of this task, which is never serialized */
+        private static final long serialVersionUID = 1L;
+
+        /** The applications to sweep */
+        private final transient List<Application> applications;
+
+        /** The index of the first application in this task's range */
+        private final int from;
+
+        /** The index after the last application in this task's range */
+        private final int to;
+
+        /** The flat type to keep, or null to keep every application */
+        private final FlatType flatType;
+
+        /** The cube this task fills, which no other task touches */
+        private final transient ReportCube cube;
+
+        /**
+         * Constructs a task over a range of applications.
+         *
+         * @param applications The applications to sweep
+         * @param from The index of the first application in the range
+         * @param to The index after the last application in the range
+         * @param flatType The flat type to keep, or null to keep every application
+         * @param cube An empty cube for this task to fill
+         */
+        SweepTask(List<Application> applications, int from, int to, FlatType flatType, ReportCube cube) {
+            this.applications = applications;
+            this.from = from;
+            this.to = to;
+            this.flatType = flatType;
+            this.cube = cube;
+        }
+
+        /**
+         * Sweeps the range, or splits it and merges the halves in order.
+         *
+         * @return The applications kept and the cube they were counted in
+         */
+        @Override
+        protected Sweep compute() {
+            if (to - from > SWEEP_CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                SweepTask left = new SweepTask(applications, from, middle, flatType, cube);
+                SweepTask right = new SweepTask(applications, middle, to, flatType, cube.emptyCopy());
+                right.fork();
+                Sweep first = left.compute();
+                Sweep second = right.join();
+                first.applications.addAll(second.applications);
+                first.cube.merge(second.cube);
+                return first;
+            }
+            return sweep(applications, from, to, flatType, cube);
+        }
+
+        /**
+         * Sweeps a range of applications on the calling thread, without splitting it.
+         *
+         * @param applications The applications to sweep
+         * @param from The index of the first application in the range
+         * @param to The index after the last application in the range
+         * @param flatType The flat type to keep, or null to keep every application
+         * @param cube An empty cube to fill
+         * @return The applications kept and the cube they were counted in
+         */
+        static Sweep sweep(List<Application> applications, int from, int to, FlatType flatType, ReportCube cube) {
+            List<Application> kept = new ArrayList<>(to - from);
+            for (Application app : applications.subList(from, to)) {
+                if (flatType == null || app.getFlatType() == flatType) {
+                    kept.add(app);
+                    cube.add(app);
+                }
+            }
+            return new Sweep(kept, cube);
+        }
+    }
+
+    /**
+     * Summarises the projects matching a spec.
+     *
+     * @param spec The report spec
+     * @param version The data version the report is worked out at
+     * @return The result of the report
+     * @throws IOException If there's an error loading projects or application counts from repositories
+     */
+    private ReportResult summarize(ReportSpec spec, long version) throws IOException {
+        List<Project> projects = new ArrayList<>();
+        for (Project project : projectRepository.loadProjects()) {
+            if ((spec.getProjectID() == null || project.getProjectID().equals(spec.getProjectID()))
+                    && (spec.getNeighbourhood() == null
+                    || project.getNeighborhood().equalsIgnoreCase(spec.getNeighbourhood()))) {
+                projects.add(project);
+            }
+        }
+        return new ReportResult(spec, version, List.of(), projects, summarizeProjects(projects));
+    }
+
+    /**
+     * Reads the filters of an application status report from the user.
      * Allows filtering by project, application status, or withdrawal status.
      *
      * @param scanner A Scanner object for user input
-     * @throws IOException If there's an error loading applications from the repository
+     * @return The spec of the report
      */
-    private void generateApplicationStatusReport(Scanner scanner) throws IOException {
-        // Get all applications
-        List<Application> applications = applicationRepository.loadApplications();
-
+    private ReportSpec readApplicationStatusSpec(Scanner scanner) {
         // Filter options
         System.out.println("\n=== APPLICATION STATUS REPORT FILTER OPTIONS ===");
         System.out.println("1. Filter by Project");
@@ -83,15 +459,14 @@ public class ReportController {
         System.out.print("Enter your choice: ");
 
         int filterChoice = Integer.parseInt(scanner.nextLine());
-        List<Application> filteredApplications = new ArrayList<>(applications);
+        String projectId = null;
+        ApplicantAppStatus selectedStatus = null;
+        WithdrawalStatus selectedWithdrawalStatus = null;
 
         switch (filterChoice) {
             case 1:
                 System.out.print("Enter Project ID: ");
-                String projectId = scanner.nextLine();
-                filteredApplications = applications.stream()
-                        .filter(app -> app.getProject().getProjectID().equals(projectId))
-                        .collect(Collectors.toList());
+                projectId = scanner.nextLine();
                 break;
             case 2:
                 System.out.println("Select Application Status:");
@@ -101,20 +476,12 @@ public class ReportController {
                 System.out.println("4. BOOKED");
                 int statusChoice = Integer.parseInt(scanner.nextLine());
 
-                ApplicantAppStatus selectedStatus = null;
                 switch (statusChoice) {
                     case 1: selectedStatus = ApplicantAppStatus.PENDING; break;
                     case 2: selectedStatus = ApplicantAppStatus.SUCCESSFUL; break;
                     case 3: selectedStatus = ApplicantAppStatus.UNSUCCESSFUL; break;
                     case 4: selectedStatus = ApplicantAppStatus.BOOKED; break;
                 }
-
-                if (selectedStatus != null) {
-                    ApplicantAppStatus finalSelectedStatus = selectedStatus;
-                    filteredApplications = applications.stream()
-                            .filter(app -> app.getApplicationStatus() == finalSelectedStatus)
-                            .collect(Collectors.toList());
-                }
                 break;
             case 3:
                 System.out.println("Select Withdrawal Status:");
@@ -124,20 +491,12 @@ public class ReportController {
                 System.out.println("4. REJECTED");
                 int withdrawalChoice = Integer.parseInt(scanner.nextLine());
 
-                WithdrawalStatus selectedWithdrawalStatus = null;
                 switch (withdrawalChoice) {
                     case 1: selectedWithdrawalStatus = WithdrawalStatus.NULL; break;
                     case 2: selectedWithdrawalStatus = WithdrawalStatus.PENDING; break;
                     case 3: selectedWithdrawalStatus = WithdrawalStatus.APPROVED; break;
                     case 4: selectedWithdrawalStatus = WithdrawalStatus.REJECTED; break;
                 }
-
-                if (selectedWithdrawalStatus != null) {
-                    WithdrawalStatus finalSelectedWithdrawalStatus = selectedWithdrawalStatus;
-                    filteredApplications = applications.stream()
-                            .filter(app -> app.getWithdrawalStatus() == finalSelectedWithdrawalStatus)
-                            .collect(Collectors.toList());
-                }
                 break;
             case 4:
                 // No filter, use all applications
@@ -145,19 +504,30 @@ public class ReportController {
             default:
                 System.out.println("Invalid choice, showing all applications");
         }
+        return new ReportSpec(ReportType.APPLICATION_STATUS, projectId, null, selectedStatus,
+                selectedWithdrawalStatus, null);
+    }
+
+    /**
+     * Prints an application status report.
+     *
+     * @param result The result of the report
+     */
+    private void printApplicationStatusReport(ReportResult result) {
+        ReportCube cube = result.getCube();
 
         // Print report header
         System.out.println("\n+----------------------------------------------------------------------------------------------------------+");
         System.out.println("|                                     APPLICATION STATUS REPORT                                            |");
         System.out.println("+----------------------------------------------------------------------------------------------------------+");
-        System.out.println("| Generated on: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + "                                                                        |");
+        System.out.println("| Generated on: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(result.getGeneratedAt()) + "                                                                        |");
         System.out.println("+----------------------------------------------------------------------------------------------------------+");
         System.out.printf("| %-15s | %-15s | %-20s | %-15s | %-12s | %-12s |\n",
                 "APP ID", "APPLICANT", "PROJECT", "FLAT TYPE", "APP STATUS", "WITHDRAWAL");
         System.out.println("+----------------------------------------------------------------------------------------------------------+");
 
         // Print applications
-        for (Application app : filteredApplications) {
+        for (Application app : result.getApplications()) {
             System.out.printf("| %-15s | %-15s | %-20s | %-15s | %-12s | %-12s |\n",
                     app.getApplicationID(),
                     app.getUser().getName(),
@@ -168,26 +538,21 @@ public class ReportController {
         }
 
         System.out.println("+----------------------------------------------------------------------------------------------------------+");
-        System.out.println("| Total Applications: " + filteredApplications.size() + "                                                                                    |");
+        System.out.printf("| Total Applications: %-85d|\n", cube.total());
+        for (ApplicantAppStatus status : ApplicantAppStatus.values()) {
+            System.out.printf("|   %-17s: %-84d|\n", status, cube.count(status));
+        }
         System.out.println("+----------------------------------------------------------------------------------------------------------+");
     }
 
     /**
-     * Generates a report of booked applications with filtering options.
+     * Reads the filters of a booked applications report from the user.
      * Allows filtering by project or flat type.
      *
      * @param scanner A Scanner object for user input
-     * @throws IOException If there's an error loading applications from the repository
+     * @return The spec of the report
      */
-    private void generateBookedApplicationsReport(Scanner scanner) throws IOException {
-        // Get all applications
-        List<Application> applications = applicationRepository.loadApplications();
-
-        // Get only booked applications
-        List<Application> bookedApplications = applications.stream()
-                .filter(app -> app.getApplicationStatus() == ApplicantAppStatus.BOOKED)
-                .collect(Collectors.toList());
-
+    private ReportSpec readBookedApplicationsSpec(Scanner scanner) {
         // Filter options
         System.out.println("\n=== BOOKED APPLICATIONS REPORT FILTER OPTIONS ===");
         System.out.println("1. Filter by Project");
@@ -196,15 +561,13 @@ public class ReportController {
         System.out.print("Enter your choice: ");
 
         int filterChoice = Integer.parseInt(scanner.nextLine());
-        List<Application> filteredBookedApps = new ArrayList<>(bookedApplications);
+        String projectId = null;
+        FlatType selectedFlatType = null;
 
         switch (filterChoice) {
             case 1:
                 System.out.print("Enter Project ID: ");
-                String projectId = scanner.nextLine();
-                filteredBookedApps = bookedApplications.stream()
-                        .filter(app -> app.getProject().getProjectID().equals(projectId))
-                        .collect(Collectors.toList());
+                projectId = scanner.nextLine();
                 break;
             case 2:
                 System.out.println("Select Flat Type:");
@@ -212,18 +575,11 @@ public class ReportController {
                 System.out.println("2. THREE_ROOMS");
                 int flatTypeChoice = Integer.parseInt(scanner.nextLine());
 
-                FlatType selectedFlatType = switch (flatTypeChoice) {
+                selectedFlatType = switch (flatTypeChoice) {
                     case 1 -> FlatType.TWO_ROOMS;
                     case 2 -> FlatType.THREE_ROOMS;
                     default -> null;
                 };
-
-                if (selectedFlatType != null) {
-                    FlatType finalSelectedFlatType = selectedFlatType;
-                    filteredBookedApps = bookedApplications.stream()
-                            .filter(app -> app.getFlatType() == finalSelectedFlatType)
-                            .collect(Collectors.toList());
-                }
                 break;
             case 3:
                 // No filter, use all booked applications
@@ -231,12 +587,23 @@ public class ReportController {
             default:
                 System.out.println("Invalid choice, showing all booked applications");
         }
+        return new ReportSpec(ReportType.BOOKED_APPLICATIONS, projectId, null, null, null, selectedFlatType);
+    }
+
+    /**
+     * Prints a booked applications report.
+     *
+     * @param result The result of the report
+     */
+    private void printBookedApplicationsReport(ReportResult result) {
+        List<Application> filteredBookedApps = result.getApplications();
+        ReportCube cube = result.getCube();
 
         // Print report header
         System.out.println("\n+-----------------------------------------------------------------------------------------------------------------+");
         System.out.println("|                                                BOOKED APPLICATIONS REPORT                                       |");
         System.out.println("+-----------------------------------------------------------------------------------------------------------------+");
-        System.out.printf("| Generated on: %-98s|\n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        System.out.printf("| Generated on: %-98s|\n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(result.getGeneratedAt()));
         System.out.println("+-----------------------------------------------------------------------------------------------------------------+");
 
         for (int i = 0; i < filteredBookedApps.size(); i++) {
@@ -262,23 +629,21 @@ public class ReportController {
             System.out.println("+-----------------------------------------------------------------------------------------------------------------+");
         }
         System.out.println("+-----------------------------------------------------------------------------------------------------------------+");
-        System.out.printf("| Total Booked Applications: %-85d|\n", filteredBookedApps.size());
+        System.out.printf("| Total Booked Applications: %-85d|\n", cube.total());
+        for (FlatType flatType : FlatType.values()) {
+            System.out.printf("|   %-12s: %-10d Total Value: $%-71.2f|\n", flatType, cube.count(flatType), cube.sum(flatType));
+        }
         System.out.println("+-----------------------------------------------------------------------------------------------------------------+");
     }
 
     /**
-     * Generates a summary report for projects with filtering options.
+     * Reads the filters of a project summary report from the user.
      * Allows filtering by project ID or neighborhood.
-     * Shows flat inventory and application statistics for each project.
      *
      * @param scanner A Scanner object for user input
-     * @throws IOException If there's an error loading projects or applications from repositories
+     * @return The spec of the report
      */
-    private void generateProjectSummaryReport(Scanner scanner) throws IOException {
-        // Get all projects
-        List<Project> projects = projectRepository.loadProjects();
-        List<Application> applications = applicationRepository.loadApplications();
-
+    private ReportSpec readProjectSummarySpec(Scanner scanner) {
         // Filter options
         System.out.println("\n=== PROJECT SUMMARY REPORT FILTER OPTIONS ===");
         System.out.println("1. Filter by Project ID");
@@ -287,22 +652,17 @@ public class ReportController {
         System.out.print("Enter your choice: ");
 
         int filterChoice = Integer.parseInt(scanner.nextLine());
-        List<Project> filteredProjects = new ArrayList<>(projects);
+        String projectId = null;
+        String neighborhood = null;
 
         switch (filterChoice) {
             case 1:
                 System.out.print("Enter Project ID: ");
-                String projectId = scanner.nextLine();
-                filteredProjects = projects.stream()
-                        .filter(project -> project.getProjectID().equals(projectId))
-                        .collect(Collectors.toList());
+                projectId = scanner.nextLine();
                 break;
             case 2:
                 System.out.print("Enter Neighborhood: ");
-                String neighborhood = scanner.nextLine();
-                filteredProjects = projects.stream()
-                        .filter(project -> project.getNeighborhood().equalsIgnoreCase(neighborhood))
-                        .collect(Collectors.toList());
+                neighborhood = scanner.nextLine();
                 break;
             case 3:
                 // No filter, use all projects
@@ -310,15 +670,26 @@ public class ReportController {
             default:
                 System.out.println("Invalid choice, showing all projects");
         }
+        return new ReportSpec(ReportType.PROJECT_SUMMARY, projectId, neighborhood, null, null, null);
+    }
+
+    /**
+     * Prints a project summary report.
+     * Shows flat inventory and application statistics for each project.
+     *
+     * @param result The result of the report
+     */
+    private void printProjectSummaryReport(ReportResult result) {
+        ReportCube cube = result.getCube();
 
         // Print report header
         System.out.println("\n+------------------------------------------------------------------------------------+");
         System.out.println("|                               PROJECT SUMMARY REPORT                               |");
         System.out.println("+------------------------------------------------------------------------------------+");
-        System.out.printf("| Generated on: %-69s|\n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        System.out.printf("| Generated on: %-69s|\n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(result.getGeneratedAt()));
         System.out.println("+------------------------------------------------------------------------------------+");
 
-        for (Project project : filteredProjects) {
+        for (Project project : result.getProjects()) {
             System.out.println("+------------------------------------------------------------------------------------+");
             System.out.printf("| PROJECT: %-74s|\n", project.getProjectName() + " (ID: " + project.getProjectID() + ")");
             System.out.printf("| Location: %-73s|\n", project.getNeighborhood());
@@ -328,15 +699,12 @@ public class ReportController {
             System.out.println("| TYPE        | TOTAL UNITS     | AVAILABLE       | BOOKED          | PRICE          |");
             System.out.println("+------------------------------------------------------------------------------------+");
 
+            String projectID = project.getProjectID();
             for (FlatType flatType : FlatType.values()) {
                 int totalUnits = project.getFlatTypeUnits().getOrDefault(flatType, 0);
                 double price = project.getFlatTypePrices().getOrDefault(flatType, 0.0);
 
-                long bookedUnits = applications.stream()
-                        .filter(app -> app.getProject().getProjectID().equals(project.getProjectID())
-                                && app.getFlatType() == flatType
-                                && app.getApplicationStatus() == ApplicantAppStatus.BOOKED)
-                        .count();
+                long bookedUnits = cube.count(projectID, flatType, ApplicantAppStatus.BOOKED);
 
                 int availableUnits = Math.max(0, totalUnits - (int) bookedUnits);
 
@@ -346,21 +714,34 @@ public class ReportController {
 
             System.out.println("+------------------------------------------------------------------------------------+");
 
-            long totalApplications = applications.stream()
-                    .filter(app -> app.getProject().getProjectID().equals(project.getProjectID()))
-                    .count();
-
-            Map<ApplicantAppStatus, Long> statusCounts = applications.stream()
-                    .filter(app -> app.getProject().getProjectID().equals(project.getProjectID()))
-                    .collect(Collectors.groupingBy(Application::getApplicationStatus, Collectors.counting()));
-
             System.out.println("| APPLICATION STATISTICS:                                                            |");
-            System.out.printf("| Total Applications : %-62d|\n", totalApplications);
-            System.out.printf("| Pending            : %-62d|\n", statusCounts.getOrDefault(ApplicantAppStatus.PENDING, 0L));
-            System.out.printf("| Successful         : %-62d|\n", statusCounts.getOrDefault(ApplicantAppStatus.SUCCESSFUL, 0L));
-            System.out.printf("| Unsuccessful       : %-62d|\n", statusCounts.getOrDefault(ApplicantAppStatus.UNSUCCESSFUL, 0L));
-            System.out.printf("| Booked             : %-62d|\n", statusCounts.getOrDefault(ApplicantAppStatus.BOOKED, 0L));
+            System.out.printf("| Total Applications : %-62d|\n", cube.count(projectID, null, null));
+            System.out.printf("| Pending            : %-62d|\n", cube.count(projectID, null, ApplicantAppStatus.PENDING));
+            System.out.printf("| Successful         : %-62d|\n", cube.count(projectID, null, ApplicantAppStatus.SUCCESSFUL));
+            System.out.printf("| Unsuccessful       : %-62d|\n", cube.count(projectID, null, ApplicantAppStatus.UNSUCCESSFUL));
+            System.out.printf("| Booked             : %-62d|\n", cube.count(projectID, null, ApplicantAppStatus.BOOKED));
             System.out.println("+------------------------------------------------------------------------------------+");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Counts the applications of some projects by project, flat type and application status.
+     * <p>
+     * The cube is filled from the application counts kept for each project, so this takes
+     * time proportional to the number of projects rather than applications.
+     * </p>
+     *
+     * @param projects The projects to summarise
+     * @return A cube over {@link ReportDimension#PROJECT}, {@link ReportDimension#FLAT_TYPE}
+     * and {@link ReportDimension#STATUS}
+     * @throws IOException If there's an error reading the application counts
+     */
+    public ReportCube summarizeProjects(List<Project> projects) throws IOException {
+        ReportCube cube = new ReportCube(
+                List.of(ReportDimension.PROJECT, ReportDimension.FLAT_TYPE, ReportDimension.STATUS), projects);
+        for (Project project : projects) {
+            cube.add(project, applicationRepository.countApplications(project.getProjectID()));
+        }
+        return cube;
+    }
+}
@@ -0,0 +1,476 @@
+package controller;
+
+import enums.ApplicantAppStatus;
+import enums.FlatType;
+import enums.MaritalStatus;
+import enums.ReportDimension;
+import enums.WithdrawalStatus;
+import model.Application;
+import model.Project;
+import model.User;
+import repository.ApplicationCounts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts applications and adds up their flat prices for every combination of values of some
+ * report dimensions, in a single pass over the applications.
+ * <p>
+ * Every value of a dimension has a code: the ordinal of an enum constant, the position of a
+ * project or neighbourhood in the dictionary built from the projects given to the cube, or the
+ * position of an age band. The codes of an application's values are combined into the index of
+ * one cell in flat arrays of counts and sums, so adding an application takes a few array
+ * updates whatever the dimensions are. Reports then read totals for any values, leaving out a
+ * dimension to add up over all of its values. The code of a value given by a report is looked
+ * up in a table built for each dimension when the cube is made, so reading a total does not
+ * depend on the number of projects.
+ * </p>
+ * <p>
+ * A cube over project, neighbourhood, flat type and one of the statuses can also be filled from
+ * the {@link ApplicationCounts} kept for each project, without reading any application.
+ * </p>
+ * <p>
+ * A cube is not thread-safe. A large set of applications can be counted in parallel by
+ * filling an {@link #emptyCopy()} for each chunk on its own thread and then merging the
+ * copies, since merging only adds up the arrays.
+ * </p>
+ */
+public final class ReportCube {
+    /** The lowest age of each age band after the first */
+    private static final int[] AGE_BAND_STARTS = {35, 45, 55};
+
+    /** The name of each age band */
+    private static final String[] AGE_BANDS = {"Under 35", "35-44", "45-54", "55 and over"};
+
+    /** The largest number of cells a cube may have */
+    private static final int MAX_CELLS = 1 << 24;
+
+    /** The dimensions of the cube, in the order their values are given */
+    private final List<ReportDimension> dimensions;
+
+    /** The number of values of each dimension */
+    private final int[] sizes;
+
+    /** The distance between cells one value apart in each dimension */
+    private final int[] strides;
+
+    /** The projects that may be counted, in dictionary order */
+    private final List<Project> projects;
+
+    /** The code of each project, by project ID */
+    private final Map<String, Integer> projectCodes;
+
+    /** The neighbourhood names, in dictionary order */
+    private final List<String> neighborhoods;
+
+    /** The code of each project's neighbourhood, in project dictionary order */
+    private final int[] neighborhoodCodes;
+
+    /** The code of each value of each dimension, in the order of the dimensions */
+    private final List<Map<Object, Integer>> valueCodes;
+
+    /** The number of applications in each cell */
+    private final long[] counts;
+
+    /** The total flat price of the applications in each cell */
+    private final double[] sums;
+
+    /**
+     * Constructs an empty cube.
+     *
+     * @param dimensions The dimensions to group applications by
+     * @param projects The projects whose applications may be counted; applications for any
+     *                 other project are left out
+     * @throws IllegalArgumentException If a dimension is repeated or the cube would be too large
+     */
+    public ReportCube(List<ReportDimension> dimensions, List<Project> projects) {
+        this.dimensions = List.copyOf(dimensions);
+        this.projects = List.copyOf(projects);
+        this.projectCodes = new HashMap<>();
+        this.neighborhoods = new ArrayList<>();
+
+        Map<String, Integer> neighborhoodIndex = new HashMap<>();
+        neighborhoodCodes = new int[this.projects.size()];
+        for (int i = 0; i < this.projects.size(); i++) {
+            Project project = this.projects.get(i);
+            projectCodes.putIfAbsent(project.getProjectID(), i);
+            String neighborhood = project.getNeighborhood();
+            Integer code = neighborhoodIndex.get(neighborhoodKey(neighborhood));
+            if (code == null) {
+                code = neighborhoods.size();
+                neighborhoodIndex.put(neighborhoodKey(neighborhood), code);
+                neighborhoods.add(neighborhood);
+            }
+            neighborhoodCodes[i] = code;
+        }
+
+        sizes = new int[this.dimensions.size()];
+        strides = new int[this.dimensions.size()];
+        valueCodes = new ArrayList<>(this.dimensions.size());
+        long cells = 1;
+        for (int d = this.dimensions.size() - 1; d >= 0; d--) {
+            if (this.dimensions.indexOf(this.dimensions.get(d)) != d) {
+                throw new IllegalArgumentException("Dimension " + this.dimensions.get(d) + " is repeated");
+            }
+            List<Object> values = getValues(this.dimensions.get(d));
+            Map<Object, Integer> codes = new HashMap<>();
+            for (int code = 0; code < values.size(); code++) {
+                // A value listed twice keeps its first code, as a project ID does in the dictionary
+                codes.putIfAbsent(keyOf(this.dimensions.get(d), values.get(code)), code);
+            }
+            valueCodes.add(0, codes);
+            sizes[d] = Math.max(values.size(), 1);
+            strides[d] = (int) cells;
+            cells *= sizes[d];
+            if (cells > MAX_CELLS) {
+                throw new IllegalArgumentException("Too many combinations of report values");
+            }
+        }
+        counts = new long[(int) cells];
+        sums = new double[(int) cells];
+    }
+
+    /**
+     * Constructs an empty cube with the same dimensions and values as another.
+     * The dictionaries are never changed after construction, so they are shared.
+     *
+     * @param other The cube to copy the shape of
+     */
+    private ReportCube(ReportCube other) {
+        dimensions = other.dimensions;
+        sizes = other.sizes;
+        strides = other.strides;
+        projects = other.projects;
+        projectCodes = other.projectCodes;
+        neighborhoods = other.neighborhoods;
+        neighborhoodCodes = other.neighborhoodCodes;
+        valueCodes = other.valueCodes;
+        counts = new long[other.counts.length];
+        sums = new double[other.sums.length];
+    }
+
+    /**
+     * Creates an empty cube with the same dimensions and projects as this one, which can be
+     * filled separately and merged back in.
+     *
+     * @return A new empty cube
+     */
+    public ReportCube emptyCopy() {
+        return new ReportCube(this);
+    }
+
+    /**
+     * Adds the counts and sums of another cube to this one.
+     *
+     * @param other A cube made by {@link #emptyCopy()} of this cube, or of the cube this was copied from
+     * @throws IllegalArgumentException If the other cube has different dimensions or projects
+     */
+    public void merge(ReportCube other) {
+        if (other.projectCodes != projectCodes || other.dimensions != dimensions) {
+            throw new IllegalArgumentException("Only copies of the same report cube can be merged");
+        }
+        for (int cell = 0; cell < counts.length; cell++) {
+            counts[cell] += other.counts[cell];
+            sums[cell] += other.sums[cell];
+        }
+    }
+
+    /**
+     * Gets the dimensions of the cube.
+     *
+     * @return The dimensions, in the order their values are given
+     */
+    public List<ReportDimension> getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Gets the values of a dimension in code order.
+     * <p>
+     * Projects are given by project ID, age bands by name, and the other dimensions by
+     * their enum constants.
+     * </p>
+     *
+     * @param dimension The dimension
+     * @return The values the dimension can take in this cube
+     */
+    public List<Object> getValues(ReportDimension dimension) {
+        List<Object> values = new ArrayList<>();
+        switch (dimension) {
+            case PROJECT -> projects.forEach(project -> values.add(project.getProjectID()));
+            case NEIGHBORHOOD -> values.addAll(neighborhoods);
+            case FLAT_TYPE -> values.addAll(List.of(FlatType.values()));
+            case STATUS -> values.addAll(List.of(ApplicantAppStatus.values()));
+            case WITHDRAWAL_STATUS -> values.addAll(List.of(WithdrawalStatus.values()));
+            case MARITAL_STATUS -> values.addAll(List.of(MaritalStatus.values()));
+            case AGE_BAND -> values.addAll(List.of(AGE_BANDS));
+        }
+        return values;
+    }
+
+    /**
+     * Counts an application in the cell for its values.
+     * <p>
+     * Applications for a project not given to the cube, or missing a value the cube groups
+     * by, are left out.
+     * </p>
+     *
+     * @param application The application to count
+     */
+    public void add(Application application) {
+        Integer project = application.getProject() == null ? null
+                : projectCodes.get(application.getProject().getProjectID());
+        if (project == null) {
+            return;
+        }
+        int cell = 0;
+        for (int d = 0; d < sizes.length; d++) {
+            int code = codeOf(dimensions.get(d), application, project);
+            if (code < 0) {
+                return;
+            }
+            cell += code * strides[d];
+        }
+        counts[cell]++;
+        sums[cell] += priceOf(projects.get(project), application.getFlatType());
+    }
+
+    /**
+     * Counts every application in a list.
+     *
+     * @param applications The applications to count
+     */
+    public void addAll(List<Application> applications) {
+        for (Application application : applications) {
+            add(application);
+        }
+    }
+
+    /**
+     * Counts a project's applications from the counts kept for it, without reading them.
+     *
+     * @param project The project, which must be one of the cube's projects
+     * @param projectCounts The project's application counts
+     * @throws IllegalArgumentException If the cube groups by an applicant's details or by both
+     * kinds of status, which the counts do not record
+     */
+    public void add(Project project, ApplicationCounts projectCounts) {
+        boolean byStatus = dimensions.contains(ReportDimension.STATUS);
+        boolean byWithdrawal = dimensions.contains(ReportDimension.WITHDRAWAL_STATUS);
+        if ((byStatus && byWithdrawal) || dimensions.contains(ReportDimension.MARITAL_STATUS)
+                || dimensions.contains(ReportDimension.AGE_BAND)) {
+            throw new IllegalArgumentException("Application counts cannot fill a cube over " + dimensions);
+        }
+        Integer code = projectCodes.get(project.getProjectID());
+        if (code == null) {
+            return;
+        }
+
+        Object[] keys = new Object[dimensions.size()];
+        int statusCount = byWithdrawal ? WithdrawalStatus.values().length : ApplicantAppStatus.values().length;
+        for (FlatType flatType : FlatType.values()) {
+            for (int s = 0; s < statusCount; s++) {
+                ApplicantAppStatus status = byWithdrawal ? null : ApplicantAppStatus.values()[s];
+                WithdrawalStatus withdrawalStatus = byWithdrawal ? WithdrawalStatus.values()[s] : null;
+                int count = byWithdrawal ? projectCounts.countWithdrawals(flatType, withdrawalStatus)
+                        : projectCounts.count(flatType, status);
+                if (count == 0) {
+                    continue;
+                }
+                for (int d = 0; d < keys.length; d++) {
+                    keys[d] = switch (dimensions.get(d)) {
+                        case PROJECT -> project.getProjectID();
+                        case NEIGHBORHOOD -> neighborhoods.get(neighborhoodCodes[code]);
+                        case FLAT_TYPE -> flatType;
+                        case STATUS -> status;
+                        default -> withdrawalStatus;
+                    };
+                }
+                int cell = cellOf(keys);
+                counts[cell] += count;
+                sums[cell] += count * priceOf(project, flatType);
+            }
+        }
+    }
+
+    /**
+     * Counts the applications with some values.
+     *
+     * @param keys One value for each dimension, in the order of the dimensions, or null to
+     *             count every value of that dimension
+     * @return The number of matching applications
+     */
+    public long count(Object... keys) {
+        long total = 0;
+        for (int cell : matchingCells(keys)) {
+            total += counts[cell];
+        }
+        return total;
+    }
+
+    /**
+     * Counts every application in the cube.
+     *
+     * @return The number of applications counted
+     */
+    public long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Adds up the flat prices of the applications with some values.
+     *
+     * @param keys One value for each dimension, in the order of the dimensions, or null to
+     *             add up every value of that dimension
+     * @return The total flat price of the matching applications
+     */
+    public double sum(Object... keys) {
+        double total = 0;
+        for (int cell : matchingCells(keys)) {
+            total += sums[cell];
+        }
+        return total;
+    }
+
+    /**
+     * Gets the age band an age falls in.
+     *
+     * @param age The age
+     * @return The name of the age band
+     */
+    public static String ageBandOf(int age) {
+        return AGE_BANDS[ageBandCode(age)];
+    }
+
+    /**
+     * Finds the cells holding the applications with some values.
+     *
+     * @param keys One value for each dimension, or null for any value
+     * @return The indexes of the matching cells
+     * @throws IllegalArgumentException If the number of values does not match the dimensions
+     */
+    private int[] matchingCells(Object[] keys) {
+        if (keys.length != sizes.length) {
+            throw new IllegalArgumentException("Expected " + sizes.length + " report values but got " + keys.length);
+        }
+        int[] cells = {0};
+        for (int d = 0; d < sizes.length; d++) {
+            if (keys[d] != null) {
+                Integer code = valueCodes.get(d).get(keyOf(dimensions.get(d), keys[d]));
+                if (code == null) {
+                    return new int[0];
+                }
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] += code * strides[d];
+                }
+                continue;
+            }
+            // Every value of this dimension matches, so each cell found so far branches out
+            int[] spread = new int[cells.length * sizes[d]];
+            for (int i = 0; i < cells.length; i++) {
+                for (int code = 0; code < sizes[d]; code++) {
+                    spread[i * sizes[d] + code] = cells[i] + code * strides[d];
+                }
+            }
+            cells = spread;
+        }
+        return cells;
+    }
+
+    /**
+     * Gets the cell for one value of every dimension.
+     *
+     * @param keys One value for each dimension, none of them null
+     * @return The index of the cell
+     */
+    private int cellOf(Object[] keys) {
+        int cell = 0;
+        for (int d = 0; d < sizes.length; d++) {
+            cell += valueCodes.get(d).get(keyOf(dimensions.get(d), keys[d])) * strides[d];
+        }
+        return cell;
+    }
+
+    /**
+     * Gets the key a value is looked up by in a dimension's codes.
+     * <p>
+     * Neighbourhoods that differ only in case share a code, so they are looked up by their
+     * upper-case name; every other value is its own key.
+     * </p>
+     *
+     * @param dimension The dimension
+     * @param value The value
+     * @return The key for the value
+     */
+    private static Object keyOf(ReportDimension dimension, Object value) {
+        if (dimension == ReportDimension.NEIGHBORHOOD && value instanceof String neighborhood) {
+            return neighborhoodKey(neighborhood);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the key that neighbourhoods differing only in case share.
+     *
+     * @param neighborhood The neighbourhood name
+     * @return The upper-case name
+     */
+    private static String neighborhoodKey(String neighborhood) {
+        return neighborhood.toUpperCase();
+    }
+
+    /**
+     * Gets the code of an application's value for a dimension.
+     *
+     * @param dimension The dimension
+     * @param application The application
+     * @param project The code of the application's project
+     * @return The code, or -1 if the application has no value for the dimension
+     */
+    private int codeOf(ReportDimension dimension, Application application, int project) {
+        User user = application.getUser();
+        return switch (dimension) {
+            case PROJECT -> project;
+            case NEIGHBORHOOD -> neighborhoodCodes[project];
+            case FLAT_TYPE -> application.getFlatType() == null ? -1 : application.getFlatType().ordinal();
+            case STATUS -> application.getApplicationStatus() == null ? -1 : application.getApplicationStatus().ordinal();
+            case WITHDRAWAL_STATUS -> application.getWithdrawalStatus() == null ? -1
+                    : application.getWithdrawalStatus().ordinal();
+            case MARITAL_STATUS -> user == null || user.getMaritalStatus() == null ? -1
+                    : user.getMaritalStatus().ordinal();
+            case AGE_BAND -> user == null ? -1 : ageBandCode(user.getAge());
+        };
+    }
+
+    /**
+     * Gets the code of the age band an age falls in.
+     *
+     * @param age The age
+     * @return The position of the age band
+     */
+    private static int ageBandCode(int age) {
+        int band = 0;
+        while (band < AGE_BAND_STARTS.length && age >= AGE_BAND_STARTS[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * Gets the price of a flat type in a project.
+     *
+     * @param project The project
+     * @param flatType The flat type
+     * @return The price, or 0 if the project has no price for it
+     */
+    private static double priceOf(Project project, FlatType flatType) {
+        return project.getFlatTypePrices().getOrDefault(flatType, 0.0);
+    }
+}
@@ -0,0 +1,286 @@
+package controller;
+
+import enums.ApplicantAppStatus;
+import enums.ExportFormat;
+import enums.FlatType;
+import enums.ReportType;
+import helper.CSVUtil;
+import helper.JsonUtil;
+import model.Application;
+import model.Project;
+import model.ReportSpec;
+import model.User;
+import repository.ApplicationRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Controller class for exporting reports to CSV and JSON files.
+ * <p>
+ * Rows are formatted one at a time into a reused buffer and written straight to a buffered
+ * writer, so an export of any size keeps only the applications it is going through in memory,
+ * never the formatted rows. Application reports list one row per application, with more
+ * detail for booked applications. The project summary has one row for each project and flat
+ * type.
+ * </p>
+ * <p>
+ * A file is written under a temporary name and moved into place once it is complete, so a
+ * job that picks up the file never sees half an export.
+ * </p>
+ */
+public class ReportExporter {
+    /** The size of the buffer between the formatted rows and the file */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The columns of the application status export */
+    private static final String[] APPLICATION_STATUS_COLUMNS = {
+            "ApplicationID", "ApplicantName", "NRIC", "ProjectID", "ProjectName", "FlatType",
+            "ApplicationStatus", "WithdrawalStatus"};
+
+    /** The columns of the booked applications export */
+    private static final String[] BOOKED_APPLICATIONS_COLUMNS = {
+            "ApplicationID", "ApplicantName", "NRIC", "Age", "MaritalStatus", "ProjectID", "ProjectName",
+            "Neighborhood", "FlatType", "Price"};
+
+    /** The columns of the project summary export */
+    private static final String[] PROJECT_SUMMARY_COLUMNS = {
+            "ProjectID", "ProjectName", "Neighborhood", "FlatType", "TotalUnits", "AvailableUnits",
+            "BookedUnits", "Price", "Applications", "Pending", "Successful", "Unsuccessful", "Booked"};
+
+    /** Repository used to find the applications to export */
+    private final ApplicationRepository applicationRepository = new ApplicationRepository();
+
+    /** Controller used to summarise projects */
+    private final ReportController reportController = new ReportController();
+
+    /**
+     * Exports a report to a file and prints how many rows were written and how quickly.
+     *
+     * @param spec The report type and filters
+     * @param format The file format
+     * @param file The file to write, which is replaced if it exists
+     * @return true if the file was written, false otherwise
+     */
+    public boolean exportToFile(ReportSpec spec, ExportFormat format, Path file) {
+        long start = System.nanoTime();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long rows;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temporary),
+                    StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                rows = export(spec, format, writer);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.out.println("Error exporting report: " + e.getMessage());
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The export has failed already; a leftover temporary file does no harm
+            }
+            return false;
+        }
+
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+        long bytes;
+        try {
+            bytes = Files.size(file);
+        } catch (IOException e) {
+            bytes = 0;
+        }
+        System.out.printf("Exported %d rows (%.1f MB) to %s in %.2f seconds: %.0f rows/s, %.1f MB/s.\n",
+                rows, bytes / 1e6, file, seconds, rows / seconds, bytes / 1e6 / seconds);
+        return true;
+    }
+
+    /**
+     * Writes a report to a writer, one row at a time.
+     *
+     * @param spec The report type and filters
+     * @param format The format to write
+     * @param writer The writer to write to, which is not closed
+     * @return The number of rows written, not counting a CSV header
+     * @throws IOException If the report cannot be read or written
+     */
+    public long export(ReportSpec spec, ExportFormat format, Writer writer) throws IOException {
+        RowWriter rows = new RowWriter(format, writer, columnsOf(spec.getType()));
+        switch (spec.getType()) {
+            case APPLICATION_STATUS -> {
+                for (Application app : applicationRepository.findApplications(spec.getProjectID(), null,
+                        spec.getStatus(), spec.getWithdrawalStatus())) {
+                    if (spec.getFlatType() == null || app.getFlatType() == spec.getFlatType()) {
+                        User user = app.getUser();
+                        rows.write(app.getApplicationID(), user.getName(), user.getNRIC(),
+                                app.getProject().getProjectID(), app.getProject().getProjectName(), app.getFlatType(),
+                                app.getApplicationStatus(), app.getWithdrawalStatus());
+                    }
+                }
+            }
+            case BOOKED_APPLICATIONS -> {
+                for (Application app : applicationRepository.findApplications(spec.getProjectID(), null,
+                        ApplicantAppStatus.BOOKED, null)) {
+                    if (spec.getFlatType() == null || app.getFlatType() == spec.getFlatType()) {
+                        User user = app.getUser();
+                        Project project = app.getProject();
+                        rows.write(app.getApplicationID(), user.getName(), user.getNRIC(), user.getAge(),
+                                user.getMaritalStatus(), project.getProjectID(), project.getProjectName(),
+                                project.getNeighborhood(), app.getFlatType(),
+                                project.getFlatTypePrices().getOrDefault(app.getFlatType(), 0.0));
+                    }
+                }
+            }
+            case PROJECT_SUMMARY -> {
+                ReportController.ReportResult result = reportController.generate(spec);
+                ReportCube cube = result.getCube();
+                for (Project project : result.getProjects()) {
+                    String id = project.getProjectID();
+                    for (FlatType flatType : FlatType.values()) {
+                        int totalUnits = project.getFlatTypeUnits().getOrDefault(flatType, 0);
+                        long booked = cube.count(id, flatType, ApplicantAppStatus.BOOKED);
+                        rows.write(id, project.getProjectName(), project.getNeighborhood(), flatType, totalUnits,
+                                Math.max(0, totalUnits - booked), booked,
+                                project.getFlatTypePrices().getOrDefault(flatType, 0.0),
+                                cube.count(id, flatType, null),
+                                cube.count(id, flatType, ApplicantAppStatus.PENDING),
+                                cube.count(id, flatType, ApplicantAppStatus.SUCCESSFUL),
+                                cube.count(id, flatType, ApplicantAppStatus.UNSUCCESSFUL), booked);
+                    }
+                }
+            }
+        }
+        rows.finish();
+        return rows.getCount();
+    }
+
+    /**
+     * Gets the columns of a report's export.
+     *
+     * @param type The report type
+     * @return The column names, in order
+     */
+    private static String[] columnsOf(ReportType type) {
+        return switch (type) {
+            case APPLICATION_STATUS -> APPLICATION_STATUS_COLUMNS;
+            case BOOKED_APPLICATIONS -> BOOKED_APPLICATIONS_COLUMNS;
+            case PROJECT_SUMMARY -> PROJECT_SUMMARY_COLUMNS;
+        };
+    }
+
+    /**
+     * Formats rows in an export format and writes them out as they come.
+     */
+    private static class RowWriter {
+        /** The format to write */
+        private final ExportFormat format;
+
+        /** The writer the rows go to */
+        private final Writer writer;
+
+        /** The column names as JSON strings, followed by a colon */
+        private final String[] jsonKeys;
+
+        /** The buffer each row is formatted in */
+        private final StringBuilder row = new StringBuilder(256);
+
+        /** The characters of the row being written, reused so that no string is made for each row */
+        private char[] chars = new char[256];
+
+        /** The number of rows written so far */
+        private long count = 0;
+
+        /**
+         * Constructs a row writer and writes the start of the export.
+         *
+         * @param format The format to write
+         * @param writer The writer the rows go to
+         * @param columns The names of the columns
+         * @throws IOException If the writer fails
+         */
+        RowWriter(ExportFormat format, Writer writer, String[] columns) throws IOException {
+            this.format = format;
+            this.writer = writer;
+            this.jsonKeys = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                jsonKeys[i] = JsonUtil.toJson(columns[i]) + ":";
+            }
+            if (format == ExportFormat.CSV) {
+                writer.write(CSVUtil.formatRecord(columns));
+                writer.write("\r\n");
+            } else {
+                writer.write("[");
+            }
+        }
+
+        /**
+         * Writes one row.
+         *
+         * @param values The value of each column; enums are written by name and null as an empty value
+         * @throws IOException If the writer fails
+         */
+        void write(Object... values) throws IOException {
+            row.setLength(0);
+            if (format == ExportFormat.CSV) {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        row.append(',');
+                    }
+                    CSVUtil.appendField(row, values[i] == null ? null : values[i].toString());
+                }
+                row.append("\r\n");
+            } else {
+                row.append(count == 0 ? "\n{" : ",\n{");
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        row.append(',');
+                    }
+                    row.append(jsonKeys[i]);
+                    JsonUtil.appendJson(row, values[i]);
+                }
+                row.append('}');
+            }
+            if (chars.length < row.length()) {
+                chars = new char[row.length() * 2];
+            }
+            row.getChars(0, row.length(), chars, 0);
+            writer.write(chars, 0, row.length());
+            count++;
+        }
+
+        /**
+         * Writes the end of the export and flushes it.
+         *
+         * @throws IOException If the writer fails
+         */
+        void finish() throws IOException {
+            if (format == ExportFormat.JSON) {
+                writer.write(count == 0 ? "]\n" : "\n]\n");
+            }
+            writer.flush();
+        }
+
+        /**
+         * Gets the number of rows written.
+         *
+         * @return The number of rows, not counting a CSV header
+         */
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package controller;
 
+import helper.SessionConsole;
 import model.User;
 import view.ForgetPasswordView;
 
@@ -91,7 +92,7 @@ public class SecQuesController {
      * @param user The user object for whom to change security question
      */
     public void changeSecurityQuestionAndAnswer(User user) {
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         System.out.print("| Please enter a security question: ");
         String secQues = scanner.nextLine();
         System.out.print("| Please enter the answer: ");
@@ -1,5 +1,6 @@
 package controller;
 
+import helper.SessionConsole;
 import model.User;
 import repository.UserLoginRepository;
 import view.MenuInterface;
@@ -39,10 +40,7 @@ public class SignInController {
             return false;
         }
 
-        RepositoryController repositoryController = new RepositoryController();
-        VerificationInterface repository = (VerificationInterface) repositoryController.getRepository(role);
-
-        User user = repository.verifyCredentials(nric, password);
+        User user = authenticate(nric, password);
         if(user == null){
             System.out.println("Wrong password. Returning to main menu.");
             System.out.println();
@@ -52,7 +50,7 @@ public class SignInController {
             System.out.println("You are a new user with the default password, please change it");
             PasswordController pc = new PasswordController();
             System.out.println("Please enter a new password");
-            Scanner scanner = new Scanner(System.in);
+            Scanner scanner = SessionConsole.getScanner();
             String newPassword;
             do {
                 newPassword = scanner.nextLine();
@@ -80,6 +78,26 @@ public class SignInController {
         }
     }
 
+    /**
+     * Verifies a user's credentials without starting an interactive session.
+     * Used by the sign-in menu and by the HTTP service, which issues a session token
+     * instead of showing a menu.
+     *
+     * @param nric The user's National Registration Identity Card number
+     * @param password The user's password
+     * @return The signed-in user, or null if the NRIC has no role or the password is wrong
+     */
+    public static User authenticate(String nric, String password) {
+        String role = userLoginRepository.getUserTypeByNRIC(nric);
+        if (role == null) {
+            return null;
+        }
+
+        RepositoryController repositoryController = new RepositoryController();
+        VerificationInterface repository = (VerificationInterface) repositoryController.getRepository(role);
+        return repository == null ? null : repository.verifyCredentials(nric, password);
+    }
+
     /**
      * Validates the format of a National Registration Identity Card (NRIC) number.
      * Valid format is a letter ('S' or 'T'), followed by 7 digits, ending with a capital letter.
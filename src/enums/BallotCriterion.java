@@ -0,0 +1,23 @@
+package enums;
+
+/**
+ * Represents the applicant attributes that can give an application extra weight in a ballot.
+ * Each ballot weight record names one of these criteria and the value of the attribute
+ * that earns the weight.
+ */
+public enum BallotCriterion {
+    /**
+     * The applicant's marital status, with a value such as MARRIED.
+     */
+    MARITAL_STATUS,
+
+    /**
+     * Whether this is the applicant's first application, with a value of TRUE or FALSE.
+     */
+    FIRST_TIME,
+
+    /**
+     * The applicant's age, with an inclusive range such as 35-44, or 55- for no upper limit.
+     */
+    AGE_BAND
+}
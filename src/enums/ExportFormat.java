@@ -0,0 +1,16 @@
+package enums;
+
+/**
+ * Represents the file formats a report can be exported to.
+ */
+public enum ExportFormat {
+    /**
+     * Comma-separated values with a header row, as described in RFC 4180.
+     */
+    CSV,
+
+    /**
+     * A JSON array with one object per row, written one row per line.
+     */
+    JSON
+}
@@ -0,0 +1,43 @@
+package enums;
+
+/**
+ * Represents the attributes that applications can be grouped by in a report.
+ * Each one is a dimension of a report cube, which counts the applications and adds up
+ * their flat prices for every combination of values of its dimensions.
+ */
+public enum ReportDimension {
+    /**
+     * The project applied for, identified by its project ID.
+     */
+    PROJECT,
+
+    /**
+     * The neighbourhood of the project applied for.
+     */
+    NEIGHBORHOOD,
+
+    /**
+     * The flat type applied for.
+     */
+    FLAT_TYPE,
+
+    /**
+     * The application status.
+     */
+    STATUS,
+
+    /**
+     * The withdrawal status.
+     */
+    WITHDRAWAL_STATUS,
+
+    /**
+     * The marital status of the applicant.
+     */
+    MARITAL_STATUS,
+
+    /**
+     * The age band of the applicant, such as 35-44.
+     */
+    AGE_BAND
+}
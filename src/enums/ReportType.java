@@ -0,0 +1,21 @@
+package enums;
+
+/**
+ * Represents the kinds of report an HDB manager can generate.
+ */
+public enum ReportType {
+    /**
+     * Lists applications with their application and withdrawal statuses.
+     */
+    APPLICATION_STATUS,
+
+    /**
+     * Lists booked applications with their applicant and flat details.
+     */
+    BOOKED_APPLICATIONS,
+
+    /**
+     * Summarises the flat inventory and application counts of each project.
+     */
+    PROJECT_SUMMARY
+}
@@ -0,0 +1,101 @@
+package helper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws indexes at random with probabilities proportional to a set of weights.
+ * <p>
+ * The table is built once with Vose's alias method in time proportional to the number of
+ * weights. After that every draw takes constant time however many weights there are: one
+ * random column is picked, and a second random number decides between the column's own
+ * index and its alias.
+ * </p>
+ * <p>
+ * Draws depend only on the weights and the random numbers given, so the same weights and a
+ * random source with the same seed always give the same draws.
+ * </p>
+ */
+public class AliasTable {
+    /** The probability of keeping each column's own index rather than its alias */
+    private final double[] probability;
+
+    /** The index each column gives when its own index is not kept */
+    private final int[] alias;
+
+    /**
+     * Builds an alias table over some weights.
+     *
+     * @param weights The weight of each index, none of them negative and at least one above 0
+     * @throws IllegalArgumentException If there are no weights, a weight is negative or not a number, or all are 0
+     */
+    public AliasTable(double[] weights) {
+        int size = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be finite and not negative");
+            }
+            total += weight;
+        }
+        if (size == 0 || total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be greater than 0");
+        }
+
+        probability = new double[size];
+        alias = new int[size];
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = weights[i] * size / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Each under-full column is topped up from an over-full one, which becomes its alias
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    /**
+     * Gets the number of indexes the table draws from.
+     *
+     * @return The number of weights the table was built over
+     */
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * Draws one index.
+     *
+     * @param random The source of randomness
+     * @return An index, drawn with probability proportional to its weight
+     */
+    public int sample(SplittableRandom random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+}
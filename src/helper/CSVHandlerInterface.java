@@ -0,0 +1,20 @@
+package helper;
+
+/**
+ * Interface for receiving records from a CSV file one at a time.
+ * Defines the callback used by {@link CSVReader} to push each record of a file
+ * to the code that turns it into a model object.
+ */
+public interface CSVHandlerInterface {
+
+    /**
+     * Handles one record of a CSV file.
+     * <p>
+     * The record object is reused for every record in the file, so implementations
+     * must copy out any field they need before returning.
+     * </p>
+     *
+     * @param record The current record
+     */
+    public void handleRecord(CSVRecord record);
+}
@@ -0,0 +1,166 @@
+package helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads CSV data files for the BTO housing system.
+ * <p>
+ * The file is streamed through a fixed {@link #BUFFER_SIZE} byte buffer filled from a
+ * {@link FileChannel}, so however large the file is, only one buffer of it is held in memory.
+ * Each fill is scanned in place, so no line Strings or split arrays are created, and the
+ * records it completes are pushed to a {@link CSVHandlerInterface} as a reusable
+ * {@link CSVRecord}, which only creates a String for the fields the handler actually reads.
+ * A record cut off by the end of the buffer, even inside a quoted field, is moved to the
+ * front of the buffer and finished by the next fill; a single record larger than the buffer
+ * makes it grow. Empty lines are skipped, and both "\n" and "\r\n" line endings are accepted.
+ * Fields may be quoted as described in RFC 4180, so a field can hold commas, quotes and line
+ * breaks; records are written in the same format by {@link CSVUtil#formatRecord(String...)}.
+ * </p>
+ * <p>
+ * Files are not memory-mapped, so every byte is copied from the file into the buffer once.
+ * On Windows a mapped file cannot be replaced until its mapping is garbage collected, which
+ * would make compacting a table's journal fail.
+ * </p>
+ * <p>
+ * The tokenizer lives here rather than in {@link CSVUtil}, which only holds the writing side,
+ * so that reading and writing each keep to one class.
+ * </p>
+ * <p>
+ * All methods are static as this is a utility class not meant to be instantiated.
+ * </p>
+ */
+public class CSVReader {
+    /** Size of the buffer a file is read through, in bytes */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Reads every record of a CSV file.
+     *
+     * @param filePath The path to the CSV file
+     * @param skipHeader Whether the first line is a header that should not be passed to the handler
+     * @param handler The handler that receives each record
+     * @throws IOException If the file cannot be read
+     */
+    public static void read(String filePath, boolean skipHeader, CSVHandlerInterface handler) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists() || file.length() == 0) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            boolean header = skipHeader;
+            boolean end = false;
+            while (!end) {
+                if (!buffer.hasRemaining()) {
+                    // One record fills the whole buffer, so make room for the rest of it
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+                end = channel.read(buffer) < 0;
+                buffer.flip();
+                int scanned = scan(buffer, header, end, handler);
+                if (scanned > 0) {
+                    header = false;
+                }
+                // Keep the unfinished record for the next fill
+                buffer.position(scanned);
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Parses CSV text held in a String.
+     * <p>
+     * This is used for records that do not come from a data file, such as those read back
+     * from a table's journal, so that they are handled in the same way as records in the file.
+     * A quoted field in the text may span several lines.
+     * </p>
+     *
+     * @param text The CSV text, holding one or more records
+     * @param handler The handler that receives each record
+     */
+    public static void readText(String text, CSVHandlerInterface handler) {
+        scan(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), false, true, handler);
+    }
+
+    /**
+     * Splits a buffer into records and passes each non-empty record to the handler.
+     * <p>
+     * The buffer is tokenized in a single pass. A field that starts with a double quote runs
+     * until the matching closing quote, so commas and line breaks inside it belong to the
+     * field, and a doubled quote ("") inside it does not end it. Unless the buffer holds the
+     * end of the text, a record is only passed on once its line break has been found outside
+     * any quotes; the rest of the buffer is left for the caller to scan again with more text.
+     * </p>
+     *
+     * @param buffer The buffer holding the CSV text, from position 0 up to its limit
+     * @param skipHeader Whether the first record is a header that should be skipped
+     * @param last Whether the buffer holds the end of the text, so a record without a line break is complete
+     * @param handler The handler that receives each record
+     * @return The number of bytes scanned, which is where the first unfinished record starts
+     */
+    private static int scan(ByteBuffer buffer, boolean skipHeader, boolean last, CSVHandlerInterface handler) {
+        CSVRecord record = new CSVRecord();
+        int limit = buffer.limit();
+        int position = 0;
+        boolean isFirstLine = skipHeader;
+
+        while (position < limit) {
+            record.begin(buffer, position);
+            int fieldStart = position;
+            boolean quoted = false;
+            boolean inQuotes = false;
+            int i = position;
+
+            for (; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (inQuotes) {
+                    if (b == '"') {
+                        if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                            i++; // Doubled quote inside the field
+                        } else {
+                            inQuotes = false;
+                        }
+                    }
+                } else if (b == '"' && i == fieldStart) {
+                    quoted = true;
+                    inQuotes = true;
+                } else if (b == ',') {
+                    record.addField(fieldStart, i, quoted);
+                    fieldStart = i + 1;
+                    quoted = false;
+                } else if (b == '\n') {
+                    break;
+                }
+            }
+
+            if (i == limit && !last) {
+                // The record goes on past the end of the buffer
+                break;
+            }
+            int lineEnd = i;
+            int end = lineEnd;
+            if (!inQuotes && end > fieldStart && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            record.addField(fieldStart, end, quoted);
+            record.finish(end, !inQuotes);
+
+            if (isFirstLine) {
+                // Skip the header row
+                isFirstLine = false;
+            } else if (end > position) {
+                handler.handleRecord(record);
+            }
+            position = lineEnd + 1;
+        }
+        return Math.min(position, limit);
+    }
+}
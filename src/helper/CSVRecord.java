@@ -0,0 +1,297 @@
+package helper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A view of one record of a CSV file held in a byte buffer.
+ * <p>
+ * Fields are stored as start and end offsets into the buffer, and a String is only
+ * created when a field is asked for with {@link #getString(int)}. Numeric fields can be
+ * read with {@link #getInt(int)} without creating a String at all. The same record object
+ * is reused by {@link CSVReader} for every record in a file.
+ * </p>
+ * <p>
+ * A field enclosed in double quotes may contain commas, line breaks and quotes written
+ * twice (""), as described in RFC 4180. The enclosing quotes are removed and doubled
+ * quotes are collapsed when the field is read.
+ * </p>
+ */
+public class CSVRecord {
+    /** The buffer holding the file contents */
+    private ByteBuffer buffer;
+
+    /** Offset of the first byte of the record */
+    private int recordStart;
+
+    /** Offset just past the last byte of the record */
+    private int recordEnd;
+
+    /** Offset of the first byte of each field */
+    private int[] fieldStarts = new int[16];
+
+    /** Offset just past the last byte of each field */
+    private int[] fieldEnds = new int[16];
+
+    /** Whether each field is enclosed in double quotes */
+    private boolean[] fieldQuoted = new boolean[16];
+
+    /** Number of fields in the record */
+    private int fieldCount;
+
+    /** Whether the record ended normally rather than inside a quoted field */
+    private boolean complete;
+
+    /** Scratch space used to decode fields into Strings */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Starts a new record at an offset of a buffer, discarding the previous fields.
+     *
+     * @param buffer The buffer holding the record
+     * @param start Offset of the first byte of the record
+     */
+    void begin(ByteBuffer buffer, int start) {
+        this.buffer = buffer;
+        this.recordStart = start;
+        this.recordEnd = start;
+        this.fieldCount = 0;
+        this.complete = true;
+    }
+
+    /**
+     * Marks the end of the record once all of its fields have been added.
+     *
+     * @param end Offset just past the last byte of the record, excluding the line break
+     * @param complete Whether the record ended normally rather than inside a quoted field
+     */
+    void finish(int end, boolean complete) {
+        this.recordEnd = end;
+        this.complete = complete;
+    }
+
+    /**
+     * Gets the number of fields in the record, including trailing empty fields.
+     *
+     * @return The number of fields
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Drops the fields after the first few, so that handlers only see the columns they expect.
+     * <p>
+     * This is used to hide bookkeeping columns kept at the end of a record. The text returned
+     * by {@link #toString()} still includes the dropped fields.
+     * </p>
+     *
+     * @param count The number of fields to keep
+     */
+    public void truncate(int count) {
+        if (count >= 0 && count < fieldCount) {
+            fieldCount = count;
+        }
+    }
+
+    /**
+     * Checks whether a field is empty.
+     *
+     * @param index The index of the field
+     * @return true if the field has no characters, false otherwise
+     * @throws IndexOutOfBoundsException If the record has no such field
+     */
+    public boolean isEmpty(int index) {
+        checkIndex(index);
+        if (fieldQuoted[index]) {
+            return getString(index).isEmpty();
+        }
+        return fieldStarts[index] == fieldEnds[index];
+    }
+
+    /**
+     * Gets a field as a String.
+     *
+     * @param index The index of the field
+     * @return The text of the field
+     * @throws IndexOutOfBoundsException If the record has no such field
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        if (fieldQuoted[index]) {
+            return unquote(fieldStarts[index], fieldEnds[index]);
+        }
+        return decode(fieldStarts[index], fieldEnds[index]);
+    }
+
+    /**
+     * Gets a field as an int, parsing it directly from the buffer.
+     *
+     * @param index The index of the field
+     * @return The value of the field
+     * @throws IndexOutOfBoundsException If the record has no such field
+     * @throws NumberFormatException If the field is not a valid integer
+     */
+    public int getInt(int index) {
+        checkIndex(index);
+        if (fieldQuoted[index]) {
+            return Integer.parseInt(getString(index));
+        }
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        if (start == end) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+
+        boolean negative = buffer.get(start) == '-';
+        int i = negative || buffer.get(start) == '+' ? start + 1 : start;
+        if (i == end) {
+            throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Gets a field as a double.
+     *
+     * @param index The index of the field
+     * @return The value of the field
+     * @throws IndexOutOfBoundsException If the record has no such field
+     * @throws NumberFormatException If the field is not a valid number
+     */
+    public double getDouble(int index) {
+        return Double.parseDouble(getString(index));
+    }
+
+    /**
+     * Copies every field of the record into an array.
+     *
+     * @return The fields of the record, including trailing empty fields
+     */
+    public String[] toArray() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = getString(i);
+        }
+        return fields;
+    }
+
+    /**
+     * Checks whether the record ended normally.
+     * <p>
+     * A record is incomplete when the input ran out inside a quoted field, which happens
+     * when the end of a file was cut short while it was being written.
+     * </p>
+     *
+     * @return true if the record was terminated, false otherwise
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the whole record as it appears in the file, with any quoting intact.
+     *
+     * @return The text of the record
+     */
+    @Override
+    public String toString() {
+        return decode(recordStart, recordEnd);
+    }
+
+    /**
+     * Records the bounds of the next field, growing the offset arrays if needed.
+     *
+     * @param start Offset of the first byte of the field, including any opening quote
+     * @param end Offset just past the last byte of the field, including any closing quote
+     * @param quoted Whether the field starts with a double quote
+     */
+    void addField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    /**
+     * Decodes a range of the buffer as UTF-8 text.
+     *
+     * @param start Offset of the first byte
+     * @param end Offset just past the last byte
+     * @return The decoded text
+     */
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a quoted field, removing the enclosing quotes and collapsing doubled quotes.
+     * <p>
+     * Any text after the closing quote is kept as it is, so a malformed field loses nothing.
+     * </p>
+     *
+     * @param start Offset of the opening quote
+     * @param end Offset just past the last byte of the field
+     * @return The decoded text
+     */
+    private String unquote(int start, int end) {
+        int length = 0;
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        for (int i = start + 1; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                if (i + 1 < end && buffer.get(i + 1) == '"') {
+                    i++; // Doubled quote inside the field
+                } else {
+                    continue; // Closing quote
+                }
+            }
+            scratch[length++] = b;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks that a field index is within the record.
+     *
+     * @param index The index of the field
+     * @throws IndexOutOfBoundsException If the record has no such field
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + fieldCount);
+        }
+    }
+}
@@ -12,7 +12,14 @@ import java.util.List;
 /**
  * Utility class for handling CSV file operations in the BTO housing system.
  * Provides static methods for common file operations such as cleaning and
- * manipulating CSV files that store application data.
+ * manipulating CSV files that store application data, and for formatting records
+ * so that they can be read back by {@link CSVReader}.
+ * <p>
+ * Records are written as described in RFC 4180: a field that contains a comma, a double
+ * quote or a line break is enclosed in double quotes, and any double quote inside it is
+ * written twice. Other fields are written as they are, so existing data files keep their
+ * format.
+ * </p>
  * <p>
  * This class uses standard Java I/O operations to process CSV files.
  * All methods are static as this is a utility class not meant to be instantiated.
@@ -55,4 +62,64 @@ public class CSVUtil {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Formats fields as a single CSV record, quoting any field that needs it.
+     *
+     * @param fields The fields of the record; a null field is written as an empty field
+     * @return The CSV record, without a line break
+     */
+    public static String formatRecord(String... fields) {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            appendField(record, fields[i]);
+        }
+        return record.toString();
+    }
+
+    /**
+     * Formats a single field so that it can be placed in a CSV record.
+     *
+     * @param field The field value; null is written as an empty field
+     * @return The field, enclosed in quotes if it contains a comma, quote or line break
+     */
+    public static String formatField(String field) {
+        StringBuilder builder = new StringBuilder();
+        appendField(builder, field);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a field to a record being built, quoting it if needed.
+     *
+     * @param record The record being built
+     * @param field The field value; null is written as an empty field
+     */
+    public static void appendField(StringBuilder record, String field) {
+        if (field == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length() && !needsQuotes; i++) {
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            record.append(field);
+            return;
+        }
+
+        record.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                record.append('"'); // Escape by doubling
+            }
+            record.append(c);
+        }
+        record.append('"');
+    }
+}
@@ -0,0 +1,402 @@
+package helper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class for reading and writing JSON in the BTO housing system.
+ * Provides static methods used by the HTTP service to turn request bodies into maps
+ * and responses into JSON text.
+ * <p>
+ * Values are represented with plain Java types: objects are {@link Map}s with String keys,
+ * arrays are {@link List}s, and strings, numbers, booleans and null map to String,
+ * Number, Boolean and null. When writing, enums and any other object are written as
+ * strings using their toString method. Objects and arrays nested more than
+ * {@link #MAX_DEPTH} deep are rejected when parsing, so that a hostile request cannot
+ * exhaust the parser's stack.
+ * </p>
+ * <p>
+ * All methods are static as this is a utility class not meant to be instantiated.
+ * </p>
+ */
+public class JsonUtil {
+    /** The deepest nesting of objects and arrays that is parsed */
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * Writes a value as JSON text.
+     *
+     * @param value The value to write
+     * @return The JSON text
+     */
+    public static String toJson(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(out, value);
+        return out.toString();
+    }
+
+    /**
+     * Appends a value as JSON text to text being built, so that many values can be written
+     * without building a string for each.
+     *
+     * @param out The text being built
+     * @param value The value to append
+     */
+    public static void appendJson(StringBuilder out, Object value) {
+        write(out, value);
+    }
+
+    /**
+     * Parses JSON text into plain Java values.
+     *
+     * @param text The JSON text
+     * @return The parsed value, which is a Map for a JSON object
+     * @throws IllegalArgumentException If the text is not valid JSON
+     */
+    public static Object parse(String text) {
+        Parser parser = new Parser(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw parser.error("Unexpected text after the value");
+        }
+        return value;
+    }
+
+    /**
+     * Parses JSON text that must hold an object.
+     *
+     * @param text The JSON text, or an empty string for an empty object
+     * @return The parsed object
+     * @throws IllegalArgumentException If the text is not a valid JSON object
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        if (text == null || text.isBlank()) {
+            return new LinkedHashMap<>();
+        }
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Appends a value to a JSON text being built.
+     *
+     * @param out The text being built
+     * @param value The value to append
+     */
+    private static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Number) {
+            Number number = (Number) value;
+            if (number instanceof Double && !Double.isFinite(number.doubleValue())) {
+                out.append("null");
+            } else {
+                out.append(number);
+            }
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(out, String.valueOf(entry.getKey()));
+                out.append(':');
+                write(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(out, element);
+            }
+            out.append(']');
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    /**
+     * Appends a string to a JSON text being built, escaping it as needed.
+     *
+     * @param out The text being built
+     * @param text The string to append
+     */
+    private static void writeString(StringBuilder out, String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Reads JSON text one value at a time.
+     */
+    private static class Parser {
+        /** The text being parsed */
+        private final String text;
+
+        /** Index of the next character to read */
+        private int position = 0;
+
+        /** The number of objects and arrays the current position is inside */
+        private int depth = 0;
+
+        /**
+         * Constructs a parser for some text.
+         *
+         * @param text The JSON text
+         */
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Reads the value starting at the current position.
+         *
+         * @return The value
+         */
+        private Object readValue() {
+            if (position >= text.length()) {
+                throw error("Unexpected end of text");
+            }
+            char c = text.charAt(position);
+            switch (c) {
+                case '{':
+                case '[':
+                    if (++depth > MAX_DEPTH) {
+                        throw error("Objects and arrays are nested more than " + MAX_DEPTH + " deep");
+                    }
+                    try {
+                        return c == '{' ? readObject() : readArray();
+                    } finally {
+                        depth--;
+                    }
+                case '"':
+                    return readString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return readNumber();
+                    }
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        /**
+         * Reads an object, keeping its keys in the order they appear.
+         *
+         * @return The object
+         */
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected a key");
+                }
+                String key = readString();
+                skipWhitespace();
+                if (peek() != ':') {
+                    throw error("Expected ':'");
+                }
+                position++;
+                skipWhitespace();
+                object.put(key, readValue());
+                skipWhitespace();
+                char c = peek();
+                position++;
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        /**
+         * Reads an array.
+         *
+         * @return The elements of the array
+         */
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                skipWhitespace();
+                array.add(readValue());
+                skipWhitespace();
+                char c = peek();
+                position++;
+                if (c == ']') {
+                    return array;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        /**
+         * Reads a string, resolving escape sequences.
+         *
+         * @return The string
+         */
+        private String readString() {
+            StringBuilder value = new StringBuilder();
+            position++;
+            while (true) {
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        position += 4;
+                    }
+                    default -> throw error("Invalid escape '\\" + escaped + "'");
+                }
+            }
+        }
+
+        /**
+         * Reads a number, as a Long if it is a whole number and a Double otherwise.
+         *
+         * @return The number
+         */
+        private Number readNumber() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            String number = text.substring(start, position);
+            try {
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return Long.parseLong(number);
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number " + number);
+            }
+        }
+
+        /**
+         * Reads a literal word such as true, false or null.
+         *
+         * @param word The word expected at the current position
+         */
+        private void expect(String word) {
+            if (!text.startsWith(word, position)) {
+                throw error("Expected " + word);
+            }
+            position += word.length();
+        }
+
+        /**
+         * Gets the character at the current position without reading it.
+         *
+         * @return The character
+         */
+        private char peek() {
+            if (position >= text.length()) {
+                throw error("Unexpected end of text");
+            }
+            return text.charAt(position);
+        }
+
+        /**
+         * Moves past any whitespace at the current position.
+         */
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Creates an exception describing a syntax error at the current position.
+         *
+         * @param message A description of the error
+         * @return The exception
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+    }
+}
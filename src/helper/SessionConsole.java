@@ -0,0 +1,326 @@
+package helper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Routes console input and output to different streams for each thread.
+ * <p>
+ * The controllers report what they did by printing to {@link System#out}. When several
+ * users are served by one process, each request runs on its own thread, and what a
+ * controller prints while handling a request belongs to that request alone. Once
+ * {@link #install()} has been called, anything a thread prints goes to the stream it set
+ * with {@link #redirect(PrintStream)}, or to the real console if it has not set one.
+ * </p>
+ * <p>
+ * A PrintStream locks itself for every call, so the stream installed as {@link System#out}
+ * overrides every method to hand the call straight to the thread's own stream. Threads
+ * printing at the same time therefore never wait for each other, and a session whose client
+ * has stopped reading only holds up its own thread.
+ * </p>
+ * <p>
+ * Input works the same way. Menus read from the Scanner returned by {@link #getScanner()},
+ * which is the one given to {@link #attach(InputStream, PrintStream)} by a terminal session,
+ * or a single Scanner over {@link System#in} otherwise. Every prompt of a session reads from
+ * the same Scanner, so input typed ahead is never lost between prompts.
+ * </p>
+ * <p>
+ * All methods are static as this is a utility class not meant to be instantiated.
+ * </p>
+ */
+public class SessionConsole {
+    /** The stream each thread prints to, or null to print to the real console */
+    private static final ThreadLocal<PrintStream> output = new ThreadLocal<>();
+
+    /** The Scanner each thread reads from, or null to read from the real console */
+    private static final ThreadLocal<Scanner> input = new ThreadLocal<>();
+
+    /** The real console, or null until the router is installed */
+    private static PrintStream console = null;
+
+    /** The Scanner over the real console, or null until it is first needed */
+    private static Scanner consoleScanner = null;
+
+    /**
+     * Replaces {@link System#out} with a stream that routes output by thread.
+     * Calling this more than once has no further effect.
+     */
+    public static synchronized void install() {
+        if (console != null) {
+            return;
+        }
+        console = System.out;
+        System.setOut(new RoutingPrintStream());
+    }
+
+    /**
+     * Sends the current thread's console output to a stream.
+     *
+     * @param stream The stream to print to, or null to print to the real console again
+     * @return The stream the thread printed to before, or null if it printed to the real console
+     */
+    public static PrintStream redirect(PrintStream stream) {
+        PrintStream previous = output.get();
+        if (stream == null) {
+            output.remove();
+        } else {
+            output.set(stream);
+        }
+        return previous;
+    }
+
+    /**
+     * Connects the current thread to a terminal session, so that menus run on it read from
+     * and print to the session's streams. The router is installed if it was not already.
+     *
+     * @param in The stream the session's input arrives on
+     * @param out The stream the session's output is written to
+     */
+    public static void attach(InputStream in, PrintStream out) {
+        install();
+        input.set(new Scanner(in, StandardCharsets.UTF_8));
+        output.set(out);
+    }
+
+    /**
+     * Disconnects the current thread from its terminal session, so that it uses the real console again.
+     */
+    public static void detach() {
+        input.remove();
+        output.remove();
+    }
+
+    /**
+     * Gets the Scanner that menus on the current thread read input from.
+     *
+     * @return The session's Scanner, or the Scanner over the real console if the thread has no session
+     */
+    public static Scanner getScanner() {
+        Scanner scanner = input.get();
+        if (scanner != null) {
+            return scanner;
+        }
+        synchronized (SessionConsole.class) {
+            if (consoleScanner == null) {
+                consoleScanner = new Scanner(System.in);
+            }
+            return consoleScanner;
+        }
+    }
+
+    /**
+     * Gets the stream the current thread prints to.
+     *
+     * @return The thread's stream, or the real console if it has not set one
+     */
+    private static PrintStream target() {
+        PrintStream stream = output.get();
+        return stream != null ? stream : console;
+    }
+
+    /**
+     * The stream installed as {@link System#out}, which hands every call to the stream of the
+     * thread making it without taking any lock of its own.
+     */
+    private static class RoutingPrintStream extends PrintStream {
+        /**
+         * Constructs the routing stream.
+         */
+        RoutingPrintStream() {
+            super(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    target().write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                    target().write(bytes, offset, length);
+                }
+            }, true, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void flush() {
+            target().flush();
+        }
+
+        @Override
+        public void close() {
+            // The streams behind this one belong to their sessions, which close them
+            target().flush();
+        }
+
+        @Override
+        public boolean checkError() {
+            return target().checkError();
+        }
+
+        @Override
+        public void write(int b) {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            target().write(bytes, offset, length);
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            target().write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void writeBytes(byte[] bytes) {
+            target().write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void print(boolean b) {
+            target().print(b);
+        }
+
+        @Override
+        public void print(char c) {
+            target().print(c);
+        }
+
+        @Override
+        public void print(int i) {
+            target().print(i);
+        }
+
+        @Override
+        public void print(long l) {
+            target().print(l);
+        }
+
+        @Override
+        public void print(float f) {
+            target().print(f);
+        }
+
+        @Override
+        public void print(double d) {
+            target().print(d);
+        }
+
+        @Override
+        public void print(char[] chars) {
+            target().print(chars);
+        }
+
+        @Override
+        public void print(String s) {
+            target().print(s);
+        }
+
+        @Override
+        public void print(Object obj) {
+            target().print(obj);
+        }
+
+        @Override
+        public void println() {
+            target().println();
+        }
+
+        @Override
+        public void println(boolean b) {
+            target().println(b);
+        }
+
+        @Override
+        public void println(char c) {
+            target().println(c);
+        }
+
+        @Override
+        public void println(int i) {
+            target().println(i);
+        }
+
+        @Override
+        public void println(long l) {
+            target().println(l);
+        }
+
+        @Override
+        public void println(float f) {
+            target().println(f);
+        }
+
+        @Override
+        public void println(double d) {
+            target().println(d);
+        }
+
+        @Override
+        public void println(char[] chars) {
+            target().println(chars);
+        }
+
+        @Override
+        public void println(String s) {
+            target().println(s);
+        }
+
+        @Override
+        public void println(Object obj) {
+            target().println(obj);
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            target().printf(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream printf(Locale locale, String format, Object... args) {
+            target().printf(locale, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            target().format(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(Locale locale, String format, Object... args) {
+            target().format(locale, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq) {
+            target().append(csq);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq, int start, int end) {
+            target().append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(char c) {
+            target().append(c);
+            return this;
+        }
+
+        @Override
+        public Charset charset() {
+            return target().charset();
+        }
+    }
+}
@@ -1,6 +1,20 @@
 package main;
 
 import controller.AuthenticationController;
+import controller.ReportExporter;
+import enums.ExportFormat;
+import enums.ReportType;
+import model.ReportSpec;
+import repository.DataStore;
+import repository.DataWatcher;
+import repository.Storage;
+import server.BTOApi;
+import server.BTOServer;
+import server.SessionRegistry;
+import server.TerminalServer;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Main entry point for the BTO Housing System application.
@@ -11,17 +25,199 @@ import controller.AuthenticationController;
  * </p>
  */
 public class BTOMain {
+    /** Port the HTTP service listens on when no port is given */
+    private static final int DEFAULT_PORT = 8080;
+
+    /** Minutes an unused session of the HTTP service stays signed in by default */
+    private static final int DEFAULT_SESSION_MINUTES = 30;
+
+    /** Port the terminal server listens on when no port is given */
+    private static final int DEFAULT_TERMINAL_PORT = 2323;
+
+    /** Minutes a silent terminal connection stays open by default */
+    private static final int DEFAULT_TERMINAL_IDLE_MINUTES = 30;
+
+    /** Number of terminal connections that may be open at once by default */
+    private static final int DEFAULT_TERMINAL_MAX_CONNECTIONS = 200;
+
     /**
      * The main method that serves as the entry point for the application.
      * <p>
-     * Creates and initializes an instance of AuthenticationController to
-     * begin the user authentication process and application flow.
+     * Chooses the storage backend named by the btoms.storage system property ("csv" by
+     * default, or "jdbc" for an embedded database), loads all tables into the in-memory
+     * data store and starts watching the data files for outside edits, then creates and
+     * initializes an instance of AuthenticationController to begin the user
+     * authentication process and application flow. When the user exits, the storage
+     * backend is closed, which writes any pending changes to disk, and a snapshot
+     * of the data store is saved so that the next start is faster.
+     * </p>
+     * <p>
+     * When started with "--server", no menu is shown. Instead the system is served as JSON
+     * over HTTP on the port given after it (8080 by default) until the process is stopped.
+     * When started with "--terminal", the menus are served to any number of telnet or nc
+     * connections on the port given after it (2323 by default) instead of to this console.
+     * When started with "--export", the report named after it is written unfiltered to a file
+     * in the given format, CSV or JSON, and the program exits, so exports can be scheduled.
      * </p>
      *
-     * @param args Command line arguments (not used in this application)
+     * @param args Command line arguments: nothing for the interactive menus, "--server" or
+     *             "--terminal" and an optional port, or "--export", a report type, a format and a file
      */
     public static void main(String[] args) {
+        Storage.select(System.getProperty("btoms.storage", Storage.CSV));
+        DataStore.load();
+        DataWatcher.start();
+        if (args.length > 0 && (args[0].equals("--server") || args[0].equals("--terminal"))) {
+            boolean terminal = args[0].equals("--terminal");
+            int port = parsePort(args, terminal ? DEFAULT_TERMINAL_PORT : DEFAULT_PORT);
+            if (port < 0) {
+                shutDown();
+                System.exit(1);
+            }
+            if (terminal) {
+                startTerminalServer(port);
+            } else {
+                startServer(port);
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--export")) {
+            boolean exported = exportReport(args);
+            shutDown();
+            if (!exported) {
+                System.exit(1);
+            }
+            return;
+        }
         AuthenticationController authenticationController = new AuthenticationController();
         authenticationController.start();
+        shutDown();
+    }
+
+    /**
+     * Reads the port given after "--server" or "--terminal", printing the usage if it is not a port.
+     *
+     * @param args The command line arguments: the mode and an optional port
+     * @param defaultPort The port to use when none is given
+     * @return The port, or -1 if the arguments are not valid
+     */
+    private static int parsePort(String[] args, int defaultPort) {
+        if (args.length == 1) {
+            return defaultPort;
+        }
+        if (args.length == 2) {
+            try {
+                int port = Integer.parseInt(args[1]);
+                if (port >= 0 && port <= 65535) {
+                    return port;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below with the usage
+            }
+        }
+        System.out.println("Error: invalid arguments. Usage: " + args[0] + " [port], where the port is 0 to 65535");
+        return -1;
+    }
+
+    /**
+     * Starts the HTTP service, which runs until the process is stopped.
+     * <p>
+     * The process keeps running on the server's threads after this method returns. When it
+     * is stopped, the server finishes the requests it has started before the data is saved,
+     * and this is the only hook that closes the storage, so nothing is closed under a request.
+     * The idle timeout of sessions is read from the btoms.server.sessionMinutes system property.
+     * </p>
+     *
+     * @param port The port to listen on
+     */
+    private static void startServer(int port) {
+        long sessionMinutes = Long.getLong("btoms.server.sessionMinutes", DEFAULT_SESSION_MINUTES);
+        BTOServer server = new BTOServer(new SessionRegistry(sessionMinutes * 60_000));
+        BTOApi.register(server);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.out.println("Error starting server: " + e.getMessage());
+            shutDown();
+            return;
+        }
+        Storage.disableCloseOnExit();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            shutDown();
+        }, "server-shutdown"));
+        System.out.println("BTO service listening on port " + server.getPort() + ".");
+    }
+
+    /**
+     * Starts the terminal server, which runs until the process is stopped.
+     * <p>
+     * The process keeps running on the server's threads after this method returns. When it
+     * is stopped, open connections are closed before the data is saved, by the only hook that
+     * closes the storage. The idle timeout of
+     * connections is read from the btoms.terminal.idleMinutes system property, and the number
+     * of connections allowed at once from btoms.terminal.maxConnections.
+     * </p>
+     *
+     * @param port The port to listen on
+     */
+    private static void startTerminalServer(int port) {
+        int idleMinutes = Integer.getInteger("btoms.terminal.idleMinutes", DEFAULT_TERMINAL_IDLE_MINUTES);
+        int maxConnections = Integer.getInteger("btoms.terminal.maxConnections", DEFAULT_TERMINAL_MAX_CONNECTIONS);
+        TerminalServer server = new TerminalServer(idleMinutes * 60_000, Math.max(1, maxConnections));
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.out.println("Error starting terminal server: " + e.getMessage());
+            shutDown();
+            return;
+        }
+        Storage.disableCloseOnExit();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            shutDown();
+        }, "terminal-shutdown"));
+        System.out.println("BTO terminal server listening on port " + server.getPort() + ".");
+    }
+
+    /**
+     * Exports a report to a file without showing any menu.
+     *
+     * @param args The command line arguments: "--export", the report type, the format and the file
+     * @return true if the report was exported, false otherwise
+     */
+    private static boolean exportReport(String[] args) {
+        if (args.length != 4) {
+            System.out.println("Usage: --export APPLICATION_STATUS|BOOKED_APPLICATIONS|PROJECT_SUMMARY CSV|JSON <file>");
+            return false;
+        }
+        ReportType type;
+        ExportFormat format;
+        try {
+            type = ReportType.valueOf(args[1].toUpperCase());
+            format = ExportFormat.valueOf(args[2].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: unknown report type or format. Usage: --export "
+                    + "APPLICATION_STATUS|BOOKED_APPLICATIONS|PROJECT_SUMMARY CSV|JSON <file>");
+            return false;
+        }
+        return new ReportExporter().exportToFile(new ReportSpec(type), format, Path.of(args[3]));
+    }
+
+    /**
+     * Stops watching the data files, writes any pending changes and saves a snapshot of the data store.
+     * <p>
+     * If some changes could not be written, no snapshot is saved and any earlier one is deleted,
+     * so the next start reads what actually reached the data files.
+     * </p>
+     */
+    private static void shutDown() {
+        DataWatcher.stop();
+        if (Storage.close()) {
+            DataStore.saveSnapshot();
+        } else {
+            System.out.println("Some changes could not be written, so no data snapshot was saved.");
+            DataStore.discardSnapshot();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package model;
+
+import enums.BallotCriterion;
+import enums.MaritalStatus;
+
+/**
+ * Represents one priority rule used when balloting a project.
+ * <p>
+ * A rule gives every application whose applicant matches a criterion a weight, and an
+ * application's chance of being drawn is proportional to the product of the weights of
+ * all the rules it matches. A rule applies either to one project or, with the project ID
+ * "ALL", to every project that has no rule of its own for the same criterion.
+ * </p>
+ */
+public class BallotWeight {
+    /** Project ID used by rules that apply to every project */
+    public static final String ALL_PROJECTS = "ALL";
+
+    /** Unique identifier for this rule */
+    private final String weightID;
+
+    /** The project the rule applies to, or {@link #ALL_PROJECTS} */
+    private final String projectID;
+
+    /** The attribute the rule looks at */
+    private final BallotCriterion criterion;
+
+    /** The value of the attribute that earns the weight */
+    private final String value;
+
+    /** The weight given to matching applications */
+    private final double weight;
+
+    /**
+     * Constructs a new ballot weight rule.
+     *
+     * @param weightID  The unique identifier for this rule
+     * @param projectID The project the rule applies to, or {@link #ALL_PROJECTS}
+     * @param criterion The attribute the rule looks at
+     * @param value     The value of the attribute that earns the weight
+     * @param weight    The weight given to matching applications
+     */
+    public BallotWeight(String weightID, String projectID, BallotCriterion criterion, String value, double weight) {
+        this.weightID = weightID;
+        this.projectID = projectID;
+        this.criterion = criterion;
+        this.value = value;
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the unique identifier for this rule.
+     *
+     * @return The rule's ID
+     */
+    public String getWeightID() {
+        return weightID;
+    }
+
+    /**
+     * Gets the project the rule applies to.
+     *
+     * @return The project ID, or {@link #ALL_PROJECTS}
+     */
+    public String getProjectID() {
+        return projectID;
+    }
+
+    /**
+     * Gets the attribute the rule looks at.
+     *
+     * @return The criterion
+     */
+    public BallotCriterion getCriterion() {
+        return criterion;
+    }
+
+    /**
+     * Gets the value of the attribute that earns the weight.
+     *
+     * @return The value, such as MARRIED or 35-44
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the weight given to matching applications.
+     *
+     * @return The weight
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Checks whether an applicant earns this rule's weight.
+     *
+     * @param user The applicant or officer who applied
+     * @param firstTime Whether this is the user's first application
+     * @return true if the user matches the rule
+     */
+    public boolean matches(User user, boolean firstTime) {
+        switch (criterion) {
+            case MARITAL_STATUS:
+                return user.getMaritalStatus() != null && user.getMaritalStatus().name().equals(value);
+            case FIRST_TIME:
+                return Boolean.parseBoolean(value) == firstTime;
+            case AGE_BAND:
+                int[] band = parseAgeBand(value);
+                return band != null && user.getAge() >= band[0] && user.getAge() <= band[1];
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks whether a value can be used with a criterion.
+     *
+     * @param criterion The criterion
+     * @param value The value, in upper case
+     * @return true if the value is valid for the criterion
+     */
+    public static boolean isValidValue(BallotCriterion criterion, String value) {
+        switch (criterion) {
+            case MARITAL_STATUS:
+                for (MaritalStatus status : MaritalStatus.values()) {
+                    if (status.name().equals(value)) {
+                        return true;
+                    }
+                }
+                return false;
+            case FIRST_TIME:
+                return value.equals("TRUE") || value.equals("FALSE");
+            case AGE_BAND:
+                return parseAgeBand(value) != null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses an age band such as 35-44, or 55- for no upper limit.
+     *
+     * @param value The age band
+     * @return The lowest and highest age in the band, or null if the value is not a valid band
+     */
+    private static int[] parseAgeBand(String value) {
+        int dash = value.indexOf('-');
+        if (dash <= 0) {
+            return null;
+        }
+        try {
+            int lowest = Integer.parseInt(value.substring(0, dash).trim());
+            String upper = value.substring(dash + 1).trim();
+            int highest = upper.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(upper);
+            return lowest <= highest ? new int[]{lowest, highest} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a short description of the rule, such as "MARITAL_STATUS=MARRIED x2.0".
+     *
+     * @return The description
+     */
+    @Override
+    public String toString() {
+        return criterion + "=" + value + " x" + weight;
+    }
+}
@@ -0,0 +1,198 @@
+package model;
+
+import enums.ApplicantAppStatus;
+import enums.FlatType;
+import enums.ReportType;
+import enums.WithdrawalStatus;
+
+import java.util.Objects;
+
+/**
+ * Represents a request for a report: the kind of report and the filters to apply.
+ * <p>
+ * Filters that are null are not applied. Each kind of report uses only some of them:
+ * </p>
+ * <ul>
+ *     <li>APPLICATION_STATUS: project ID, application status, withdrawal status and flat type</li>
+ *     <li>BOOKED_APPLICATIONS: project ID and flat type</li>
+ *     <li>PROJECT_SUMMARY: project ID and neighbourhood</li>
+ * </ul>
+ * <p>
+ * Specs with the same report type and filters are equal, so a spec can be used as the key
+ * of a cache of report results.
+ * </p>
+ */
+public class ReportSpec {
+    /** The kind of report */
+    private final ReportType type;
+
+    /** The project to report on, or null for every project */
+    private final String projectID;
+
+    /** The neighbourhood to report on, or null for every neighbourhood */
+    private final String neighbourhood;
+
+    /** The application status to report on, or null for every status */
+    private final ApplicantAppStatus status;
+
+    /** The withdrawal status to report on, or null for every withdrawal status */
+    private final WithdrawalStatus withdrawalStatus;
+
+    /** The flat type to report on, or null for every flat type */
+    private final FlatType flatType;
+
+    /**
+     * Constructs a report spec.
+     *
+     * @param type             The kind of report
+     * @param projectID        The project to report on, or null for every project
+     * @param neighbourhood    The neighbourhood to report on, or null for every neighbourhood
+     * @param status           The application status to report on, or null for every status
+     * @param withdrawalStatus The withdrawal status to report on, or null for every withdrawal status
+     * @param flatType         The flat type to report on, or null for every flat type
+     */
+    public ReportSpec(ReportType type, String projectID, String neighbourhood, ApplicantAppStatus status,
+                      WithdrawalStatus withdrawalStatus, FlatType flatType) {
+        this.type = type;
+        this.projectID = projectID;
+        this.neighbourhood = neighbourhood;
+        this.status = status;
+        this.withdrawalStatus = withdrawalStatus;
+        this.flatType = flatType;
+    }
+
+    /**
+     * Constructs a report spec with no filters.
+     *
+     * @param type The kind of report
+     */
+    public ReportSpec(ReportType type) {
+        this(type, null, null, null, null, null);
+    }
+
+    /**
+     * Gets the kind of report.
+     *
+     * @return The report type
+     */
+    public ReportType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the project to report on.
+     *
+     * @return The project ID, or null for every project
+     */
+    public String getProjectID() {
+        return projectID;
+    }
+
+    /**
+     * Gets the neighbourhood to report on.
+     *
+     * @return The neighbourhood, or null for every neighbourhood
+     */
+    public String getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    /**
+     * Gets the application status to report on.
+     *
+     * @return The application status, or null for every status
+     */
+    public ApplicantAppStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Gets the withdrawal status to report on.
+     *
+     * @return The withdrawal status, or null for every withdrawal status
+     */
+    public WithdrawalStatus getWithdrawalStatus() {
+        return withdrawalStatus;
+    }
+
+    /**
+     * Gets the flat type to report on.
+     *
+     * @return The flat type, or null for every flat type
+     */
+    public FlatType getFlatType() {
+        return flatType;
+    }
+
+    /**
+     * Checks whether another object is a spec for the same report with the same filters.
+     * Neighbourhoods are compared ignoring case, as the report does.
+     *
+     * @param o The object to compare with
+     * @return true if the object is an equal spec, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportSpec other)) {
+            return false;
+        }
+        return type == other.type
+                && Objects.equals(projectID, other.projectID)
+                && Objects.equals(upperCase(neighbourhood), upperCase(other.neighbourhood))
+                && status == other.status
+                && withdrawalStatus == other.withdrawalStatus
+                && flatType == other.flatType;
+    }
+
+    /**
+     * Gets a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, projectID, upperCase(neighbourhood), status, withdrawalStatus, flatType);
+    }
+
+    /**
+     * Returns a string representation of the spec.
+     *
+     * @return The report type followed by the filters that are set
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.valueOf(type));
+        appendFilter(text, "project", projectID);
+        appendFilter(text, "neighbourhood", neighbourhood);
+        appendFilter(text, "status", status);
+        appendFilter(text, "withdrawal", withdrawalStatus);
+        appendFilter(text, "flatType", flatType);
+        return text.toString();
+    }
+
+    /**
+     * Adds a filter to the text of a spec if it is set.
+     *
+     * @param text The text so far
+     * @param name The name of the filter
+     * @param value The value of the filter, or null if it is not set
+     */
+    private static void appendFilter(StringBuilder text, String name, Object value) {
+        if (value != null) {
+            text.append(' ').append(name).append('=').append(value);
+        }
+    }
+
+    /**
+     * Upper-cases a string that may be null.
+     *
+     * @param value The string
+     * @return The string in upper case, or null
+     */
+    private static String upperCase(String value) {
+        return value == null ? null : value.toUpperCase();
+    }
+}
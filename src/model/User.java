@@ -37,6 +37,12 @@ public abstract class User implements Serializable {
     /** Age of the user in years */
     protected int age;
 
+    /** Security question used for account recovery, or null if not set */
+    protected String securityQuestion;
+
+    /** Answer to the security question, or null if not set */
+    protected String securityAnswer;
+
     /**
      * Constructs a new User with the specified attributes.
      *
@@ -110,6 +116,24 @@ public abstract class User implements Serializable {
         return maritalStatus;
     }
 
+    /**
+     * Gets the security question used for account recovery.
+     *
+     * @return The security question, or null if not set
+     */
+    public String getSecurityQuestion() {
+        return securityQuestion;
+    }
+
+    /**
+     * Gets the answer to the security question.
+     *
+     * @return The security answer, or null if not set
+     */
+    public String getSecurityAnswer() {
+        return securityAnswer;
+    }
+
     /**
      * Sets the National Registration Identity Card number.
      *
@@ -163,4 +187,22 @@ public abstract class User implements Serializable {
     public void setMaritalStatus(MaritalStatus maritalStatus) {
         this.maritalStatus = maritalStatus;
     }
+
+    /**
+     * Sets the security question used for account recovery.
+     *
+     * @param securityQuestion The new security question to set
+     */
+    public void setSecurityQuestion(String securityQuestion) {
+        this.securityQuestion = securityQuestion;
+    }
+
+    /**
+     * Sets the answer to the security question.
+     *
+     * @param securityAnswer The new security answer to set
+     */
+    public void setSecurityAnswer(String securityAnswer) {
+        this.securityAnswer = securityAnswer;
+    }
 }
\ No newline at end of file
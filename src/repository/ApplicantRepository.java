@@ -1,5 +1,6 @@
 package repository;
 
+import helper.CSVRecord;
 import controller.*;
 import enums.*;
 import model.Applicant;
@@ -16,30 +17,35 @@ import java.util.*;
  * </p>
  */
 public class ApplicantRepository implements VerificationInterface, PasswordChangerInterface, CheckSecQuesInterface, SecQuesChangerInterface {
-    /** The folder where data files are stored */
-    private static final String folder = "data";
-
-    /** The filename for applicant records */
-    private static final String fileName = "applicant_records.csv";
-
-    /** The complete file path to the applicant records file */
-    private static final String filePath = "./src/repository/" + folder + "/" + fileName;
+    /**
+     * Gets the store that holds the applicant records in the storage backend in use.
+     *
+     * @return The store for the applicant table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.APPLICANTS);
+    }
 
     /**
      * Creates an Applicant object from CSV record data.
      *
-     * @param parts Array of strings representing fields from a CSV record
+     * @param record A CSV record
      * @return A new Applicant object or null if creation fails
      */
-    private Applicant createApplicantFromCSV(String[] parts) {
+    private Applicant createApplicantFromCSV(CSVRecord record) {
         try {
-            String nric = parts[0];
-            String name = parts[1];
-            int age = Integer.parseInt(parts[2]);
-            MaritalStatus maritalStatus = MaritalStatus.valueOf(parts[3].toUpperCase());
-            String password = parts[4];
-
-            return new Applicant(nric, name, password, age, maritalStatus);
+            String nric = record.getString(0);
+            String name = record.getString(1);
+            int age = record.getInt(2);
+            MaritalStatus maritalStatus = MaritalStatus.valueOf(record.getString(3).toUpperCase());
+            String password = record.getString(4);
+
+            Applicant applicant = new Applicant(nric, name, password, age, maritalStatus);
+            if (record.getFieldCount() > 5 && !record.isEmpty(5)) {
+                applicant.setSecurityQuestion(record.getString(5));
+                applicant.setSecurityAnswer(record.getFieldCount() > 6 ? record.getString(6) : "");
+            }
+            return applicant;
         } catch (Exception e) {
             System.out.println("Error creating applicant from CSV data: " + e.getMessage());
             return null;
@@ -47,42 +53,37 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
     }
 
     /**
-     * Loads all applicants from the CSV file.
+     * Reads all applicants from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadApplicants()}.
+     * </p>
      *
      * @return A list of Applicant objects
      * @throws IOException If an error occurs while reading the file
      */
-    public List<Applicant> loadApplicants() throws IOException {
+    List<Applicant> readApplicantsFromCSV() throws IOException {
         List<Applicant> applicants = new ArrayList<>();
-        File file = new File(filePath);
-
-        if (!file.exists()) {
-            System.out.println("Applicants file not found, returning empty list");
-            return applicants;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = br.readLine()) != null) {
-                // Skip the header row
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                String[] data = line.split(",");
-                Applicant applicant = createApplicantFromCSV(data);
-                if (applicant != null) {
-                    applicants.add(applicant);
-                }
+        store().readRecords(record -> {
+            Applicant applicant = createApplicantFromCSV(record);
+            if (applicant != null) {
+                applicants.add(applicant);
             }
-        }
+        });
 
         return applicants;
     }
 
+    /**
+     * Loads all applicants from the in-memory data store.
+     *
+     * @return A list of Applicant objects
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Applicant> loadApplicants() throws IOException {
+        return DataStore.getApplicants();
+    }
+
     /**
      * Finds an applicant by their NRIC (National Registration Identity Card) number.
      *
@@ -91,11 +92,7 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
      * @throws IOException If an error occurs while reading the file
      */
     public Applicant findApplicantById(String nric) throws IOException {
-        List<Applicant> applicants = loadApplicants();
-        return applicants.stream()
-                .filter(applicant -> applicant.getNRIC().equals(nric))
-                .findFirst()
-                .orElse(null);
+        return DataStore.getApplicant(nric);
     }
 
     /**
@@ -109,24 +106,14 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
         PasswordController pc = new PasswordController();
         String hashedInputPassword = pc.hashPassword(password);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            reader.readLine(); // Skip header
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                Applicant applicant = createApplicantFromCSV(parts);
-                if (applicant != null && applicant.getNRIC().equals(id)) {
-                    // Check for default password OR hashed password match
-                    if (applicant.getPassword().equals("password") && password.equals("password")) {
-                        return applicant;
-                    } else if (applicant.getPassword().equals(hashedInputPassword)) {
-                        return applicant;
-                    }
-                }
+        Applicant applicant = DataStore.getApplicant(id);
+        if (applicant != null) {
+            // Check for default password OR hashed password match
+            if (applicant.getPassword().equals("password") && password.equals("password")) {
+                return applicant;
+            } else if (applicant.getPassword().equals(hashedInputPassword)) {
+                return applicant;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
         return null; // Login failed
@@ -140,34 +127,21 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
      * @return true if password was successfully updated, false otherwise
      */
     public boolean changePassword(String nric, String newHashedPassword) {
-        List<String[]> records = new ArrayList<>();
-        boolean passwordUpdated = false;
-
-        // Load all records from the file
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric)) {
-                    parts[4] = newHashedPassword; // Update password
-                    passwordUpdated = true;
-                }
-                records.add(parts);
-            }
+        boolean passwordUpdated;
+        try {
+            passwordUpdated = store().modify(nric, parts -> {
+                parts[4] = newHashedPassword; // Update password
+                return parts;
+            });
         } catch (IOException e) {
-            System.err.println("Error reading the file: " + e.getMessage());
+            System.err.println("Error writing to the file: " + e.getMessage());
             return false; // Indicate failure
         }
 
-        // Rewrite the file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] record : records) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to the file: " + e.getMessage());
-            return false; // Indicate failure
+        // Keep the in-memory copy in step with the file
+        Applicant applicant = DataStore.getApplicant(nric);
+        if (applicant != null) {
+            applicant.setPassword(newHashedPassword);
         }
 
         return passwordUpdated;
@@ -183,40 +157,28 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
      */
     @Override
     public boolean changeSecQuesAndAns(String nric, String newSecQues, String newSecAns) {
-        List<String[]> records = new ArrayList<>();
-        boolean secQuesUpdated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-
-                if (parts[0].equals(nric)) {
-                    // Ensure the CSV has enough columns for Question and Answer
-                    if (parts.length < 7) {
-                        parts = Arrays.copyOf(parts, 7); // Extend to at least 8 elements
-                    }
-                    // Update security question and answer
-                    parts[5] = newSecQues;
-                    parts[6] = newSecAns;
-                    secQuesUpdated = true;
+        boolean secQuesUpdated;
+        try {
+            secQuesUpdated = store().modify(nric, parts -> {
+                // Ensure the record has enough columns for Question and Answer
+                if (parts.length < 7) {
+                    parts = Arrays.copyOf(parts, 7);
                 }
-                records.add(parts); // Add the record to the list
-            }
+                // Update security question and answer
+                parts[5] = newSecQues;
+                parts[6] = newSecAns;
+                return parts;
+            });
         } catch (IOException e) {
-            System.err.println("Error reading the file: " + e.getMessage());
+            System.err.println("Error writing to the file: " + e.getMessage());
             return false; // Indicate failure
         }
 
-        // Rewrite the file with updated records
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] record : records) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to the file: " + e.getMessage());
-            return false; // Indicate failure
+        // Keep the in-memory copy in step with the file
+        Applicant applicant = DataStore.getApplicant(nric);
+        if (applicant != null) {
+            applicant.setSecurityQuestion(newSecQues);
+            applicant.setSecurityAnswer(newSecAns);
         }
 
         return secQuesUpdated; // Return true if the question was updated
@@ -230,19 +192,9 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
      */
     @Override
     public boolean checkHaveSecQues(String nric) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 5 && parts[0].equals(nric) && !parts[5].isEmpty()) { // NRIC and Password
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        Applicant applicant = DataStore.getApplicant(nric);
+        return applicant != null && applicant.getSecurityQuestion() != null
+                && !applicant.getSecurityQuestion().isEmpty();
     }
 
     /**
@@ -253,17 +205,10 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
      */
     @Override
     public String retrieveSecQues(String nric) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric) && !parts[5].isEmpty()) { // NRIC and Password
-                    return parts[5];
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        Applicant applicant = DataStore.getApplicant(nric);
+        if (applicant != null && applicant.getSecurityQuestion() != null
+                && !applicant.getSecurityQuestion().isEmpty()) {
+            return applicant.getSecurityQuestion();
         }
         return "Error retrieving security question"; // Default return value
     }
@@ -277,18 +222,7 @@ public class ApplicantRepository implements VerificationInterface, PasswordChang
      */
     @Override
     public boolean verifyAnsToSecQues(String nric, String answer) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric) && parts[6].equals(answer.toLowerCase())) { // Match NRIC and Answer
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        Applicant applicant = DataStore.getApplicant(nric);
+        return applicant != null && answer.toLowerCase().equals(applicant.getSecurityAnswer()); // Match NRIC and Answer
     }
 }
\ No newline at end of file
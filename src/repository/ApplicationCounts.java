@@ -0,0 +1,124 @@
+package repository;
+
+import enums.ApplicantAppStatus;
+import enums.FlatType;
+import enums.WithdrawalStatus;
+
+/**
+ * Counts of the applications for one project, by flat type, application status and
+ * withdrawal status.
+ * <p>
+ * The {@link ApplicationIndex} keeps one set of counts for each project and adjusts it
+ * whenever an application is added, updated or removed, so reports can read how many
+ * applications a project has in each state without scanning the applications. The counts
+ * are held in arrays indexed by the ordinals of the enums.
+ * </p>
+ * <p>
+ * Copies handed out by {@link DataStore#getApplicationCounts(String)} do not change when
+ * the store does.
+ * </p>
+ */
+public class ApplicationCounts {
+    /** The number of applications for each flat type and application status */
+    private final int[][] byStatus;
+
+    /** The number of applications for each flat type and withdrawal status */
+    private final int[][] byWithdrawalStatus;
+
+    /**
+     * Constructs counts with no applications.
+     */
+    public ApplicationCounts() {
+        byStatus = new int[FlatType.values().length][ApplicantAppStatus.values().length];
+        byWithdrawalStatus = new int[FlatType.values().length][WithdrawalStatus.values().length];
+    }
+
+    /**
+     * Constructs a copy of some counts.
+     *
+     * @param other The counts to copy
+     */
+    public ApplicationCounts(ApplicationCounts other) {
+        byStatus = new int[other.byStatus.length][];
+        byWithdrawalStatus = new int[other.byWithdrawalStatus.length][];
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = other.byStatus[i].clone();
+            byWithdrawalStatus[i] = other.byWithdrawalStatus[i].clone();
+        }
+    }
+
+    /**
+     * Adds to or takes away from the count of applications in a state.
+     *
+     * @param flatType The flat type of the application
+     * @param status The application status
+     * @param withdrawalStatus The withdrawal status
+     * @param change 1 to count an application, -1 to stop counting it
+     */
+    void adjust(FlatType flatType, ApplicantAppStatus status, WithdrawalStatus withdrawalStatus, int change) {
+        if (flatType == null) {
+            return;
+        }
+        if (status != null) {
+            byStatus[flatType.ordinal()][status.ordinal()] += change;
+        }
+        if (withdrawalStatus != null) {
+            byWithdrawalStatus[flatType.ordinal()][withdrawalStatus.ordinal()] += change;
+        }
+    }
+
+    /**
+     * Counts the applications with a flat type and application status.
+     *
+     * @param flatType The flat type, or null for any flat type
+     * @param status The application status, or null for any status
+     * @return The number of matching applications
+     */
+    public int count(FlatType flatType, ApplicantAppStatus status) {
+        return sum(byStatus, flatType == null ? -1 : flatType.ordinal(), status == null ? -1 : status.ordinal());
+    }
+
+    /**
+     * Counts the applications with a flat type and withdrawal status.
+     *
+     * @param flatType The flat type, or null for any flat type
+     * @param withdrawalStatus The withdrawal status, or null for any withdrawal status
+     * @return The number of matching applications
+     */
+    public int countWithdrawals(FlatType flatType, WithdrawalStatus withdrawalStatus) {
+        return sum(byWithdrawalStatus, flatType == null ? -1 : flatType.ordinal(),
+                withdrawalStatus == null ? -1 : withdrawalStatus.ordinal());
+    }
+
+    /**
+     * Gets the total number of applications.
+     *
+     * @return The number of applications of any flat type and status
+     */
+    public int getTotal() {
+        return count(null, null);
+    }
+
+    /**
+     * Adds up the cells of a count table matching a row and column.
+     *
+     * @param counts The count table
+     * @param row The row to add up, or -1 for every row
+     * @param column The column to add up, or -1 for every column
+     * @return The sum of the matching cells
+     */
+    private static int sum(int[][] counts, int row, int column) {
+        int total = 0;
+        for (int r = 0; r < counts.length; r++) {
+            if (row >= 0 && r != row) {
+                continue;
+            }
+            for (int c = 0; c < counts[r].length; c++) {
+                if (column < 0 || c == column) {
+                    total += counts[r][c];
+                }
+            }
+        }
+        return total;
+    }
+}
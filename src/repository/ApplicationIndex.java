@@ -0,0 +1,338 @@
+package repository;
+
+import enums.ApplicantAppStatus;
+import enums.FlatType;
+import enums.WithdrawalStatus;
+import model.Application;
+import model.User;
+
+import java.util.*;
+
+/**
+ * Secondary indexes over the in-memory application table.
+ * <p>
+ * Applications are indexed by application ID, project ID, applicant NRIC, application
+ * status and withdrawal status, so that controllers can find the handful of applications
+ * they need without scanning every application in the system. Each bucket keeps its
+ * applications in the order they were added to the store, which is the order they appear
+ * in the data file, so results are listed in the same order as a full scan would give.
+ * </p>
+ * <p>
+ * The index also keeps {@link ApplicationCounts} for each project, adjusted as applications
+ * are added and re-indexed, so summary reports can read counts without finding any
+ * applications at all. Like the status buckets, the counts only change when an application
+ * is saved.
+ * </p>
+ * <p>
+ * Applications are mutated in place by the controllers, so the status buckets only reflect
+ * a change once the application has been saved through the repository, which calls
+ * {@link #update(Application)}. This class is not thread-safe; {@link DataStore} guards
+ * every call with its own lock.
+ * </p>
+ */
+public class ApplicationIndex {
+    /** Applications keyed by application ID */
+    private final Map<String, Application> byID = new HashMap<>();
+
+    /** The keys each application was indexed under, by application object */
+    private final Map<Application, Entry> entries = new IdentityHashMap<>();
+
+    /** Applications grouped by project ID */
+    private final Map<String, TreeMap<Long, Application>> byProject = new HashMap<>();
+
+    /** Applications grouped by the NRIC of the applicant or officer who applied */
+    private final Map<String, TreeMap<Long, Application>> byNRIC = new HashMap<>();
+
+    /** Applications grouped by application status */
+    private final Map<ApplicantAppStatus, TreeMap<Long, Application>> byStatus = new EnumMap<>(ApplicantAppStatus.class);
+
+    /** Applications grouped by withdrawal status */
+    private final Map<WithdrawalStatus, TreeMap<Long, Application>> byWithdrawalStatus = new EnumMap<>(WithdrawalStatus.class);
+
+    /** Counts of applications by flat type and status, by project ID */
+    private final Map<String, ApplicationCounts> countsByProject = new HashMap<>();
+
+    /** The sequence number given to the next application added */
+    private long nextSequence = 0;
+
+    /**
+     * Adds an application to every index.
+     *
+     * @param application The application to add
+     */
+    public void add(Application application) {
+        addAt(application, nextSequence++);
+    }
+
+    /**
+     * Re-indexes an application after it has been modified or replaced.
+     * <p>
+     * If a different object with the same application ID is already indexed, it is replaced
+     * by the given application and keeps its position.
+     * </p>
+     *
+     * @param application The updated application
+     */
+    public void update(Application application) {
+        Application previous = byID.get(application.getApplicationID());
+        Entry entry = previous == null ? null : entries.get(previous);
+        if (entry == null) {
+            add(application);
+            return;
+        }
+        remove(previous);
+        addAt(application, entry.position);
+    }
+
+    /**
+     * Removes every application from the index.
+     */
+    public void clear() {
+        byID.clear();
+        entries.clear();
+        byProject.clear();
+        byNRIC.clear();
+        byStatus.clear();
+        byWithdrawalStatus.clear();
+        countsByProject.clear();
+        nextSequence = 0;
+    }
+
+    /**
+     * Finds an application by its ID.
+     *
+     * @param applicationID The application ID
+     * @return The application, or null if there is none with that ID
+     */
+    public Application get(String applicationID) {
+        return byID.get(applicationID);
+    }
+
+    /**
+     * Gets the counts of a project's applications.
+     *
+     * @param projectID The project ID
+     * @return A copy of the project's counts, which are all 0 if it has no applications
+     */
+    public ApplicationCounts counts(String projectID) {
+        ApplicationCounts counts = countsByProject.get(projectID);
+        return counts == null ? new ApplicationCounts() : new ApplicationCounts(counts);
+    }
+
+    /**
+     * Finds the applications matching every given criterion.
+     * <p>
+     * Criteria that are null are ignored. The smallest of the matching buckets is scanned and
+     * filtered by the remaining criteria, so the cost depends on how selective the query is
+     * rather than on the total number of applications.
+     * </p>
+     *
+     * @param projectID The project ID, or null for any project
+     * @param nric The NRIC of the applicant or officer, or null for any user
+     * @param status The application status, or null for any status
+     * @param withdrawalStatus The withdrawal status, or null for any withdrawal status
+     * @return A new list of matching applications, in store order
+     */
+    public List<Application> find(String projectID, String nric, ApplicantAppStatus status,
+                                  WithdrawalStatus withdrawalStatus) {
+        Collection<Application> candidates = null;
+        if (projectID != null) {
+            candidates = smaller(candidates, bucket(byProject, projectID));
+        }
+        if (nric != null) {
+            candidates = smaller(candidates, bucket(byNRIC, nric));
+        }
+        if (status != null) {
+            candidates = smaller(candidates, bucket(byStatus, status));
+        }
+        if (withdrawalStatus != null) {
+            candidates = smaller(candidates, bucket(byWithdrawalStatus, withdrawalStatus));
+        }
+
+        List<Application> result = new ArrayList<>();
+        if (candidates == null) {
+            // No criteria given: every application matches
+            TreeMap<Long, Application> all = new TreeMap<>();
+            for (Map.Entry<Application, Entry> entry : entries.entrySet()) {
+                all.put(entry.getValue().position, entry.getKey());
+            }
+            result.addAll(all.values());
+            return result;
+        }
+
+        for (Application application : candidates) {
+            if (projectID != null && !projectID.equals(projectIDOf(application))) {
+                continue;
+            }
+            if (nric != null && !nric.equals(nricOf(application))) {
+                continue;
+            }
+            if (status != null && application.getApplicationStatus() != status) {
+                continue;
+            }
+            if (withdrawalStatus != null && application.getWithdrawalStatus() != withdrawalStatus) {
+                continue;
+            }
+            result.add(application);
+        }
+        return result;
+    }
+
+    /**
+     * Indexes an application at a given position.
+     *
+     * @param application The application to index
+     * @param position The position of the application in the store
+     */
+    private void addAt(Application application, long position) {
+        Entry entry = new Entry(position, projectIDOf(application), nricOf(application), application.getFlatType(),
+                application.getApplicationStatus(), application.getWithdrawalStatus());
+        byID.putIfAbsent(application.getApplicationID(), application);
+        entries.put(application, entry);
+
+        if (entry.projectID != null) {
+            byProject.computeIfAbsent(entry.projectID, k -> new TreeMap<>()).put(position, application);
+            countsByProject.computeIfAbsent(entry.projectID, k -> new ApplicationCounts())
+                    .adjust(entry.flatType, entry.status, entry.withdrawalStatus, 1);
+        }
+        if (entry.nric != null) {
+            byNRIC.computeIfAbsent(entry.nric, k -> new TreeMap<>()).put(position, application);
+        }
+        if (entry.status != null) {
+            byStatus.computeIfAbsent(entry.status, k -> new TreeMap<>()).put(position, application);
+        }
+        if (entry.withdrawalStatus != null) {
+            byWithdrawalStatus.computeIfAbsent(entry.withdrawalStatus, k -> new TreeMap<>()).put(position, application);
+        }
+    }
+
+    /**
+     * Removes an application from every index.
+     * <p>
+     * The application may have been modified since it was indexed, so it is removed from
+     * the buckets recorded when it was indexed rather than those for its current values.
+     * </p>
+     *
+     * @param application The application to remove
+     */
+    private void remove(Application application) {
+        Entry entry = entries.remove(application);
+        if (entry == null) {
+            return;
+        }
+        byID.remove(application.getApplicationID(), application);
+        removeFrom(byProject, entry.projectID, entry.position);
+        removeFrom(byNRIC, entry.nric, entry.position);
+        removeFrom(byStatus, entry.status, entry.position);
+        removeFrom(byWithdrawalStatus, entry.withdrawalStatus, entry.position);
+        if (entry.projectID != null) {
+            countsByProject.get(entry.projectID).adjust(entry.flatType, entry.status, entry.withdrawalStatus, -1);
+        }
+    }
+
+    /**
+     * Removes the entry at a position from one bucket of an index.
+     *
+     * @param index The index to remove from
+     * @param key The bucket key, or null if the application was not indexed here
+     * @param position The position of the application to remove
+     * @param <K> The key type of the index
+     */
+    private static <K> void removeFrom(Map<K, TreeMap<Long, Application>> index, K key, long position) {
+        if (key == null) {
+            return;
+        }
+        TreeMap<Long, Application> bucket = index.get(key);
+        if (bucket != null && bucket.remove(position) != null && bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Gets the applications in a bucket of an index.
+     *
+     * @param index The index to look up
+     * @param key The bucket key
+     * @param <K> The key type of the index
+     * @return The applications in the bucket, or an empty collection if there are none
+     */
+    private static <K> Collection<Application> bucket(Map<K, TreeMap<Long, Application>> index, K key) {
+        TreeMap<Long, Application> bucket = index.get(key);
+        return bucket == null ? Collections.emptyList() : bucket.values();
+    }
+
+    /**
+     * Picks the smaller of two candidate collections.
+     *
+     * @param current The current candidates, or null if there are none yet
+     * @param other The other candidates
+     * @return Whichever collection has fewer elements
+     */
+    private static Collection<Application> smaller(Collection<Application> current, Collection<Application> other) {
+        return current == null || other.size() < current.size() ? other : current;
+    }
+
+    /**
+     * Gets the project ID of an application.
+     *
+     * @param application The application
+     * @return The project ID, or null if the application has no project
+     */
+    private static String projectIDOf(Application application) {
+        return application.getProject() == null ? null : application.getProject().getProjectID();
+    }
+
+    /**
+     * Gets the NRIC of the user who submitted an application.
+     *
+     * @param application The application
+     * @return The NRIC, or null if the application has no user
+     */
+    private static String nricOf(Application application) {
+        User user = application.getUser();
+        return user == null ? null : user.getNRIC();
+    }
+
+    /**
+     * The position and keys an application was indexed under.
+     */
+    private static class Entry {
+        /** Position of the application in the store */
+        final long position;
+
+        /** Project ID the application was indexed under */
+        final String projectID;
+
+        /** NRIC the application was indexed under */
+        final String nric;
+
+        /** Flat type the application was counted under */
+        final FlatType flatType;
+
+        /** Application status the application was indexed under */
+        final ApplicantAppStatus status;
+
+        /** Withdrawal status the application was indexed under */
+        final WithdrawalStatus withdrawalStatus;
+
+        /**
+         * Constructs an index entry.
+         *
+         * @param position Position of the application in the store
+         * @param projectID Project ID of the application
+         * @param nric NRIC of the user who applied
+         * @param flatType Flat type applied for
+         * @param status Application status
+         * @param withdrawalStatus Withdrawal status
+         */
+        Entry(long position, String projectID, String nric, FlatType flatType, ApplicantAppStatus status,
+              WithdrawalStatus withdrawalStatus) {
+            this.position = position;
+            this.projectID = projectID;
+            this.nric = nric;
+            this.flatType = flatType;
+            this.status = status;
+            this.withdrawalStatus = withdrawalStatus;
+        }
+    }
+}
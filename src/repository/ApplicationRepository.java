@@ -1,5 +1,6 @@
 package repository;
 
+import helper.CSVRecord;
 import model.Application;
 import model.Applicant;
 import model.Officer;
@@ -11,6 +12,7 @@ import enums.WithdrawalStatus;
 import java.io.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 /**
  * Repository class for managing Application data persistence.
@@ -21,70 +23,55 @@ import java.util.ArrayList;
  * </p>
  */
 public class ApplicationRepository{
-    /** The folder where data files are stored */
-    private static final String folder = "data";
-
-    /** The filename for application records */
-    private static final String fileName = "application_records.csv";
-
-    /** The complete file path to the application records file */
-    private static final String filePath = "./src/repository/" + folder + "/" + fileName;
+    /**
+     * Gets the store that holds the application records in the storage backend in use.
+     *
+     * @return The store for the application table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.APPLICATIONS);
+    }
 
     /**
      * Creates an Application object from CSV record data.
+     * <p>
+     * The applicant, officer and project referred to by the record are resolved against
+     * the given maps, so that a record can be joined in constant time without reading
+     * any other file.
+     * </p>
      *
-     * @param csv A string representing a CSV record for an application
+     * @param record A CSV record for an application
+     * @param applicantsByNRIC Applicants keyed by NRIC
+     * @param officersByNRIC Officers keyed by NRIC
+     * @param projectsByID Projects keyed by project ID
      * @return A new Application object or null if creation fails
      */
-    private static Application createApplicationFromCSV(String csv) {
-        String[] fields = csv.split(",");
+    private static Application createApplicationFromCSV(CSVRecord record, Map<String, Applicant> applicantsByNRIC,
+                                                        Map<String, Officer> officersByNRIC,
+                                                        Map<String, Project> projectsByID) {
         try {
             // Skip header row
-            if (fields[0].equals("Application ID") || fields[0].trim().isEmpty()) {
+            String applicationID = record.getString(0);
+            if (applicationID.equals("Application ID") || applicationID.trim().isEmpty()) {
                 return null;
             }
 
-            String applicationID = fields[0];
-            String userNRIC = fields[1];
-            String projectID = fields[2];
-            FlatType flatType = FlatType.valueOf(fields[3]);
-            ApplicantAppStatus applicationStatus = ApplicantAppStatus.valueOf(fields[4]);
-            WithdrawalStatus withdrawalStatus = WithdrawalStatus.valueOf(fields[5]);
-
-            // Create repository instances
-            ApplicantRepository applicantRepo = new ApplicantRepository();
-            OfficerRepository officerRepo = new OfficerRepository();
-            ProjectRepository projectRepo = new ProjectRepository();
+            String userNRIC = record.getString(1);
+            String projectID = record.getString(2);
+            FlatType flatType = FlatType.valueOf(record.getString(3));
+            ApplicantAppStatus applicationStatus = ApplicantAppStatus.valueOf(record.getString(4));
+            WithdrawalStatus withdrawalStatus = WithdrawalStatus.valueOf(record.getString(5));
 
-            // Create references
-            Applicant applicant = null;
-            Project project = null;
-            Officer officer = null;
-
-            // Use instance methods
-            try{
-                if (officerRepo.findOfficerById(userNRIC) != null) {
-                    officer = officerRepo.findOfficerById(userNRIC);
-                    project = projectRepo.findProjectById(projectID);
-                }
-            }catch (Exception e){
-                System.out.println("Error finding officer: " + e.getMessage());
-                return null;
-            }
+            Project project = projectsByID.get(projectID);
 
+            Officer officer = officersByNRIC.get(userNRIC);
             if (officer != null) {
                 // If the user is an officer, we don't need to find the applicant
                 return new Application(applicationID, officer, project, flatType, applicationStatus, withdrawalStatus);
-            } else {
-                // If the user is not an officer, we need to find the applicant
-                try {
-                    applicant = applicantRepo.findApplicantById(userNRIC);
-                    project = projectRepo.findProjectById(projectID);
-                } catch (Exception e) {
-                    System.out.println("Error finding applicant: " + e.getMessage());
-                    return null;
-                }
             }
+
+            // If the user is not an officer, we need to find the applicant
+            Applicant applicant = applicantsByNRIC.get(userNRIC);
             if (applicant == null || project == null) {
                 System.out.println("Missing reference - Applicant: " + (applicant == null ? "null" : "found") +
                         ", Project: " + (project == null ? "null" : "found"));
@@ -93,47 +80,50 @@ public class ApplicationRepository{
 
             return new Application(applicationID, applicant, project, flatType, applicationStatus, withdrawalStatus);
         } catch (Exception e) {
-            System.out.println("Error parsing application data: " + csv + " - " + e.getMessage());
+            System.out.println("Error parsing application data: " + record + " - " + e.getMessage());
         }
         return null;
     }
 
     /**
-     * Loads all applications from the CSV file.
+     * Reads all applications from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadApplications()}. The file is read in a single
+     * pass, and each record is joined against the given maps of users and projects, which
+     * the caller builds once from the tables it has already loaded.
+     * </p>
      *
+     * @param applicantsByNRIC Applicants keyed by NRIC
+     * @param officersByNRIC Officers keyed by NRIC
+     * @param projectsByID Projects keyed by project ID
      * @return A list of Application objects
      * @throws IOException If an error occurs while reading the file
      */
-    public List<Application> loadApplications() throws IOException {
+    List<Application> readApplicationsFromCSV(Map<String, Applicant> applicantsByNRIC,
+                                              Map<String, Officer> officersByNRIC,
+                                              Map<String, Project> projectsByID) throws IOException {
         List<Application> applications = new ArrayList<>();
-        File file = new File(filePath);
-
-        if (!file.exists()) {
-            System.out.println("Applications file not found, returning empty list");
-            return applications;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = br.readLine()) != null) {
-                // Skip the header row
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                Application application = createApplicationFromCSV(line);
-                if (application != null) {
-                    applications.add(application);
-                }
+        store().readRecords(record -> {
+            Application application = createApplicationFromCSV(record, applicantsByNRIC, officersByNRIC, projectsByID);
+            if (application != null) {
+                applications.add(application);
             }
-        }
+        });
 
         return applications;
     }
 
+    /**
+     * Loads all applications from the in-memory data store.
+     *
+     * @return A list of Application objects
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Application> loadApplications() throws IOException {
+        return DataStore.getApplications();
+    }
+
     /**
      * Finds an application by its ID.
      *
@@ -142,44 +132,93 @@ public class ApplicationRepository{
      * @throws IOException If an error occurs while reading the file
      */
     public Application findApplicationById(String applicationID) throws IOException {
-        List<Application> applications = this.loadApplications();
-        return applications.stream()
-                .filter((application) -> application.getApplicationID().equals(applicationID))
-                .findFirst()
-                .orElse(null);
+        return DataStore.getApplication(applicationID);
+    }
+
+    /**
+     * Finds all applications for a project.
+     *
+     * @param projectID The ID of the project
+     * @return A list of the project's applications
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Application> findApplicationsByProject(String projectID) throws IOException {
+        return DataStore.findApplications(projectID, null, null, null);
+    }
+
+    /**
+     * Finds all applications submitted by a user.
+     *
+     * @param nric The NRIC of the applicant or officer who applied
+     * @return A list of the user's applications
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Application> findApplicationsByNRIC(String nric) throws IOException {
+        return DataStore.findApplications(null, nric, null, null);
+    }
+
+    /**
+     * Finds the applications matching every given criterion.
+     * <p>
+     * Lookups go through the secondary indexes on project, NRIC, application status and
+     * withdrawal status, which are kept up to date by {@link #createNewApplication(Application)}
+     * and {@link #updateApplicationInCSV(Application)}. Criteria that are null are ignored.
+     * </p>
+     *
+     * @param projectID The project ID, or null for any project
+     * @param nric The NRIC of the applicant or officer who applied, or null for any user
+     * @param status The application status, or null for any status
+     * @param withdrawalStatus The withdrawal status, or null for any withdrawal status
+     * @return A list of matching applications
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Application> findApplications(String projectID, String nric, ApplicantAppStatus status,
+                                              WithdrawalStatus withdrawalStatus) throws IOException {
+        return DataStore.findApplications(projectID, nric, status, withdrawalStatus);
+    }
+
+    /**
+     * Counts a project's applications by flat type, application status and withdrawal status.
+     * <p>
+     * The counts are kept up to date as applications are saved, so this takes the same time
+     * however many applications there are.
+     * </p>
+     *
+     * @param projectID The ID of the project
+     * @return The project's application counts
+     * @throws IOException If an error occurs while reading the file
+     */
+    public ApplicationCounts countApplications(String projectID) throws IOException {
+        return DataStore.getApplicationCounts(projectID);
+    }
+
+    /**
+     * Gets the version of the data held in memory, which goes up whenever any table is
+     * changed or reloaded.
+     *
+     * @return The current data version
+     */
+    public long getDataVersion() {
+        return DataStore.getDataVersion();
     }
 
     /**
      * Generates the next sequential application ID.
      * <p>
-     * The format is "A" followed by a four-digit number (e.g., A0001, A0002).
+     * The format is "A" followed by a number of at least four digits (e.g., A0001, A0002).
+     * IDs come from a persistent sequence, so this does not scan the existing applications.
      * </p>
      *
      * @return A new unique application ID
      */
     public String generateNextApplicationID() {
-        int max = 0;
-        try {
-            // Load all applications directly from CSV
-            List<Application> applications = loadApplications();
-
-            // Find the highest application number
-            for (Application application : applications) {
-                String existingID = application.getApplicationID();
-                if (existingID.matches("A\\d+")) {
-                    int number = Integer.parseInt(existingID.substring(1));
-                    if (number > max) {
-                        max = number;
-                    }
-                }
+        return SequenceGenerator.forPrefix("A", () -> {
+            List<String> ids = new ArrayList<>();
+            for (Application application : DataStore.getApplications()) {
+                ids.add(application.getApplicationID());
             }
-        } catch (IOException e) {
-            System.out.println("Error loading applications: " + e.getMessage());
-            // If we can't load existing applications, start from 1
-        }
-
-        int nextNumber = max + 1;
-        return String.format("A%04d", nextNumber);  // e.g., A0001, A0002
+            return ids;
+        }).next();
     }
 
     /**
@@ -189,93 +228,112 @@ public class ApplicationRepository{
      * @throws IOException If an error occurs while writing to the file
      */
     public void createNewApplication(Application application) throws IOException {
-        File file = new File(filePath);
-        boolean needsNewline = false;
-
-        // Check if file exists and doesn't end with newline
-        if (file.exists() && file.length() > 0) {
-            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-                if (raf.length() > 0) {
-                    raf.seek(raf.length() - 1);
-                    byte lastByte = raf.readByte();
-                    needsNewline = lastByte != '\n';
-                }
-            }
-        }
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-            // Write a newline if file has content
-            if (needsNewline) {
-                writer.newLine();
-            }
-
-            // Write the application data
-            String applicationData = applicationToCSV(application);
-
-            writer.write(applicationData);
-            // No need to manually add newline - the next write will handle this
-        }
+        store().insert(applicationToRecord(application));
+        DataStore.addApplication(application);
     }
 
     /**
      * Updates an existing application record in the CSV file.
      * <p>
-     * This method finds and replaces the record with matching application ID.
+     * The updated record is appended to the table's journal rather than rewriting the whole
+     * file, and the in-memory copy is re-indexed so that lookups by status see the change.
      * </p>
      *
      * @param updatedApplication The Application object with updated information
      */
     public static void updateApplicationInCSV(Application updatedApplication) {
-        File inputFile = new File(filePath);
-        List<String> updatedLines = new ArrayList<>();
+        try {
+            saveApplication(updatedApplication);
+            System.out.println("Updated application saved successfully.");
+        } catch (IOException e) {
+            System.out.println("Error writing updated CSV: " + e.getMessage());
+        }
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            boolean isFirstLine = true;
+    /**
+     * Saves an existing application, letting the caller handle a failed write.
+     *
+     * @param application The Application object with updated information
+     * @throws IOException If the record cannot be written, including when another process changed it first
+     */
+    public static void saveApplication(Application application) throws IOException {
+        store().update(applicationToRecord(application));
+        // Re-indexed only once written, so a failed write leaves the indexes and counts as they were
+        DataStore.putApplication(application);
+    }
 
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    updatedLines.add(line); // Header
-                    isFirstLine = false;
-                    continue;
-                }
+    /**
+     * Changes an application's status if it still has the status the caller expects, without
+     * saving it.
+     * <p>
+     * This claims the application for one change of status, so that two sessions acting on the
+     * same application at once cannot both act on it. The caller saves the application
+     * afterwards, or changes the status back with another call if it gives up.
+     * </p>
+     *
+     * @param application The application to change
+     * @param expected The status the application must have
+     * @param status The new status
+     * @return true if the status was changed, false if the application no longer had the expected status
+     */
+    public static boolean compareAndSetStatus(Application application, ApplicantAppStatus expected,
+                                              ApplicantAppStatus status) {
+        return DataStore.compareAndSetApplicationStatus(application, expected, status);
+    }
 
-                if (line.startsWith(updatedApplication.getApplicationID() + ",")) {
-                    updatedLines.add(applicationToCSV(updatedApplication)); // Replace the old line
-                } else {
-                    updatedLines.add(line); // Keep as is
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading CSV for update: " + e.getMessage());
-            return;
-        }
+    /**
+     * Changes an application's withdrawal status if it still has the one the caller expects,
+     * without saving it.
+     * <p>
+     * This claims a withdrawal request for one decision in the same way as
+     * {@link #compareAndSetStatus(Application, ApplicantAppStatus, ApplicantAppStatus)}.
+     * </p>
+     *
+     * @param application The application to change
+     * @param expected The withdrawal status the application must have
+     * @param status The new withdrawal status
+     * @return true if the withdrawal status was changed, false if the application no longer had the expected one
+     */
+    public static boolean compareAndSetWithdrawalStatus(Application application, WithdrawalStatus expected,
+                                                        WithdrawalStatus status) {
+        return DataStore.compareAndSetWithdrawalStatus(application, expected, status);
+    }
 
-        // Write updated content back to file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, false))) {
-            for (String updatedLine : updatedLines) {
-                writer.write(updatedLine);
-                writer.newLine();
-            }
-            System.out.println("Updated application saved successfully.");
-        } catch (IOException e) {
-            System.out.println("Error writing updated CSV: " + e.getMessage());
+    /**
+     * Saves several existing applications in a single write.
+     * <p>
+     * This is used when many applications are decided on at once, so that the batch costs one
+     * write to the data store rather than one per application.
+     * </p>
+     *
+     * @param applications The Application objects with updated information
+     * @throws IOException If the records cannot be written, in which case none of them is saved
+     */
+    public static void saveApplications(List<Application> applications) throws IOException {
+        List<String[]> records = new ArrayList<>(applications.size());
+        for (Application application : applications) {
+            records.add(applicationToRecord(application));
+        }
+        store().updateAll(records);
+        // Re-indexed only once written, so a failed batch leaves the indexes as they were
+        for (Application application : applications) {
+            DataStore.putApplication(application);
         }
     }
 
     /**
-     * Converts an Application object to a CSV record string.
+     * Converts an Application object to the fields of a record.
      *
      * @param application The Application object to convert
-     * @return A string representing the application in CSV format
+     * @return The fields of the application record, in column order
      */
-    private static String applicationToCSV(Application application) {
-        return String.join(",",
+    private static String[] applicationToRecord(Application application) {
+        return new String[]{
                 application.getApplicationID(),
                 application.getUser().getNRIC(),
                 application.getProject().getProjectID(),
                 application.getFlatType().toString(),
                 application.getApplicationStatus().toString(),
-                application.getWithdrawalStatus().toString());
+                application.getWithdrawalStatus().toString()};
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package repository;
+
+import enums.BallotCriterion;
+import helper.CSVRecord;
+import model.BallotWeight;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository class for the priority rules used when balloting projects.
+ * <p>
+ * The rules are read from the ballot weight table each time they are asked for, rather than
+ * kept in the {@link DataStore}, as they are only needed when a ballot is drawn and may be
+ * edited between ballots.
+ * </p>
+ */
+public class BallotWeightRepository {
+    /**
+     * Gets the store that holds the ballot weight records in the storage backend in use.
+     *
+     * @return The store for the ballot weight table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.BALLOT_WEIGHTS);
+    }
+
+    /**
+     * Creates a BallotWeight object from CSV record data.
+     *
+     * @param record A CSV record for a ballot weight
+     * @return A new BallotWeight object, or null if the record is the header or is not valid
+     */
+    private static BallotWeight createWeightFromCSV(CSVRecord record) {
+        try {
+            String weightID = record.getString(0).trim();
+            if (weightID.equals("WeightID") || weightID.isEmpty()) {
+                return null;
+            }
+
+            String projectID = record.getString(1).trim();
+            BallotCriterion criterion = BallotCriterion.valueOf(record.getString(2).trim().toUpperCase());
+            String value = record.getString(3).trim().toUpperCase();
+            if (!BallotWeight.isValidValue(criterion, value)) {
+                System.out.println("Skipping ballot weight " + weightID + ": " + value + " is not valid for " + criterion + ".");
+                return null;
+            }
+            double weight = record.getDouble(4);
+            if (!(weight > 0) || Double.isInfinite(weight)) {
+                System.out.println("Skipping ballot weight " + weightID + ": weight must be greater than 0.");
+                return null;
+            }
+            return new BallotWeight(weightID, projectID, criterion, value, weight);
+        } catch (Exception e) {
+            System.out.println("Error creating ballot weight from CSV data: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads every ballot weight rule.
+     *
+     * @return A list of all rules, in the order they appear in the table
+     * @throws IOException If an error occurs while reading the table
+     */
+    public List<BallotWeight> loadBallotWeights() throws IOException {
+        List<BallotWeight> weights = new ArrayList<>();
+        try {
+            store().readRecords(record -> {
+                BallotWeight weight = createWeightFromCSV(record);
+                if (weight != null) {
+                    weights.add(weight);
+                }
+            });
+        } catch (IOException e) {
+            throw new IOException("Error reading ballot weight data: " + e.getMessage());
+        }
+        return weights;
+    }
+
+    /**
+     * Finds the rules that apply to a project.
+     * <p>
+     * A project's own rules for a criterion replace the rules for every project with the
+     * same criterion, so a project can change or switch off one kind of priority while
+     * keeping the others.
+     * </p>
+     *
+     * @param projectID The ID of the project
+     * @return The rules that apply to the project
+     * @throws IOException If an error occurs while reading the table
+     */
+    public List<BallotWeight> findWeightsForProject(String projectID) throws IOException {
+        Map<BallotCriterion, List<BallotWeight>> general = new EnumMap<>(BallotCriterion.class);
+        Map<BallotCriterion, List<BallotWeight>> own = new EnumMap<>(BallotCriterion.class);
+        for (BallotWeight weight : loadBallotWeights()) {
+            if (weight.getProjectID().equalsIgnoreCase(projectID)) {
+                own.computeIfAbsent(weight.getCriterion(), k -> new ArrayList<>()).add(weight);
+            } else if (weight.getProjectID().equalsIgnoreCase(BallotWeight.ALL_PROJECTS)) {
+                general.computeIfAbsent(weight.getCriterion(), k -> new ArrayList<>()).add(weight);
+            }
+        }
+
+        List<BallotWeight> weights = new ArrayList<>();
+        for (BallotCriterion criterion : BallotCriterion.values()) {
+            weights.addAll(own.getOrDefault(criterion, general.getOrDefault(criterion, List.of())));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,49 @@
+package repository;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Storage backend that keeps every table in its own CSV file in the data folder.
+ * <p>
+ * This is the default backend, and the format every other backend is first populated from.
+ * </p>
+ */
+public class CSVStorageBackend implements StorageBackendInterface {
+    /** The store for each table */
+    private final Map<DataTable, CSVTableStore> stores = new EnumMap<>(DataTable.class);
+
+    /**
+     * Constructs a backend over the CSV files in the data folder.
+     */
+    public CSVStorageBackend() {
+        for (DataTable table : DataTable.values()) {
+            stores.put(table, new CSVTableStore(table.getFilePath()));
+        }
+    }
+
+    /**
+     * Gets the store that holds a table.
+     *
+     * @param table The table
+     * @return The CSV store for the table
+     */
+    @Override
+    public TableStoreInterface getStore(DataTable table) {
+        return stores.get(table);
+    }
+
+    /**
+     * Forces every CSV file and journal to be written to the storage device, as every change
+     * has already been written to the files.
+     *
+     * @throws IOException If a file cannot be synced
+     */
+    @Override
+    public void close() throws IOException {
+        for (CSVTableStore store : stores.values()) {
+            store.sync();
+        }
+    }
+}
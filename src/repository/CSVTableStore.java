@@ -0,0 +1,135 @@
+package repository;
+
+import helper.CSVHandlerInterface;
+import helper.CSVUtil;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stores a table in a CSV file.
+ * <p>
+ * New records are appended to the file, while updates and deletes are recorded in the
+ * file's {@link TableJournal} and folded into the file when the journal is compacted.
+ * Fields are written with {@link CSVUtil#formatRecord(String...)}, so they may contain
+ * commas, quotes and line breaks.
+ * </p>
+ */
+public class CSVTableStore implements TableStoreInterface {
+    /** The journal that records changes to the CSV file */
+    private final TableJournal journal;
+
+    /**
+     * Constructs a store for a CSV file.
+     *
+     * @param filePath Path to the CSV file
+     */
+    public CSVTableStore(String filePath) {
+        this.journal = new TableJournal(filePath);
+    }
+
+    /**
+     * Reads every record of the table, with the journal applied.
+     *
+     * @param handler The handler that receives each record
+     * @throws IOException If an error occurs while reading the files
+     */
+    @Override
+    public void readRecords(CSVHandlerInterface handler) throws IOException {
+        journal.readRecords(handler);
+    }
+
+    /**
+     * Appends a new record to the CSV file.
+     *
+     * @param fields The fields of the record
+     * @throws IOException If an error occurs while writing the file
+     */
+    @Override
+    public void insert(String... fields) throws IOException {
+        journal.appendRecord(fields);
+    }
+
+    /**
+     * Records an updated record in the journal.
+     *
+     * @param fields The fields of the updated record
+     * @throws IOException If an error occurs while writing the journal
+     */
+    @Override
+    public void update(String... fields) throws IOException {
+        journal.update(fields);
+    }
+
+    /**
+     * Records several updated records in the journal with one append.
+     *
+     * @param records The fields of each updated record
+     * @throws IOException If an error occurs while writing the journal
+     */
+    @Override
+    public void updateAll(List<String[]> records) throws IOException {
+        journal.updateAll(records);
+    }
+
+    /**
+     * Records the deletion of a record in the journal.
+     *
+     * @param key The key of the record to delete
+     * @throws IOException If an error occurs while writing the journal
+     */
+    @Override
+    public void delete(String key) throws IOException {
+        journal.delete(key);
+    }
+
+    /**
+     * Reads the current fields of a record, changes them, and records the result in the journal.
+     * <p>
+     * The table is locked for the whole change, so no other write to the table, from this
+     * process or another, can slip in between reading the record and writing it back.
+     * </p>
+     *
+     * @param key The key of the record to change
+     * @param change Given the current fields of the record, returns the new fields
+     * @return true if the record was found and changed, false if there is no record with the key
+     * @throws IOException If an error occurs while reading or writing the files
+     */
+    @Override
+    public boolean modify(String key, UnaryOperator<String[]> change) throws IOException {
+        return journal.modify(key, change);
+    }
+
+    /**
+     * Checks whether the store rejects conflicting writes, which it does as every record is
+     * versioned by the journal.
+     *
+     * @return true
+     */
+    @Override
+    public boolean detectsConflicts() {
+        return true;
+    }
+
+    /**
+     * Checks the stored versions of some records against the versions this process last read.
+     *
+     * @param keys The keys of the records about to be updated
+     * @throws RecordConflictException If another process has written or deleted one of the records
+     * @throws IOException If an error occurs while reading the files
+     */
+    @Override
+    public void checkUnchanged(List<String> keys) throws IOException {
+        journal.checkUnchanged(keys);
+    }
+
+    /**
+     * Forces the CSV file and its journal to be written to the storage device.
+     *
+     * @throws IOException If an error occurs while syncing the files
+     */
+    public void sync() throws IOException {
+        journal.sync();
+    }
+}
@@ -0,0 +1,762 @@
+package repository;
+
+import enums.*;
+import model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Binary snapshot of every table in the {@link DataStore}, used for a fast cold start.
+ * <p>
+ * The snapshot is written when the system shuts down cleanly and read on the next start
+ * instead of parsing the CSV files. It holds the same values as the CSV records, so the
+ * tables are rebuilt exactly as a CSV load would build them, including the joins between
+ * applications, registrations, users and projects.
+ * </p>
+ * <p>
+ * The file starts with a header recording the name, size and last-modified time of every
+ * data file and journal. If any of them has changed since the snapshot was written, the
+ * snapshot is stale and is ignored. NRICs and other IDs that repeat across tables are stored
+ * once in a dictionary and referred to by index, and enum values are stored as an index into
+ * a table of constant names, so renaming or reordering an enum never misreads a snapshot.
+ * Each record is prefixed with its length, which is checked as the record is read, so a
+ * damaged snapshot is detected rather than loaded.
+ * </p>
+ * <p>
+ * The data files are assumed to change only through the repositories while the system
+ * runs, so a snapshot written at shutdown matches the files it was stamped with.
+ * </p>
+ */
+public class DataSnapshot {
+    /** The complete file path to the snapshot file */
+    private static final String FILE_PATH_SNAPSHOT = "./src/repository/data/data.snapshot";
+
+    /** The folder holding the data files the snapshot is built from */
+    private static final String DATA_FOLDER = "./src/repository/data";
+
+    /** Marks the start of a snapshot file ("BTOS") */
+    private static final int MAGIC = 0x42544F53;
+
+    /** Version of the snapshot format, bumped whenever the layout changes */
+    private static final int VERSION = 1;
+
+    /** Stands in for a missing reference or value */
+    private static final int NONE = -1;
+
+    /** The enum types stored in the snapshot, in the order their name tables are written */
+    private static final List<Class<? extends Enum<?>>> ENUM_TYPES = List.of(
+            MaritalStatus.class, FlatType.class, ApplicantAppStatus.class,
+            WithdrawalStatus.class, Visibility.class, OfficerRegStatus.class);
+
+    /** User login records, each holding an NRIC and a user type */
+    private final List<String[]> userLogins;
+
+    /** Applicants */
+    private final List<Applicant> applicants;
+
+    /** HDB officers */
+    private final List<Officer> officers;
+
+    /** HDB managers */
+    private final List<Manager> managers;
+
+    /** BTO projects */
+    private final List<Project> projects;
+
+    /** BTO applications */
+    private final List<Application> applications;
+
+    /** Enquiries */
+    private final List<Enquiry> enquiries;
+
+    /** Officer registrations */
+    private final List<OfficerRegistration> officerRegistrations;
+
+    /**
+     * Constructs a snapshot of a set of tables.
+     *
+     * @param userLogins User login records
+     * @param applicants Applicants
+     * @param officers HDB officers
+     * @param managers HDB managers
+     * @param projects BTO projects
+     * @param applications BTO applications
+     * @param enquiries Enquiries
+     * @param officerRegistrations Officer registrations
+     */
+    DataSnapshot(List<String[]> userLogins, List<Applicant> applicants, List<Officer> officers,
+                 List<Manager> managers, List<Project> projects, List<Application> applications,
+                 List<Enquiry> enquiries, List<OfficerRegistration> officerRegistrations) {
+        this.userLogins = userLogins;
+        this.applicants = applicants;
+        this.officers = officers;
+        this.managers = managers;
+        this.projects = projects;
+        this.applications = applications;
+        this.enquiries = enquiries;
+        this.officerRegistrations = officerRegistrations;
+    }
+
+    /**
+     * Gets the user login records held in the snapshot.
+     *
+     * @return The user login records
+     */
+    List<String[]> getUserLogins() {
+        return userLogins;
+    }
+
+    /**
+     * Gets the applicants held in the snapshot.
+     *
+     * @return The applicants
+     */
+    List<Applicant> getApplicants() {
+        return applicants;
+    }
+
+    /**
+     * Gets the HDB officers held in the snapshot.
+     *
+     * @return The HDB officers
+     */
+    List<Officer> getOfficers() {
+        return officers;
+    }
+
+    /**
+     * Gets the HDB managers held in the snapshot.
+     *
+     * @return The HDB managers
+     */
+    List<Manager> getManagers() {
+        return managers;
+    }
+
+    /**
+     * Gets the BTO projects held in the snapshot.
+     *
+     * @return The BTO projects
+     */
+    List<Project> getProjects() {
+        return projects;
+    }
+
+    /**
+     * Gets the BTO applications held in the snapshot.
+     *
+     * @return The BTO applications
+     */
+    List<Application> getApplications() {
+        return applications;
+    }
+
+    /**
+     * Gets the enquiries held in the snapshot.
+     *
+     * @return The enquiries
+     */
+    List<Enquiry> getEnquiries() {
+        return enquiries;
+    }
+
+    /**
+     * Gets the officer registrations held in the snapshot.
+     *
+     * @return The officer registrations
+     */
+    List<OfficerRegistration> getOfficerRegistrations() {
+        return officerRegistrations;
+    }
+
+    /**
+     * Reads the snapshot file, if there is one that matches the current data files.
+     *
+     * @return The tables held in the snapshot, or null if there is no usable snapshot
+     */
+    static DataSnapshot read() {
+        Path path = Paths.get(FILE_PATH_SNAPSHOT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // Read rather than mapped, so that the snapshot can be replaced or deleted on Windows
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            if (!readFileStamps(buffer).equals(stampDataFiles())) {
+                return null; // Stale: a data file changed after the snapshot was written
+            }
+            return new Decoder(buffer).decode();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error reading data snapshot, loading data files instead: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the tables to the snapshot file.
+     * <p>
+     * The data files are stamped before the tables are encoded. The snapshot is written to a
+     * temporary file first and then moved into place, so it is never left half written.
+     * </p>
+     *
+     * @throws IOException If an error occurs while writing the file
+     */
+    void write() throws IOException {
+        List<String> stamps = stampDataFiles();
+        Encoder encoder = new Encoder();
+        byte[] tables = encoder.encode(this);
+
+        Path target = Paths.get(FILE_PATH_SNAPSHOT);
+        Path temp = Paths.get(FILE_PATH_SNAPSHOT + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(stamps.size());
+            for (String stamp : stamps) {
+                writeString(out, stamp);
+            }
+            for (Class<? extends Enum<?>> type : ENUM_TYPES) {
+                Enum<?>[] constants = type.getEnumConstants();
+                out.writeInt(constants.length);
+                for (Enum<?> constant : constants) {
+                    writeString(out, constant.name());
+                }
+            }
+            out.writeInt(encoder.dictionary.size());
+            for (String value : encoder.dictionary.keySet()) {
+                writeString(out, value);
+            }
+            out.write(tables);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the snapshot file, if there is one.
+     *
+     * @throws IOException If the file exists but cannot be deleted
+     */
+    static void delete() throws IOException {
+        Files.deleteIfExists(Paths.get(FILE_PATH_SNAPSHOT));
+    }
+
+    /**
+     * Describes the current state of every data file and journal.
+     *
+     * @return One entry per file, holding its name, size and last-modified time, sorted by name
+     */
+    private static List<String> stampDataFiles() {
+        List<String> stamps = new ArrayList<>();
+        File[] files = new File(DATA_FOLDER).listFiles(
+                (dir, name) -> name.endsWith(".csv") || name.endsWith(".journal"));
+        if (files != null) {
+            for (File file : files) {
+                stamps.add(file.getName() + "|" + file.length() + "|" + file.lastModified());
+            }
+        }
+        Collections.sort(stamps);
+        return stamps;
+    }
+
+    /**
+     * Reads the data file stamps from the snapshot header.
+     *
+     * @param buffer The snapshot, positioned at the stamps
+     * @return The stamps recorded when the snapshot was written
+     */
+    private static List<String> readFileStamps(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> stamps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stamps.add(readString(buffer));
+        }
+        return stamps;
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string, or a length of -1 for null.
+     *
+     * @param out The stream to write to
+     * @param value The string to write
+     * @throws IOException If an error occurs while writing
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NONE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param buffer The buffer to read from
+     * @return The string, or null if null was written
+     */
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NONE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes the tables into length-prefixed records, building the dictionary as it goes.
+     */
+    private static class Encoder {
+        /** Dictionary of repeated strings, in the order they were first seen */
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        /** Holds the encoded records of every table */
+        private final ByteArrayOutputStream tables = new ByteArrayOutputStream();
+
+        /** Holds the record currently being encoded */
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+        /** Writes into {@link #record} */
+        private final DataOutputStream out = new DataOutputStream(record);
+
+        /**
+         * Encodes every table of a snapshot.
+         * <p>
+         * Values are normalized the same way a trip through the CSV file would normalize
+         * them, so that reading the snapshot gives the same objects as reading the files.
+         * </p>
+         *
+         * @param snapshot The tables to encode
+         * @return The encoded tables
+         * @throws IOException If an error occurs while encoding
+         */
+        byte[] encode(DataSnapshot snapshot) throws IOException {
+            DataOutputStream tablesOut = new DataOutputStream(tables);
+
+            tablesOut.writeInt(snapshot.userLogins.size());
+            for (String[] login : snapshot.userLogins) {
+                out.writeInt(login.length);
+                for (String field : login) {
+                    writeString(out, field);
+                }
+                endRecord(tablesOut);
+            }
+
+            for (List<? extends User> users : List.of(snapshot.applicants, snapshot.officers, snapshot.managers)) {
+                tablesOut.writeInt(users.size());
+                for (User user : users) {
+                    out.writeInt(lookup(user.getNRIC()));
+                    writeString(out, user.getName());
+                    out.writeInt(user.getAge());
+                    writeEnum(user.getMaritalStatus());
+                    writeString(out, user.getPassword());
+                    boolean hasQuestion = user.getSecurityQuestion() != null && !user.getSecurityQuestion().isEmpty();
+                    writeString(out, hasQuestion ? user.getSecurityQuestion() : null);
+                    writeString(out, hasQuestion ? Objects.toString(user.getSecurityAnswer(), "") : null);
+                    endRecord(tablesOut);
+                }
+            }
+
+            tablesOut.writeInt(snapshot.projects.size());
+            for (Project project : snapshot.projects) {
+                out.writeInt(lookup(project.getProjectID()));
+                writeString(out, project.getProjectName());
+                writeString(out, project.getNeighborhood());
+                out.writeInt(project.getUnitsForFlatType(FlatType.TWO_ROOMS));
+                out.writeDouble(project.getPriceForFlatType(FlatType.TWO_ROOMS));
+                out.writeInt(project.getUnitsForFlatType(FlatType.THREE_ROOMS));
+                out.writeDouble(project.getPriceForFlatType(FlatType.THREE_ROOMS));
+                writeString(out, project.getApplicationOpeningDate());
+                writeString(out, project.getApplicationClosingDate());
+                out.writeInt(lookup(project.getManagerID()));
+                out.writeInt(project.getOfficerSlot());
+                writeString(out, String.join(";", project.getOfficerIDs()));
+                writeEnum(project.getVisibility());
+                endRecord(tablesOut);
+            }
+
+            tablesOut.writeInt(snapshot.applications.size());
+            for (Application application : snapshot.applications) {
+                writeString(out, application.getApplicationID());
+                out.writeInt(application.getUser() == null ? NONE : lookup(application.getUser().getNRIC()));
+                out.writeInt(application.getProject() == null ? NONE : lookup(application.getProject().getProjectID()));
+                writeEnum(application.getFlatType());
+                writeEnum(application.getApplicationStatus());
+                writeEnum(application.getWithdrawalStatus());
+                endRecord(tablesOut);
+            }
+
+            tablesOut.writeInt(snapshot.enquiries.size());
+            for (Enquiry enquiry : snapshot.enquiries) {
+                // The enquiry reader trims every field, and a missing value is written as an empty field
+                writeString(out, trim(enquiry.getEnquiryID()));
+                out.writeInt(lookup(trim(enquiry.getApplicantID())));
+                out.writeInt(lookup(trim(enquiry.getProjectID())));
+                writeString(out, trim(enquiry.getEnquiryText()));
+                writeString(out, trim(enquiry.getEnquiryReply()));
+                out.writeInt(lookup(trim(enquiry.getEnquiryStatus())));
+                out.writeInt(lookup(trim(enquiry.getReplyingOfficerID())));
+                endRecord(tablesOut);
+            }
+
+            tablesOut.writeInt(snapshot.officerRegistrations.size());
+            for (OfficerRegistration registration : snapshot.officerRegistrations) {
+                writeString(out, registration.getRegistrationId());
+                out.writeInt(registration.getOfficer() == null ? NONE : lookup(registration.getOfficer().getNRIC()));
+                out.writeInt(registration.getProject() == null ? NONE : lookup(registration.getProject().getProjectID()));
+                writeEnum(registration.getStatus());
+                endRecord(tablesOut);
+            }
+
+            return tables.toByteArray();
+        }
+
+        /**
+         * Gets the dictionary index of a string, adding it to the dictionary if needed.
+         *
+         * @param value The string to look up
+         * @return The index of the string, or -1 for null
+         */
+        private int lookup(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            return dictionary.computeIfAbsent(value, v -> dictionary.size());
+        }
+
+        /**
+         * Writes an enum value as its index in the enum's name table.
+         *
+         * @param value The enum value to write
+         * @throws IOException If an error occurs while writing
+         */
+        private void writeEnum(Enum<?> value) throws IOException {
+            out.writeByte(value == null ? NONE : value.ordinal());
+        }
+
+        /**
+         * Writes the record that has been encoded, prefixed with its length, and starts a new one.
+         *
+         * @param tablesOut The stream holding the encoded tables
+         * @throws IOException If an error occurs while writing
+         */
+        private void endRecord(DataOutputStream tablesOut) throws IOException {
+            tablesOut.writeInt(record.size());
+            record.writeTo(tablesOut);
+            record.reset();
+        }
+
+        /**
+         * Trims a value, treating null as an empty value.
+         *
+         * @param value The value to trim
+         * @return The trimmed value
+         */
+        private static String trim(String value) {
+            return value == null ? "" : value.trim();
+        }
+    }
+
+    /**
+     * Decodes the tables of a snapshot and joins them in the same way as the CSV readers.
+     */
+    private static class Decoder {
+        /** The snapshot, positioned after the file stamps */
+        private final ByteBuffer buffer;
+
+        /** The constants of each enum type, by the index written in the snapshot */
+        private final Map<Class<?>, Object[]> enumTables = new HashMap<>();
+
+        /** Dictionary of repeated strings */
+        private String[] dictionary;
+
+        /** Offset just past the end of the record being decoded */
+        private int recordEnd;
+
+        /**
+         * Constructs a decoder.
+         *
+         * @param buffer The snapshot, positioned after the file stamps
+         */
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Decodes every table.
+         *
+         * @return The decoded tables
+         * @throws IOException If the snapshot is damaged
+         */
+        DataSnapshot decode() throws IOException {
+            for (Class<? extends Enum<?>> type : ENUM_TYPES) {
+                readEnumTable(type);
+            }
+            dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(buffer);
+            }
+
+            List<String[]> userLogins = new ArrayList<>();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String[] login = new String[buffer.getInt()];
+                for (int j = 0; j < login.length; j++) {
+                    login[j] = readString(buffer);
+                }
+                userLogins.add(login);
+                endRecord();
+            }
+
+            List<Applicant> applicants = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String nric = readReference();
+                String name = readString(buffer);
+                int age = buffer.getInt();
+                MaritalStatus maritalStatus = readEnum(MaritalStatus.class);
+                Applicant applicant = new Applicant(nric, name, readString(buffer), age, maritalStatus);
+                readSecurityQuestion(applicant);
+                applicants.add(applicant);
+                endRecord();
+            }
+
+            List<Officer> officers = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String nric = readReference();
+                String name = readString(buffer);
+                int age = buffer.getInt();
+                MaritalStatus maritalStatus = readEnum(MaritalStatus.class);
+                Officer officer = new Officer(nric, name, readString(buffer), age, maritalStatus);
+                readSecurityQuestion(officer);
+                officers.add(officer);
+                endRecord();
+            }
+
+            List<Manager> managers = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String nric = readReference();
+                String name = readString(buffer);
+                int age = buffer.getInt();
+                MaritalStatus maritalStatus = readEnum(MaritalStatus.class);
+                Manager manager = new Manager(nric, name, readString(buffer), maritalStatus, age);
+                readSecurityQuestion(manager);
+                managers.add(manager);
+                endRecord();
+            }
+
+            List<Project> projects = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String projectID = readReference();
+                String projectName = readString(buffer);
+                String neighborhood = readString(buffer);
+                Map<FlatType, Integer> flatTypeUnits = new HashMap<>();
+                Map<FlatType, Double> flatTypePrices = new HashMap<>();
+                flatTypeUnits.put(FlatType.TWO_ROOMS, buffer.getInt());
+                flatTypePrices.put(FlatType.TWO_ROOMS, buffer.getDouble());
+                flatTypeUnits.put(FlatType.THREE_ROOMS, buffer.getInt());
+                flatTypePrices.put(FlatType.THREE_ROOMS, buffer.getDouble());
+                String openingDate = readString(buffer);
+                String closingDate = readString(buffer);
+                String managerID = readReference();
+                int officerSlot = buffer.getInt();
+                List<String> officerIDs = ProjectRepository.parseOfficerIDs(readString(buffer));
+                Visibility visibility = readEnum(Visibility.class);
+                if (visibility != null) {
+                    projects.add(new Project(projectID, projectName, neighborhood, flatTypeUnits, flatTypePrices,
+                            openingDate, closingDate, managerID, officerSlot, officerIDs, visibility));
+                }
+                endRecord();
+            }
+
+            // Join references the same way the CSV readers do, where the first record for a key wins
+            Map<String, Applicant> applicantsByNRIC = new HashMap<>();
+            for (Applicant applicant : applicants) {
+                applicantsByNRIC.putIfAbsent(applicant.getNRIC(), applicant);
+            }
+            Map<String, Officer> officersByNRIC = new HashMap<>();
+            for (Officer officer : officers) {
+                officersByNRIC.putIfAbsent(officer.getNRIC(), officer);
+            }
+            Map<String, Project> projectsByID = new HashMap<>();
+            for (Project project : projects) {
+                projectsByID.putIfAbsent(project.getProjectID(), project);
+            }
+
+            List<Application> applications = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String applicationID = readString(buffer);
+                String userNRIC = readReference();
+                String projectID = readReference();
+                FlatType flatType = readEnum(FlatType.class);
+                ApplicantAppStatus applicationStatus = readEnum(ApplicantAppStatus.class);
+                WithdrawalStatus withdrawalStatus = readEnum(WithdrawalStatus.class);
+                endRecord();
+                if (flatType == null || applicationStatus == null || withdrawalStatus == null) {
+                    continue;
+                }
+
+                Project project = projectID == null ? null : projectsByID.get(projectID);
+                Officer officer = userNRIC == null ? null : officersByNRIC.get(userNRIC);
+                if (officer != null) {
+                    applications.add(new Application(applicationID, officer, project, flatType,
+                            applicationStatus, withdrawalStatus));
+                    continue;
+                }
+                Applicant applicant = userNRIC == null ? null : applicantsByNRIC.get(userNRIC);
+                if (applicant != null && project != null) {
+                    applications.add(new Application(applicationID, applicant, project, flatType,
+                            applicationStatus, withdrawalStatus));
+                }
+            }
+
+            List<Enquiry> enquiries = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String enquiryID = readString(buffer);
+                String applicantID = readReference();
+                String projectID = readReference();
+                String enquiryText = readString(buffer);
+                String enquiryReply = readString(buffer);
+                String enquiryStatus = readReference();
+                String replyingOfficerID = readReference();
+                enquiries.add(new Enquiry(enquiryID, applicantID, projectID, enquiryText, enquiryReply,
+                        enquiryStatus, replyingOfficerID));
+                endRecord();
+            }
+
+            List<OfficerRegistration> officerRegistrations = new ArrayList<>();
+            count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                startRecord();
+                String registrationID = readString(buffer);
+                String officerNRIC = readReference();
+                String projectID = readReference();
+                OfficerRegStatus status = readEnum(OfficerRegStatus.class);
+                endRecord();
+                if (status == null) {
+                    continue;
+                }
+
+                Officer officer = officerNRIC == null ? null : officersByNRIC.get(officerNRIC);
+                Project project = officer == null || projectID == null ? null : projectsByID.get(projectID);
+                officerRegistrations.add(new OfficerRegistration(registrationID, officer, project, status));
+            }
+
+            if (buffer.hasRemaining()) {
+                throw new IOException("Unexpected data after the last table");
+            }
+            return new DataSnapshot(userLogins, applicants, officers, managers, projects, applications,
+                    enquiries, officerRegistrations);
+        }
+
+        /**
+         * Reads the name table of an enum type and maps each name to the current constant.
+         *
+         * @param type The enum type
+         * @throws IllegalArgumentException If a name no longer matches a constant
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void readEnumTable(Class<? extends Enum<?>> type) {
+            Object[] constants = new Object[buffer.getInt()];
+            for (int i = 0; i < constants.length; i++) {
+                constants[i] = Enum.valueOf((Class) type, readString(buffer));
+            }
+            enumTables.put(type, constants);
+        }
+
+        /**
+         * Reads an enum value written as an index into its name table.
+         *
+         * @param type The enum type
+         * @param <E> The enum type
+         * @return The enum value, or null if none was written
+         */
+        private <E extends Enum<E>> E readEnum(Class<E> type) {
+            int index = buffer.get();
+            return index == NONE ? null : type.cast(enumTables.get(type)[index]);
+        }
+
+        /**
+         * Reads a string written as an index into the dictionary.
+         *
+         * @return The string, or null if none was written
+         */
+        private String readReference() {
+            int index = buffer.getInt();
+            return index == NONE ? null : dictionary[index];
+        }
+
+        /**
+         * Reads a user's security question and answer.
+         *
+         * @param user The user to set them on
+         */
+        private void readSecurityQuestion(User user) {
+            String question = readString(buffer);
+            String answer = readString(buffer);
+            if (question != null) {
+                user.setSecurityQuestion(question);
+                user.setSecurityAnswer(answer);
+            }
+        }
+
+        /**
+         * Reads the length prefix of the next record.
+         */
+        private void startRecord() {
+            int length = buffer.getInt();
+            recordEnd = buffer.position() + length;
+        }
+
+        /**
+         * Checks that the record just decoded used exactly the length it was written with.
+         *
+         * @throws IOException If the record was damaged
+         */
+        private void endRecord() throws IOException {
+            if (buffer.position() != recordEnd) {
+                throw new IOException("Damaged record at offset " + buffer.position());
+            }
+        }
+    }
+}
@@ -0,0 +1,813 @@
+package repository;
+
+import enums.ApplicantAppStatus;
+import enums.WithdrawalStatus;
+import model.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central in-memory store for all data used by the BTO housing system.
+ * <p>
+ * Every CSV file in the data folder is parsed once, when the application starts,
+ * and kept in memory for the lifetime of the process. Repositories read from the
+ * tables held here instead of re-reading their CSV files, and every change they make
+ * is written through to both the in-memory table and the file on disk.
+ * </p>
+ * <p>
+ * All methods are static and synchronized so that the store can be shared by every
+ * repository instance. Getters return a copy of the table, so callers may filter or
+ * modify the returned list without affecting the store.
+ * </p>
+ */
+public class DataStore {
+    /** In-memory table of applicants */
+    private static final List<Applicant> applicants = new ArrayList<>();
+
+    /** In-memory table of HDB officers */
+    private static final List<Officer> officers = new ArrayList<>();
+
+    /** In-memory table of HDB managers */
+    private static final List<Manager> managers = new ArrayList<>();
+
+    /** In-memory table of BTO projects */
+    private static final List<Project> projects = new ArrayList<>();
+
+    /** In-memory table of BTO applications */
+    private static final List<Application> applications = new ArrayList<>();
+
+    /** In-memory table of enquiries */
+    private static final List<Enquiry> enquiries = new ArrayList<>();
+
+    /** In-memory table of officer registrations */
+    private static final List<OfficerRegistration> officerRegistrations = new ArrayList<>();
+
+    /** In-memory table of user login records, each holding an NRIC and a user type */
+    private static final List<String[]> userLogins = new ArrayList<>();
+
+    /** Primary-key index of applicants by NRIC */
+    private static final Map<String, Applicant> applicantsByNRIC = new HashMap<>();
+
+    /** Primary-key index of HDB officers by NRIC */
+    private static final Map<String, Officer> officersByNRIC = new HashMap<>();
+
+    /** Primary-key index of HDB managers by NRIC */
+    private static final Map<String, Manager> managersByNRIC = new HashMap<>();
+
+    /** Secondary indexes over the application table */
+    private static final ApplicationIndex applicationIndex = new ApplicationIndex();
+
+    /** Index of user login records by upper-case NRIC */
+    private static final Map<String, String[]> userLoginsByNRIC = new HashMap<>();
+
+    /** The number of changes made to the tables since they were loaded */
+    private static final AtomicLong dataVersion = new AtomicLong();
+
+    /** Whether the tables have been populated from the data files */
+    private static boolean loaded = false;
+
+    /**
+     * Loads every data file into memory.
+     * <p>
+     * If a binary snapshot written at the last clean shutdown still matches the data files,
+     * the tables are read from it instead of the CSV files. Otherwise, tables are loaded in
+     * dependency order: users and projects first, followed by the
+     * applications and officer registrations that refer to them. Those references are
+     * resolved through the NRIC indexes and a project map built once, so each
+     * file is read exactly once. The store is marked as loaded before the files are read
+     * so that a repository called during the load does not trigger another load.
+     * Calling this method again after a successful load has no effect.
+     * </p>
+     */
+    public static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        // The snapshot mirrors the CSV files, so it says nothing about a database backend
+        DataSnapshot snapshot = Storage.usesCSVFiles() ? DataSnapshot.read() : null;
+        if (snapshot != null) {
+            userLogins.addAll(snapshot.getUserLogins());
+            applicants.addAll(snapshot.getApplicants());
+            officers.addAll(snapshot.getOfficers());
+            managers.addAll(snapshot.getManagers());
+            projects.addAll(snapshot.getProjects());
+            applications.addAll(snapshot.getApplications());
+            enquiries.addAll(snapshot.getEnquiries());
+            officerRegistrations.addAll(snapshot.getOfficerRegistrations());
+            indexUsers();
+            for (Application application : applications) {
+                applicationIndex.add(application);
+            }
+            return;
+        }
+
+        try {
+            userLogins.addAll(new UserLoginRepository().readUserLoginsFromCSV());
+            applicants.addAll(new ApplicantRepository().readApplicantsFromCSV());
+            officers.addAll(new OfficerRepository().readOfficersFromCSV());
+            managers.addAll(new ManagerRepository().readManagersFromCSV());
+            projects.addAll(new ProjectRepository().readProjectsFromCSV());
+            indexUsers();
+
+            // Build the project lookup once so that each application and registration
+            // record is joined in constant time instead of scanning the project table
+            Map<String, Project> projectsByID = indexProjects();
+
+            applications.addAll(new ApplicationRepository()
+                    .readApplicationsFromCSV(applicantsByNRIC, officersByNRIC, projectsByID));
+            for (Application application : applications) {
+                applicationIndex.add(application);
+            }
+            enquiries.addAll(new EnquiryRepository().readEnquiriesFromCSV());
+            officerRegistrations.addAll(new OfficerRegRepository()
+                    .readOfficerRegFromCSV(officersByNRIC, projectsByID));
+        } catch (IOException e) {
+            System.out.println("Error loading data files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the NRIC indexes over the user and login tables.
+     * <p>
+     * The first record for an NRIC wins, matching what a linear search would return.
+     * </p>
+     */
+    private static void indexUsers() {
+        for (String[] login : userLogins) {
+            if (login.length >= 1) {
+                userLoginsByNRIC.putIfAbsent(login[0].trim().toUpperCase(), login);
+            }
+        }
+        for (Applicant applicant : applicants) {
+            applicantsByNRIC.putIfAbsent(applicant.getNRIC(), applicant);
+        }
+        for (Officer officer : officers) {
+            officersByNRIC.putIfAbsent(officer.getNRIC(), officer);
+        }
+        for (Manager manager : managers) {
+            managersByNRIC.putIfAbsent(manager.getNRIC(), manager);
+        }
+    }
+
+    /**
+     * Builds a lookup of the project table by project ID.
+     * <p>
+     * The first project with an ID wins, matching what a linear search would return.
+     * </p>
+     *
+     * @return A new map of projects by ID
+     */
+    private static Map<String, Project> indexProjects() {
+        Map<String, Project> projectsByID = new HashMap<>();
+        for (Project project : projects) {
+            projectsByID.putIfAbsent(project.getProjectID(), project);
+        }
+        return projectsByID;
+    }
+
+    /**
+     * Re-reads one table from storage after its data file was changed outside this process.
+     * <p>
+     * Only the given table is read again. Records are matched to the stored objects by key,
+     * and a stored object that is still in the file is updated in place rather than replaced,
+     * so that applications and registrations referring to a user or project keep pointing at
+     * the current object. Records that are new in the file are added, and stored objects that
+     * are no longer in the file are dropped. Where a stored object cannot be updated in place,
+     * for example an application that now refers to a different project, the object read from
+     * the file takes its place.
+     * </p>
+     *
+     * @param table The table to reload
+     * @throws IOException If an error occurs while reading the table
+     */
+    public static synchronized void reloadTable(DataTable table) throws IOException {
+        if (!loaded) {
+            return;
+        }
+        dataVersion.incrementAndGet();
+        switch (table) {
+            case USER_LOGINS:
+                userLogins.clear();
+                userLogins.addAll(new UserLoginRepository().readUserLoginsFromCSV());
+                userLoginsByNRIC.clear();
+                for (String[] login : userLogins) {
+                    if (login.length >= 1) {
+                        userLoginsByNRIC.putIfAbsent(login[0].trim().toUpperCase(), login);
+                    }
+                }
+                break;
+            case APPLICANTS:
+                mergeUsers(applicants, applicantsByNRIC, new ApplicantRepository().readApplicantsFromCSV());
+                break;
+            case OFFICERS:
+                mergeUsers(officers, officersByNRIC, new OfficerRepository().readOfficersFromCSV());
+                break;
+            case MANAGERS:
+                mergeUsers(managers, managersByNRIC, new ManagerRepository().readManagersFromCSV());
+                break;
+            case PROJECTS:
+                mergeProjects(new ProjectRepository().readProjectsFromCSV());
+                break;
+            case APPLICATIONS:
+                mergeApplications(new ApplicationRepository()
+                        .readApplicationsFromCSV(applicantsByNRIC, officersByNRIC, indexProjects()));
+                break;
+            case ENQUIRIES:
+                mergeEnquiries(new EnquiryRepository().readEnquiriesFromCSV());
+                break;
+            case OFFICER_REGISTRATIONS:
+                mergeOfficerRegistrations(new OfficerRegRepository()
+                        .readOfficerRegFromCSV(officersByNRIC, indexProjects()));
+                break;
+            case BALLOT_WEIGHTS:
+                // Not held in memory: BallotWeightRepository reads the rules for every ballot
+                break;
+        }
+    }
+
+    /**
+     * Merges freshly read users into a user table and rebuilds its NRIC index.
+     *
+     * @param table The stored user table
+     * @param index The NRIC index over the table
+     * @param fresh The users read from the file, in file order
+     * @param <T> The type of user
+     */
+    private static <T extends User> void mergeUsers(List<T> table, Map<String, T> index, List<T> fresh) {
+        Map<String, T> storedByNRIC = new HashMap<>(index);
+        List<T> merged = new ArrayList<>(fresh.size());
+        for (T user : fresh) {
+            T stored = storedByNRIC.remove(user.getNRIC());
+            if (stored != null) {
+                stored.setName(user.getName());
+                stored.setAge(user.getAge());
+                stored.setMaritalStatus(user.getMaritalStatus());
+                stored.setPassword(user.getPassword());
+                stored.setSecurityQuestion(user.getSecurityQuestion());
+                stored.setSecurityAnswer(user.getSecurityAnswer());
+                merged.add(stored);
+            } else {
+                merged.add(user);
+            }
+        }
+        table.clear();
+        table.addAll(merged);
+        index.clear();
+        for (T user : table) {
+            index.putIfAbsent(user.getNRIC(), user);
+        }
+    }
+
+    /**
+     * Merges freshly read projects into the project table.
+     *
+     * @param fresh The projects read from the file, in file order
+     */
+    private static void mergeProjects(List<Project> fresh) {
+        Map<String, Project> storedByID = indexProjects();
+        List<Project> merged = new ArrayList<>(fresh.size());
+        for (Project project : fresh) {
+            Project stored = storedByID.remove(project.getProjectID());
+            if (stored == null) {
+                merged.add(project);
+                continue;
+            }
+            stored.setProjectName(project.getProjectName());
+            stored.setNeighborhood(project.getNeighborhood());
+            stored.setFlatTypeUnits(project.getFlatTypeUnits());
+            stored.setFlatTypePrices(project.getFlatTypePrices());
+            stored.setApplicationOpeningDate(project.getApplicationOpeningDate());
+            stored.setApplicationClosingDate(project.getApplicationClosingDate());
+            stored.setManagerID(project.getManagerID());
+            stored.setOfficerSlot(project.getOfficerSlot());
+            stored.setOfficerIDs(project.getOfficerIDs());
+            stored.setVisibility(project.getVisibility());
+            merged.add(stored);
+        }
+        projects.clear();
+        projects.addAll(merged);
+    }
+
+    /**
+     * Merges freshly read applications into the application table and rebuilds its index.
+     *
+     * @param fresh The applications read from the file, in file order
+     */
+    private static void mergeApplications(List<Application> fresh) {
+        List<Application> merged = new ArrayList<>(fresh.size());
+        for (Application application : fresh) {
+            Application stored = applicationIndex.get(application.getApplicationID());
+            if (stored != null && stored.getProject() == application.getProject()) {
+                stored.setApplicant(application.getApplicant());
+                stored.setOfficer(application.getOfficer());
+                stored.setFlatType(application.getFlatType());
+                stored.setApplicationStatus(application.getApplicationStatus());
+                stored.setWithdrawalStatus(application.getWithdrawalStatus());
+                merged.add(stored);
+            } else {
+                merged.add(application);
+            }
+        }
+        applications.clear();
+        applications.addAll(merged);
+        applicationIndex.clear();
+        for (Application application : applications) {
+            applicationIndex.add(application);
+        }
+    }
+
+    /**
+     * Merges freshly read enquiries into the enquiry table.
+     *
+     * @param fresh The enquiries read from the file, in file order
+     */
+    private static void mergeEnquiries(List<Enquiry> fresh) {
+        Map<String, Enquiry> storedByID = new HashMap<>();
+        for (Enquiry enquiry : enquiries) {
+            storedByID.putIfAbsent(enquiry.getEnquiryID(), enquiry);
+        }
+        List<Enquiry> merged = new ArrayList<>(fresh.size());
+        for (Enquiry enquiry : fresh) {
+            Enquiry stored = storedByID.remove(enquiry.getEnquiryID());
+            if (stored == null) {
+                merged.add(enquiry);
+                continue;
+            }
+            stored.setApplicantID(enquiry.getApplicantID());
+            stored.setProjectID(enquiry.getProjectID());
+            stored.setEnquiryText(enquiry.getEnquiryText());
+            stored.setEnquiryReply(enquiry.getEnquiryReply());
+            stored.setEnquiryStatus(enquiry.getEnquiryStatus());
+            stored.setReplyingOfficerID(enquiry.getReplyingOfficerID());
+            merged.add(stored);
+        }
+        enquiries.clear();
+        enquiries.addAll(merged);
+    }
+
+    /**
+     * Merges freshly read officer registrations into the registration table.
+     *
+     * @param fresh The registrations read from the file, in file order
+     */
+    private static void mergeOfficerRegistrations(List<OfficerRegistration> fresh) {
+        Map<String, OfficerRegistration> storedByID = new HashMap<>();
+        for (OfficerRegistration registration : officerRegistrations) {
+            storedByID.putIfAbsent(registration.getRegistrationId(), registration);
+        }
+        List<OfficerRegistration> merged = new ArrayList<>(fresh.size());
+        for (OfficerRegistration registration : fresh) {
+            OfficerRegistration stored = storedByID.remove(registration.getRegistrationId());
+            if (stored != null && stored.getOfficer() == registration.getOfficer()
+                    && stored.getProject() == registration.getProject()) {
+                stored.setStatus(registration.getStatus());
+                merged.add(stored);
+            } else {
+                merged.add(registration);
+            }
+        }
+        officerRegistrations.clear();
+        officerRegistrations.addAll(merged);
+    }
+
+    /**
+     * Writes every table to a binary snapshot so that the next start can skip parsing the data files.
+     * <p>
+     * This should only be called on a clean shutdown, once nothing else is changing the data
+     * and every pending change has been written to the data files by {@link Storage#close()}.
+     * If the snapshot cannot be written, the next start simply reads the data files.
+     * </p>
+     */
+    public static synchronized void saveSnapshot() {
+        if (!loaded || !Storage.usesCSVFiles()) {
+            return;
+        }
+        try {
+            new DataSnapshot(userLogins, applicants, officers, managers, projects, applications,
+                    enquiries, officerRegistrations).write();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error saving data snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the snapshot, so that the next start reads the data files.
+     * <p>
+     * This should be called instead of {@link #saveSnapshot()} when {@link Storage#close()}
+     * could not write every pending change. The tables in memory then hold changes the data
+     * files do not, and a snapshot of them would be taken for the data files on the next start.
+     * </p>
+     */
+    public static synchronized void discardSnapshot() {
+        try {
+            DataSnapshot.delete();
+        } catch (IOException e) {
+            System.out.println("Error deleting data snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the data files if this has not been done yet.
+     */
+    private static void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    /**
+     * Gets the version of the data, which goes up whenever a table is changed or reloaded.
+     * <p>
+     * Anything worked out from the tables, such as a report, is still up to date while the
+     * version is the same as when it was worked out. The version is read without taking the
+     * store's lock, so checking it costs next to nothing.
+     * </p>
+     *
+     * @return The number of changes made since the tables were loaded
+     */
+    public static long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Gets all applicants.
+     *
+     * @return A copy of the applicant table
+     */
+    public static synchronized List<Applicant> getApplicants() {
+        ensureLoaded();
+        return new ArrayList<>(applicants);
+    }
+
+    /**
+     * Finds an applicant by NRIC using the primary-key index.
+     *
+     * @param nric The NRIC of the applicant
+     * @return The applicant, or null if there is none with that NRIC
+     */
+    public static synchronized Applicant getApplicant(String nric) {
+        ensureLoaded();
+        return applicantsByNRIC.get(nric);
+    }
+
+    /**
+     * Gets all HDB officers.
+     *
+     * @return A copy of the officer table
+     */
+    public static synchronized List<Officer> getOfficers() {
+        ensureLoaded();
+        return new ArrayList<>(officers);
+    }
+
+    /**
+     * Finds an HDB officer by NRIC using the primary-key index.
+     *
+     * @param nric The NRIC of the officer
+     * @return The officer, or null if there is none with that NRIC
+     */
+    public static synchronized Officer getOfficer(String nric) {
+        ensureLoaded();
+        return officersByNRIC.get(nric);
+    }
+
+    /**
+     * Gets all HDB managers.
+     *
+     * @return A copy of the manager table
+     */
+    public static synchronized List<Manager> getManagers() {
+        ensureLoaded();
+        return new ArrayList<>(managers);
+    }
+
+    /**
+     * Finds an HDB manager by NRIC using the primary-key index.
+     *
+     * @param nric The NRIC of the manager
+     * @return The manager, or null if there is none with that NRIC
+     */
+    public static synchronized Manager getManager(String nric) {
+        ensureLoaded();
+        return managersByNRIC.get(nric);
+    }
+
+    /**
+     * Gets all projects.
+     *
+     * @return A copy of the project table
+     */
+    public static synchronized List<Project> getProjects() {
+        ensureLoaded();
+        return new ArrayList<>(projects);
+    }
+
+    /**
+     * Adds a newly created project to the store.
+     *
+     * @param project The project to add
+     */
+    public static synchronized void addProject(Project project) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        projects.add(project);
+    }
+
+    /**
+     * Replaces the stored project that has the same ID as the given project.
+     * <p>
+     * Projects returned by the store are shared instances, so this only has an effect
+     * when the caller built a new Project object instead of modifying the stored one.
+     * </p>
+     *
+     * @param project The updated project
+     */
+    public static synchronized void putProject(Project project) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        for (int i = 0; i < projects.size(); i++) {
+            if (projects.get(i).getProjectID().equals(project.getProjectID())) {
+                projects.set(i, project);
+                return;
+            }
+        }
+        projects.add(project);
+    }
+
+    /**
+     * Removes a project from the store.
+     *
+     * @param projectID The ID of the project to remove
+     */
+    public static synchronized void removeProject(String projectID) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        projects.removeIf(p -> p.getProjectID().equals(projectID));
+    }
+
+    /**
+     * Gets all applications.
+     *
+     * @return A copy of the application table
+     */
+    public static synchronized List<Application> getApplications() {
+        ensureLoaded();
+        return new ArrayList<>(applications);
+    }
+
+    /**
+     * Finds an application by its ID using the application index.
+     *
+     * @param applicationID The application ID
+     * @return The application, or null if there is none with that ID
+     */
+    public static synchronized Application getApplication(String applicationID) {
+        ensureLoaded();
+        return applicationIndex.get(applicationID);
+    }
+
+    /**
+     * Finds the applications matching every given criterion using the application index.
+     * <p>
+     * Criteria that are null are ignored, so for example passing only a project ID returns
+     * every application for that project. With no criteria at all, the application table is
+     * already the answer in store order, so it is copied without going through the index.
+     * </p>
+     *
+     * @param projectID The project ID, or null for any project
+     * @param nric The NRIC of the applicant or officer who applied, or null for any user
+     * @param status The application status, or null for any status
+     * @param withdrawalStatus The withdrawal status, or null for any withdrawal status
+     * @return A new list of matching applications
+     */
+    public static synchronized List<Application> findApplications(String projectID, String nric,
+                                                                  ApplicantAppStatus status,
+                                                                  WithdrawalStatus withdrawalStatus) {
+        ensureLoaded();
+        if (projectID == null && nric == null && status == null && withdrawalStatus == null) {
+            return new ArrayList<>(applications);
+        }
+        return applicationIndex.find(projectID, nric, status, withdrawalStatus);
+    }
+
+    /**
+     * Gets the number of a project's applications in each state from the counts kept by the
+     * application index.
+     *
+     * @param projectID The project ID
+     * @return A copy of the project's counts
+     */
+    public static synchronized ApplicationCounts getApplicationCounts(String projectID) {
+        ensureLoaded();
+        return applicationIndex.counts(projectID);
+    }
+
+    /**
+     * Adds a newly submitted application to the store.
+     *
+     * @param application The application to add
+     */
+    public static synchronized void addApplication(Application application) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        applications.add(application);
+        applicationIndex.add(application);
+    }
+
+    /**
+     * Replaces the stored application that has the same ID as the given application,
+     * and re-indexes it.
+     * <p>
+     * This must be called whenever an application is modified, so that the status indexes
+     * reflect its new state.
+     * </p>
+     *
+     * @param application The updated application
+     */
+    public static synchronized void putApplication(Application application) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        Application stored = applicationIndex.get(application.getApplicationID());
+        if (stored != application) {
+            // A different object was passed in, so swap it into the table as well
+            int index = stored == null ? -1 : applications.indexOf(stored);
+            if (index >= 0) {
+                applications.set(index, application);
+            } else {
+                applications.add(application);
+            }
+        }
+        applicationIndex.update(application);
+    }
+
+    /**
+     * Changes an application's status if, and only if, it still has the expected status.
+     * <p>
+     * The check and the change are made while holding the store's lock, so of two sessions
+     * moving the same application on from the same status, such as two officers booking it,
+     * only one succeeds. The status of the stored application is checked, in case the table
+     * was reloaded after the caller found the application, and both objects are changed. The
+     * indexes are left alone until the application is saved with {@link #putApplication(Application)}.
+     * </p>
+     *
+     * @param application The application to change
+     * @param expected The status the application must have
+     * @param status The new status
+     * @return true if the status was changed, false if the application no longer had the expected status
+     */
+    public static synchronized boolean compareAndSetApplicationStatus(Application application,
+                                                                      ApplicantAppStatus expected,
+                                                                      ApplicantAppStatus status) {
+        ensureLoaded();
+        Application stored = applicationIndex.get(application.getApplicationID());
+        Application current = stored != null ? stored : application;
+        if (current.getApplicationStatus() != expected || application.getApplicationStatus() != expected) {
+            return false;
+        }
+        current.setApplicationStatus(status);
+        application.setApplicationStatus(status);
+        return true;
+    }
+
+    /**
+     * Changes an application's withdrawal status if, and only if, it still has the expected one.
+     * <p>
+     * This works like {@link #compareAndSetApplicationStatus(Application, ApplicantAppStatus, ApplicantAppStatus)},
+     * so of two sessions deciding the same withdrawal, only one succeeds.
+     * </p>
+     *
+     * @param application The application to change
+     * @param expected The withdrawal status the application must have
+     * @param status The new withdrawal status
+     * @return true if the withdrawal status was changed, false if the application no longer had the expected one
+     */
+    public static synchronized boolean compareAndSetWithdrawalStatus(Application application,
+                                                                     WithdrawalStatus expected,
+                                                                     WithdrawalStatus status) {
+        ensureLoaded();
+        Application stored = applicationIndex.get(application.getApplicationID());
+        Application current = stored != null ? stored : application;
+        if (current.getWithdrawalStatus() != expected || application.getWithdrawalStatus() != expected) {
+            return false;
+        }
+        current.setWithdrawalStatus(status);
+        application.setWithdrawalStatus(status);
+        return true;
+    }
+
+    /**
+     * Gets all enquiries.
+     *
+     * @return A copy of the enquiry table
+     */
+    public static synchronized List<Enquiry> getEnquiries() {
+        ensureLoaded();
+        return new ArrayList<>(enquiries);
+    }
+
+    /**
+     * Adds a newly submitted enquiry to the store.
+     *
+     * @param enquiry The enquiry to add
+     */
+    public static synchronized void addEnquiry(Enquiry enquiry) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        enquiries.add(enquiry);
+    }
+
+    /**
+     * Replaces the stored enquiry that has the same ID as the given enquiry.
+     *
+     * @param enquiry The updated enquiry
+     */
+    public static synchronized void putEnquiry(Enquiry enquiry) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        for (int i = 0; i < enquiries.size(); i++) {
+            if (enquiries.get(i).getEnquiryID().equals(enquiry.getEnquiryID())) {
+                enquiries.set(i, enquiry);
+                return;
+            }
+        }
+        enquiries.add(enquiry);
+    }
+
+    /**
+     * Removes an enquiry from the store.
+     *
+     * @param enquiryID The ID of the enquiry to remove
+     * @return true if an enquiry was removed, false otherwise
+     */
+    public static synchronized boolean removeEnquiry(String enquiryID) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        return enquiries.removeIf(e -> e.getEnquiryID().equals(enquiryID));
+    }
+
+    /**
+     * Gets all officer registrations.
+     *
+     * @return A copy of the officer registration table
+     */
+    public static synchronized List<OfficerRegistration> getOfficerRegistrations() {
+        ensureLoaded();
+        return new ArrayList<>(officerRegistrations);
+    }
+
+    /**
+     * Adds a newly submitted officer registration to the store.
+     *
+     * @param registration The registration to add
+     */
+    public static synchronized void addOfficerRegistration(OfficerRegistration registration) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        officerRegistrations.add(registration);
+    }
+
+    /**
+     * Replaces the stored officer registration that has the same ID as the given registration.
+     *
+     * @param registration The updated registration
+     */
+    public static synchronized void putOfficerRegistration(OfficerRegistration registration) {
+        ensureLoaded();
+        dataVersion.incrementAndGet();
+        for (int i = 0; i < officerRegistrations.size(); i++) {
+            if (officerRegistrations.get(i).getRegistrationId().equals(registration.getRegistrationId())) {
+                officerRegistrations.set(i, registration);
+                return;
+            }
+        }
+        officerRegistrations.add(registration);
+    }
+
+    /**
+     * Gets all user login records.
+     *
+     * @return A copy of the user login table, where each record holds an NRIC and a user type
+     */
+    public static synchronized List<String[]> getUserLogins() {
+        ensureLoaded();
+        return new ArrayList<>(userLogins);
+    }
+
+    /**
+     * Finds the user login record for an NRIC, ignoring case.
+     *
+     * @param nric The NRIC to look up
+     * @return The login record, or null if there is none with that NRIC
+     */
+    public static synchronized String[] getUserLogin(String nric) {
+        ensureLoaded();
+        return nric == null ? null : userLoginsByNRIC.get(nric.toUpperCase());
+    }
+}
@@ -0,0 +1,123 @@
+package repository;
+
+/**
+ * The tables that make up the BTO housing system's data.
+ * <p>
+ * Each table has a fixed list of columns, in the order they appear in its CSV file, and the
+ * first column is the key used to update or delete a record. Some columns are also marked as
+ * indexed, which storage backends that support indexes use to look records up by the IDs
+ * they refer to.
+ * </p>
+ */
+public enum DataTable {
+    /** User login records */
+    USER_LOGINS("user_login_records",
+            new String[]{"NRIC", "UserType"},
+            new String[]{}),
+
+    /** Applicants */
+    APPLICANTS("applicant_records",
+            new String[]{"NRIC", "Name", "Age", "MaritalStatus", "Password", "SecurityQuestion", "SecurityAnswer"},
+            new String[]{}),
+
+    /** HDB officers */
+    OFFICERS("officer_records",
+            new String[]{"NRIC", "Name", "Age", "MaritalStatus", "Password", "SecurityQuestion", "SecurityAnswer"},
+            new String[]{}),
+
+    /** HDB managers */
+    MANAGERS("manager_records",
+            new String[]{"NRIC", "Name", "Age", "MaritalStatus", "Password", "ProjectID", "SecurityQuestion",
+                    "SecurityAnswer"},
+            new String[]{}),
+
+    /** BTO projects */
+    PROJECTS("project_records",
+            new String[]{"ProjectID", "ProjectName", "Neighborhood", "NoOfTwoRooms", "PriceOfTwoRooms",
+                    "NoOfThreeRooms", "PriceOfThreeRooms", "ApplicationOpeningDate", "ApplicationClosingDate",
+                    "ManagerID", "OfficerSlot", "OfficerIDs", "Visibility"},
+            new String[]{"ManagerID"}),
+
+    /** BTO applications */
+    APPLICATIONS("application_records",
+            new String[]{"ApplicationID", "ApplicantID", "ProjectID", "FlatType", "ApplicationStatus",
+                    "WithdrawalStatus"},
+            new String[]{"ApplicantID", "ProjectID", "ApplicationStatus"}),
+
+    /** Enquiries */
+    ENQUIRIES("enquiry_records",
+            new String[]{"EnquiryID", "ApplicantNRIC", "ProjectID", "EnquiryText", "EnquiryResponse",
+                    "EnquiryStatus", "ResponderNRIC"},
+            new String[]{"ApplicantNRIC", "ProjectID", "ResponderNRIC"}),
+
+    /** Officer registrations */
+    OFFICER_REGISTRATIONS("officer_registration_records",
+            new String[]{"RegistrationID", "OfficerID", "ProjectID", "RegistrationStatus"},
+            new String[]{"OfficerID", "ProjectID"}),
+
+    /** Priority rules for ballots */
+    BALLOT_WEIGHTS("ballot_weight_records",
+            new String[]{"WeightID", "ProjectID", "Criterion", "Value", "Weight"},
+            new String[]{"ProjectID"});
+
+    /** The folder holding the CSV data files */
+    private static final String DATA_FOLDER = "./src/repository/data/";
+
+    /** The name of the table's CSV file, without the extension */
+    private final String fileName;
+
+    /** The names of the table's columns, in order */
+    private final String[] columns;
+
+    /** The names of the columns, other than the key, that should be indexed */
+    private final String[] indexedColumns;
+
+    /**
+     * Constructs a table definition.
+     *
+     * @param fileName The name of the table's CSV file, without the extension
+     * @param columns The names of the table's columns, in order
+     * @param indexedColumns The names of the columns, other than the key, that should be indexed
+     */
+    DataTable(String fileName, String[] columns, String[] indexedColumns) {
+        this.fileName = fileName;
+        this.columns = columns;
+        this.indexedColumns = indexedColumns;
+    }
+
+    /**
+     * Gets the path to the table's CSV file.
+     *
+     * @return The complete file path to the CSV file
+     */
+    public String getFilePath() {
+        return DATA_FOLDER + fileName + ".csv";
+    }
+
+    /**
+     * Gets the name of the table in a database.
+     *
+     * @return The table name, such as "application_records"
+     */
+    public String getTableName() {
+        return fileName;
+    }
+
+    /**
+     * Gets the names of the table's columns.
+     *
+     * @return A copy of the column names, in order
+     */
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * Gets the names of the columns, other than the key, that should be indexed.
+     *
+     * @return A copy of the indexed column names
+     */
+    public String[] getIndexedColumns() {
+        return indexedColumns.clone();
+    }
+}
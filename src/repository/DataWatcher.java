@@ -0,0 +1,227 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the data folder for changes made to the data files outside this process.
+ * <p>
+ * The operations team sometimes edits data files with scripts while the system is running.
+ * As every table is held in memory by {@link DataStore}, such an edit would otherwise go
+ * unnoticed until the next start. This watcher listens for changes to the data folder on a
+ * background thread and reloads only the tables whose CSV or journal file changed, through
+ * {@link DataStore#reloadTable(DataTable)}.
+ * </p>
+ * <p>
+ * The system's own writes also change the data files, and must not trigger a reload. Every
+ * write made by this process is therefore recorded with {@link #recordWrite(String)}, which
+ * remembers the size and modification time the file was left with. A change event for a file
+ * that still has the recorded size and modification time is ignored. Before writing a file,
+ * the process calls {@link #expectWrite(String)}, so that an outside change made just before
+ * its own write still causes a reload even though the recorded state now includes it.
+ * </p>
+ * <p>
+ * Events are collected for {@link #SETTLE_MILLIS} milliseconds before tables are reloaded, so
+ * that a script writing a file in several steps causes one reload rather than many.
+ * </p>
+ * <p>
+ * All methods are static as this class is not meant to be instantiated.
+ * </p>
+ */
+public class DataWatcher {
+    /** The folder holding the data files */
+    private static final String DATA_FOLDER = "./src/repository/data";
+
+    /** Time to wait for further events after a change, in milliseconds */
+    private static final long SETTLE_MILLIS = 200;
+
+    /** Stamp given to a file that does not exist */
+    private static final String MISSING = "missing";
+
+    /** The last known stamp of each data file, by file name */
+    private static final Map<String, String> knownStamps = new ConcurrentHashMap<>();
+
+    /** Names of data files found to have been changed outside this process just before it wrote them */
+    private static final Set<String> changedOutside = ConcurrentHashMap.newKeySet();
+
+    /** The watch service over the data folder, or null if the watcher is not running */
+    private static WatchService watchService = null;
+
+    /**
+     * Starts watching the data folder, if the watcher is not running yet and the tables are
+     * kept in the CSV files.
+     * <p>
+     * The current state of every table file is recorded first, so only changes made after
+     * this call cause a reload.
+     * </p>
+     */
+    public static synchronized void start() {
+        if (watchService != null || !Storage.usesCSVFiles()) {
+            return;
+        }
+        for (DataTable table : DataTable.values()) {
+            recordWrite(table.getFilePath());
+            recordWrite(journalPath(table));
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Paths.get(DATA_FOLDER).register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.out.println("Error watching data files: " + e.getMessage());
+            stop();
+            return;
+        }
+
+        WatchService service = watchService;
+        Thread thread = new Thread(() -> watch(service), "data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the data folder, if the watcher is running.
+     */
+    public static synchronized void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.out.println("Error closing data file watcher: " + e.getMessage());
+        }
+        watchService = null;
+    }
+
+    /**
+     * Notes that this process is about to write a data file, so that a change made to it by
+     * another process since it was last recorded is not mistaken for this process's own write.
+     *
+     * @param filePath Path to the file about to be written
+     */
+    public static void expectWrite(String filePath) {
+        Path path = Paths.get(filePath);
+        String name = path.getFileName().toString();
+        String known = knownStamps.get(name);
+        if (known != null && !known.equals(stamp(path))) {
+            changedOutside.add(name);
+        }
+    }
+
+    /**
+     * Records that this process has just written a data file, so the resulting change event
+     * does not cause a reload.
+     *
+     * @param filePath Path to the file that was written
+     */
+    public static void recordWrite(String filePath) {
+        Path path = Paths.get(filePath);
+        knownStamps.put(path.getFileName().toString(), stamp(path));
+    }
+
+    /**
+     * Waits for change events and reloads the affected tables until the watch service is closed.
+     *
+     * @param service The watch service over the data folder
+     */
+    private static void watch(WatchService service) {
+        Path folder = Paths.get(DATA_FOLDER);
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Thread.sleep(SETTLE_MILLIS);
+
+                Set<DataTable> changed = EnumSet.noneOf(DataTable.class);
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path name) {
+                            DataTable table = tableOf(name.toString());
+                            if (table != null && isExternalChange(folder.resolve(name))) {
+                                changed.add(table);
+                            }
+                        }
+                    }
+                    key.reset();
+                    key = service.poll();
+                }
+
+                // Tables are reloaded in declaration order, so users and projects are current
+                // before the applications and registrations that refer to them
+                for (DataTable table : changed) {
+                    try {
+                        DataStore.reloadTable(table);
+                        System.out.println("Reloaded " + table.getTableName() + " after it was changed outside the system.");
+                    } catch (IOException | RuntimeException e) {
+                        System.out.println("Error reloading " + table.getTableName() + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // The watcher was stopped
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether a data file differs from the state this process last left it in, and
+     * records its current state if so.
+     *
+     * @param path Path to the data file
+     * @return true if the file was changed by another process
+     */
+    private static boolean isExternalChange(Path path) {
+        String name = path.getFileName().toString();
+        String current = stamp(path);
+        String known = knownStamps.put(name, current);
+        return changedOutside.remove(name) || !current.equals(known);
+    }
+
+    /**
+     * Finds the table that a file in the data folder belongs to.
+     *
+     * @param fileName The name of the file
+     * @return The table whose CSV or journal file has that name, or null if there is none
+     */
+    private static DataTable tableOf(String fileName) {
+        for (DataTable table : DataTable.values()) {
+            if (fileName.equals(table.getTableName() + ".csv") || fileName.equals(table.getTableName() + ".journal")) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the path to a table's journal file.
+     *
+     * @param table The table
+     * @return The complete file path to the journal file
+     */
+    private static String journalPath(DataTable table) {
+        String filePath = table.getFilePath();
+        return filePath.substring(0, filePath.length() - ".csv".length()) + ".journal";
+    }
+
+    /**
+     * Describes the current state of a file by its size and modification time.
+     *
+     * @param path Path to the file
+     * @return The stamp of the file, or {@link #MISSING} if it does not exist
+     */
+    private static String stamp(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() + "|" + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            return MISSING;
+        }
+    }
+}
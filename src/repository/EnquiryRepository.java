@@ -15,8 +15,14 @@ import java.util.List;
  * </p>
  */
 public class EnquiryRepository {
-    /** The complete file path to the enquiry records file */
-    private static final String FILE_PATH_ENQUIRY = "./src/repository/data/enquiry_records.csv";
+    /**
+     * Gets the store that holds the enquiry records in the storage backend in use.
+     *
+     * @return The store for the enquiry table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.ENQUIRIES);
+    }
 
     /** Repository instance for accessing project data */
     private static final ProjectRepository projectRepository = new ProjectRepository();
@@ -24,29 +30,20 @@ public class EnquiryRepository {
     /**
      * Generates the next sequential enquiry ID.
      * <p>
-     * The format is "E" followed by a four-digit number (e.g., E0001, E0002).
+     * The format is "E" followed by a number of at least four digits (e.g., E0001, E0002).
+     * IDs come from a persistent sequence, so this does not scan the existing enquiries.
      * </p>
      *
      * @return A new unique enquiry ID
      */
     public String generateNextEnquiryID() {
-        int max = 0;
-        // Load all enquiries directly from CSV
-        List<Enquiry> enquiries = loadAllEnquiries();
-
-        // Find the highest project number
-        for (Enquiry enquiry : enquiries) {
-            String existingID = enquiry.getEnquiryID();
-            if (existingID.matches("E\\d+")) {
-                int number = Integer.parseInt(existingID.substring(1));
-                if (number > max) {
-                    max = number;
-                }
+        return SequenceGenerator.forPrefix("E", () -> {
+            List<String> ids = new ArrayList<>();
+            for (Enquiry enquiry : DataStore.getEnquiries()) {
+                ids.add(enquiry.getEnquiryID());
             }
-        }
-
-        int nextNumber = max + 1;
-        return String.format("E%04d", nextNumber);  // e.g., E0001, E0002
+            return ids;
+        }).next();
     }
 
     /**
@@ -57,84 +54,69 @@ public class EnquiryRepository {
      * @throws IOException if an error occurs while writing to the file
      */
     public boolean createNewEnquiry(Enquiry enquiry) throws IOException {
-        File file = new File(FILE_PATH_ENQUIRY);
-        boolean needsNewline = false;
-
-        // Check if file exists and doesn't end with newline
-        if (file.exists() && file.length() > 0) {
-            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-                if (raf.length() > 0) {
-                    raf.seek(raf.length() - 1);
-                    byte lastByte = raf.readByte();
-                    needsNewline = lastByte != '\n';
-                }
-            }
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-            // Write a newline if file has content
-            if (needsNewline) {
-                writer.newLine();
-            }
-
-            String enquiryData = enquiryToCSV(enquiry);
-
-            writer.write(enquiryData);
-        }
+        store().insert(enquiryToRecord(enquiry));
+        DataStore.addEnquiry(enquiry);
         return true;
     }
 
     /**
-     * Converts an Enquiry object to a CSV record string.
+     * Converts an Enquiry object to the fields of a record.
      *
      * @param enquiry The Enquiry object to convert
-     * @return A string representing the enquiry in CSV format
+     * @return The fields of the enquiry record, in column order
      */
-    private static String enquiryToCSV(Enquiry enquiry) {
-        return String.join(",",
+    private static String[] enquiryToRecord(Enquiry enquiry) {
+        return new String[]{
                 enquiry.getEnquiryID(),
                 enquiry.getApplicantID(),
                 enquiry.getProjectID(),
                 enquiry.getEnquiryText(),
                 enquiry.getEnquiryReply(),
                 enquiry.getEnquiryStatus(),
-                enquiry.getReplyingOfficerID());
+                enquiry.getReplyingOfficerID()};
     }
 
     /**
-     * Loads all enquiries from the CSV file.
+     * Reads all enquiries from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadAllEnquiries()}.
+     * </p>
      *
      * @return A list of Enquiry objects
      */
-    public List<Enquiry> loadAllEnquiries() {
+    List<Enquiry> readEnquiriesFromCSV() {
         List<Enquiry> enquiries = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_PATH_ENQUIRY))) {
-            String line;
-            boolean firstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
-                }
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 7) {
+        try {
+            store().readRecords(record -> {
+                if (record.getFieldCount() >= 7) {
                     Enquiry enquiry = new Enquiry(
-                            parts[0].trim(),
-                            parts[1].trim(),
-                            parts[2].trim(),
-                            parts[3].trim(),
-                            parts[4].trim(),
-                            parts[5].trim(),
-                            parts[6].trim() // Replying officer ID
+                            record.getString(0).trim(),
+                            record.getString(1).trim(),
+                            record.getString(2).trim(),
+                            record.getString(3).trim(),
+                            record.getString(4).trim(),
+                            record.getString(5).trim(),
+                            record.getString(6).trim() // Replying officer ID
                     );
                     enquiries.add(enquiry);
                 }
-            }
+            });
         } catch (IOException e) {
             System.out.println("Failed to read enquiries: " + e.getMessage());
         }
         return enquiries;
     }
 
+    /**
+     * Loads all enquiries from the in-memory data store.
+     *
+     * @return A list of Enquiry objects
+     */
+    public List<Enquiry> loadAllEnquiries() {
+        return DataStore.getEnquiries();
+    }
+
     /**
      * Finds an enquiry by its ID.
      *
@@ -179,14 +161,12 @@ public class EnquiryRepository {
                 e.setEnquiryReply(replyText);
                 e.setEnquiryStatus("REPLIED");
                 e.setReplyingOfficerID(officerId);
+                store().update(enquiryToRecord(e));
                 updated = true;
                 break;
             }
         }
 
-        if (updated) {
-            overwriteCSV(enquiries);
-        }
         return updated;
     }
 
@@ -198,21 +178,8 @@ public class EnquiryRepository {
      * @throws IOException if writing fails
      */
     public boolean removeEnquiryById(String enquiryID) throws IOException {
-        List<Enquiry> enquiries = loadAllEnquiries();
-        boolean removed = enquiries.removeIf(e -> e.getEnquiryID().equals(enquiryID));
-
-        if (removed) {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH_ENQUIRY))) {
-                // Write header
-                writer.write("EnquiryID,ApplicantNRIC,ProjectID,EnquiryText,EnquiryResponse,EnquiryStatus,ResponderNRIC");
-                writer.newLine();
-
-                for (Enquiry e : enquiries) {
-                    writer.write(enquiryToCSV(e));
-                    writer.newLine();
-                }
-            }
-        }
+        store().delete(enquiryID);
+        DataStore.removeEnquiry(enquiryID);
         return true;
     }
 
@@ -294,31 +261,6 @@ public class EnquiryRepository {
         return filteredEnquiries;
     }
 
-    /**
-     * Helper method to overwrite CSV file with a given list of enquiries.
-     *
-     * @param enquiries The list of enquiries to write to the file
-     * @throws IOException if writing fails
-     */
-    private void overwriteCSV(List<Enquiry> enquiries) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH_ENQUIRY))) {
-            writer.write("EnquiryID,ApplicantNRIC,ProjectID,EnquiryText,EnquiryResponse,EnquiryStatus,ResponderNRIC");
-            writer.newLine();
-            for (Enquiry e : enquiries) {
-                String record = String.join(",",
-                        e.getEnquiryID(),
-                        e.getApplicantID(),
-                        e.getProjectID(),
-                        e.getEnquiryText(),
-                        e.getEnquiryReply(),
-                        e.getEnquiryStatus(),
-                        e.getReplyingOfficerID());
-                writer.write(record);
-                writer.newLine();
-            }
-        }
-    }
-
     /**
      * Updates an enquiry with a reply text and sets its status to replied.
      *
@@ -336,14 +278,11 @@ public class EnquiryRepository {
                 e.setEnquiryReply(replyText);
                 e.setEnquiryStatus("REPLIED");
                 e.setReplyingOfficerID(officerId); // Set the replying officer ID
+                store().update(enquiryToRecord(e));
                 updated = true;
                 break;
             }
         }
-
-        if (updated) {
-            overwriteCSV(enquiries);
-        }
     }
 
     /**
@@ -380,7 +319,7 @@ public class EnquiryRepository {
     /**
      * Updates an existing enquiry in the CSV file.
      * <p>
-     * This method finds and replaces the record with matching enquiry ID.
+     * The updated record is appended to the table's journal rather than rewriting the whole file.
      * </p>
      *
      * @param updatedEnquiry The Enquiry object with updated information
@@ -388,37 +327,9 @@ public class EnquiryRepository {
      * @throws IOException if reading or writing fails
      */
     public boolean updateEnquiry(Enquiry updatedEnquiry) throws IOException {
-        File inputFile = new File(FILE_PATH_ENQUIRY);
-        List<String> updatedLines = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    updatedLines.add(line); // Header
-                    isFirstLine = false;
-                    continue;
-                }
-
-                if (line.startsWith(updatedEnquiry.getEnquiryID() + ",")) {
-                    updatedLines.add(enquiryToCSV(updatedEnquiry)); // Use helper method
-                } else {
-                    updatedLines.add(line); // Keep as is
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading CSV for update: " + e.getMessage());
-            return false;
-        }
-
-        // Write updated content back to file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH_ENQUIRY, false))) {
-            for (String updatedLine : updatedLines) {
-                writer.write(updatedLine);
-                writer.newLine();
-            }
+        try {
+            store().update(enquiryToRecord(updatedEnquiry));
+            DataStore.putEnquiry(updatedEnquiry);
             System.out.println("Updated enquiry saved successfully.");
         } catch (IOException e) {
             System.out.println("Error writing updated CSV: " + e.getMessage());
@@ -0,0 +1,85 @@
+package repository;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Storage backend that keeps every table in an embedded SQL database, such as H2 or SQLite
+ * in file mode, reached through JDBC.
+ * <p>
+ * The JDBC driver is found through {@link DriverManager}, so it only needs to be on the
+ * classpath when this backend is selected. The first time a table is opened in a database
+ * it is created and populated from its CSV file, after which the CSV file is no longer used.
+ * The table only appears once all of its records are in, so an import that fails is tried
+ * again on the next start instead of leaving an empty table behind.
+ * </p>
+ */
+public class JdbcStorageBackend implements StorageBackendInterface {
+    /** The connection to the database, shared by every table */
+    private final Connection connection;
+
+    /** The store for each table */
+    private final Map<DataTable, TableStoreInterface> stores = new EnumMap<>(DataTable.class);
+
+    /**
+     * Opens the database and creates any table it does not have yet.
+     *
+     * @param url The JDBC URL of the database, e.g. "jdbc:h2:./src/repository/data/btoms"
+     * @throws IOException If the database cannot be opened or a table cannot be created
+     */
+    public JdbcStorageBackend(String url) throws IOException {
+        try {
+            connection = DriverManager.getConnection(url);
+        } catch (SQLException e) {
+            throw new IOException("Cannot open database " + url + ": " + e.getMessage(), e);
+        }
+
+        try {
+            for (DataTable table : DataTable.values()) {
+                JdbcTableStore store = new JdbcTableStore(connection, table);
+                if (!store.tableExists()) {
+                    store.createFrom(new CSVTableStore(table.getFilePath()));
+                }
+                stores.put(table, store);
+            }
+        } catch (SQLException | IOException e) {
+            try {
+                connection.close();
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw new IOException("Cannot prepare database " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the store that holds a table.
+     *
+     * @param table The table
+     * @return The database store for the table
+     */
+    @Override
+    public TableStoreInterface getStore(DataTable table) {
+        return stores.get(table);
+    }
+
+    /**
+     * Closes the connection to the database.
+     *
+     * @throws IOException If the connection cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (connection) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new IOException("Error closing database: " + e.getMessage(), e);
+            }
+        }
+    }
+}
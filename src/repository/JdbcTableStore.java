@@ -0,0 +1,435 @@
+package repository;
+
+import helper.CSVHandlerInterface;
+import helper.CSVReader;
+import helper.CSVUtil;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stores a table in a SQL database through JDBC.
+ * <p>
+ * The database table has one text column for each column of the {@link DataTable}, plus a
+ * RowOrder column that keeps records in the order they were added, so that they are read
+ * back in the same order as from the CSV file. The key column and the table's indexed
+ * columns have database indexes, so looking up or changing a record does not scan the table.
+ * </p>
+ * <p>
+ * All stores of a backend share one connection, and every method locks that connection,
+ * so statements from different threads never interleave.
+ * </p>
+ */
+public class JdbcTableStore implements TableStoreInterface {
+    /** The name of the column that keeps records in the order they were added */
+    private static final String ORDER_COLUMN = "RowOrder";
+
+    /** The connection to the database */
+    private final Connection connection;
+
+    /** The table stored here */
+    private final DataTable table;
+
+    /** The column names of the table */
+    private final String[] columns;
+
+    /** The RowOrder value given to the last record added, or -1 if not yet read from the database */
+    private long lastOrder = -1;
+
+    /**
+     * Constructs a store for a table.
+     *
+     * @param connection The connection to the database
+     * @param table The table stored here
+     */
+    public JdbcTableStore(Connection connection, DataTable table) {
+        this.connection = connection;
+        this.table = table;
+        this.columns = table.getColumns();
+    }
+
+    /**
+     * Checks whether the database table exists.
+     *
+     * @return true if the table exists, false otherwise
+     * @throws SQLException If the database cannot be queried
+     */
+    boolean tableExists() throws SQLException {
+        synchronized (connection) {
+            return exists(table.getTableName());
+        }
+    }
+
+    /**
+     * Creates the database table from every record of another store.
+     * <p>
+     * The records are copied into a staging table in a single transaction, and the staging
+     * table is only renamed to the table's own name once they are all in. Creating a table
+     * commits on its own in most databases, so creating the table first would leave it empty
+     * if the copy failed or the process stopped part way, and every later start would find the
+     * table and skip the copy. A staging table left behind is dropped and the copy started over.
+     * </p>
+     *
+     * @param source The store to copy from
+     * @throws IOException If the records cannot be read or the table cannot be created
+     */
+    void createFrom(TableStoreInterface source) throws IOException {
+        String name = table.getTableName();
+        String staging = name + "_IMPORT";
+        synchronized (connection) {
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("DROP TABLE IF EXISTS " + staging);
+                }
+                create(staging);
+                try {
+                    importInto(staging, source);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.executeUpdate("ALTER TABLE " + staging + " RENAME TO " + name);
+                    }
+                } catch (SQLException | IOException e) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.executeUpdate("DROP TABLE IF EXISTS " + staging);
+                    } catch (SQLException dropError) {
+                        e.addSuppressed(dropError);
+                    }
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new IOException("Error importing " + name + ": " + e.getMessage(), e);
+            } finally {
+                lastOrder = -1;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a database table exists. Must be called while holding the connection.
+     *
+     * @param name The name of the table
+     * @return true if the table exists, false otherwise
+     * @throws SQLException If the database cannot be queried
+     */
+    private boolean exists(String name) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // Databases differ in whether unquoted names are stored in upper or lower case
+        for (String candidate : new String[]{name, name.toUpperCase(), name.toLowerCase()}) {
+            try (ResultSet tables = metaData.getTables(null, null, candidate, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a database table with the table's columns and indexes. Must be called while
+     * holding the connection.
+     * <p>
+     * The indexes are named after the table's own name, so they keep sensible names when a
+     * staging table is renamed.
+     * </p>
+     *
+     * @param name The name to create the table under
+     * @throws SQLException If the table cannot be created
+     */
+    private void create(String name) throws SQLException {
+        String indexPrefix = table.getTableName() + "_";
+        StringBuilder create = new StringBuilder("CREATE TABLE " + name + " (" + ORDER_COLUMN + " BIGINT NOT NULL");
+        for (String column : columns) {
+            create.append(", ").append(column).append(" VARCHAR");
+        }
+        create.append(")");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(create.toString());
+            statement.executeUpdate("CREATE INDEX " + indexPrefix + columns[0] + "_idx ON " + name
+                    + " (" + columns[0] + ")");
+            for (String column : table.getIndexedColumns()) {
+                statement.executeUpdate("CREATE INDEX " + indexPrefix + column + "_idx ON " + name
+                        + " (" + column + ")");
+            }
+        }
+    }
+
+    /**
+     * Copies every record of another store into a database table in a single transaction.
+     * Must be called while holding the connection.
+     *
+     * @param name The name of the table to copy into, which must be empty
+     * @param source The store to copy from
+     * @throws SQLException If the records cannot be written
+     * @throws IOException If the records cannot be read
+     */
+    private void importInto(String name, TableStoreInterface source) throws SQLException, IOException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(insertSQL(name))) {
+            SQLException[] failure = new SQLException[1];
+            long[] order = {0};
+            source.readRecords(record -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    bindInsert(insert, ++order[0], record.toArray());
+                    insert.addBatch();
+                } catch (SQLException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            insert.executeBatch();
+            connection.commit();
+        } catch (SQLException | IOException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Reads every record of the table, in the order the records were added.
+     *
+     * @param handler The handler that receives each record
+     * @throws IOException If the records cannot be read
+     */
+    @Override
+    public void readRecords(CSVHandlerInterface handler) throws IOException {
+        synchronized (connection) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(selectSQL("") + " ORDER BY " + ORDER_COLUMN)) {
+                String[] fields = new String[columns.length];
+                while (rows.next()) {
+                    for (int i = 0; i < fields.length; i++) {
+                        fields[i] = rows.getString(i + 1);
+                    }
+                    // Hand the row over as a CSV record so repositories parse it as they would a file
+                    CSVReader.readText(CSVUtil.formatRecord(fields), handler);
+                }
+            } catch (SQLException e) {
+                throw new IOException("Error reading " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Adds a new record to the end of the table.
+     *
+     * @param fields The fields of the record
+     * @throws IOException If the record cannot be written
+     */
+    @Override
+    public void insert(String... fields) throws IOException {
+        synchronized (connection) {
+            try (PreparedStatement insert = connection.prepareStatement(insertSQL(table.getTableName()))) {
+                bindInsert(insert, nextOrder(), fields);
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                throw new IOException("Error inserting into " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Replaces the record with the same key, or adds it if there is no such record.
+     *
+     * @param fields The fields of the updated record
+     * @throws IOException If the record cannot be written
+     */
+    @Override
+    public void update(String... fields) throws IOException {
+        StringBuilder sql = new StringBuilder("UPDATE " + table.getTableName() + " SET ");
+        for (int i = 1; i < columns.length; i++) {
+            sql.append(i > 1 ? ", " : "").append(columns[i]).append(" = ?");
+        }
+        sql.append(" WHERE ").append(columns[0]).append(" = ?");
+
+        synchronized (connection) {
+            int updated;
+            try (PreparedStatement update = connection.prepareStatement(sql.toString())) {
+                for (int i = 1; i < columns.length; i++) {
+                    update.setString(i, fieldAt(fields, i));
+                }
+                update.setString(columns.length, fieldAt(fields, 0));
+                updated = update.executeUpdate();
+            } catch (SQLException e) {
+                throw new IOException("Error updating " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+            if (updated == 0) {
+                insert(fields);
+            }
+        }
+    }
+
+    /**
+     * Replaces several records in a single transaction, adding any that do not exist yet.
+     *
+     * @param records The fields of each updated record
+     * @throws IOException If the records cannot be written, in which case none of them is written
+     */
+    @Override
+    public void updateAll(List<String[]> records) throws IOException {
+        synchronized (connection) {
+            try {
+                connection.setAutoCommit(false);
+                try {
+                    for (String[] fields : records) {
+                        update(fields);
+                    }
+                    connection.commit();
+                } catch (IOException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new IOException("Error updating " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Deletes the record with a key.
+     *
+     * @param key The key of the record to delete
+     * @throws IOException If the record cannot be deleted
+     */
+    @Override
+    public void delete(String key) throws IOException {
+        synchronized (connection) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + table.getTableName() + " WHERE " + columns[0] + " = ?")) {
+                delete.setString(1, key);
+                delete.executeUpdate();
+            } catch (SQLException e) {
+                throw new IOException("Error deleting from " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Reads the current fields of a record by its key, changes them, and writes them back.
+     *
+     * @param key The key of the record to change
+     * @param change Given the current fields of the record, returns the new fields
+     * @return true if the record was found and changed, false if there is no record with the key
+     * @throws IOException If the record cannot be read or written
+     */
+    @Override
+    public boolean modify(String key, UnaryOperator<String[]> change) throws IOException {
+        synchronized (connection) {
+            String[] fields = null;
+            try (PreparedStatement select = connection.prepareStatement(
+                    selectSQL(" WHERE " + columns[0] + " = ?") + " ORDER BY " + ORDER_COLUMN)) {
+                select.setString(1, key);
+                try (ResultSet rows = select.executeQuery()) {
+                    if (rows.next()) {
+                        fields = new String[columns.length];
+                        for (int i = 0; i < fields.length; i++) {
+                            fields[i] = rows.getString(i + 1) == null ? "" : rows.getString(i + 1);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IOException("Error reading " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+            if (fields == null) {
+                return false;
+            }
+            update(change.apply(fields));
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether the store rejects conflicting writes, which it does not: records are not
+     * versioned in the database, and the last write to a record wins.
+     *
+     * @return false
+     */
+    @Override
+    public boolean detectsConflicts() {
+        return false;
+    }
+
+    /**
+     * Accepts every record, as records are not versioned in the database.
+     *
+     * @param keys The keys of the records about to be updated
+     */
+    @Override
+    public void checkUnchanged(List<String> keys) {
+        // Nothing to check: the last write to a record wins
+    }
+
+    /**
+     * Builds a query for every column of the table, in column order.
+     *
+     * @param where The WHERE clause, with a leading space, or an empty string for every row
+     * @return The SQL query
+     */
+    private String selectSQL(String where) {
+        return "SELECT " + String.join(", ", columns) + " FROM " + table.getTableName() + where;
+    }
+
+    /**
+     * Builds the statement that inserts a record.
+     *
+     * @param name The name of the table to insert into
+     * @return The SQL statement, with the RowOrder followed by every column as parameters
+     */
+    private String insertSQL(String name) {
+        return "INSERT INTO " + name + " (" + ORDER_COLUMN + ", " + String.join(", ", columns)
+                + ") VALUES (?" + ", ?".repeat(columns.length) + ")";
+    }
+
+    /**
+     * Binds a record to the insert statement.
+     *
+     * @param insert The insert statement
+     * @param order The RowOrder value of the record
+     * @param fields The fields of the record
+     * @throws SQLException If the parameters cannot be set
+     */
+    private void bindInsert(PreparedStatement insert, long order, String[] fields) throws SQLException {
+        insert.setLong(1, order);
+        for (int i = 0; i < columns.length; i++) {
+            insert.setString(i + 2, fieldAt(fields, i));
+        }
+    }
+
+    /**
+     * Gets the RowOrder value for the next record added.
+     *
+     * @return A value larger than that of any record in the table
+     * @throws SQLException If the current largest value cannot be read
+     */
+    private long nextOrder() throws SQLException {
+        if (lastOrder < 0) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(
+                         "SELECT MAX(" + ORDER_COLUMN + ") FROM " + table.getTableName())) {
+                lastOrder = result.next() ? result.getLong(1) : 0;
+            }
+        }
+        return ++lastOrder;
+    }
+
+    /**
+     * Gets a field of a record, treating a missing trailing field as empty.
+     *
+     * @param fields The fields of the record
+     * @param index The index of the field
+     * @return The field, or an empty string if the record has fewer fields
+     */
+    private static String fieldAt(String[] fields, int index) {
+        return index < fields.length && fields[index] != null ? fields[index] : "";
+    }
+}
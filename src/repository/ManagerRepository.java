@@ -1,5 +1,6 @@
 package repository;
 
+import helper.CSVRecord;
 import controller.*;
 import model.Manager;
 import enums.MaritalStatus;
@@ -19,30 +20,35 @@ import java.util.List;
  * </p>
  */
 public class ManagerRepository implements PasswordChangerInterface,VerificationInterface, CheckSecQuesInterface, SecQuesChangerInterface {
-    /** The folder where data files are stored */
-    private static final String folder = "data";
-
-    /** The filename for manager records */
-    private static final String fileName = "manager_records.csv";
-
-    /** The complete file path to the manager records file */
-    private static final String filePath = "./src/repository/" + folder + "/" + fileName;
+    /**
+     * Gets the store that holds the manager records in the storage backend in use.
+     *
+     * @return The store for the manager table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.MANAGERS);
+    }
 
     /**
      * Creates a Manager object from CSV record data.
      *
-     * @param parts Array of strings representing fields from a CSV record
+     * @param record A CSV record
      * @return A new Manager object or null if creation fails
      */
-    private Manager createManagerFromCSV(String[] parts) {
+    private Manager createManagerFromCSV(CSVRecord record) {
         try {
-            String nric = parts[0];
-            String name = parts[1];
-            int age = Integer.parseInt(parts[2]);
-            MaritalStatus maritalStatus = MaritalStatus.valueOf(parts[3].toUpperCase());
-            String password = parts[4];
-
-            return new Manager(nric, name, password, maritalStatus, age);
+            String nric = record.getString(0);
+            String name = record.getString(1);
+            int age = record.getInt(2);
+            MaritalStatus maritalStatus = MaritalStatus.valueOf(record.getString(3).toUpperCase());
+            String password = record.getString(4);
+
+            Manager manager = new Manager(nric, name, password, maritalStatus, age);
+            if (record.getFieldCount() > 6 && !record.isEmpty(6)) {
+                manager.setSecurityQuestion(record.getString(6));
+                manager.setSecurityAnswer(record.getFieldCount() > 7 ? record.getString(7) : "");
+            }
+            return manager;
         } catch (Exception e) {
             System.out.println("Error creating manager from CSV data: " + e.getMessage());
             return null;
@@ -50,42 +56,37 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
     }
 
     /**
-     * Loads all managers from the CSV file.
+     * Reads all managers from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadApplicants()}.
+     * </p>
      *
      * @return A list of Manager objects
      * @throws IOException If an error occurs while reading the file
      */
-    public List<Manager> loadApplicants() throws IOException {
+    List<Manager> readManagersFromCSV() throws IOException {
         List<Manager> managers = new ArrayList<>();
-        File file = new File(filePath);
-
-        if (!file.exists()) {
-            System.out.println("Managers file not found, returning empty list");
-            return managers;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = br.readLine()) != null) {
-                // Skip the header row
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                String[] data = line.split(",");
-                Manager manager = createManagerFromCSV(data);
-                if (manager != null) {
-                    managers.add(manager);
-                }
+        store().readRecords(record -> {
+            Manager manager = createManagerFromCSV(record);
+            if (manager != null) {
+                managers.add(manager);
             }
-        }
+        });
 
         return managers;
     }
 
+    /**
+     * Loads all managers from the in-memory data store.
+     *
+     * @return A list of Manager objects
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Manager> loadApplicants() throws IOException {
+        return DataStore.getManagers();
+    }
+
     /**
      * Finds a manager by their NRIC (National Registration Identity Card) number.
      *
@@ -94,11 +95,7 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      * @throws IOException If an error occurs while reading the file
      */
     public Manager findManagerById(String nric) throws IOException {
-        List<Manager> managers = loadApplicants();
-        return managers.stream()
-                .filter(manager -> manager.getNRIC().equals(nric))
-                .findFirst()
-                .orElse(null);
+        return DataStore.getManager(nric);
     }
 
     /**
@@ -112,24 +109,14 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
         PasswordController pc = new PasswordController();
         String hashedInputPassword = pc.hashPassword(password);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            reader.readLine(); // Skip header
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                Manager hdbmanager = createManagerFromCSV(parts);
-                if (hdbmanager != null && hdbmanager.getNRIC().equals(id)) {
-                    // Check for default password OR hashed password match
-                    if (hdbmanager.getPassword().equals("password") && password.equals("password")) {
-                        return hdbmanager;
-                    } else if (hdbmanager.getPassword().equals(hashedInputPassword)) {
-                        return hdbmanager;
-                    }
-                }
+        Manager hdbmanager = DataStore.getManager(id);
+        if (hdbmanager != null) {
+            // Check for default password OR hashed password match
+            if (hdbmanager.getPassword().equals("password") && password.equals("password")) {
+                return hdbmanager;
+            } else if (hdbmanager.getPassword().equals(hashedInputPassword)) {
+                return hdbmanager;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
         return null; // Login failed
@@ -143,34 +130,21 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      * @return true if password was successfully updated, false otherwise
      */
     public boolean changePassword(String nric, String newHashedPassword) {
-        List<String[]> allRecords = new ArrayList<>();
-        boolean passwordUpdated = false;
-
-        // Load all records from the file
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric)) {
-                    parts[4] = newHashedPassword; // Update password
-                    passwordUpdated = true;
-                }
-                allRecords.add(parts);
-            }
+        boolean passwordUpdated;
+        try {
+            passwordUpdated = store().modify(nric, parts -> {
+                parts[4] = newHashedPassword; // Update password
+                return parts;
+            });
         } catch (IOException e) {
-            System.err.println("Error reading the file: " + e.getMessage());
+            System.err.println("Error writing to the file: " + e.getMessage());
             return false; // Indicate failure
         }
 
-        // Rewrite the file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] record : allRecords) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to the file: " + e.getMessage());
-            return false; // Indicate failure
+        // Keep the in-memory copy in step with the file
+        Manager manager = DataStore.getManager(nric);
+        if (manager != null) {
+            manager.setPassword(newHashedPassword);
         }
 
         return passwordUpdated;
@@ -183,53 +157,15 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      * @param project The Project to assign to the manager
      */
     public void updateManagerInCSV(Manager updatedManager, Project project) {
-        File inputFile = new File(filePath);
-        List<String> updatedLines = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    updatedLines.add(line); // Header
-                    isFirstLine = false;
-                    continue;
-                }
-
-                if (line.startsWith(updatedManager.getNRIC() + ",")) {
-                    // Get the existing line parts
-                    String[] parts = line.split(",");
-
-                    // Update the line with project information
-                    // Format: NRIC,Name,Age,MaritalStatus,Password,[ProjectID]
-                    StringBuilder updatedLine = new StringBuilder();
-                    updatedLine.append(String.join(",", parts));
-
-                    // Add project ID if it's not already in the line
-                    if (parts.length < 6) {
-                        updatedLine.append(",").append(project.getProjectID());
-                    } else {
-                        // Replace the last part with new project ID
-                        updatedLine = new StringBuilder(line.substring(0, line.lastIndexOf(",")));
-                        updatedLine.append(",").append(project.getProjectID());
-                    }
-
-                    updatedLines.add(updatedLine.toString());
-                } else {
-                    updatedLines.add(line); // Keep as is
+        try {
+            store().modify(updatedManager.getNRIC(), parts -> {
+                // Format: NRIC,Name,Age,MaritalStatus,Password,[ProjectID],...
+                if (parts.length < 6) {
+                    parts = Arrays.copyOf(parts, 6);
                 }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading CSV for update: " + e.getMessage());
-            return;
-        }
-
-        // Write updated content back to file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, false))) {
-            for (String updatedLine : updatedLines) {
-                writer.write(updatedLine);
-                writer.newLine();
-            }
+                parts[5] = project.getProjectID();
+                return parts;
+            });
             System.out.println("Manager updated with new project successfully.");
         } catch (IOException e) {
             System.out.println("Error writing updated CSV: " + e.getMessage());
@@ -246,40 +182,28 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      */
     @Override
     public boolean changeSecQuesAndAns(String nric, String newSecQues, String newSecAns) {
-        List<String[]> records = new ArrayList<>();
-        boolean secQuesUpdated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-
-                if (parts[0].equals(nric)) {
-                    // Ensure the CSV has enough columns for Question and Answer
-                    if (parts.length < 8) {
-                        parts = Arrays.copyOf(parts, 8); // Extend to at least 8 elements
-                    }
-                    // Update security question and answer
-                    parts[6] = newSecQues;
-                    parts[7] = newSecAns;
-                    secQuesUpdated = true;
+        boolean secQuesUpdated;
+        try {
+            secQuesUpdated = store().modify(nric, parts -> {
+                // Ensure the record has enough columns for Question and Answer
+                if (parts.length < 8) {
+                    parts = Arrays.copyOf(parts, 8);
                 }
-                records.add(parts); // Add the record to the list
-            }
+                // Update security question and answer
+                parts[6] = newSecQues;
+                parts[7] = newSecAns;
+                return parts;
+            });
         } catch (IOException e) {
-            System.err.println("Error reading the file: " + e.getMessage());
+            System.err.println("Error writing to the file: " + e.getMessage());
             return false; // Indicate failure
         }
 
-        // Rewrite the file with updated records
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] record : records) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to the file: " + e.getMessage());
-            return false; // Indicate failure
+        // Keep the in-memory copy in step with the file
+        Manager manager = DataStore.getManager(nric);
+        if (manager != null) {
+            manager.setSecurityQuestion(newSecQues);
+            manager.setSecurityAnswer(newSecAns);
         }
 
         return secQuesUpdated;
@@ -293,19 +217,9 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      */
     @Override
     public boolean checkHaveSecQues(String nric) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 6 && parts[0].equals(nric) && !parts[6].isEmpty()) { // NRIC and Password
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        Manager manager = DataStore.getManager(nric);
+        return manager != null && manager.getSecurityQuestion() != null
+                && !manager.getSecurityQuestion().isEmpty();
     }
 
     /**
@@ -316,17 +230,10 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      */
     @Override
     public String retrieveSecQues(String nric) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric) && !parts[6].isEmpty()) { // NRIC and Password
-                    return parts[6];
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        Manager manager = DataStore.getManager(nric);
+        if (manager != null && manager.getSecurityQuestion() != null
+                && !manager.getSecurityQuestion().isEmpty()) {
+            return manager.getSecurityQuestion();
         }
         return "Error retrieving security question"; // Default return value
     }
@@ -340,18 +247,7 @@ public class ManagerRepository implements PasswordChangerInterface,VerificationI
      */
     @Override
     public boolean verifyAnsToSecQues(String nric, String answer) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric) && parts[7].equals(answer.toLowerCase())) { // Match ID and Answer
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        Manager manager = DataStore.getManager(nric);
+        return manager != null && answer.toLowerCase().equals(manager.getSecurityAnswer()); // Match ID and Answer
     }
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package repository;
 
+import helper.CSVRecord;
 import enums.OfficerRegStatus;
 import model.*;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
-import helper.CSVUtil;
 
 /**
  * Repository class for managing Officer Registration data persistence.
@@ -18,8 +19,14 @@ import helper.CSVUtil;
  * </p>
  */
 public class OfficerRegRepository {
-    /** The complete file path to the officer registration records file */
-    private static final String FILE_PATH_OFFICER_REGISTRATION = "./src/repository/data/officer_registration_records.csv";
+    /**
+     * Gets the store that holds the officer registration records in the storage backend in use.
+     *
+     * @return The store for the officer registration table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.OFFICER_REGISTRATIONS);
+    }
 
     /** In-memory cache of officer registrations */
     public static List<OfficerRegistration> registrations = new ArrayList<>();
@@ -27,34 +34,20 @@ public class OfficerRegRepository {
     /**
      * Generates the next sequential registration ID.
      * <p>
-     * The format is "R" followed by a four-digit number (e.g., R0001, R0002).
+     * The format is "R" followed by a number of at least four digits (e.g., R0001, R0002).
+     * IDs come from a persistent sequence, so this does not scan the existing registrations.
      * </p>
      *
      * @return A new unique registration ID
      */
     public String generateNextRegistrationID() {
-        int max = 0;
-        try {
-            // Load all registrations directly from CSV
-            List<OfficerRegistration> registrations = loadAllOfficerReg();
-
-            // Find the highest registration number
-            for (OfficerRegistration registration : registrations) {
-                String existingID = registration.getRegistrationId();
-                if (existingID.matches("R\\d+")) {
-                    int number = Integer.parseInt(existingID.substring(1));
-                    if (number > max) {
-                        max = number;
-                    }
-                }
+        return SequenceGenerator.forPrefix("R", () -> {
+            List<String> ids = new ArrayList<>();
+            for (OfficerRegistration registration : DataStore.getOfficerRegistrations()) {
+                ids.add(registration.getRegistrationId());
             }
-        } catch (IOException e) {
-            System.out.println("Error loading projects: " + e.getMessage());
-            // If we can't load existing projects, start from 1
-        }
-
-        int nextNumber = max + 1;
-        return String.format("R%04d", nextNumber);  // e.g., R0001, R0002
+            return ids;
+        }).next();
     }
 
     /**
@@ -97,31 +90,29 @@ public class OfficerRegRepository {
 
     /**
      * Creates an OfficerRegistration object from CSV record data.
+     * <p>
+     * The officer and project referred to by the record are resolved against the given maps.
+     * </p>
      *
-     * @param parts Array of strings representing fields from a CSV record
+     * @param record A CSV record
+     * @param officersByNRIC Officers keyed by NRIC
+     * @param projectsByID Projects keyed by project ID
      * @return A new OfficerRegistration object or null if creation fails
      */
-    private OfficerRegistration createRegFromCSV(String[] parts) {
-        // Create repository instances
-        OfficerRepository officerRepo = new OfficerRepository();
-        ProjectRepository projectRepo = new ProjectRepository();
+    private OfficerRegistration createRegFromCSV(CSVRecord record, Map<String, Officer> officersByNRIC,
+                                                 Map<String, Project> projectsByID) {
         // Create references
         Officer officer = null;
         Project project = null;
         try {
-            String registrationID = parts[0];
-            String officerID = parts[1];
-            String projectID = parts[2];
-            OfficerRegStatus officerRegStatus = OfficerRegStatus.valueOf(parts[3].toUpperCase());
+            String registrationID = record.getString(0);
+            String officerID = record.getString(1);
+            String projectID = record.getString(2);
+            OfficerRegStatus officerRegStatus = OfficerRegStatus.valueOf(record.getString(3).toUpperCase());
 
-            try{
-                if (officerRepo.findOfficerById(officerID) != null) {
-                    officer = officerRepo.findOfficerById(officerID);
-                    project = projectRepo.findProjectById(projectID);
-                }
-            }catch (Exception e){
-                System.out.println("Error finding officer: " + e.getMessage());
-                return null;
+            officer = officersByNRIC.get(officerID);
+            if (officer != null) {
+                project = projectsByID.get(projectID);
             }
 
             return new OfficerRegistration(registrationID, officer, project, officerRegStatus);
@@ -132,43 +123,49 @@ public class OfficerRegRepository {
     }
 
     /**
-     * Loads all officer registrations from the CSV file.
+     * Reads all officer registrations from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadAllOfficerReg()}. Each record is joined against
+     * the given maps of officers and projects in a single pass over the file.
+     * </p>
      *
+     * @param officersByNRIC Officers keyed by NRIC
+     * @param projectsByID Projects keyed by project ID
      * @return A list of OfficerRegistration objects
      * @throws IOException If an error occurs while reading the file
      */
-    public List<OfficerRegistration> loadAllOfficerReg() throws IOException {
+    List<OfficerRegistration> readOfficerRegFromCSV(Map<String, Officer> officersByNRIC,
+                                                    Map<String, Project> projectsByID) throws IOException {
         List<OfficerRegistration> registrations = new ArrayList<>();
-        File file = new File(FILE_PATH_OFFICER_REGISTRATION);
-
-        if (!file.exists()) {
-            System.out.println("Applicants file not found, returning empty list");
-            return registrations;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH_OFFICER_REGISTRATION))) {
-            String line;
-            // Skip the header
-            boolean firstLine = true;
-            while ((line = br.readLine()) != null) {
-                // Skip the header row
-                if (firstLine) {
-                    firstLine = false;
-                    continue;
+        try {
+            store().readRecords(record -> {
+                // Skip blank rows left behind by earlier versions of the file
+                if (record.getFieldCount() == 1 && record.getString(0).trim().isEmpty()) {
+                    return;
                 }
 
-                String[] data = line.split(",");
-                OfficerRegistration registration = createRegFromCSV(data);
+                OfficerRegistration registration = createRegFromCSV(record, officersByNRIC, projectsByID);
                 if (registration != null) {
                     registrations.add(registration);
                 }
-            }
+            });
         } catch (IOException e){
             throw new IOException("Error reading Officer Registration data: " + e.getMessage());
         }
         return registrations;
     }
 
+    /**
+     * Loads all officer registrations from the in-memory data store.
+     *
+     * @return A list of OfficerRegistration objects
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<OfficerRegistration> loadAllOfficerReg() throws IOException {
+        return DataStore.getOfficerRegistrations();
+    }
+
     /**
      * Creates a new officer registration and saves it to the CSV file.
      * <p>
@@ -178,78 +175,33 @@ public class OfficerRegRepository {
      * @param officerReg The OfficerRegistration object to be saved
      */
     public void createNewOfficerReg(OfficerRegistration officerReg) {
-        File file = new File(FILE_PATH_OFFICER_REGISTRATION);
-
         // Add null check for status here
         if (officerReg.getStatus() == null) {
             officerReg.setStatus(OfficerRegStatus.PENDING);
         }
 
-        // Open the CSV file in append mode
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH_OFFICER_REGISTRATION, true))) {
-            // If the file is not empty, write a newline first
-            if (file.length() > 0) {
-                writer.newLine();
-            }
-
-            // Format the registration data as CSV
-            String registrationData = officerRegToCSV(officerReg);
-
-            // Write the new registration data to the file
-            writer.write(registrationData);
-            writer.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.out.println("Failed to save officer registration.");
-        }
         try {
-            CSVUtil.removeEmptyRows(FILE_PATH_OFFICER_REGISTRATION);
+            store().insert(officerRegToRecord(officerReg));
+            DataStore.addOfficerRegistration(officerReg);
         } catch (IOException e) {
             e.printStackTrace();
-            System.out.println("Failed to clean up empty rows in officer registration file.");
+            System.out.println("Failed to save officer registration.");
         }
     }
 
     /**
      * Updates an existing officer registration record in the CSV file.
      * <p>
-     * This method finds and replaces the record with matching registration ID.
+     * The updated record is appended to the table's journal rather than rewriting the whole file.
      * </p>
      *
      * @param updatedOfficerReg The OfficerRegistration object with updated information
      */
     public static void updateOfficerRegInCSV(OfficerRegistration updatedOfficerReg) {
-        File inputFile = new File(FILE_PATH_OFFICER_REGISTRATION);
-        List<String> updatedLines = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    updatedLines.add(line); // Header
-                    isFirstLine = false;
-                    continue;
-                }
-
-                if (line.startsWith(updatedOfficerReg.getRegistrationId() + ",")) {
-                    updatedLines.add(officerRegToCSV(updatedOfficerReg)); // Use helper method
-                } else {
-                    updatedLines.add(line); // Keep as is
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading CSV for update: " + e.getMessage());
-            return;
-        }
-
-        // Write updated content back to file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH_OFFICER_REGISTRATION, false))) {
-            for (String updatedLine : updatedLines) {
-                writer.write(updatedLine);
-                writer.newLine();
-            }
+        try {
+            store().update(officerRegToRecord(updatedOfficerReg));
+            // Only re-indexed once saved, so a rejected write leaves the indexes as they were
+            DataStore.putOfficerRegistration(updatedOfficerReg);
             System.out.println("Updated project saved successfully.");
         } catch (IOException e) {
             System.out.println("Error writing updated CSV: " + e.getMessage());
@@ -295,17 +247,16 @@ public class OfficerRegRepository {
     }
 
     /**
-     * Converts an OfficerRegistration object to a CSV record string.
+     * Converts an OfficerRegistration object to the fields of a record.
      *
      * @param officerReg The OfficerRegistration object to convert
-     * @return A string representing the officer registration in CSV format
+     * @return The fields of the officer registration record, in column order
      */
-    private static String officerRegToCSV(OfficerRegistration officerReg) {
-        return String.join(",",
-                String.join(",",
-                        officerReg.getRegistrationId(),
-                        officerReg.getOfficer().getNRIC(),
-                        officerReg.getProject().getProjectID(),
-                        officerReg.getStatus().toString()));
+    private static String[] officerRegToRecord(OfficerRegistration officerReg) {
+        return new String[]{
+                officerReg.getRegistrationId(),
+                officerReg.getOfficer().getNRIC(),
+                officerReg.getProject().getProjectID(),
+                officerReg.getStatus().toString()};
     }
 }
\ No newline at end of file
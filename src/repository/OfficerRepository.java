@@ -1,5 +1,6 @@
 package repository;
 
+import helper.CSVRecord;
 import controller.*;
 import enums.MaritalStatus;
 import model.Officer;
@@ -18,30 +19,35 @@ import java.util.List;
  * </p>
  */
 public class OfficerRepository implements PasswordChangerInterface, VerificationInterface, CheckSecQuesInterface, SecQuesChangerInterface {
-    /** The folder where data files are stored */
-    private static final String folder = "data";
-
-    /** The filename for officer records */
-    private static final String fileName = "officer_records.csv";
-
-    /** The complete file path to the officer records file */
-    private static final String filePath = "src/repository/" + folder + "/" + fileName;
+    /**
+     * Gets the store that holds the officer records in the storage backend in use.
+     *
+     * @return The store for the officer table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.OFFICERS);
+    }
 
     /**
      * Creates an Officer object from CSV record data.
      *
-     * @param parts Array of strings representing fields from a CSV record
+     * @param record A CSV record
      * @return A new Officer object or null if creation fails
      */
-    private Officer createOfficerFromCSV(String[] parts) {
+    private Officer createOfficerFromCSV(CSVRecord record) {
         try {
-            String nric = parts[0];
-            String name = parts[1];
-            int age = Integer.parseInt(parts[2]);
-            MaritalStatus maritalStatus = MaritalStatus.valueOf(parts[3].toUpperCase());
-            String password = parts[4];
-
-            return new Officer(nric, name, password, age, maritalStatus);
+            String nric = record.getString(0);
+            String name = record.getString(1);
+            int age = record.getInt(2);
+            MaritalStatus maritalStatus = MaritalStatus.valueOf(record.getString(3).toUpperCase());
+            String password = record.getString(4);
+
+            Officer officer = new Officer(nric, name, password, age, maritalStatus);
+            if (record.getFieldCount() > 5 && !record.isEmpty(5)) {
+                officer.setSecurityQuestion(record.getString(5));
+                officer.setSecurityAnswer(record.getFieldCount() > 6 ? record.getString(6) : "");
+            }
+            return officer;
         } catch (Exception e) {
             System.out.println("Error creating officer from CSV data: " + e.getMessage());
             return null;
@@ -49,42 +55,37 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
     }
 
     /**
-     * Loads all officers from the CSV file.
+     * Reads all officers from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadOfficers()}.
+     * </p>
      *
      * @return A list of Officer objects
      * @throws IOException If an error occurs while reading the file
      */
-    public List<Officer> loadOfficers() throws IOException {
+    List<Officer> readOfficersFromCSV() throws IOException {
         List<Officer> officers = new ArrayList<>();
-        File file = new File(filePath);
-
-        if (!file.exists()) {
-            System.out.println("Managers file not found, returning empty list");
-            return officers;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = br.readLine()) != null) {
-                // Skip the header row
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                String[] data = line.split(",");
-                Officer officer = createOfficerFromCSV(data);
-                if (officer != null) {
-                    officers.add(officer);
-                }
+        store().readRecords(record -> {
+            Officer officer = createOfficerFromCSV(record);
+            if (officer != null) {
+                officers.add(officer);
             }
-        }
+        });
 
         return officers;
     }
 
+    /**
+     * Loads all officers from the in-memory data store.
+     *
+     * @return A list of Officer objects
+     * @throws IOException If an error occurs while reading the file
+     */
+    public List<Officer> loadOfficers() throws IOException {
+        return DataStore.getOfficers();
+    }
+
     /**
      * Finds an officer by their NRIC (National Registration Identity Card) number.
      *
@@ -93,11 +94,7 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
      * @throws IOException If an error occurs while reading the file
      */
     public Officer findOfficerById(String nric) throws IOException {
-        List<Officer> officers = loadOfficers();
-        return officers.stream()
-                .filter(officer -> officer.getNRIC().equals(nric))
-                .findFirst()
-                .orElse(null);
+        return DataStore.getOfficer(nric);
     }
 
     /**
@@ -111,24 +108,14 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
         PasswordController pc = new PasswordController();
         String hashedInputPassword = pc.hashPassword(password);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            reader.readLine(); // Skip header
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                Officer officer = createOfficerFromCSV(parts);
-                if (officer != null && officer.getNRIC().equals(id)) {
-                    // Check for default password OR hashed password match
-                    if (officer.getPassword().equals("password") && password.equals("password")) {
-                        return officer;
-                    } else if (officer.getPassword().equals(hashedInputPassword)) {
-                        return officer;
-                    }
-                }
+        Officer officer = DataStore.getOfficer(id);
+        if (officer != null) {
+            // Check for default password OR hashed password match
+            if (officer.getPassword().equals("password") && password.equals("password")) {
+                return officer;
+            } else if (officer.getPassword().equals(hashedInputPassword)) {
+                return officer;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
 
         return null; // Login failed
@@ -142,34 +129,21 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
      * @return true if password was successfully updated, false otherwise
      */
     public boolean changePassword(String nric, String newHashedPassword) {
-        List<String[]> allRecords = new ArrayList<>();
-        boolean passwordUpdated = false;
-
-        // Load all records from the file
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric)) {
-                    parts[4] = newHashedPassword; // Update password
-                    passwordUpdated = true;
-                }
-                allRecords.add(parts);
-            }
+        boolean passwordUpdated;
+        try {
+            passwordUpdated = store().modify(nric, parts -> {
+                parts[4] = newHashedPassword; // Update password
+                return parts;
+            });
         } catch (IOException e) {
-            System.err.println("Error reading the file: " + e.getMessage());
+            System.err.println("Error writing to the file: " + e.getMessage());
             return false; // Indicate failure
         }
 
-        // Rewrite the file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] record : allRecords) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to the file: " + e.getMessage());
-            return false; // Indicate failure
+        // Keep the in-memory copy in step with the file
+        Officer officer = DataStore.getOfficer(nric);
+        if (officer != null) {
+            officer.setPassword(newHashedPassword);
         }
 
         return passwordUpdated;
@@ -185,40 +159,28 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
      */
     @Override
     public boolean changeSecQuesAndAns(String nric, String newSecQues, String newSecAns) {
-        List<String[]> records = new ArrayList<>();
-        boolean secQuesUpdated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-
-                if (parts[0].equals(nric)) {
-                    // Ensure the CSV has enough columns for Question and Answer
-                    if (parts.length < 7) {
-                        parts = Arrays.copyOf(parts, 7); // Extend to at least 7 elements
-                    }
-                    // Update security question and answer
-                    parts[5] = newSecQues;
-                    parts[6] = newSecAns;
-                    secQuesUpdated = true;
+        boolean secQuesUpdated;
+        try {
+            secQuesUpdated = store().modify(nric, parts -> {
+                // Ensure the record has enough columns for Question and Answer
+                if (parts.length < 7) {
+                    parts = Arrays.copyOf(parts, 7);
                 }
-                records.add(parts); // Add the record to the list
-            }
+                // Update security question and answer
+                parts[5] = newSecQues;
+                parts[6] = newSecAns;
+                return parts;
+            });
         } catch (IOException e) {
-            System.err.println("Error reading the file: " + e.getMessage());
+            System.err.println("Error writing to the file: " + e.getMessage());
             return false; // Indicate failure
         }
 
-        // Rewrite the file with updated records
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (String[] record : records) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to the file: " + e.getMessage());
-            return false; // Indicate failure
+        // Keep the in-memory copy in step with the file
+        Officer officer = DataStore.getOfficer(nric);
+        if (officer != null) {
+            officer.setSecurityQuestion(newSecQues);
+            officer.setSecurityAnswer(newSecAns);
         }
 
         return secQuesUpdated;
@@ -232,19 +194,9 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
      */
     @Override
     public boolean checkHaveSecQues(String nric) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 5 && parts[0].equals(nric) && !parts[5].isEmpty()) { // NRIC and Password
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        Officer officer = DataStore.getOfficer(nric);
+        return officer != null && officer.getSecurityQuestion() != null
+                && !officer.getSecurityQuestion().isEmpty();
     }
 
     /**
@@ -255,17 +207,10 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
      */
     @Override
     public String retrieveSecQues(String nric) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric) && !parts[5].isEmpty()) { // NRIC and Password
-                    return parts[5];
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        Officer officer = DataStore.getOfficer(nric);
+        if (officer != null && officer.getSecurityQuestion() != null
+                && !officer.getSecurityQuestion().isEmpty()) {
+            return officer.getSecurityQuestion();
         }
         return "Error retrieving security question"; // Default return value
     }
@@ -279,18 +224,7 @@ public class OfficerRepository implements PasswordChangerInterface, Verification
      */
     @Override
     public boolean verifyAnsToSecQues(String nric, String answer) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts[0].equals(nric) && parts[6].equals(answer.toLowerCase())) { // Match NRIC and Answer
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return false;
+        Officer officer = DataStore.getOfficer(nric);
+        return officer != null && answer.toLowerCase().equals(officer.getSecurityAnswer()); // Match NRIC and Answer
     }
 }
\ No newline at end of file
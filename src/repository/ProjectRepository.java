@@ -1,5 +1,6 @@
 package repository;
 
+import helper.CSVRecord;
 import enums.Visibility;
 import model.Application;
 import model.Enquiry;
@@ -23,46 +24,32 @@ import java.util.Collections;
  * </p>
  */
 public class ProjectRepository{
-    /** The folder where data files are stored */
-    private static final String folder = "data";
-
-    /** The filename for project records */
-    private static final String fileName = "project_records" + ".csv";
-
-    /** The complete file path to the project records file */
-    private static final String filePath = "./src/repository/" + folder + "/" + fileName;
+    /**
+     * Gets the store that holds the project records in the storage backend in use.
+     *
+     * @return The store for the project table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.PROJECTS);
+    }
 
     /**
      * Generates the next sequential project ID.
      * <p>
-     * The format is "P" followed by a four-digit number (e.g., P0001, P0002).
+     * The format is "P" followed by a number of at least four digits (e.g., P0001, P0002).
+     * IDs come from a persistent sequence, so this does not scan the existing projects.
      * </p>
      *
      * @return A new unique project ID
      */
     public String generateNextProjectID() {
-        int max = 0;
-        try {
-            // Load all projects directly from CSV
-            List<Project> projects = loadProjects();
-
-            // Find the highest project number
-            for (Project project : projects) {
-                String existingID = project.getProjectID();
-                if (existingID.matches("P\\d+")) {
-                    int number = Integer.parseInt(existingID.substring(1));
-                    if (number > max) {
-                        max = number;
-                    }
-                }
+        return SequenceGenerator.forPrefix("P", () -> {
+            List<String> ids = new ArrayList<>();
+            for (Project project : DataStore.getProjects()) {
+                ids.add(project.getProjectID());
             }
-        } catch (IOException e) {
-            System.out.println("Error loading projects: " + e.getMessage());
-            // If we can't load existing projects, start from 1
-        }
-
-        int nextNumber = max + 1;
-        return String.format("P%04d", nextNumber);  // e.g., P0001, P0002
+            return ids;
+        }).next();
     }
 
     /**
@@ -72,41 +59,21 @@ public class ProjectRepository{
      * @throws IOException if an error occurs while writing to the file
      */
     public void createNewProject(Project project) throws IOException {
-        File file = new File(filePath);
-        boolean needsNewline = false;
-
-        // Check if file exists and doesn't end with newline
-        if (file.exists() && file.length() > 0) {
-            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
-                if (raf.length() > 0) {
-                    raf.seek(raf.length() - 1);
-                    byte lastByte = raf.readByte();
-                    needsNewline = lastByte != '\n';
-                }
-            }
-        }
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
-            // Write a newline if file has content
-            if (needsNewline) {
-                writer.newLine();
-            }
-
-            String projectData = projectToCSV(project);
-
-            writer.write(projectData);
-        }
+        store().insert(projectToRecord(project));
+        DataStore.addProject(project);
     }
 
     /**
      * Creates a Project object from CSV record data.
      *
-     * @param parts Array of strings representing fields from a CSV record
+     * @param record A CSV record
      * @return A new Project object or null if creation fails
      */
-    private Project createProjectFromCSV(String[] parts) {
+    private Project createProjectFromCSV(CSVRecord record) {
         try {
             // Skip header row
-            if (parts[0].equals("ProjectID") || parts[0].trim().isEmpty()) {
+            String projectID = record.getString(0);
+            if (projectID.equals("ProjectID") || projectID.trim().isEmpty()) {
                 return null;
             }
 
@@ -115,78 +82,68 @@ public class ProjectRepository{
             Map<FlatType, Double> flatTypePrices = new HashMap<>();
 
             // TWO_ROOMS data (columns 3 and 4)
-            flatTypeUnits.put(FlatType.TWO_ROOMS, Integer.parseInt(parts[3]));
-            flatTypePrices.put(FlatType.TWO_ROOMS, Double.parseDouble(parts[4]));
+            flatTypeUnits.put(FlatType.TWO_ROOMS, record.getInt(3));
+            flatTypePrices.put(FlatType.TWO_ROOMS, record.getDouble(4));
 
             // THREE_ROOMS data (columns 5 and 6)
-            flatTypeUnits.put(FlatType.THREE_ROOMS, Integer.parseInt(parts[5]));
-            flatTypePrices.put(FlatType.THREE_ROOMS, Double.parseDouble(parts[6]));
+            flatTypeUnits.put(FlatType.THREE_ROOMS, record.getInt(5));
+            flatTypePrices.put(FlatType.THREE_ROOMS, record.getDouble(6));
 
             // Parse officerIDs (column 11)
-            List<String> officerIDs = new ArrayList<>();
-            if (parts[11].contains(";")) {
-                officerIDs = Arrays.asList(parts[11].split(";"));
-            } else if (!parts[11].isEmpty()) {
-                officerIDs = Collections.singletonList(parts[11]);
-            }
+            List<String> officerIDs = parseOfficerIDs(record.getString(11));
 
             return new Project(
-                    parts[0],                     // projectID
-                    parts[1],                     // projectName
-                    parts[2],                     // neighborhood
-                    flatTypeUnits,                // flatTypeUnits map
-                    flatTypePrices,               // flatTypePrices map
-                    parts[7],                     // openingDate
-                    parts[8],                     // closingDate
-                    parts[9],                     // managerID
-                    Integer.parseInt(parts[10]),  // officerSlot
-                    officerIDs,                   // officerIDs
-                    Visibility.valueOf(parts[12]) // visibility (column 12)
+                    projectID,                       // projectID
+                    record.getString(1),             // projectName
+                    record.getString(2),             // neighborhood
+                    flatTypeUnits,                   // flatTypeUnits map
+                    flatTypePrices,                  // flatTypePrices map
+                    record.getString(7),             // openingDate
+                    record.getString(8),             // closingDate
+                    record.getString(9),             // managerID
+                    record.getInt(10),               // officerSlot
+                    officerIDs,                      // officerIDs
+                    Visibility.valueOf(record.getString(12)) // visibility (column 12)
             );
         } catch (Exception e) {
             System.out.println("Error parsing project data: " +
-                    Arrays.toString(parts) + " - " + e.getMessage());
+                    record + " - " + e.getMessage());
             return null;
         }
     }
 
     /**
-     * Loads all projects from the CSV file.
+     * Reads all projects from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded;
+     * other callers should use {@link #loadProjects()}.
+     * </p>
      *
      * @return A list of Project objects
      * @throws IOException if an error occurs while reading the file
      */
-    public List<Project> loadProjects() throws IOException {
+    List<Project> readProjectsFromCSV() throws IOException {
         List<Project> projects = new ArrayList<>();
-        File file = new File(filePath);
-
-        if (!file.exists()) {
-            System.out.println("Projects file not found, returning empty list");
-            return projects;
-        }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = br.readLine()) != null) {
-                // Skip the header row
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                String[] data = line.split(",");
-                Project project = this.createProjectFromCSV(data);
-                if (project != null) {
-                    projects.add(project);
-                }
+        store().readRecords(record -> {
+            Project project = this.createProjectFromCSV(record);
+            if (project != null) {
+                projects.add(project);
             }
-        }
+        });
 
         return projects;
     }
 
+    /**
+     * Loads all projects from the in-memory data store.
+     *
+     * @return A list of Project objects
+     * @throws IOException if an error occurs while reading the file
+     */
+    public List<Project> loadProjects() throws IOException {
+        return DataStore.getProjects();
+    }
+
     /**
      * Finds a project by its ID.
      *
@@ -226,79 +183,69 @@ public class ProjectRepository{
     /**
      * Updates an existing project record in the CSV file.
      * <p>
-     * This method finds and replaces the record with matching project ID.
+     * The updated record is appended to the table's journal rather than rewriting the whole file.
      * </p>
      *
      * @param updatedProject The Project object with updated information
      */
     public static void updateProjectInCSV(Project updatedProject) {
-        File inputFile = new File(filePath);
-        List<String> updatedLines = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    updatedLines.add(line); // Header
-                    isFirstLine = false;
-                    continue;
-                }
-
-                if (line.startsWith(updatedProject.getProjectID() + ",")) {
-                    updatedLines.add(projectToCSV(updatedProject)); // Use helper method
-                } else {
-                    updatedLines.add(line); // Keep as is
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading CSV for update: " + e.getMessage());
-            return;
-        }
-
-        // Write updated content back to file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, false))) {
-            for (String updatedLine : updatedLines) {
-                writer.write(updatedLine);
-                writer.newLine();
-            }
+        try {
+            saveProject(updatedProject);
             System.out.println("Updated project saved successfully.");
         } catch (IOException e) {
             System.out.println("Error writing updated CSV: " + e.getMessage());
         }
     }
 
+    /**
+     * Saves an existing project, letting the caller handle a failed write.
+     *
+     * @param project The Project object with updated information
+     * @throws IOException If the record cannot be written, including when another process changed it first
+     */
+    public static void saveProject(Project project) throws IOException {
+        store().update(projectToRecord(project));
+        DataStore.putProject(project);
+    }
+
     /**
      * Deletes a project from the CSV file.
+     * <p>
+     * The deletion is appended to the table's journal rather than rewriting the whole file.
+     * </p>
      *
      * @param project The Project to be deleted
      * @throws IOException If an error occurs while reading or writing the file
      */
     public void deleteProject(Project project) throws IOException {
-        List<Project> projects = loadProjects();
-        projects.removeIf(p -> p.getProjectID().equals(project.getProjectID()));
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            // Write header
-            writer.write("ProjectID,ProjectName,Neighborhood,TwoRoomUnits,TwoRoomPrice,ThreeRoomUnits,ThreeRoomPrice,OpeningDate,ClosingDate,ManagerID,OfficerSlot,OfficerIDs,Visibility");
-            writer.newLine();
+        store().delete(project.getProjectID());
+        DataStore.removeProject(project.getProjectID());
+    }
 
-            for (Project p : projects) {
-                writer.write(projectToCSV(p));
-                writer.newLine();
-            }
+    /**
+     * Parses the officer IDs column of a project record.
+     *
+     * @param officerIDField The officer IDs, separated by semicolons
+     * @return The list of officer IDs, which is empty if the field is empty
+     */
+    static List<String> parseOfficerIDs(String officerIDField) {
+        List<String> officerIDs = new ArrayList<>();
+        if (officerIDField.contains(";")) {
+            officerIDs = Arrays.asList(officerIDField.split(";"));
+        } else if (!officerIDField.isEmpty()) {
+            officerIDs = Collections.singletonList(officerIDField);
         }
+        return officerIDs;
     }
 
     /**
-     * Converts a Project object to a CSV record string.
+     * Converts a Project object to the fields of a record.
      *
      * @param project The Project object to convert
-     * @return A string representing the project in CSV format
+     * @return The fields of the project record, in column order
      */
-    private static String projectToCSV(Project project) {
-        return String.join(",",
+    private static String[] projectToRecord(Project project) {
+        return new String[]{
                 project.getProjectID(),
                 project.getProjectName(),
                 project.getNeighborhood(),
@@ -311,6 +258,6 @@ public class ProjectRepository{
                 project.getManagerID(),
                 String.valueOf(project.getOfficerSlot()),
                 String.join(";", project.getOfficerIDs()),
-                project.getVisibility().toString());
+                project.getVisibility().toString()};
     }
 }
\ No newline at end of file
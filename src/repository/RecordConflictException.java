@@ -0,0 +1,39 @@
+package repository;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a record cannot be written because another process changed it first.
+ * <p>
+ * Every record carries a version number that goes up each time it is written. A write is
+ * rejected with this exception if the stored version no longer matches the version this
+ * process last read, so that one process never silently overwrites another's update.
+ * </p>
+ */
+public class RecordConflictException extends IOException {
+    /** Version of the serialized form of this exception */
+    private static final long serialVersionUID = 1L;
+
+    /** The key of the record that could not be written */
+    private final String key;
+
+    /**
+     * Constructs a conflict for a record.
+     *
+     * @param key The key of the record that could not be written
+     * @param message A description of the conflict
+     */
+    public RecordConflictException(String key, String message) {
+        super(message);
+        this.key = key;
+    }
+
+    /**
+     * Gets the key of the record that could not be written.
+     *
+     * @return The record key
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,247 @@
+package repository;
+
+import helper.CSVReader;
+import helper.CSVUtil;
+
+import java.io.*;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Allocates sequential IDs for records such as applications, projects, enquiries and
+ * officer registrations.
+ * <p>
+ * Each kind of record has its own sequence, identified by the letter its IDs start with.
+ * Numbers are reserved in blocks of {@link #BLOCK_SIZE}: the end of the current block is
+ * persisted in a small high-water mark file, so a sequence never reuses a number even if the
+ * record that received it was later deleted. The first time a sequence is used, its starting
+ * point is the larger of the persisted value and the highest ID already present in the table.
+ * Numbers left in a block when the program ends are skipped, so IDs can have gaps.
+ * </p>
+ * <p>
+ * IDs are formatted as the prefix followed by a number padded to at least four digits
+ * (e.g., A0001), so existing IDs keep their format while numbers beyond 9999 simply grow
+ * wider (e.g., A10000). IDs inside a block are handed out with an {@link AtomicLong}, without
+ * locking or touching the file, so concurrent callers always receive distinct IDs.
+ * </p>
+ * <p>
+ * Several processes may share the data folder, so reserving a block takes the sequence file's
+ * {@link TableLock} exclusively and re-reads the file first. The new block starts after the
+ * last block any process reserved, so a number handed out by another process is never handed
+ * out again here.
+ * </p>
+ */
+public class SequenceGenerator {
+    /** How many numbers are reserved each time the high-water mark file is written */
+    private static final long BLOCK_SIZE = 100;
+
+    /** The complete file path to the sequence high-water mark file */
+    private static final String FILE_PATH_SEQUENCE = "./src/repository/data/sequence_records.csv";
+
+    /** Lock shared with other processes allocating IDs from the same sequence file */
+    private static final TableLock lock = new TableLock(FILE_PATH_SEQUENCE);
+
+    /** Sequences created so far, keyed by prefix */
+    private static final Map<String, SequenceGenerator> generators = new LinkedHashMap<>();
+
+    /** High-water marks read from the sequence file, keyed by prefix */
+    private static Map<String, Long> persisted = null;
+
+    /** The letter that IDs in this sequence start with */
+    private final String prefix;
+
+    /** The last number handed out */
+    private final AtomicLong last;
+
+    /** The last number of the reserved block, which is the value persisted for this sequence */
+    private volatile long reserved;
+
+    /**
+     * Constructs a sequence.
+     *
+     * @param prefix The letter that IDs in this sequence start with
+     * @param start The last number already in use
+     */
+    private SequenceGenerator(String prefix, long start) {
+        this.prefix = prefix;
+        this.last = new AtomicLong(start);
+        this.reserved = start;
+    }
+
+    /**
+     * Gets the sequence for a prefix, creating it on first use.
+     * <p>
+     * The existing IDs are only requested when the sequence is created, so later calls
+     * do not scan the table.
+     * </p>
+     *
+     * @param prefix The letter that IDs in the sequence start with
+     * @param existingIDs Supplies the IDs already in the table
+     * @return The sequence for the prefix
+     */
+    public static synchronized SequenceGenerator forPrefix(String prefix, Supplier<Collection<String>> existingIDs) {
+        SequenceGenerator generator = generators.get(prefix);
+        if (generator == null) {
+            long start = loadPersisted().getOrDefault(prefix, 0L);
+            for (String id : existingIDs.get()) {
+                start = Math.max(start, parseNumber(prefix, id));
+            }
+            generator = new SequenceGenerator(prefix, start);
+            generators.put(prefix, generator);
+        }
+        return generator;
+    }
+
+    /**
+     * Allocates the next ID in the sequence, reserving a new block first if the current one
+     * is used up.
+     *
+     * @return A new unique ID
+     */
+    public String next() {
+        long number;
+        while (true) {
+            long current = last.get();
+            if (current < reserved) {
+                if (last.compareAndSet(current, current + 1)) {
+                    number = current + 1;
+                    break;
+                }
+            } else if (!reserve(current)) {
+                // The ID is still unique within this run, and the table scan on the next start
+                // recovers the high-water mark of any ID that was actually stored
+                number = last.incrementAndGet();
+                break;
+            }
+        }
+        return String.format("%s%04d", prefix, number);  // e.g., A0001, A10000
+    }
+
+    /**
+     * Reserves the next block of numbers and records its end in the high-water mark file.
+     *
+     * @param used The last number handed out when the current block was found used up
+     * @return True if a block is reserved, false if the high-water mark file could not be written
+     */
+    private boolean reserve(long used) {
+        synchronized (SequenceGenerator.class) {
+            if (last.get() != used || used < reserved) {
+                // Another thread has already reserved a block or handed out the number
+                return true;
+            }
+            try {
+                FileLock held = lock.acquire(false);
+                try {
+                    // Another process may have reserved a block since the file was last read
+                    persisted = null;
+                    long start = Math.max(used, loadPersisted().getOrDefault(prefix, 0L));
+                    last.set(start);
+                    reserved = start + BLOCK_SIZE;
+                    save();
+                    return true;
+                } finally {
+                    held.release();
+                }
+            } catch (IOException e) {
+                System.out.println("Error saving sequence records: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Gets the number part of an ID.
+     *
+     * @param prefix The letter that IDs in the sequence start with
+     * @param id The ID to parse
+     * @return The number part of the ID, or 0 if it does not belong to the sequence
+     */
+    static long parseNumber(String prefix, String id) {
+        if (id == null || !id.startsWith(prefix) || id.length() == prefix.length()) {
+            return 0;
+        }
+        long number = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Reads the high-water mark file, if this has not been done yet.
+     *
+     * @return The persisted high-water marks, keyed by prefix
+     */
+    private static Map<String, Long> loadPersisted() {
+        if (persisted != null) {
+            return persisted;
+        }
+        persisted = new HashMap<>();
+        File file = new File(FILE_PATH_SEQUENCE);
+        if (!file.exists()) {
+            return persisted;
+        }
+
+        try {
+            CSVReader.read(FILE_PATH_SEQUENCE, true, record -> {
+                if (record.getFieldCount() >= 2) {
+                    try {
+                        persisted.put(record.getString(0).trim(), Long.parseLong(record.getString(1).trim()));
+                    } catch (NumberFormatException e) {
+                        System.out.println("Error parsing sequence record: " + record);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Error reading sequence records: " + e.getMessage());
+        }
+        return persisted;
+    }
+
+    /**
+     * Writes the end of every sequence's reserved block to the sequence file.
+     * <p>
+     * Sequences that have not been used in this run, or that another process has moved
+     * further, keep their persisted values. The file is written to a temporary file first
+     * and then moved into place, so it is never left half written.
+     * </p>
+     *
+     * @throws IOException If an error occurs while writing the file
+     */
+    private static synchronized void save() throws IOException {
+        Map<String, Long> values = new LinkedHashMap<>(loadPersisted());
+        for (SequenceGenerator generator : generators.values()) {
+            values.merge(generator.prefix, generator.reserved, Math::max);
+        }
+
+        Path target = Paths.get(FILE_PATH_SEQUENCE);
+        Path temp = Paths.get(FILE_PATH_SEQUENCE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            writer.write("Prefix,LastValue");
+            writer.newLine();
+            for (Map.Entry<String, Long> entry : values.entrySet()) {
+                writer.write(CSVUtil.formatRecord(entry.getKey(), String.valueOf(entry.getValue())));
+                writer.newLine();
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package repository;
+
+import java.io.IOException;
+
+/**
+ * Holds the storage backend used by every repository.
+ * <p>
+ * The backend is chosen once, when the system starts, by name: "csv" keeps every table in
+ * the CSV files in the data folder, and "jdbc" keeps them in the embedded database given by
+ * the btoms.jdbc.url system property. If the database cannot be opened, for example because
+ * its JDBC driver is not on the classpath, the CSV files are used instead. When no backend
+ * has been chosen, the CSV backend is used.
+ * </p>
+ * <p>
+ * Unless btoms.flush.intervalMs is set to 0, the chosen backend is put behind a
+ * {@link WriteBehindStorageBackend}, so changes are written to it in the background every
+ * btoms.flush.intervalMs milliseconds, or as soon as btoms.flush.threshold records of one table
+ * are waiting. Pending changes are written when the backend is closed, which also happens when
+ * the process exits without closing it, unless {@link #disableCloseOnExit()} has handed that
+ * to the caller. Updates to the CSV files are checked against the
+ * record versions on disk before they are kept back, which reads but never writes, so that a
+ * change another process has overtaken is still rejected there and then; see
+ * {@link WriteBehindTableStore}.
+ * </p>
+ * <p>
+ * All methods are static as this class is not meant to be instantiated.
+ * </p>
+ */
+public class Storage {
+    /** The name of the backend that keeps tables in CSV files */
+    public static final String CSV = "csv";
+
+    /** The name of the backend that keeps tables in an embedded database */
+    public static final String JDBC = "jdbc";
+
+    /** The database used by the JDBC backend when btoms.jdbc.url is not set */
+    private static final String DEFAULT_JDBC_URL = "jdbc:h2:./src/repository/data/btoms";
+
+    /** Default interval between background writes, in milliseconds */
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    /** Default number of changed records in one table that triggers an immediate background write */
+    private static final int DEFAULT_FLUSH_THRESHOLD = 64;
+
+    /** The backend in use, or null if none has been chosen yet */
+    private static StorageBackendInterface backend = null;
+
+    /** The backend that holds the tables, without any write-behind in front of it */
+    private static StorageBackendInterface tables = null;
+
+    /** Whether the backend is closed by a hook of its own when the process exits */
+    private static boolean closeOnExit = true;
+
+    /** The hook that closes the backend when the process exits, or null if none is registered */
+    private static Thread shutdownHook = null;
+
+    /**
+     * Chooses the storage backend by name.
+     *
+     * @param name The name of the backend, either {@link #CSV} or {@link #JDBC}
+     */
+    public static synchronized void select(String name) {
+        if (JDBC.equalsIgnoreCase(name)) {
+            String url = System.getProperty("btoms.jdbc.url", DEFAULT_JDBC_URL);
+            try {
+                use(new JdbcStorageBackend(url));
+                return;
+            } catch (IOException e) {
+                System.out.println("Error opening database, using CSV files instead: " + e.getMessage());
+            }
+        } else if (!CSV.equalsIgnoreCase(name)) {
+            System.out.println("Unknown storage backend " + name + ", using CSV files instead.");
+        }
+        use(new CSVStorageBackend());
+    }
+
+    /**
+     * Gets the storage backend in use, choosing the CSV backend if none has been chosen.
+     *
+     * @return The storage backend
+     */
+    public static synchronized StorageBackendInterface getBackend() {
+        if (backend == null) {
+            use(new CSVStorageBackend());
+        }
+        return backend;
+    }
+
+    /**
+     * Checks whether the tables are kept in the CSV files in the data folder.
+     *
+     * @return true if the CSV backend is in use, with or without write-behind
+     */
+    public static synchronized boolean usesCSVFiles() {
+        getBackend();
+        return tables instanceof CSVStorageBackend;
+    }
+
+    /**
+     * Gets the store that holds a table in the backend in use.
+     *
+     * @param table The table
+     * @return The store for the table
+     */
+    public static TableStoreInterface getStore(DataTable table) {
+        return getBackend().getStore(table);
+    }
+
+    /**
+     * Closes the backend in use, if one has been chosen, writing any pending changes.
+     *
+     * @return true if every pending change was written, false if some could not be
+     */
+    public static synchronized boolean close() {
+        if (backend == null) {
+            return true;
+        }
+        try {
+            backend.close();
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error closing storage: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stops the backend from being closed by a hook of its own when the process exits, for a
+     * caller that closes it as one step of an ordered shutdown.
+     * <p>
+     * Shutdown hooks run at the same time as each other, so the storage's own hook could close
+     * the backend while a server is still handling requests, or race the caller's own close.
+     * </p>
+     */
+    public static synchronized void disableCloseOnExit() {
+        closeOnExit = false;
+        if (shutdownHook != null) {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            shutdownHook = null;
+        }
+    }
+
+    /**
+     * Makes a backend the one in use, putting write-behind in front of it unless disabled.
+     *
+     * @param chosen The backend that holds the tables
+     */
+    private static void use(StorageBackendInterface chosen) {
+        tables = chosen;
+        long intervalMillis = Long.getLong("btoms.flush.intervalMs", DEFAULT_FLUSH_INTERVAL_MILLIS);
+        int threshold = Integer.getInteger("btoms.flush.threshold", DEFAULT_FLUSH_THRESHOLD);
+        backend = intervalMillis > 0
+                ? new WriteBehindStorageBackend(chosen, intervalMillis, Math.max(1, threshold))
+                : chosen;
+
+        if (closeOnExit && shutdownHook == null) {
+            shutdownHook = new Thread(Storage::close, "storage-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package repository;
+
+import java.io.IOException;
+
+/**
+ * Interface for a place where the tables of the BTO housing system are stored.
+ * Defines how the repositories obtain the store for each table, so that the storage
+ * backend can be chosen when the system starts.
+ */
+public interface StorageBackendInterface {
+
+    /**
+     * Gets the store that holds a table.
+     *
+     * @param table The table
+     * @return The store for the table
+     */
+    public TableStoreInterface getStore(DataTable table);
+
+    /**
+     * Releases any resources held by the backend.
+     *
+     * @throws IOException If the backend cannot be closed cleanly
+     */
+    public void close() throws IOException;
+}
@@ -0,0 +1,1017 @@
+package repository;
+
+import helper.CSVHandlerInterface;
+import helper.CSVReader;
+import helper.CSVRecord;
+import helper.CSVUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Append-only journal for changes to a CSV data file.
+ * <p>
+ * Rather than rewriting the whole data file whenever one record changes, each change is
+ * appended to a journal file kept next to it. A journal entry is either an update, holding
+ * the full new CSV record, or a delete, holding only the record's key. The key of a record
+ * is its first field, which is the ID column in every data file. The journal is itself a CSV
+ * file whose first field is the kind of entry, so records with quoted fields, including
+ * fields that span several lines, are journaled safely.
+ * </p>
+ * <p>
+ * Reading the table replays the journal over the base file, so readers always see the latest
+ * state. The latest entry for each key is kept in memory along with the length of the journal
+ * read so far, so each read or write only parses the bytes appended since, whichever process
+ * appended them. The journal is periodically compacted into the base file on a background thread:
+ * once it holds {@link #COMPACTION_THRESHOLD} entries, and otherwise every
+ * {@link #COMPACTION_INTERVAL_SECONDS} seconds. Compaction works on the raw records, so records
+ * that cannot be turned into model objects are carried over to the new base file unchanged.
+ * </p>
+ * <p>
+ * Several processes may share the data folder. Every write takes the table's {@link TableLock}
+ * exclusively and every read shares it, so changes from different processes never interleave.
+ * Each record also carries a version in a {@link #VERSION_COLUMN} column after the table's own
+ * columns, which goes up every time the record is written. The journal remembers the version
+ * of each record as this process last read it, and a write is rejected with a
+ * {@link RecordConflictException} if another process has written the record since. Changes
+ * made with {@link #modify(String, UnaryOperator)} are applied to the stored record while the
+ * lock is held, so they never conflict. Data files written before versions were introduced
+ * are given the version column the first time they are written to. Handlers reading the table
+ * never see the version column.
+ * </p>
+ * <p>
+ * All methods are synchronized on the journal, so writes to the same table from different
+ * threads never interleave with each other or with a compaction.
+ * </p>
+ */
+public class TableJournal {
+    /** Name of the column, after the table's own columns, that holds each record's version */
+    private static final String VERSION_COLUMN = "Version";
+
+    /** Number of journal entries that triggers an immediate compaction */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    /** Interval between periodic compactions, in seconds */
+    private static final long COMPACTION_INTERVAL_SECONDS = 60;
+
+    /** Kind of journal entry that inserts or replaces a record */
+    private static final String UPSERT = "U";
+
+    /** Kind of journal entry that deletes a record */
+    private static final String DELETE = "D";
+
+    /** Version given to a record when it is first written */
+    private static final int FIRST_VERSION = 1;
+
+    /** Version of a record that does not exist */
+    private static final int NO_VERSION = 0;
+
+    /** Background thread that compacts journals */
+    private static final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Path to the base CSV file */
+    private final String filePath;
+
+    /** Path to the journal file */
+    private final String journalPath;
+
+    /** Lock shared with other processes using the same data file */
+    private final TableLock lock;
+
+    /**
+     * Versions of records as this process last read or wrote them. Only versions other than
+     * {@link #FIRST_VERSION} are kept, and {@link #NO_VERSION} marks a record this process deleted.
+     */
+    private final Map<String, Integer> seenVersions = new HashMap<>();
+
+    /** Whether {@link #seenVersions} has been filled in by reading the table */
+    private boolean versionsSeen = false;
+
+    /** Version of every record in the base file, or null if not built yet */
+    private Map<String, Integer> baseVersions = null;
+
+    /** Size and modification time of the base file when {@link #baseVersions} was built */
+    private String baseVersionsStamp = null;
+
+    /** The latest journal entry for each key, as far as the journal has been read, or null if not read yet */
+    private Map<String, String> journalChanges = null;
+
+    /** Number of bytes at the start of the journal file that {@link #journalChanges} was read from */
+    private long journalLength = 0;
+
+    /**
+     * Size and modification time of the base file when {@link #journalChanges} was last brought
+     * up to date. A compaction replaces the base file and starts a new journal, so a change to
+     * the base file made by another process means the journal must be read again from the start.
+     */
+    private String journalBaseStamp = null;
+
+    /** Size and modification time of the base file when its header was last read, or null if not read yet */
+    private String headerStamp = null;
+
+    /** Number of the table's own columns, before the version column, as last read from the header */
+    private int columnCount = -1;
+
+    /** Number of entries currently in the journal file, or -1 if not yet counted */
+    private int entryCount = -1;
+
+    /** Whether a compaction has been scheduled but has not run yet */
+    private boolean compactionPending = false;
+
+    /** Whether periodic compaction has been scheduled for this journal */
+    private boolean periodicCompactionScheduled = false;
+
+    /**
+     * Constructs a journal for a CSV data file.
+     * <p>
+     * The journal is stored next to the data file, with the ".csv" extension replaced by
+     * ".journal".
+     * </p>
+     *
+     * @param filePath Path to the CSV data file
+     */
+    public TableJournal(String filePath) {
+        this.filePath = filePath;
+        this.journalPath = (filePath.endsWith(".csv")
+                ? filePath.substring(0, filePath.length() - ".csv".length())
+                : filePath) + ".journal";
+        this.lock = new TableLock(filePath);
+    }
+
+    /**
+     * Reads every record of the table as raw CSV text, with the journal applied.
+     * <p>
+     * The header and records appear in the order of the base file. A record that was updated
+     * is replaced where it stands, a deleted record is left out, and a record that only exists
+     * in the journal is added at the end. Records are kept exactly as written, including their
+     * version, so a record with a quoted field that spans several lines is returned as one
+     * entry, and empty lines are dropped.
+     * </p>
+     *
+     * @return The records of the table, including the header, or an empty list if the base file does not exist
+     * @throws IOException If an error occurs while reading the files
+     */
+    public synchronized List<String> readLines() throws IOException {
+        FileLock held = lock.acquire(true);
+        try {
+            return readLinesLocked();
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Reads every record of the table with the journal applied, without the header.
+     * <p>
+     * Records are pushed to the handler in the same order as {@link #readLines()} returns
+     * them, with the version column removed. The base file is read through {@link CSVReader},
+     * so a String is only created for a record whose version must be remembered or whose
+     * fields the handler asks for.
+     * </p>
+     * <p>
+     * Reading the table counts as having seen every record in it, so the versions read here
+     * become the versions that later writes are checked against.
+     * </p>
+     *
+     * @param handler The handler that receives each record
+     * @throws IOException If an error occurs while reading the files
+     */
+    public synchronized void readRecords(CSVHandlerInterface handler) throws IOException {
+        FileLock held = lock.acquire(true);
+        try {
+            if (!new File(filePath).exists()) {
+                return;
+            }
+
+            seenVersions.clear();
+            versionsSeen = true;
+            CSVHandlerInterface target = isVersioned() ? record -> {
+                if (record.getFieldCount() > 1) {
+                    int last = record.getFieldCount() - 1;
+                    int version = versionAt(record, last);
+                    if (version != FIRST_VERSION) {
+                        remember(record.getString(0), version);
+                    }
+                    record.truncate(last);
+                }
+                handler.handleRecord(record);
+            } : handler;
+
+            Map<String, String> changes = readJournal();
+            if (changes.isEmpty()) {
+                CSVReader.read(filePath, true, target);
+                return;
+            }
+
+            // Left over from an earlier run, so fold it into the base file in due course
+            schedulePeriodicCompaction();
+            Set<String> seen = new HashSet<>();
+            CSVReader.read(filePath, true, record -> {
+                String key = record.getString(0);
+                if (changes.containsKey(key)) {
+                    seen.add(key);
+                    String replacement = changes.get(key);
+                    if (replacement != null) {
+                        CSVReader.readText(replacement, target);
+                    }
+                } else {
+                    target.handleRecord(record);
+                }
+            });
+
+            // Records that were written to the journal but never made it to the base file
+            for (Map.Entry<String, String> change : changes.entrySet()) {
+                if (!seen.contains(change.getKey()) && change.getValue() != null) {
+                    CSVReader.readText(change.getValue(), target);
+                }
+            }
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Adds a new record to the table.
+     * <p>
+     * The record is appended to the base file, unless a record with the same key was deleted
+     * through the journal, in which case it is added through the journal so that the delete
+     * does not hide it.
+     * </p>
+     *
+     * @param fields The fields of the record
+     * @throws RecordConflictException If another process has already added a record with the same key
+     * @throws IOException If an error occurs while writing the files
+     */
+    public synchronized void appendRecord(String... fields) throws IOException {
+        String key = fields[0];
+        FileLock held = lock.acquire(false);
+        try {
+            if (!ensureVersioned()) {
+                appendToBase(CSVUtil.formatRecord(fields));
+                return;
+            }
+
+            Map<String, String> changes = readJournal();
+            if (currentVersion(key, changes) != NO_VERSION) {
+                throw new RecordConflictException(key, "Record " + key + " in " + tableName()
+                        + " has already been added by another session.");
+            }
+            if (changes.containsKey(key)) {
+                appendEntry(UPSERT + "," + formatVersioned(fields, FIRST_VERSION));
+            } else {
+                String before = stamp();
+                appendToBase(formatVersioned(fields, FIRST_VERSION));
+                if (baseVersions != null && before.equals(baseVersionsStamp)) {
+                    // Nobody else can have written the file while the lock is held
+                    baseVersions.putIfAbsent(key, FIRST_VERSION);
+                    baseVersionsStamp = stamp();
+                }
+            }
+            remember(key, FIRST_VERSION);
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Records an update to a record by appending it to the journal.
+     *
+     * @param fields The fields of the updated record
+     * @throws RecordConflictException If another process has written the record since this process read it
+     * @throws IOException If an error occurs while writing the journal
+     */
+    public synchronized void update(String... fields) throws IOException {
+        String key = fields[0];
+        FileLock held = lock.acquire(false);
+        try {
+            if (!ensureVersioned()) {
+                appendEntry(UPSERT + "," + CSVUtil.formatRecord(fields));
+                return;
+            }
+
+            int current = checkVersion(key, readJournal());
+            appendEntry(UPSERT + "," + formatVersioned(fields, current + 1));
+            remember(key, current + 1);
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Records updates to several records by appending them to the journal in one write.
+     * <p>
+     * Every record's version is checked before anything is written, so a conflict on any
+     * record leaves the whole batch unwritten.
+     * </p>
+     *
+     * @param records The fields of each updated record
+     * @throws RecordConflictException If another process has written one of the records since this process read it
+     * @throws IOException If an error occurs while writing the journal
+     */
+    public synchronized void updateAll(List<String[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        FileLock held = lock.acquire(false);
+        try {
+            List<String> entries = new ArrayList<>(records.size());
+            if (!ensureVersioned()) {
+                for (String[] fields : records) {
+                    entries.add(UPSERT + "," + CSVUtil.formatRecord(fields));
+                }
+                appendEntries(entries);
+                return;
+            }
+
+            Map<String, String> changes = readJournal();
+            Map<String, Integer> written = new LinkedHashMap<>();
+            for (String[] fields : records) {
+                String key = fields[0];
+                // A record repeated in the batch builds on the version written just before it
+                Integer previous = written.get(key);
+                int current = previous != null ? previous : checkVersion(key, changes);
+                entries.add(UPSERT + "," + formatVersioned(fields, current + 1));
+                written.put(key, current + 1);
+            }
+            appendEntries(entries);
+            for (Map.Entry<String, Integer> entry : written.entrySet()) {
+                remember(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Records the deletion of a record by appending its key to the journal.
+     *
+     * @param key The key of the record to delete
+     * @throws RecordConflictException If another process has written the record since this process read it
+     * @throws IOException If an error occurs while writing the journal
+     */
+    public synchronized void delete(String key) throws IOException {
+        FileLock held = lock.acquire(false);
+        try {
+            if (!ensureVersioned()) {
+                appendEntry(DELETE + "," + CSVUtil.formatField(key));
+                return;
+            }
+
+            Map<String, String> changes = readJournal();
+            if (currentVersion(key, changes) == NO_VERSION) {
+                // Already gone, which is what the caller wanted
+                remember(key, NO_VERSION);
+                return;
+            }
+            checkVersion(key, changes);
+            appendEntry(DELETE + "," + CSVUtil.formatField(key));
+            remember(key, NO_VERSION);
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Checks that no other process has written some records since this process read them,
+     * without writing anything.
+     * <p>
+     * The lock is only shared, and only the journal entries appended since the last read are
+     * parsed, so the check costs far less than a write. Records in a file that is not versioned
+     * yet cannot conflict.
+     * </p>
+     *
+     * @param keys The keys of the records about to be updated
+     * @throws RecordConflictException If another process has written or deleted one of the records
+     * @throws IOException If an error occurs while reading the files
+     */
+    public synchronized void checkUnchanged(Collection<String> keys) throws IOException {
+        FileLock held = lock.acquire(true);
+        try {
+            if (!new File(filePath).exists() || !isVersioned()) {
+                return;
+            }
+            Map<String, String> changes = readJournal();
+            for (String key : keys) {
+                checkVersion(key, changes);
+            }
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Reads the stored fields of a record, changes them, and records the result in the journal.
+     * <p>
+     * The lock is held from reading the record until the change is written, so the change is
+     * always applied to the latest version of the record, whichever process wrote it.
+     * </p>
+     *
+     * @param key The key of the record to change
+     * @param change Given the current fields of the record, returns the new fields
+     * @return true if the record was found and changed, false if there is no record with the key
+     * @throws IOException If an error occurs while reading or writing the files
+     */
+    public synchronized boolean modify(String key, UnaryOperator<String[]> change) throws IOException {
+        FileLock held = lock.acquire(false);
+        try {
+            boolean versioned = ensureVersioned();
+            Map<String, String> changes = readJournal();
+            String[][] found = new String[1][];
+            if (changes.containsKey(key)) {
+                if (changes.get(key) != null) {
+                    CSVReader.readText(changes.get(key), record -> found[0] = record.toArray());
+                }
+            } else if (new File(filePath).exists()) {
+                CSVReader.read(filePath, true, record -> {
+                    if (found[0] == null && record.getString(0).equals(key)) {
+                        found[0] = record.toArray();
+                    }
+                });
+            }
+            if (found[0] == null) {
+                return false;
+            }
+
+            if (!versioned) {
+                appendEntry(UPSERT + "," + CSVUtil.formatRecord(change.apply(found[0])));
+                return true;
+            }
+            String[] fields = found[0];
+            int current = parseVersion(fields[fields.length - 1]);
+            String[] changed = change.apply(Arrays.copyOf(fields, fields.length - 1));
+            appendEntry(UPSERT + "," + formatVersioned(changed, current + 1));
+            remember(key, current + 1);
+            return true;
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Merges the journal into the base file and clears the journal.
+     * <p>
+     * The merged table is written to a temporary file which then replaces the base file,
+     * so a failure part way through leaves both the base file and the journal intact.
+     * </p>
+     *
+     * @throws IOException If an error occurs while reading or writing the files
+     */
+    public synchronized void compact() throws IOException {
+        compactionPending = false;
+        FileLock held = lock.acquire(false);
+        try {
+            File journal = new File(journalPath);
+            if (!journal.exists() || !new File(filePath).exists()) {
+                return;
+            }
+            rewriteBase(readLinesLocked(), false);
+            if (isVersioned()) {
+                // Read the new base file here rather than on the next write
+                baseVersions();
+            }
+        } finally {
+            held.release();
+        }
+    }
+
+    /**
+     * Forces the base file and the journal to be written to the storage device, so that they
+     * survive a crash of the machine.
+     *
+     * @throws IOException If an error occurs while syncing the files
+     */
+    public synchronized void sync() throws IOException {
+        for (String path : new String[]{filePath, journalPath}) {
+            File file = new File(path);
+            if (file.exists()) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every record of the table as raw CSV text while the lock is held.
+     *
+     * @return The records of the table, including the header, or an empty list if the base file does not exist
+     * @throws IOException If an error occurs while reading the files
+     */
+    private List<String> readLinesLocked() throws IOException {
+        List<String> lines = new ArrayList<>();
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return lines;
+        }
+
+        Map<String, String> changes = readJournal();
+        if (!changes.isEmpty()) {
+            // Left over from an earlier run, so fold it into the base file in due course
+            schedulePeriodicCompaction();
+        }
+        Set<String> seen = new HashSet<>();
+        CSVReader.read(filePath, false, record -> {
+            if (lines.isEmpty()) {
+                lines.add(record.toString()); // Header
+                return;
+            }
+
+            String key = record.getString(0);
+            if (changes.containsKey(key)) {
+                seen.add(key);
+                String replacement = changes.get(key);
+                if (replacement != null) {
+                    lines.add(replacement);
+                }
+            } else {
+                lines.add(record.toString());
+            }
+        });
+
+        // Records that were written to the journal but never made it to the base file
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (!seen.contains(change.getKey()) && change.getValue() != null) {
+                lines.add(change.getValue());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Replaces the base file with the given records and clears the journal.
+     *
+     * @param lines The records of the table, including the header
+     * @param addVersions Whether to add the version column, giving every record its first version
+     * @throws IOException If an error occurs while writing the files
+     */
+    private void rewriteBase(List<String> lines, boolean addVersions) throws IOException {
+        int columns = addVersions && !lines.isEmpty() ? parseFields(lines.get(0)).length : 0;
+        DataWatcher.expectWrite(filePath);
+        DataWatcher.expectWrite(journalPath);
+        Path base = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (addVersions) {
+                    line = i == 0
+                            ? line + "," + VERSION_COLUMN
+                            : formatVersioned(parseFields(line), columns, FIRST_VERSION);
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        try {
+            Files.move(temp, base, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, base, StandardCopyOption.REPLACE_EXISTING);
+        }
+        DataWatcher.recordWrite(filePath);
+        baseVersions = null;
+
+        // Replaying the journal again is harmless, so it is only removed once the base file is safe
+        Files.deleteIfExists(Paths.get(journalPath));
+        DataWatcher.recordWrite(journalPath);
+        entryCount = 0;
+        journalChanges = new LinkedHashMap<>();
+        journalLength = 0;
+        journalBaseStamp = stamp();
+    }
+
+    /**
+     * Gives the base file its version column if it does not have one yet. Must be called
+     * while holding the lock exclusively.
+     *
+     * @return true if records are versioned, false if the base file does not exist
+     * @throws IOException If an error occurs while rewriting the files
+     */
+    private boolean ensureVersioned() throws IOException {
+        if (!new File(filePath).exists()) {
+            return false;
+        }
+        if (!isVersioned()) {
+            rewriteBase(readLinesLocked(), true);
+            isVersioned();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the base file has the version column, reading its header again only if
+     * the file has changed since it was last read.
+     *
+     * @return true if the last column of the header is {@link #VERSION_COLUMN}
+     * @throws IOException If an error occurs while reading the header
+     */
+    private boolean isVersioned() throws IOException {
+        String stamp = stamp();
+        if (stamp.equals(headerStamp)) {
+            return columnCount >= 0;
+        }
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            header = reader.readLine();
+        }
+        String[] columns = header == null ? new String[0] : parseFields(header.trim());
+        boolean versioned = columns.length > 1 && columns[columns.length - 1].equals(VERSION_COLUMN);
+        columnCount = versioned ? columns.length - 1 : -1;
+        headerStamp = stamp;
+        return versioned;
+    }
+
+    /**
+     * Checks that a record has not been written by another process since this process read it.
+     *
+     * @param key The key of the record
+     * @param changes The latest journal entry for each key
+     * @return The current version of the record, or {@link #NO_VERSION} if it does not exist
+     * @throws RecordConflictException If the record was written by another process
+     * @throws IOException If an error occurs while reading the base file
+     */
+    private int checkVersion(String key, Map<String, String> changes) throws IOException {
+        int current = currentVersion(key, changes);
+        if (!versionsSeen) {
+            // The tables were loaded without reading this file, from a snapshot that matched it
+            primeSeenVersions(changes);
+        }
+        int expected = seenVersions.getOrDefault(key, FIRST_VERSION);
+        if (current != expected) {
+            throw new RecordConflictException(key, "Record " + key + " in " + tableName() + " was "
+                    + (current == NO_VERSION ? "deleted" : "changed") + " by another session since it was read.");
+        }
+        return current;
+    }
+
+    /**
+     * Takes the versions currently stored as the versions this process has seen.
+     *
+     * @param changes The latest journal entry for each key
+     * @throws IOException If an error occurs while reading the base file
+     */
+    private void primeSeenVersions(Map<String, String> changes) throws IOException {
+        versionsSeen = true;
+        for (Map.Entry<String, Integer> entry : baseVersions().entrySet()) {
+            if (!changes.containsKey(entry.getKey())) {
+                remember(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (change.getValue() != null) {
+                remember(change.getKey(), versionOf(change.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Gets the stored version of a record.
+     *
+     * @param key The key of the record
+     * @param changes The latest journal entry for each key
+     * @return The version of the record, or {@link #NO_VERSION} if it does not exist
+     * @throws IOException If an error occurs while reading the base file
+     */
+    private int currentVersion(String key, Map<String, String> changes) throws IOException {
+        if (changes.containsKey(key)) {
+            String record = changes.get(key);
+            return record == null ? NO_VERSION : versionOf(record);
+        }
+        return baseVersions().getOrDefault(key, NO_VERSION);
+    }
+
+    /**
+     * Gets the version of every record in the base file, reading the file again only if it
+     * has changed since it was last read.
+     *
+     * @return The version of each record, by key
+     * @throws IOException If an error occurs while reading the base file
+     */
+    private Map<String, Integer> baseVersions() throws IOException {
+        String stamp = stamp();
+        if (baseVersions == null || !stamp.equals(baseVersionsStamp)) {
+            Map<String, Integer> versions = new HashMap<>();
+            CSVReader.read(filePath, true, record -> {
+                if (record.getFieldCount() > 1) {
+                    versions.putIfAbsent(record.getString(0), versionAt(record, record.getFieldCount() - 1));
+                }
+            });
+            baseVersions = versions;
+            baseVersionsStamp = stamp;
+        }
+        return baseVersions;
+    }
+
+    /**
+     * Remembers the version of a record as this process last saw it.
+     *
+     * @param key The key of the record
+     * @param version The version, or {@link #NO_VERSION} if the record no longer exists
+     */
+    private void remember(String key, int version) {
+        if (version == FIRST_VERSION) {
+            seenVersions.remove(key);
+        } else {
+            seenVersions.put(key, version);
+        }
+    }
+
+    /**
+     * Formats a record with its version, padding it to the columns of the base file.
+     * Must be called after {@link #ensureVersioned()}.
+     *
+     * @param fields The fields of the record, without the version
+     * @param version The version of the record
+     * @return The CSV record
+     * @throws IOException If the record has more fields than the table has columns
+     */
+    private String formatVersioned(String[] fields, int version) throws IOException {
+        return formatVersioned(fields, columnCount, version);
+    }
+
+    /**
+     * Formats a record with its version, padding it to a number of columns.
+     *
+     * @param fields The fields of the record, without the version
+     * @param columns The number of columns before the version column
+     * @param version The version of the record
+     * @return The CSV record
+     * @throws IOException If the record has more fields than there are columns
+     */
+    private String formatVersioned(String[] fields, int columns, int version) throws IOException {
+        if (fields.length > columns) {
+            throw new IOException("Record " + fields[0] + " has more fields than " + tableName() + " has columns.");
+        }
+        String[] padded = Arrays.copyOf(fields, columns + 1);
+        for (int i = fields.length; i < columns; i++) {
+            padded[i] = "";
+        }
+        padded[columns] = String.valueOf(version);
+        return CSVUtil.formatRecord(padded);
+    }
+
+    /**
+     * Appends a record to the end of the base file.
+     *
+     * @param record The CSV record to append
+     * @throws IOException If an error occurs while writing the file
+     */
+    private void appendToBase(String record) throws IOException {
+        DataWatcher.expectWrite(filePath);
+        String before = stamp();
+        File file = new File(filePath);
+        boolean needsNewline = false;
+
+        // Check if file exists and doesn't end with newline
+        if (file.exists() && file.length() > 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(raf.length() - 1);
+                needsNewline = raf.readByte() != '\n';
+            }
+        }
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            if (needsNewline) {
+                writer.newLine();
+            }
+            writer.write(record);
+        }
+        DataWatcher.recordWrite(filePath);
+
+        // Appending a record changes neither the header nor the journal
+        String after = stamp();
+        if (before.equals(journalBaseStamp)) {
+            journalBaseStamp = after;
+        }
+        if (before.equals(headerStamp)) {
+            headerStamp = after;
+        }
+    }
+
+    /**
+     * Appends an entry to the journal, scheduling a compaction if the journal has grown large.
+     *
+     * @param entry The journal entry
+     * @throws IOException If an error occurs while writing the journal
+     */
+    private void appendEntry(String entry) throws IOException {
+        appendEntries(List.of(entry));
+    }
+
+    /**
+     * Appends several entries to the journal in one write, scheduling a compaction if the
+     * journal has grown large.
+     *
+     * @param entries The journal entries
+     * @throws IOException If an error occurs while writing the journal
+     */
+    private void appendEntries(List<String> entries) throws IOException {
+        DataWatcher.expectWrite(journalPath);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(journalPath, true))) {
+            for (String entry : entries) {
+                writer.write(entry);
+                writer.newLine();
+            }
+        }
+        DataWatcher.recordWrite(journalPath);
+
+        schedulePeriodicCompaction();
+        if (entryCount < 0) {
+            entryCount = countEntries();
+        } else {
+            entryCount += entries.size();
+        }
+        if (entryCount >= COMPACTION_THRESHOLD && !compactionPending) {
+            compactionPending = true;
+            compactor.execute(this::compactInBackground);
+        }
+    }
+
+    /**
+     * Schedules this journal to be compacted periodically, if that has not been done yet.
+     */
+    private void schedulePeriodicCompaction() {
+        if (!periodicCompactionScheduled) {
+            periodicCompactionScheduled = true;
+            compactor.scheduleWithFixedDelay(this::compactInBackground,
+                    COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Compacts the journal, logging rather than throwing any error.
+     */
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.out.println("Error compacting journal " + journalPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Brings the final state of every record the journal mentions up to date.
+     * <p>
+     * Later entries override earlier ones. A record that was deleted maps to null. Only the
+     * bytes appended to the journal since it was last read are parsed, unless another process
+     * has compacted it since, which is seen as a change to the base file or a shorter journal.
+     * A trailing entry without a line break was cut short while being written, and is left
+     * until its line break appears. Entries are parsed as CSV, so an updated record may span
+     * several lines of the journal. Must be called while holding the lock.
+     * </p>
+     *
+     * @return The latest journal entry for each key, in the order the keys first appear, which
+     * the caller must not change
+     * @throws IOException If an error occurs while reading the journal
+     */
+    private Map<String, String> readJournal() throws IOException {
+        File journal = new File(journalPath);
+        long length = journal.length();
+        String baseStamp = stamp();
+        if (journalChanges == null || !baseStamp.equals(journalBaseStamp) || length < journalLength) {
+            journalChanges = new LinkedHashMap<>();
+            journalLength = 0;
+            journalBaseStamp = baseStamp;
+        }
+        if (length == journalLength) {
+            return journalChanges;
+        }
+
+        ByteBuffer appended = ByteBuffer.allocate(Math.toIntExact(length - journalLength));
+        try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ)) {
+            channel.position(journalLength);
+            while (appended.hasRemaining() && channel.read(appended) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+        }
+        byte[] bytes = appended.array();
+        int lastBreak = appended.position() - 1;
+        while (lastBreak >= 0 && bytes[lastBreak] != '\n') {
+            lastBreak--;
+        }
+        if (lastBreak < 0) {
+            return journalChanges;
+        }
+
+        Map<String, String> changes = journalChanges;
+        CSVReader.readText(new String(bytes, 0, lastBreak + 1, StandardCharsets.UTF_8), entry -> {
+            // An entry that ends inside a quoted field was cut short after one of its line breaks
+            if (!entry.isComplete() || entry.getFieldCount() < 2) {
+                return;
+            }
+            String op = entry.getString(0);
+            if (op.equals(UPSERT)) {
+                changes.put(entry.getString(1), entry.toString().substring(UPSERT.length() + 1));
+            } else if (op.equals(DELETE)) {
+                changes.put(entry.getString(1), null);
+            }
+        });
+        journalLength += lastBreak + 1;
+        return changes;
+    }
+
+    /**
+     * Counts the entries in the journal file.
+     *
+     * @return The number of entries
+     * @throws IOException If an error occurs while reading the journal
+     */
+    private int countEntries() throws IOException {
+        File journal = new File(journalPath);
+        if (!journal.exists()) {
+            return 0;
+        }
+        int[] count = {0};
+        CSVReader.read(journalPath, false, entry -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Gets the name of the table, for messages.
+     *
+     * @return The name of the base file without its folder and extension
+     */
+    private String tableName() {
+        String name = Paths.get(filePath).getFileName().toString();
+        return name.endsWith(".csv") ? name.substring(0, name.length() - ".csv".length()) : name;
+    }
+
+    /**
+     * Describes the current state of the base file by its size and modification time.
+     *
+     * @return The stamp of the base file
+     */
+    private String stamp() {
+        File file = new File(filePath);
+        return file.length() + "|" + file.lastModified();
+    }
+
+    /**
+     * Splits a CSV record into its fields.
+     *
+     * @param record The CSV record
+     * @return The fields of the record
+     */
+    private static String[] parseFields(String record) {
+        String[][] fields = {new String[0]};
+        CSVReader.readText(record, parsed -> fields[0] = parsed.toArray());
+        return fields[0];
+    }
+
+    /**
+     * Gets the version of a record from its CSV text.
+     *
+     * @param record The CSV record, including its version
+     * @return The version of the record
+     */
+    private static int versionOf(String record) {
+        String[] fields = parseFields(record);
+        return fields.length < 2 ? FIRST_VERSION : parseVersion(fields[fields.length - 1]);
+    }
+
+    /**
+     * Gets the version held in a field of a record.
+     *
+     * @param record The record
+     * @param index The index of the version field
+     * @return The version, or {@link #FIRST_VERSION} if the field is not a valid version
+     */
+    private static int versionAt(CSVRecord record, int index) {
+        try {
+            return record.getInt(index);
+        } catch (NumberFormatException e) {
+            return FIRST_VERSION;
+        }
+    }
+
+    /**
+     * Parses a version.
+     *
+     * @param text The text of the version field
+     * @return The version, or {@link #FIRST_VERSION} if the text is not a valid version
+     */
+    private static int parseVersion(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return FIRST_VERSION;
+        }
+    }
+}
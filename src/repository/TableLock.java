@@ -0,0 +1,59 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lock on a data file that is shared by every process using the data folder.
+ * <p>
+ * The lock is taken on a separate, empty lock file next to the data file, as the data file
+ * itself is replaced when it is compacted. Writers take the lock exclusively, so two
+ * processes never change the same file at once, while readers share it, so a reader never
+ * sees a file half way through being replaced.
+ * </p>
+ * <p>
+ * The operating system grants the lock to a whole process, so threads of one process must
+ * not ask for the same lock at the same time. Every user of this class therefore only takes
+ * the lock while holding its own monitor.
+ * </p>
+ */
+public class TableLock {
+    /** Path to the lock file */
+    private final Path lockPath;
+
+    /** The open lock file, or null if it has not been opened yet */
+    private FileChannel channel = null;
+
+    /**
+     * Constructs a lock for a data file.
+     * <p>
+     * The lock file is stored next to the data file, with the extension replaced by ".lock".
+     * </p>
+     *
+     * @param filePath Path to the data file
+     */
+    public TableLock(String filePath) {
+        int dot = filePath.lastIndexOf('.');
+        String base = dot > filePath.lastIndexOf('/') ? filePath.substring(0, dot) : filePath;
+        this.lockPath = Paths.get(base + ".lock");
+    }
+
+    /**
+     * Waits until the lock is granted.
+     *
+     * @param shared true to share the lock with other readers, false to hold it exclusively
+     * @return The lock, which must be closed to release it
+     * @throws IOException If the lock file cannot be opened or locked
+     */
+    public synchronized FileLock acquire(boolean shared) throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        return channel.lock(0, Long.MAX_VALUE, shared);
+    }
+}
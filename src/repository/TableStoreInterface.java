@@ -0,0 +1,98 @@
+package repository;
+
+import helper.CSVHandlerInterface;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Interface for reading and writing the records of one table.
+ * Defines the operations the repositories need from a storage backend, so that the
+ * same repository code works whether records are kept in CSV files or in a database.
+ * <p>
+ * Records are exchanged as arrays of fields in the table's column order, and the first
+ * field of a record is its key. Records are read back through a {@link CSVHandlerInterface},
+ * so each repository turns records into model objects in the same way for every backend.
+ * </p>
+ */
+public interface TableStoreInterface {
+
+    /**
+     * Reads every record of the table, in the order the records were added.
+     *
+     * @param handler The handler that receives each record
+     * @throws IOException If the records cannot be read
+     */
+    public void readRecords(CSVHandlerInterface handler) throws IOException;
+
+    /**
+     * Adds a new record to the end of the table.
+     *
+     * @param fields The fields of the record
+     * @throws IOException If the record cannot be written
+     */
+    public void insert(String... fields) throws IOException;
+
+    /**
+     * Replaces the record with the same key, or adds it if there is no such record.
+     *
+     * @param fields The fields of the updated record
+     * @throws IOException If the record cannot be written
+     */
+    public void update(String... fields) throws IOException;
+
+    /**
+     * Replaces several records in a single write, adding any that do not exist yet.
+     * <p>
+     * Either every record is written or, if the write fails, none of them is.
+     * </p>
+     *
+     * @param records The fields of each updated record
+     * @throws IOException If the records cannot be written
+     */
+    public void updateAll(List<String[]> records) throws IOException;
+
+    /**
+     * Deletes the record with a key.
+     *
+     * @param key The key of the record to delete
+     * @throws IOException If the record cannot be deleted
+     */
+    public void delete(String key) throws IOException;
+
+    /**
+     * Changes some fields of the record with a key, keeping the fields that are not changed.
+     * <p>
+     * This is used where the model object does not hold every column of its record.
+     * </p>
+     *
+     * @param key The key of the record to change
+     * @param change Given the current fields of the record, returns the new fields
+     * @return true if the record was found and changed, false if there is no record with the key
+     * @throws IOException If the record cannot be read or written
+     */
+    public boolean modify(String key, UnaryOperator<String[]> change) throws IOException;
+
+    /**
+     * Checks whether the store rejects writes to records that another process has written
+     * since this process read them.
+     *
+     * @return true if conflicting writes are rejected with a {@link RecordConflictException}
+     */
+    public boolean detectsConflicts();
+
+    /**
+     * Checks, without writing anything, that no other process has written some records since
+     * this process read them.
+     * <p>
+     * This lets a change that is only written later be rejected while whoever made it is still
+     * waiting for the answer. A store that does not detect conflicts accepts every record.
+     * </p>
+     *
+     * @param keys The keys of the records about to be updated
+     * @throws RecordConflictException If another process has written or deleted one of the records
+     * @throws IOException If the stored versions cannot be read
+     */
+    public void checkUnchanged(List<String> keys) throws IOException;
+}
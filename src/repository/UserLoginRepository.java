@@ -1,6 +1,8 @@
 package repository;
 
-import java.io.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Repository class for managing user login information and authentication.
@@ -12,13 +14,19 @@ import java.io.*;
  * </p>
  */
 public class UserLoginRepository {
-    /** The complete file path to the user login records file */
-    private static final String FILE_PATH_USER_LOGIN = "./src/repository/data/user_login_records.csv";
+    /**
+     * Gets the store that holds the user login records in the storage backend in use.
+     *
+     * @return The store for the user login table
+     */
+    private static TableStoreInterface store() {
+        return Storage.getStore(DataTable.USER_LOGINS);
+    }
 
     /**
      * Retrieves the user type associated with a given NRIC.
      * <p>
-     * This method searches the login records file for a matching NRIC and returns
+     * This method looks up the login record for the NRIC in the login index and returns
      * the corresponding user type (e.g., "Applicant", "Officer", "Manager").
      * </p>
      *
@@ -26,18 +34,9 @@ public class UserLoginRepository {
      * @return The user type if found, or null if the NRIC is not found
      */
     public String getUserTypeByNRIC(String nric) {
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH_USER_LOGIN))) {
-            String line;
-            br.readLine(); // Skip header
-
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 2 && parts[0].trim().equalsIgnoreCase(nric)) {
-                    return parts[1].trim(); // return user type
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV: " + e.getMessage());
+        String[] parts = DataStore.getUserLogin(nric);
+        if (parts != null && parts.length == 2) {
+            return parts[1].trim(); // return user type
         }
 
         return null; // Not found
@@ -46,7 +45,7 @@ public class UserLoginRepository {
     /**
      * Checks if a user with the given NRIC exists in the system.
      * <p>
-     * This method searches the login records file to determine if a user with
+     * This method looks up the login index to determine if a user with
      * the specified NRIC is registered in the system.
      * </p>
      *
@@ -54,20 +53,22 @@ public class UserLoginRepository {
      * @return true if the user exists, false otherwise
      */
     public boolean userExists(String nric) {
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH_USER_LOGIN))) {
-            String line;
-            br.readLine(); // Skip header
+        return DataStore.getUserLogin(nric) != null;
+    }
 
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 1 && parts[0].trim().equalsIgnoreCase(nric)) {
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error reading CSV: " + e.getMessage());
-        }
+    /**
+     * Reads all user login records from the CSV file.
+     * <p>
+     * This is only called by {@link DataStore} when the data is first loaded.
+     * </p>
+     *
+     * @return A list of login records, each split into its NRIC and user type fields
+     * @throws IOException If an error occurs while reading the file
+     */
+    List<String[]> readUserLoginsFromCSV() throws IOException {
+        List<String[]> userLogins = new ArrayList<>();
+        store().readRecords(record -> userLogins.add(record.toArray()));
 
-        return false;
+        return userLogins;
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package repository;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage backend that puts a {@link WriteBehindTableStore} in front of every table of
+ * another backend, so that repositories never wait for the disk when they change a record.
+ * <p>
+ * A single background thread writes the dirty records of every table at a fixed interval,
+ * and as soon as one table has enough dirty records. Closing the backend writes every pending
+ * change and then closes the underlying backend, which makes the written data durable.
+ * </p>
+ */
+public class WriteBehindStorageBackend implements StorageBackendInterface {
+    /** The backend that changes are written to */
+    private final StorageBackendInterface delegate;
+
+    /** The write-behind store for each table */
+    private final Map<DataTable, WriteBehindTableStore> stores = new EnumMap<>(DataTable.class);
+
+    /** Background thread that writes dirty records */
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "store-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Whether the backend has been closed */
+    private boolean closed = false;
+
+    /** Why closing the backend failed, or null if it has not failed */
+    private IOException closeFailure = null;
+
+    /**
+     * Constructs a write-behind backend over another backend.
+     *
+     * @param delegate The backend that changes are written to
+     * @param intervalMillis Interval between flushes, in milliseconds
+     * @param threshold Number of dirty records in one table that triggers an immediate flush
+     */
+    public WriteBehindStorageBackend(StorageBackendInterface delegate, long intervalMillis, int threshold) {
+        this.delegate = delegate;
+        for (DataTable table : DataTable.values()) {
+            stores.put(table, new WriteBehindTableStore(table, delegate.getStore(table), threshold, flusher));
+        }
+        flusher.scheduleWithFixedDelay(this::flushInBackground, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the store that holds a table.
+     *
+     * @param table The table
+     * @return The write-behind store for the table
+     */
+    @Override
+    public TableStoreInterface getStore(DataTable table) {
+        return stores.get(table);
+    }
+
+    /**
+     * Gets the backend that changes are written to.
+     *
+     * @return The underlying backend
+     */
+    public StorageBackendInterface getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Writes every pending change and closes the underlying backend.
+     * <p>
+     * Every table is flushed even if an earlier one fails. Calling this method again writes
+     * nothing more, but throws the first failure again, so a later caller never takes changes
+     * that could not be written for saved.
+     * </p>
+     *
+     * @throws IOException If a pending change cannot be written or the underlying backend cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            if (closeFailure != null) {
+                throw closeFailure;
+            }
+            return;
+        }
+        closed = true;
+
+        IOException failure = null;
+        for (WriteBehindTableStore store : stores.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        flusher.shutdown();
+        try {
+            delegate.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) {
+            closeFailure = failure;
+            throw failure;
+        }
+    }
+
+    /**
+     * Flushes every table, logging rather than throwing any error.
+     */
+    private void flushInBackground() {
+        for (WriteBehindTableStore store : stores.values()) {
+            store.flushInBackground();
+        }
+    }
+}
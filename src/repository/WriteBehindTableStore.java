@@ -0,0 +1,474 @@
+package repository;
+
+import helper.CSVHandlerInterface;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps changes to a table in memory and writes them to another store in the background.
+ * <p>
+ * Each insert, update or delete marks its record as dirty and returns without touching the
+ * disk. Later changes to a dirty record replace the earlier ones, so a record changed several
+ * times before a flush is written once. Dirty records are written to the underlying store by
+ * {@link #flush()}, which is called by the backend's flusher thread at a fixed interval, and
+ * as soon as {@link #threshold} records are dirty.
+ * </p>
+ * <p>
+ * If the underlying store {@link TableStoreInterface#detectsConflicts() detects conflicts},
+ * an update is first checked against the versions stored there with
+ * {@link TableStoreInterface#checkUnchanged(List)}, which reads but never writes. A change
+ * another process has overtaken is therefore rejected with a {@link RecordConflictException}
+ * while the caller is still waiting, and the update itself is kept back like any other. Only a
+ * conflict that arises between the check and the next flush, which is at most one flush
+ * interval, is found by the flush instead, which logs it and drops the change. Deletes, which
+ * are rare, are written straight through so that their conflicts always reach the caller.
+ * Inserts cannot conflict, as record IDs come from sequences shared by every process.
+ * {@link #modify(String, UnaryOperator)} has to read the stored record anyway, so it is always
+ * written straight through.
+ * </p>
+ * <p>
+ * Reading the table flushes it first, so readers always see every change made so far. Once the
+ * store is closed, changes are written straight through to the underlying store.
+ * </p>
+ */
+public class WriteBehindTableStore implements TableStoreInterface {
+    /**
+     * The kinds of change that can be pending for a record.
+     */
+    private enum ChangeKind {
+        /** The record is new and must be added to the end of the table */
+        INSERT,
+        /** The record replaces the stored record with the same key, or is added if there is none */
+        UPDATE,
+        /** The record with the key must be deleted */
+        DELETE
+    }
+
+    /**
+     * A change waiting to be written.
+     * <p>
+     * Changes are never modified once created, so the flusher can tell whether a record was
+     * changed again while it was being written by comparing the pending change with the one
+     * it wrote.
+     * </p>
+     */
+    private static class Change {
+        /** The kind of change */
+        private final ChangeKind kind;
+
+        /** The fields of the record, or null for a delete */
+        private final String[] fields;
+
+        /** Whether the flusher has started writing this change */
+        private boolean writing = false;
+
+        /**
+         * Constructs a pending change.
+         *
+         * @param kind The kind of change
+         * @param fields The fields of the record, or null for a delete
+         */
+        private Change(ChangeKind kind, String[] fields) {
+            this.kind = kind;
+            this.fields = fields;
+        }
+    }
+
+    /** The table stored here */
+    private final DataTable table;
+
+    /** The store that changes are written to */
+    private final TableStoreInterface delegate;
+
+    /** Number of dirty records that triggers an immediate flush */
+    private final int threshold;
+
+    /** The flusher thread */
+    private final Executor flusher;
+
+    /** Whether the underlying store detects conflicts, so updates are checked and deletes written straight through */
+    private final boolean checksConflicts;
+
+    /** The pending change for each dirty record, by key, in the order the records became dirty */
+    private final Map<String, Change> pending = new LinkedHashMap<>();
+
+    /** Lock held while writing changes, so flushes of this table never overlap */
+    private final Object flushLock = new Object();
+
+    /** Whether a flush has been handed to the flusher thread but has not run yet */
+    private boolean flushScheduled = false;
+
+    /** Whether the store has been closed, after which changes are written straight through */
+    private boolean closed = false;
+
+    /**
+     * Constructs a write-behind store over another store.
+     *
+     * @param table The table stored here
+     * @param delegate The store that changes are written to
+     * @param threshold Number of dirty records that triggers an immediate flush
+     * @param flusher The flusher thread
+     */
+    public WriteBehindTableStore(DataTable table, TableStoreInterface delegate, int threshold, Executor flusher) {
+        this.table = table;
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.flusher = flusher;
+        this.checksConflicts = delegate.detectsConflicts();
+    }
+
+    /**
+     * Reads every record of the table, after writing every pending change.
+     *
+     * @param handler The handler that receives each record
+     * @throws IOException If the pending changes cannot be written or the records cannot be read
+     */
+    @Override
+    public void readRecords(CSVHandlerInterface handler) throws IOException {
+        flush();
+        delegate.readRecords(handler);
+    }
+
+    /**
+     * Marks a new record as dirty.
+     *
+     * @param fields The fields of the record
+     * @throws IOException If the store is closed and the record cannot be written
+     */
+    @Override
+    public void insert(String... fields) throws IOException {
+        synchronized (this) {
+            if (!closed) {
+                Change previous = pending.get(fields[0]);
+                // A record deleted but not yet written is brought back by replacing it
+                ChangeKind kind = previous != null && previous.kind == ChangeKind.DELETE
+                        ? ChangeKind.UPDATE : ChangeKind.INSERT;
+                markDirty(fields[0], new Change(kind, fields.clone()));
+                return;
+            }
+        }
+        delegate.insert(fields);
+    }
+
+    /**
+     * Checks that no other process has written a record since it was read, and marks the
+     * updated record as dirty.
+     *
+     * @param fields The fields of the updated record
+     * @throws RecordConflictException If another process wrote the record first
+     * @throws IOException If the stored version cannot be read, or the store is closed and the record cannot be written
+     */
+    @Override
+    public void update(String... fields) throws IOException {
+        checkRecords(List.<String[]>of(fields));
+        synchronized (this) {
+            if (!closed) {
+                markDirty(fields[0], new Change(updateKind(pending.get(fields[0])), fields.clone()));
+                return;
+            }
+        }
+        // Any pending insert of the record must reach the store before the update does
+        flush();
+        delegate.update(fields);
+    }
+
+    /**
+     * Checks that no other process has written any of several records since they were read,
+     * and marks the updated records as dirty, so that they are written together by the next flush.
+     *
+     * @param records The fields of each updated record
+     * @throws RecordConflictException If another process wrote one of the records first, in which
+     * case none of them is marked
+     * @throws IOException If the stored versions cannot be read, or the store is closed and the
+     * records cannot be written
+     */
+    @Override
+    public void updateAll(List<String[]> records) throws IOException {
+        checkRecords(records);
+        synchronized (this) {
+            if (!closed) {
+                for (String[] fields : records) {
+                    markDirty(fields[0], new Change(updateKind(pending.get(fields[0])), fields.clone()));
+                }
+                return;
+            }
+        }
+        flush();
+        delegate.updateAll(records);
+    }
+
+    /**
+     * Marks a record as deleted, or deletes it straight through if the underlying store
+     * detects conflicts.
+     * <p>
+     * A record that was inserted and deleted before either change was written is simply
+     * forgotten.
+     * </p>
+     *
+     * @param key The key of the record to delete
+     * @throws RecordConflictException If the record is deleted straight through and another process wrote it first
+     * @throws IOException If the record is deleted straight through and cannot be deleted
+     */
+    @Override
+    public void delete(String key) throws IOException {
+        synchronized (this) {
+            if (!closed) {
+                Change previous = pending.get(key);
+                if (previous != null && previous.kind == ChangeKind.INSERT && !previous.writing) {
+                    pending.remove(key);
+                    return;
+                }
+                if (!checksConflicts) {
+                    markDirty(key, new Change(ChangeKind.DELETE, null));
+                    return;
+                }
+            }
+        }
+        flush();
+        delegate.delete(key);
+    }
+
+    /**
+     * Changes some fields of a record in the underlying store.
+     * <p>
+     * Any pending change is written first, and the underlying store then reads and writes the
+     * record in one step, so the change is applied to the latest version of the record. Reading
+     * the record goes to the disk whether or not the write does, so nothing would be saved by
+     * keeping the write back.
+     * </p>
+     *
+     * @param key The key of the record to change
+     * @param change Given the current fields of the record, returns the new fields
+     * @return true if the record was found and changed, false if there is no record with the key
+     * @throws IOException If the record cannot be read or written
+     */
+    @Override
+    public boolean modify(String key, UnaryOperator<String[]> change) throws IOException {
+        flush();
+        return delegate.modify(key, change);
+    }
+
+    /**
+     * Checks whether the underlying store rejects conflicting writes.
+     *
+     * @return true if the underlying store detects conflicts
+     */
+    @Override
+    public boolean detectsConflicts() {
+        return checksConflicts;
+    }
+
+    /**
+     * Checks the stored versions of some records against the versions last read, in the
+     * underlying store.
+     *
+     * @param keys The keys of the records about to be updated
+     * @throws RecordConflictException If another process has written or deleted one of the records
+     * @throws IOException If the stored versions cannot be read
+     */
+    @Override
+    public void checkUnchanged(List<String> keys) throws IOException {
+        delegate.checkUnchanged(keys);
+    }
+
+    /**
+     * Writes every pending change to the underlying store.
+     * <p>
+     * Changes are written in the order their records became dirty, and consecutive updates are
+     * written together in one write. A change rejected because another process wrote the same
+     * record first is dropped. Updates to a store that detects conflicts were checked when they
+     * were made, so only one overtaken since then, or an insert of a key another process added,
+     * can be dropped that way.
+     * If a write fails for any other reason, that change and every later one stay pending and
+     * are written by the next flush.
+     * </p>
+     *
+     * @throws IOException If a change cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<Map.Entry<String, Change>> batch;
+            synchronized (this) {
+                flushScheduled = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.entrySet().size());
+                for (Map.Entry<String, Change> entry : pending.entrySet()) {
+                    entry.getValue().writing = true;
+                    batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            for (int start = 0; start < batch.size(); ) {
+                int end = start;
+                while (end < batch.size() && batch.get(end).getValue().kind == ChangeKind.UPDATE) {
+                    end++;
+                }
+                if (end - start > 1) {
+                    writeUpdates(batch.subList(start, end));
+                    start = end;
+                } else {
+                    write(batch.get(start));
+                    start++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a run of pending updates to the underlying store in one write.
+     * <p>
+     * If another process wrote one of the records first, the batch is rejected as a whole,
+     * so the updates are written one at a time instead and only the conflicting ones are dropped.
+     * </p>
+     *
+     * @param updates The pending updates, by key
+     * @throws IOException If the updates cannot be written
+     */
+    private void writeUpdates(List<Map.Entry<String, Change>> updates) throws IOException {
+        List<String[]> records = new ArrayList<>(updates.size());
+        for (Map.Entry<String, Change> entry : updates) {
+            records.add(entry.getValue().fields);
+        }
+        try {
+            delegate.updateAll(records);
+        } catch (RecordConflictException e) {
+            for (Map.Entry<String, Change> entry : updates) {
+                write(entry);
+            }
+            return;
+        }
+        synchronized (this) {
+            for (Map.Entry<String, Change> entry : updates) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes one pending change to the underlying store.
+     *
+     * @param entry The pending change, by key
+     * @throws IOException If the change cannot be written
+     */
+    private void write(Map.Entry<String, Change> entry) throws IOException {
+        Change change = entry.getValue();
+        try {
+            switch (change.kind) {
+                case INSERT:
+                    delegate.insert(change.fields);
+                    break;
+                case UPDATE:
+                    delegate.update(change.fields);
+                    break;
+                case DELETE:
+                    delegate.delete(entry.getKey());
+                    break;
+            }
+        } catch (RecordConflictException e) {
+            // Retrying cannot succeed, so the change is dropped in favour of the other session's
+            System.out.println("Change to " + table.getTableName() + " was not saved: " + e.getMessage());
+        }
+        synchronized (this) {
+            // Only forget the change if the record was not changed again meanwhile
+            pending.remove(entry.getKey(), change);
+        }
+    }
+
+    /**
+     * Writes every pending change, and writes later changes straight through.
+     *
+     * @throws IOException If a pending change cannot be written
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    /**
+     * Gets the table stored here.
+     *
+     * @return The table
+     */
+    public DataTable getTable() {
+        return table;
+    }
+
+    /**
+     * Gets the kind of change that records an update, given the change already pending.
+     * <p>
+     * An update to a record that was inserted but not yet written is still an insert, unless
+     * the flusher has already started writing the insert.
+     * </p>
+     *
+     * @param previous The pending change for the record, or null if it is not dirty
+     * @return The kind of change for the update
+     */
+    private static ChangeKind updateKind(Change previous) {
+        return previous != null && previous.kind == ChangeKind.INSERT && !previous.writing
+                ? ChangeKind.INSERT : ChangeKind.UPDATE;
+    }
+
+    /**
+     * Checks updated records against the versions in the underlying store, if it detects conflicts.
+     * <p>
+     * A record whose insert is still pending is not in the underlying store yet, so it is not checked.
+     * </p>
+     *
+     * @param records The fields of each updated record
+     * @throws RecordConflictException If another process has written or deleted one of the records
+     * @throws IOException If the stored versions cannot be read
+     */
+    private void checkRecords(List<String[]> records) throws IOException {
+        if (!checksConflicts) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(records.size());
+        synchronized (this) {
+            for (String[] fields : records) {
+                if (updateKind(pending.get(fields[0])) != ChangeKind.INSERT) {
+                    keys.add(fields[0]);
+                }
+            }
+        }
+        if (!keys.isEmpty()) {
+            delegate.checkUnchanged(keys);
+        }
+    }
+
+    /**
+     * Records a pending change, handing a flush to the flusher thread if enough records are dirty.
+     * Must be called while holding this store's lock.
+     *
+     * @param key The key of the record
+     * @param change The change
+     */
+    private void markDirty(String key, Change change) {
+        // A record that is already dirty keeps its place, so inserts are written in the order they were made
+        pending.put(key, change);
+        if (pending.size() >= threshold && !flushScheduled) {
+            flushScheduled = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
+
+    /**
+     * Flushes the store, logging rather than throwing any error.
+     */
+    void flushInBackground() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error writing changes to " + table.getTableName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package server;
+
+/**
+ * Thrown by an endpoint of the HTTP service to reject a request.
+ * <p>
+ * The status code is sent back to the client together with the message, and with anything
+ * the controllers printed while the request was handled.
+ * </p>
+ */
+public class ApiException extends Exception {
+    /** Version of the serialized form of this exception */
+    private static final long serialVersionUID = 1L;
+
+    /** The HTTP status code to send */
+    private final int status;
+
+    /**
+     * Constructs an exception that rejects a request.
+     *
+     * @param status The HTTP status code to send
+     * @param message A description of why the request was rejected
+     */
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Gets the HTTP status code to send.
+     *
+     * @return The status code
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,192 @@
+package server;
+
+import model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request to the HTTP service, after its path, query and body have been parsed.
+ */
+public class ApiRequest {
+    /** The values of the variable segments of the path, in order */
+    private final List<String> pathParameters;
+
+    /** The decoded query parameters */
+    private final Map<String, String> query;
+
+    /** The JSON body, which is empty if the request had none */
+    private final Map<String, Object> body;
+
+    /** The session of the signed-in user, or null for a request that needs none */
+    private final Session session;
+
+    /**
+     * Constructs a parsed request.
+     *
+     * @param pathParameters The values of the variable segments of the path, in order
+     * @param query The decoded query parameters
+     * @param body The JSON body
+     * @param session The session of the signed-in user, or null for a request that needs none
+     */
+    public ApiRequest(List<String> pathParameters, Map<String, String> query, Map<String, Object> body,
+                      Session session) {
+        this.pathParameters = pathParameters;
+        this.query = query;
+        this.body = body;
+        this.session = session;
+    }
+
+    /**
+     * Gets the session of the signed-in user.
+     *
+     * @return The session, or null for a request that needs none
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the signed-in user.
+     *
+     * @return The user, or null for a request that needs no session
+     */
+    public User getUser() {
+        return session == null ? null : session.getUser();
+    }
+
+    /**
+     * Gets the value of a variable segment of the path, such as the ID in /api/applications/{id}.
+     *
+     * @param index The index of the variable segment, counting from 0
+     * @return The value of the segment
+     */
+    public String getPathParameter(int index) {
+        return pathParameters.get(index);
+    }
+
+    /**
+     * Gets a query parameter.
+     *
+     * @param name The name of the parameter
+     * @return The value, or null if the parameter is missing or empty
+     */
+    public String getQuery(String name) {
+        String value = query.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Gets a text field of the body that must be present.
+     *
+     * @param name The name of the field
+     * @return The value of the field
+     * @throws ApiException If the field is missing or empty
+     */
+    public String getString(String name) throws ApiException {
+        Object value = body.get(name);
+        if (value == null || value.toString().isBlank()) {
+            throw new ApiException(400, "Missing field: " + name);
+        }
+        return value.toString().trim();
+    }
+
+    /**
+     * Gets a true or false field of the body that must be present.
+     *
+     * @param name The name of the field
+     * @return The value of the field
+     * @throws ApiException If the field is missing or not a boolean
+     */
+    public boolean getBoolean(String name) throws ApiException {
+        Object value = body.get(name);
+        if (!(value instanceof Boolean)) {
+            throw new ApiException(400, "Field " + name + " must be true or false");
+        }
+        return (Boolean) value;
+    }
+
+    /**
+     * Checks whether the body has a field.
+     *
+     * @param name The name of the field
+     * @return true if the field is present and not null
+     */
+    public boolean has(String name) {
+        return body.get(name) != null;
+    }
+
+    /**
+     * Gets a whole-number field of the body that must be present.
+     *
+     * @param name The name of the field
+     * @return The value of the field
+     * @throws ApiException If the field is missing or not a whole number
+     */
+    public int getInt(String name) throws ApiException {
+        long value = getLong(name);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ApiException(400, "Field " + name + " is out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Gets a whole-number field of the body that must be present, allowing values too large for an int.
+     *
+     * @param name The name of the field
+     * @return The value of the field
+     * @throws ApiException If the field is missing or not a whole number
+     */
+    public long getLong(String name) throws ApiException {
+        Object value = body.get(name);
+        if (!(value instanceof Long)) {
+            throw new ApiException(400, "Field " + name + " must be a whole number");
+        }
+        return (Long) value;
+    }
+
+    /**
+     * Gets a field of the body that must be an array of text.
+     *
+     * @param name The name of the field
+     * @return The elements of the array, trimmed
+     * @throws ApiException If the field is missing or not an array of text
+     */
+    public List<String> getStringList(String name) throws ApiException {
+        Object value = body.get(name);
+        if (!(value instanceof List)) {
+            throw new ApiException(400, "Field " + name + " must be an array");
+        }
+        List<String> values = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (!(element instanceof String)) {
+                throw new ApiException(400, "Field " + name + " must hold only text");
+            }
+            values.add(((String) element).trim());
+        }
+        return values;
+    }
+
+    /**
+     * Converts text sent by the client into a constant of an enum.
+     *
+     * @param type The enum type
+     * @param value The text sent by the client, or null
+     * @param name The name of the field or parameter, used in the error message
+     * @param <E> The enum type
+     * @return The constant, or null if the value is null
+     * @throws ApiException If the value names no constant of the enum
+     */
+    public static <E extends Enum<E>> E toEnum(Class<E> type, String value, String name) throws ApiException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,717 @@
+package server;
+
+import controller.ApplicantController;
+import controller.ApplicationController;
+import controller.BallotController;
+import controller.BallotSimulationController;
+import controller.EnquiryController;
+import controller.HDBManagerController;
+import controller.HDBOfficerController;
+import controller.PasswordController;
+import controller.ReportController;
+import controller.ReportCube;
+import controller.SignInController;
+import enums.ApplicantAppStatus;
+import enums.FlatType;
+import enums.ReportType;
+import enums.Role;
+import enums.WithdrawalStatus;
+import model.Applicant;
+import model.Application;
+import model.BallotWeight;
+import model.Enquiry;
+import model.Manager;
+import model.Officer;
+import model.Project;
+import model.ReportSpec;
+import model.User;
+import repository.ApplicationRepository;
+import repository.EnquiryRepository;
+import repository.ProjectRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The endpoints of the HTTP service.
+ * <p>
+ * Each endpoint checks the request, calls the same controller methods as the interactive
+ * menus, and turns the result into maps and lists that are written as JSON. Controllers are
+ * created for each request, as they are by the menus, so requests share no state except
+ * through the repositories.
+ * </p>
+ * <p>
+ * The endpoints are:
+ * </p>
+ * <ul>
+ *     <li>POST sessions: sign in with "nric" and "password", returning a bearer token</li>
+ *     <li>DELETE sessions: sign out</li>
+ *     <li>POST password: change the password to "newPassword"</li>
+ *     <li>GET projects: list the projects the user may see, filtered by "neighbourhood",
+ *     "flatType" and, for managers, "mine"</li>
+ *     <li>GET applications: list the user's applications</li>
+ *     <li>POST applications: apply for "flatType" in "projectID"</li>
+ *     <li>POST applications/withdrawal: ask to withdraw the user's application</li>
+ *     <li>GET enquiries: list the enquiries the user may see</li>
+ *     <li>POST enquiries: submit "text" about "projectID"</li>
+ *     <li>POST enquiries/{id}/reply: reply to an enquiry with "reply"</li>
+ *     <li>GET approvals/applications and approvals/withdrawals: list what waits for a manager's decision</li>
+ *     <li>POST applications/{id}/decision and applications/{id}/withdrawal-decision: approve
+ *     or reject with "approve"</li>
+ *     <li>GET reports/applications: list applications filtered by "project", "status",
+ *     "withdrawal" and "flatType"</li>
+ *     <li>GET reports/projects: summarise projects filtered by "project" and "neighbourhood"</li>
+ * </ul>
+ */
+public class BTOApi {
+    /** The password every account starts with, which must be changed */
+    private static final String DEFAULT_PASSWORD = "password";
+
+    /**
+     * Adds every endpoint to a server.
+     *
+     * @param server The server to add the endpoints to
+     */
+    public static void register(BTOServer server) {
+        server.addPublicRoute("POST", "sessions", request -> signIn(server.getSessions(), request));
+        server.addRoute("DELETE", "sessions", request -> {
+            server.getSessions().close(request.getSession());
+            return null;
+        });
+        server.addRoute("POST", "password", BTOApi::changePassword);
+
+        server.addRoute("GET", "projects", BTOApi::listProjects);
+
+        server.addRoute("GET", "applications", BTOApi::listApplications, Role.APPLICANT, Role.HDBOFFICER);
+        server.addRoute("POST", "applications", BTOApi::submitApplication, Role.APPLICANT, Role.HDBOFFICER);
+        server.addRoute("POST", "applications/withdrawal", BTOApi::requestWithdrawal,
+                Role.APPLICANT, Role.HDBOFFICER);
+
+        server.addRoute("GET", "enquiries", BTOApi::listEnquiries);
+        server.addRoute("POST", "enquiries", BTOApi::submitEnquiry, Role.APPLICANT, Role.HDBOFFICER);
+        server.addRoute("POST", "enquiries/{id}/reply", BTOApi::replyToEnquiry, Role.HDBOFFICER, Role.HDBMANAGER);
+
+        server.addRoute("GET", "approvals/applications", BTOApi::listPendingApplications, Role.HDBMANAGER);
+        server.addRoute("GET", "approvals/withdrawals", BTOApi::listPendingWithdrawals, Role.HDBMANAGER);
+        server.addRoute("POST", "applications/{id}/decision", BTOApi::decideApplication, Role.HDBMANAGER);
+        server.addRoute("POST", "applications/decisions", BTOApi::decideApplications, Role.HDBMANAGER);
+        server.addRoute("POST", "ballots", BTOApi::runBallot, Role.HDBMANAGER);
+        server.addRoute("POST", "ballots/simulations", BTOApi::simulateBallot, Role.HDBMANAGER);
+        server.addRoute("POST", "applications/{id}/withdrawal-decision", BTOApi::decideWithdrawal, Role.HDBMANAGER);
+
+        server.addRoute("GET", "reports/applications", BTOApi::applicationReport, Role.HDBMANAGER);
+        server.addRoute("GET", "reports/projects", BTOApi::projectReport, Role.HDBMANAGER);
+    }
+
+    /**
+     * Signs a user in and opens a session.
+     *
+     * @param sessions The sessions of signed-in users
+     * @param request The request, with "nric" and "password"
+     * @return The token and the user's details
+     * @throws ApiException If the credentials are wrong
+     */
+    private static Object signIn(SessionRegistry sessions, ApiRequest request) throws ApiException {
+        String nric = request.getString("nric");
+        String password = request.getString("password");
+        if (!SignInController.isValidNRICFormat(nric)) {
+            throw new ApiException(400, "Invalid NRIC format.");
+        }
+
+        User user = SignInController.authenticate(nric, password);
+        if (user == null) {
+            throw new ApiException(401, "Wrong NRIC or password.");
+        }
+
+        Session session = sessions.open(user);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("token", session.getToken());
+        result.put("user", toJson(user));
+        result.put("mustChangePassword", password.equals(DEFAULT_PASSWORD));
+        return result;
+    }
+
+    /**
+     * Changes the signed-in user's password.
+     *
+     * @param request The request, with "newPassword"
+     * @return null
+     * @throws ApiException If the new password is the default one or cannot be saved
+     */
+    private static Object changePassword(ApiRequest request) throws ApiException {
+        String newPassword = request.getString("newPassword");
+        if (newPassword.equals(DEFAULT_PASSWORD)) {
+            throw new ApiException(422, "The password cannot be the default 'password'.");
+        }
+        if (!new PasswordController().changePassword(request.getUser().getNRIC(), newPassword)) {
+            throw new ApiException(422, "Password was not changed.");
+        }
+        return null;
+    }
+
+    /**
+     * Lists the projects the signed-in user may see, using the project list of their role.
+     *
+     * @param request The request, optionally with "neighbourhood", "flatType" and "mine" query parameters
+     * @return The projects
+     * @throws ApiException If the flat type is not valid
+     */
+    private static Object listProjects(ApiRequest request) throws ApiException {
+        User user = request.getUser();
+        String neighbourhood = request.getQuery("neighbourhood");
+        FlatType flatType = ApiRequest.toEnum(FlatType.class, request.getQuery("flatType"), "flatType");
+
+        List<Project> projects;
+        if (user instanceof Manager) {
+            String mine = "true".equalsIgnoreCase(request.getQuery("mine")) ? "Y" : "N";
+            projects = new HDBManagerController().listProject((Manager) user, neighbourhood, mine);
+        } else if (user instanceof Officer) {
+            projects = new HDBOfficerController().listProject((Officer) user, neighbourhood, flatType);
+        } else {
+            projects = new ApplicantController().listProject((Applicant) user, neighbourhood, flatType);
+        }
+
+        boolean staff = user.getRole() != Role.APPLICANT;
+        List<Object> result = new ArrayList<>();
+        for (Project project : projects) {
+            result.add(toJson(project, staff));
+        }
+        return result;
+    }
+
+    /**
+     * Lists the signed-in user's applications.
+     *
+     * @param request The request
+     * @return The applications
+     * @throws IOException If the applications cannot be read
+     */
+    private static Object listApplications(ApiRequest request) throws IOException {
+        return toJson(new ApplicationRepository().findApplicationsByNRIC(request.getUser().getNRIC()));
+    }
+
+    /**
+     * Submits an application for the signed-in user.
+     * <p>
+     * The same checks are made as when applying from the menu: the user must be eligible,
+     * the project must be one they may apply for, and units of the flat type must be left.
+     * </p>
+     *
+     * @param request The request, with "projectID" and "flatType"
+     * @return The new application
+     * @throws ApiException If the application is not accepted
+     * @throws IOException If the applications cannot be read
+     */
+    private static Object submitApplication(ApiRequest request) throws ApiException, IOException {
+        Applicant applicant = (Applicant) request.getUser();
+        String projectID = request.getString("projectID");
+        FlatType flatType = ApiRequest.toEnum(FlatType.class, request.getString("flatType"), "flatType");
+
+        ApplicantController applicantController = new ApplicantController();
+        if (!applicantController.isEligible(applicant)) {
+            throw new ApiException(422, "Not eligible to apply.");
+        }
+
+        Project project = applicantController.listProject(applicant, null, null).stream()
+                .filter(p -> p.getProjectID().equals(projectID))
+                .findFirst()
+                .orElse(null);
+        if (project == null) {
+            throw new ApiException(404, "Project " + projectID + " is not open to you.");
+        }
+        if (project.getUnitsForFlatType(flatType) <= 0) {
+            throw new ApiException(422, "No units of " + flatType + " are available in " + projectID + ".");
+        }
+
+        if (!new ApplicationController().submitApplication(applicant, project, flatType)) {
+            throw new ApiException(422, "Application was not submitted.");
+        }
+
+        // The new application is the user's only one for the project that is still pending
+        for (Application application : new ApplicationRepository().findApplications(projectID,
+                applicant.getNRIC(), ApplicantAppStatus.PENDING, WithdrawalStatus.NULL)) {
+            return toJson(application);
+        }
+        return null;
+    }
+
+    /**
+     * Asks to withdraw the signed-in user's application.
+     *
+     * @param request The request
+     * @return null
+     * @throws ApiException If the user has no application to withdraw
+     */
+    private static Object requestWithdrawal(ApiRequest request) throws ApiException {
+        if (!new ApplicationController().submitWithdrawal(request.getUser())) {
+            throw new ApiException(422, "Withdrawal was not submitted.");
+        }
+        return null;
+    }
+
+    /**
+     * Lists the enquiries the signed-in user may see: their own for an applicant, those of
+     * their projects for an officer, and all of them for a manager.
+     *
+     * @param request The request
+     * @return The enquiries
+     */
+    private static Object listEnquiries(ApiRequest request) {
+        List<Object> result = new ArrayList<>();
+        for (Enquiry enquiry : new EnquiryRepository().getEnquiriesByUserType(request.getUser())) {
+            result.add(toJson(enquiry));
+        }
+        return result;
+    }
+
+    /**
+     * Submits an enquiry for the signed-in user.
+     *
+     * @param request The request, with "projectID" and "text"
+     * @return The new enquiry
+     * @throws ApiException If the enquiry is not saved
+     * @throws IOException If the project cannot be read
+     */
+    private static Object submitEnquiry(ApiRequest request) throws ApiException, IOException {
+        String projectID = request.getString("projectID");
+        if (new ProjectRepository().findProjectById(projectID) == null) {
+            throw new ApiException(404, "Project " + projectID + " does not exist.");
+        }
+        Enquiry enquiry = new EnquiryController().submitEnquiry(request.getUser(), projectID, request.getString("text"));
+        if (enquiry == null) {
+            throw new ApiException(422, "Enquiry was not submitted.");
+        }
+        return toJson(enquiry);
+    }
+
+    /**
+     * Replies to an enquiry the signed-in officer or manager may see.
+     *
+     * @param request The request, with the enquiry ID in the path and "reply"
+     * @return null
+     * @throws ApiException If the enquiry is not found or the reply is not saved
+     */
+    private static Object replyToEnquiry(ApiRequest request) throws ApiException {
+        String enquiryID = request.getPathParameter(0);
+        String reply = request.getString("reply");
+        boolean visible = new EnquiryRepository().getEnquiriesByUserType(request.getUser()).stream()
+                .anyMatch(enquiry -> enquiry.getEnquiryID().equals(enquiryID));
+        if (!visible) {
+            throw new ApiException(404, "Enquiry " + enquiryID + " not found.");
+        }
+        if (!new EnquiryController().replyToEnquiry(request.getUser(), enquiryID, reply)) {
+            throw new ApiException(422, "Reply was not submitted.");
+        }
+        return null;
+    }
+
+    /**
+     * Lists the pending applications for the signed-in manager's active project.
+     *
+     * @param request The request
+     * @return The applications
+     * @throws ApiException If the manager has no active project
+     */
+    private static Object listPendingApplications(ApiRequest request) throws ApiException {
+        HDBManagerController managerController = new HDBManagerController();
+        Project project = managedProject(managerController, request);
+        return toJson(managerController.getPendingApplicationsByProject(project));
+    }
+
+    /**
+     * Lists the pending withdrawals for the signed-in manager's active project.
+     *
+     * @param request The request
+     * @return The applications
+     * @throws ApiException If the manager has no active project
+     * @throws IOException If the applications cannot be read
+     */
+    private static Object listPendingWithdrawals(ApiRequest request) throws ApiException, IOException {
+        Project project = managedProject(new HDBManagerController(), request);
+        return toJson(new ApplicationRepository().findApplications(project.getProjectID(), null, null,
+                WithdrawalStatus.PENDING));
+    }
+
+    /**
+     * Approves or rejects an application for the signed-in manager's project.
+     *
+     * @param request The request, with the application ID in the path and "approve"
+     * @return The updated application
+     * @throws ApiException If the application is not found or cannot be decided on
+     * @throws IOException If the application cannot be read
+     */
+    private static Object decideApplication(ApiRequest request) throws ApiException, IOException {
+        Application application = findApplication(request.getPathParameter(0));
+        if (!new HDBManagerController().decideApplication((Manager) request.getUser(), application,
+                request.getBoolean("approve"))) {
+            throw new ApiException(422, "Application was not updated.");
+        }
+        return toJson(application);
+    }
+
+    /**
+     * Approves or rejects many pending applications for the signed-in manager's project at once.
+     *
+     * @param request The request, with "approve" and one of "ids" (a list of application IDs),
+     *                "flatType" or "first" (a number of applications in submission order)
+     * @return The number of applications decided on and the selected applications
+     * @throws ApiException If the selection is missing or not valid, or no application was decided on
+     */
+    private static Object decideApplications(ApiRequest request) throws ApiException {
+        HDBManagerController managerController = new HDBManagerController();
+        Project project = managedProject(managerController, request);
+        boolean approve = request.getBoolean("approve");
+        List<Application> pending = managerController.getPendingApplicationsByProject(project);
+
+        List<Application> selected = new ArrayList<>();
+        if (request.has("ids")) {
+            Map<String, Application> pendingByID = new LinkedHashMap<>();
+            for (Application application : pending) {
+                pendingByID.put(application.getApplicationID(), application);
+            }
+            for (String id : request.getStringList("ids")) {
+                Application application = pendingByID.get(id);
+                if (application == null) {
+                    throw new ApiException(404, "Application " + id + " is not pending for your project.");
+                }
+                selected.add(application);
+            }
+        } else if (request.has("flatType")) {
+            FlatType flatType = ApiRequest.toEnum(FlatType.class, request.getString("flatType"), "flatType");
+            for (Application application : pending) {
+                if (application.getFlatType() == flatType) {
+                    selected.add(application);
+                }
+            }
+        } else if (request.has("first")) {
+            int first = request.getInt("first");
+            if (first <= 0) {
+                throw new ApiException(400, "Field first must be greater than 0");
+            }
+            selected.addAll(pending.subList(0, Math.min(first, pending.size())));
+        } else {
+            throw new ApiException(400, "Missing field: one of ids, flatType or first");
+        }
+
+        int decided = managerController.decideApplications((Manager) request.getUser(), selected, approve);
+        if (decided == 0) {
+            throw new ApiException(422, "No applications were updated.");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("decided", decided);
+        result.put("applications", toJson(selected));
+        return result;
+    }
+
+    /**
+     * Runs the ballot for every flat type of the signed-in manager's project.
+     *
+     * @param request The request, optionally with "seed" to repeat an earlier ballot
+     * @return The seed used and the outcome for each flat type
+     * @throws ApiException If the manager has no active project or the ballot could not be saved
+     */
+    private static Object runBallot(ApiRequest request) throws ApiException {
+        Project project = managedProject(new HDBManagerController(), request);
+        long seed = request.has("seed") ? request.getLong("seed") : new SplittableRandom().nextLong();
+        List<BallotController.BallotResult> results = new BallotController().runBallots(List.of(project), seed);
+        if (results == null) {
+            throw new ApiException(500, "Ballot was not completed.");
+        }
+
+        List<Object> draws = new ArrayList<>();
+        for (BallotController.BallotResult result : results) {
+            Map<String, Object> draw = new LinkedHashMap<>();
+            draw.put("projectID", result.getProject().getProjectID());
+            draw.put("flatType", result.getFlatType());
+            draw.put("applicants", result.getApplicants());
+            draw.put("available", result.getAvailable());
+            draw.put("successful", result.getSuccessful().size());
+            draw.put("unsuccessful", result.getUnsuccessful().size());
+            draws.add(draw);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("seed", seed);
+        response.put("draws", draws);
+        return response;
+    }
+
+    /**
+     * Simulates the ballot for every flat type of the signed-in manager's project without changing any application.
+     *
+     * @param request The request, optionally with "simulations" and "seed"
+     * @return The seed used and, for each flat type, the chance of success of each group of applicants
+     * @throws ApiException If the manager has no active project, the number of simulations is out of range
+     * or the applications could not be read
+     */
+    private static Object simulateBallot(ApiRequest request) throws ApiException {
+        Project project = managedProject(new HDBManagerController(), request);
+        int simulations = request.has("simulations") ? request.getInt("simulations")
+                : BallotSimulationController.DEFAULT_SIMULATIONS;
+        if (simulations < 1 || simulations > BallotSimulationController.MAX_SIMULATIONS) {
+            throw new ApiException(400, "simulations must be between 1 and "
+                    + BallotSimulationController.MAX_SIMULATIONS + ".");
+        }
+        long seed = request.has("seed") ? request.getLong("seed") : new SplittableRandom().nextLong();
+        List<BallotSimulationController.SimulationResult> results =
+                new BallotSimulationController().simulate(project, simulations, seed);
+        if (results == null) {
+            throw new ApiException(500, "Simulation was not completed.");
+        }
+
+        List<Object> ballots = new ArrayList<>();
+        for (BallotSimulationController.SimulationResult result : results) {
+            List<Object> groups = new ArrayList<>();
+            for (int group = 0; group < result.getGroupCount(); group++) {
+                List<String> rules = new ArrayList<>();
+                for (BallotWeight rule : result.getGroupRules(group)) {
+                    rules.add(rule.toString());
+                }
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("rules", rules);
+                entry.put("applicants", result.getGroupSize(group));
+                entry.put("weight", result.getGroupWeight(group));
+                entry.put("successChance", result.getSuccessChance(group));
+                entry.put("winnersP5", result.getWinnersPercentile(group, 5));
+                entry.put("winnersMedian", result.getWinnersPercentile(group, 50));
+                entry.put("winnersP95", result.getWinnersPercentile(group, 95));
+                groups.add(entry);
+            }
+            Map<String, Object> ballot = new LinkedHashMap<>();
+            ballot.put("projectID", result.getProject().getProjectID());
+            ballot.put("flatType", result.getFlatType());
+            ballot.put("applicants", result.getApplicants());
+            ballot.put("available", result.getAvailable());
+            ballot.put("groups", groups);
+            ballots.add(ballot);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("seed", seed);
+        response.put("simulations", simulations);
+        response.put("ballots", ballots);
+        return response;
+    }
+
+    /**
+     * Approves or rejects a withdrawal for the signed-in manager's project.
+     *
+     * @param request The request, with the application ID in the path and "approve"
+     * @return The updated application
+     * @throws ApiException If the application is not found or cannot be decided on
+     * @throws IOException If the application cannot be read
+     */
+    private static Object decideWithdrawal(ApiRequest request) throws ApiException, IOException {
+        Application application = findApplication(request.getPathParameter(0));
+        if (!new HDBManagerController().decideWithdrawal((Manager) request.getUser(), application,
+                request.getBoolean("approve"))) {
+            throw new ApiException(422, "Withdrawal was not updated.");
+        }
+        return toJson(application);
+    }
+
+    /**
+     * Produces the application status report.
+     *
+     * @param request The request, optionally with "project", "status", "withdrawal" and "flatType" query parameters
+     * @return The matching applications and their number
+     * @throws ApiException If a filter is not valid
+     * @throws IOException If the applications cannot be read
+     */
+    private static Object applicationReport(ApiRequest request) throws ApiException, IOException {
+        ReportSpec spec = new ReportSpec(ReportType.APPLICATION_STATUS,
+                request.getQuery("project"),
+                null,
+                ApiRequest.toEnum(ApplicantAppStatus.class, request.getQuery("status"), "status"),
+                ApiRequest.toEnum(WithdrawalStatus.class, request.getQuery("withdrawal"), "withdrawal"),
+                ApiRequest.toEnum(FlatType.class, request.getQuery("flatType"), "flatType"));
+        List<Application> applications = new ReportController().generate(spec).getApplications();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", applications.size());
+        result.put("applications", toJson(applications));
+        return result;
+    }
+
+    /**
+     * Produces the project summary report.
+     *
+     * @param request The request, optionally with "project" and "neighbourhood" query parameters
+     * @return The inventory and application counts of each matching project
+     * @throws IOException If the projects or application counts cannot be read
+     */
+    private static Object projectReport(ApiRequest request) throws IOException {
+        ReportController.ReportResult report = new ReportController().generate(new ReportSpec(ReportType.PROJECT_SUMMARY,
+                request.getQuery("project"), request.getQuery("neighbourhood"), null, null, null));
+        ReportCube cube = report.getCube();
+
+        List<Object> result = new ArrayList<>();
+        for (Project project : report.getProjects()) {
+            String id = project.getProjectID();
+            List<Object> inventory = new ArrayList<>();
+            for (FlatType flatType : FlatType.values()) {
+                int totalUnits = project.getFlatTypeUnits().getOrDefault(flatType, 0);
+                long bookedUnits = cube.count(id, flatType, ApplicantAppStatus.BOOKED);
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("flatType", flatType);
+                row.put("totalUnits", totalUnits);
+                row.put("availableUnits", Math.max(0, totalUnits - bookedUnits));
+                row.put("bookedUnits", bookedUnits);
+                row.put("price", project.getFlatTypePrices().getOrDefault(flatType, 0.0));
+                inventory.add(row);
+            }
+
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            for (ApplicantAppStatus status : ApplicantAppStatus.values()) {
+                statistics.put(status.toString(), cube.count(id, null, status));
+            }
+            statistics.put("total", cube.count(id, null, null));
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("projectID", id);
+            summary.put("projectName", project.getProjectName());
+            summary.put("neighbourhood", project.getNeighborhood());
+            summary.put("inventory", inventory);
+            summary.put("applications", statistics);
+            result.add(summary);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the signed-in manager's active project.
+     *
+     * @param managerController The controller to look the project up with
+     * @param request The request
+     * @return The project
+     * @throws ApiException If the manager has no active project
+     */
+    private static Project managedProject(HDBManagerController managerController, ApiRequest request)
+            throws ApiException {
+        Project project = managerController.getManagedActiveProject((Manager) request.getUser());
+        if (project == null) {
+            throw new ApiException(404, "You have no active project.");
+        }
+        return project;
+    }
+
+    /**
+     * Finds an application by ID.
+     *
+     * @param applicationID The ID of the application
+     * @return The application
+     * @throws ApiException If there is no such application
+     * @throws IOException If the applications cannot be read
+     */
+    private static Application findApplication(String applicationID) throws ApiException, IOException {
+        Application application = new ApplicationRepository().findApplicationById(applicationID);
+        if (application == null) {
+            throw new ApiException(404, "Application " + applicationID + " not found.");
+        }
+        return application;
+    }
+
+    /**
+     * Converts a user to the fields sent to clients, leaving out the password and security answer.
+     *
+     * @param user The user
+     * @return The user's fields
+     */
+    private static Map<String, Object> toJson(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("nric", user.getNRIC());
+        json.put("name", user.getName());
+        json.put("role", user.getRole());
+        json.put("age", user.getAge());
+        json.put("maritalStatus", user.getMaritalStatus());
+        return json;
+    }
+
+    /**
+     * Converts a project to the fields sent to clients.
+     *
+     * @param project The project
+     * @param staff Whether to include the fields only officers and managers may see
+     * @return The project's fields
+     */
+    private static Map<String, Object> toJson(Project project, boolean staff) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("projectID", project.getProjectID());
+        json.put("projectName", project.getProjectName());
+        json.put("neighbourhood", project.getNeighborhood());
+        json.put("applicationOpeningDate", project.getApplicationOpeningDate());
+        json.put("applicationClosingDate", project.getApplicationClosingDate());
+
+        Map<String, Object> flatTypes = new LinkedHashMap<>();
+        for (FlatType flatType : FlatType.values()) {
+            if (project.getFlatTypePrices().containsKey(flatType) || project.getFlatTypeUnits().containsKey(flatType)) {
+                Map<String, Object> flat = new LinkedHashMap<>();
+                flat.put("units", project.getUnitsForFlatType(flatType));
+                flat.put("price", project.getPriceForFlatType(flatType));
+                flatTypes.put(flatType.toString(), flat);
+            }
+        }
+        json.put("flatTypes", flatTypes);
+
+        if (staff) {
+            json.put("visibility", project.getVisibility());
+            json.put("managerID", project.getManagerID());
+            json.put("officerSlot", project.getOfficerSlot());
+            json.put("officerIDs", project.getOfficerIDs());
+        }
+        return json;
+    }
+
+    /**
+     * Converts applications to the fields sent to clients.
+     *
+     * @param applications The applications
+     * @return The fields of each application
+     */
+    private static List<Object> toJson(List<Application> applications) {
+        List<Object> json = new ArrayList<>();
+        for (Application application : applications) {
+            json.add(toJson(application));
+        }
+        return json;
+    }
+
+    /**
+     * Converts an application to the fields sent to clients.
+     *
+     * @param application The application
+     * @return The application's fields
+     */
+    private static Map<String, Object> toJson(Application application) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("applicationID", application.getApplicationID());
+        json.put("nric", application.getUser().getNRIC());
+        json.put("name", application.getUser().getName());
+        json.put("projectID", application.getProject().getProjectID());
+        json.put("projectName", application.getProject().getProjectName());
+        json.put("flatType", application.getFlatType());
+        json.put("applicationStatus", application.getApplicationStatus());
+        json.put("withdrawalStatus", application.getWithdrawalStatus());
+        return json;
+    }
+
+    /**
+     * Converts an enquiry to the fields sent to clients.
+     *
+     * @param enquiry The enquiry
+     * @return The enquiry's fields
+     */
+    private static Map<String, Object> toJson(Enquiry enquiry) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("enquiryID", enquiry.getEnquiryID());
+        json.put("applicantID", enquiry.getApplicantID());
+        json.put("projectID", enquiry.getProjectID());
+        json.put("text", enquiry.getEnquiryText());
+        json.put("reply", enquiry.getEnquiryReply());
+        json.put("status", enquiry.getEnquiryStatus());
+        json.put("replyingOfficerID", enquiry.getReplyingOfficerID());
+        return json;
+    }
+}
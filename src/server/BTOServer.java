@@ -0,0 +1,390 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import enums.Role;
+import helper.JsonUtil;
+import helper.SessionConsole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the BTO system as JSON over HTTP, so that many users can be served by one process.
+ * <p>
+ * The server uses the JDK's built-in HTTP server, and handles every request on its own
+ * virtual thread, so a request waiting on the disk or on another user's lock does not hold
+ * up the others. Endpoints are registered with {@link #addRoute} and run the same
+ * controller methods as the interactive menus.
+ * </p>
+ * <p>
+ * Every response is a JSON object. A successful request returns the endpoint's data under
+ * "data", and a rejected one returns a description under "error". Both carry under
+ * "messages" whatever the controllers printed while the request was handled, which is how
+ * they explain, for example, why an application was not accepted.
+ * </p>
+ * <p>
+ * Apart from signing in, requests must carry the token returned by sign-in in an
+ * "Authorization: Bearer" header. Request bodies larger than {@link #MAX_BODY_BYTES} are
+ * rejected with status 413, and bodies that are not a JSON object, or nest objects and arrays
+ * too deeply, with status 400.
+ * </p>
+ */
+public class BTOServer {
+    /** Number of connections the operating system queues while all are being accepted */
+    private static final int BACKLOG = 1024;
+
+    /** Prefix of every endpoint path */
+    private static final String CONTEXT = "/api/";
+
+    /** The largest request body accepted, in bytes */
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    /**
+     * An endpoint of the service.
+     */
+    private static class Route {
+        /** The HTTP method */
+        private final String method;
+
+        /** The segments of the path, where "{}" matches any single segment */
+        private final String[] segments;
+
+        /** The roles allowed to call the endpoint, or null if no session is needed */
+        private final Set<Role> roles;
+
+        /** The code that handles the request */
+        private final RouteInterface handler;
+
+        /**
+         * Constructs an endpoint.
+         *
+         * @param method The HTTP method
+         * @param segments The segments of the path
+         * @param roles The roles allowed to call the endpoint, or null if no session is needed
+         * @param handler The code that handles the request
+         */
+        private Route(String method, String[] segments, Set<Role> roles, RouteInterface handler) {
+            this.method = method;
+            this.segments = segments;
+            this.roles = roles;
+            this.handler = handler;
+        }
+
+        /**
+         * Matches the segments of a request path against the endpoint's path.
+         *
+         * @param path The segments of the request path
+         * @return The values of the variable segments, or null if the path does not match
+         */
+        private List<String> match(String[] path) {
+            if (path.length != segments.length) {
+                return null;
+            }
+            List<String> parameters = new ArrayList<>();
+            for (int i = 0; i < path.length; i++) {
+                if (segments[i].equals("{}")) {
+                    parameters.add(path[i]);
+                } else if (!segments[i].equals(path[i])) {
+                    return null;
+                }
+            }
+            return parameters;
+        }
+    }
+
+    /** The sessions of signed-in users */
+    private final SessionRegistry sessions;
+
+    /** The endpoints, in the order they were added */
+    private final List<Route> routes = new ArrayList<>();
+
+    /** The running HTTP server, or null if it is not running */
+    private HttpServer server = null;
+
+    /** The executor that gives each request its own virtual thread */
+    private ExecutorService executor = null;
+
+    /**
+     * Constructs a server with no endpoints.
+     *
+     * @param sessions The sessions of signed-in users
+     */
+    public BTOServer(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Gets the sessions of signed-in users.
+     *
+     * @return The session registry
+     */
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Adds an endpoint that can be called without signing in.
+     *
+     * @param method The HTTP method, such as GET or POST
+     * @param path The path below /api/, where {name} matches any single segment
+     * @param handler The code that handles the request
+     */
+    public void addPublicRoute(String method, String path, RouteInterface handler) {
+        routes.add(new Route(method, split(path), null, handler));
+    }
+
+    /**
+     * Adds an endpoint that needs a signed-in user.
+     *
+     * @param method The HTTP method, such as GET or POST
+     * @param path The path below /api/, where {name} matches any single segment
+     * @param handler The code that handles the request
+     * @param roles The roles allowed to call the endpoint, or none to allow every signed-in user
+     */
+    public void addRoute(String method, String path, RouteInterface handler, Role... roles) {
+        Set<Role> allowed = roles.length == 0 ? EnumSet.allOf(Role.class) : EnumSet.copyOf(Arrays.asList(roles));
+        routes.add(new Route(method, split(path), allowed, handler));
+    }
+
+    /**
+     * Starts serving requests.
+     *
+     * @param port The port to listen on, or 0 to pick any free port
+     * @throws IOException If the port cannot be opened
+     */
+    public synchronized void start(int port) throws IOException {
+        SessionConsole.install();
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(CONTEXT, this::handle);
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, and waits a few seconds for those already started to finish.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.out.println("Error stopping server: requests were still running.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The port, or -1 if the server is not running
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Handles one request, on its own virtual thread.
+     *
+     * @param exchange The request and its response
+     * @throws IOException If the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        PrintStream previous = SessionConsole.redirect(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        int status;
+        Map<String, Object> response = new LinkedHashMap<>();
+        try {
+            response.put("data", dispatch(exchange));
+            status = 200;
+        } catch (ApiException e) {
+            status = e.getStatus();
+            response.put("error", e.getMessage());
+        } catch (RuntimeException | StackOverflowError e) {
+            status = 500;
+            response.put("error", "Internal error");
+            SessionConsole.redirect(previous);
+            System.out.println("Error handling " + exchange.getRequestURI().getPath() + ": " + e);
+        } finally {
+            SessionConsole.redirect(previous);
+        }
+        response.put("messages", lines(printed.toString(StandardCharsets.UTF_8)));
+        send(exchange, status, response);
+    }
+
+    /**
+     * Finds the endpoint for a request, checks the caller may use it and runs it.
+     *
+     * @param exchange The request
+     * @return The data returned by the endpoint
+     * @throws ApiException If the request is rejected
+     * @throws IOException If the request cannot be read, or data cannot be read or written
+     */
+    private Object dispatch(HttpExchange exchange) throws ApiException, IOException {
+        String[] path = split(exchange.getRequestURI().getPath().substring(CONTEXT.length()));
+        Route route = null;
+        List<String> parameters = null;
+        boolean pathFound = false;
+        for (Route candidate : routes) {
+            List<String> matched = candidate.match(path);
+            if (matched != null) {
+                pathFound = true;
+                if (candidate.method.equalsIgnoreCase(exchange.getRequestMethod())) {
+                    route = candidate;
+                    parameters = matched;
+                    break;
+                }
+            }
+        }
+        if (route == null) {
+            throw pathFound ? new ApiException(405, "Method not allowed") : new ApiException(404, "Not found");
+        }
+
+        Session session = null;
+        if (route.roles != null) {
+            session = sessions.find(bearerToken(exchange));
+            if (session == null) {
+                throw new ApiException(401, "Sign in first, and send the token as a bearer token");
+            }
+            if (!route.roles.contains(session.getUser().getRole())) {
+                throw new ApiException(403, "Not available to " + session.getUser().getRole());
+            }
+        }
+
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            // One byte more than allowed is enough to tell that a body is too large
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        Map<String, Object> body;
+        try {
+            body = JsonUtil.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid JSON: " + e.getMessage());
+        }
+        ApiRequest request = new ApiRequest(parameters, parseQuery(exchange.getRequestURI().getRawQuery()),
+                body, session);
+
+        if (session == null) {
+            return route.handler.handle(request);
+        }
+        // Requests of one user run one at a time, so repeated requests cannot race each other
+        session.getLock().lock();
+        try {
+            return route.handler.handle(request);
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the bearer token sent with a request.
+     *
+     * @param exchange The request
+     * @return The token, or null if there is none
+     */
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    /**
+     * Decodes the query string of a request.
+     *
+     * @param rawQuery The query string, still URL-encoded, or null if there is none
+     * @return The query parameters, by name
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Splits a path into its segments, ignoring leading, trailing and repeated slashes.
+     * Named variable segments such as {id} become "{}".
+     *
+     * @param path The path
+     * @return The segments
+     */
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment.startsWith("{") && segment.endsWith("}") ? "{}" : segment);
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * Splits printed text into its non-blank lines.
+     *
+     * @param text The printed text
+     * @return The lines, trimmed
+     */
+    private static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            if (!line.isBlank()) {
+                lines.add(line.trim());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Sends a JSON response.
+     *
+     * @param exchange The request and its response
+     * @param status The HTTP status code
+     * @param response The response object
+     * @throws IOException If the response cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, Map<String, Object> response) throws IOException {
+        byte[] bytes = JsonUtil.toJson(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package server;
+
+import java.io.IOException;
+
+/**
+ * Interface for an endpoint of the HTTP service.
+ */
+public interface RouteInterface {
+    /**
+     * Handles a request.
+     *
+     * @param request The request
+     * @return The data to send back, which is written as JSON, or null for none
+     * @throws ApiException If the request is rejected
+     * @throws IOException If the data cannot be read or written
+     */
+    public Object handle(ApiRequest request) throws ApiException, IOException;
+}
@@ -0,0 +1,83 @@
+package server;
+
+import model.User;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A signed-in user of the HTTP service.
+ * <p>
+ * A session is created when a user signs in and is identified by a random bearer token,
+ * which the client sends with every later request. Requests of one session are handled
+ * one at a time, so a client that sends the same request twice cannot, for example,
+ * submit two applications for one user. Requests of different sessions run in parallel.
+ * </p>
+ */
+public class Session {
+    /** The bearer token that identifies the session */
+    private final String token;
+
+    /** The signed-in user */
+    private final User user;
+
+    /** Lock held while one of the session's requests is being handled */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Time the session was last used, in milliseconds since the epoch */
+    private volatile long lastUsed;
+
+    /**
+     * Constructs a session for a signed-in user.
+     *
+     * @param token The bearer token that identifies the session
+     * @param user The signed-in user
+     */
+    public Session(String token, User user) {
+        this.token = token;
+        this.user = user;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the bearer token that identifies the session.
+     *
+     * @return The token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets the signed-in user.
+     *
+     * @return The user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the lock held while one of the session's requests is being handled.
+     *
+     * @return The lock
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Gets the time the session was last used.
+     *
+     * @return The time, in milliseconds since the epoch
+     */
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Records that the session has just been used.
+     */
+    public void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,110 @@
+package server;
+
+import model.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the sessions of every user signed in to the HTTP service.
+ * <p>
+ * Tokens are 32 random bytes from a {@link SecureRandom}, so they cannot be guessed. A
+ * session that has not been used for longer than the idle timeout is dropped the next time
+ * its token is presented, or when sessions are next opened, and the client must sign in again.
+ * </p>
+ */
+public class SessionRegistry {
+    /** Number of random bytes in a token */
+    private static final int TOKEN_BYTES = 32;
+
+    /** Source of random tokens */
+    private final SecureRandom random = new SecureRandom();
+
+    /** The open sessions, by token */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /** How long a session may stay unused before it expires, in milliseconds */
+    private final long idleTimeoutMillis;
+
+    /** Time expired sessions were last dropped, in milliseconds since the epoch */
+    private volatile long lastPurge = System.currentTimeMillis();
+
+    /**
+     * Constructs an empty registry.
+     *
+     * @param idleTimeoutMillis How long a session may stay unused before it expires, in milliseconds
+     */
+    public SessionRegistry(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Opens a session for a user who has just signed in.
+     *
+     * @param user The signed-in user
+     * @return The new session
+     */
+    public Session open(User user) {
+        purgeExpired();
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), user);
+        sessions.put(session.getToken(), session);
+        return session;
+    }
+
+    /**
+     * Drops every expired session, at most once per idle timeout, so that sessions that are
+     * never used again do not pile up.
+     */
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < idleTimeoutMillis) {
+            return;
+        }
+        lastPurge = now;
+        sessions.values().removeIf(session -> now - session.getLastUsed() > idleTimeoutMillis);
+    }
+
+    /**
+     * Finds the session with a token and marks it as used.
+     *
+     * @param token The bearer token sent by the client
+     * @return The session, or null if there is none or it has expired
+     */
+    public Session find(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - session.getLastUsed() > idleTimeoutMillis) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * Closes a session, so its token is no longer accepted.
+     *
+     * @param session The session to close
+     */
+    public void close(Session session) {
+        sessions.remove(session.getToken(), session);
+    }
+
+    /**
+     * Gets the number of open sessions, including any that have expired but not been dropped yet.
+     *
+     * @return The number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+}
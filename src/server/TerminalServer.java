@@ -0,0 +1,277 @@
+package server;
+
+import controller.AuthenticationController;
+import helper.SessionConsole;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the interactive menus to many terminal users from one process.
+ * <p>
+ * Users connect with a plain text client such as telnet or nc. Each connection gets its
+ * own virtual thread, which runs the same main menu as the console version with the
+ * connection attached through {@link SessionConsole}: every prompt reads from the
+ * connection and everything printed is written back to it. All sessions share the data
+ * store loaded at start-up, so the data is read from disk once rather than once per user.
+ * </p>
+ * <p>
+ * A session ends when the user chooses Exit, closes the connection, or sends nothing for
+ * longer than the idle timeout. A client that stops reading would leave its session blocked
+ * in a write that no socket timeout covers, so a watchdog closes any connection whose write
+ * has been blocked for longer than {@link #WRITE_TIMEOUT_MILLIS}. Connections beyond the
+ * configured maximum are turned away with a message.
+ * </p>
+ */
+public class TerminalServer {
+    /** How long a write to a connection may stay blocked before the connection is closed, in milliseconds */
+    private static final long WRITE_TIMEOUT_MILLIS = 30_000;
+
+    /** How often the watchdog looks for blocked writes, in milliseconds */
+    private static final long WATCHDOG_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The output stream of a connection, which records when a write started so that a write
+     * the client never takes can be found and ended.
+     */
+    private static class WatchedOutputStream extends FilterOutputStream {
+        /** When the write in progress started, in milliseconds, or 0 if none is in progress */
+        private volatile long writeStartedAt = 0;
+
+        /**
+         * Constructs a watched stream over a connection's output stream.
+         *
+         * @param out The connection's output stream
+         */
+        WatchedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writeStartedAt = System.currentTimeMillis();
+            try {
+                out.write(b);
+            } finally {
+                writeStartedAt = 0;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            writeStartedAt = System.currentTimeMillis();
+            try {
+                out.write(bytes, offset, length);
+            } finally {
+                writeStartedAt = 0;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeStartedAt = System.currentTimeMillis();
+            try {
+                out.flush();
+            } finally {
+                writeStartedAt = 0;
+            }
+        }
+
+        /**
+         * Checks whether a write has been blocked for longer than a time.
+         *
+         * @param now The current time, in milliseconds
+         * @param limit The longest a write may take, in milliseconds
+         * @return true if the write in progress started more than the limit ago
+         */
+        boolean isBlocked(long now, long limit) {
+            long started = writeStartedAt;
+            return started != 0 && now - started > limit;
+        }
+    }
+
+    /** How long a connection may stay silent before it is closed, in milliseconds */
+    private final int idleTimeoutMillis;
+
+    /** The largest number of connections open at once */
+    private final int maxConnections;
+
+    /** The connections that are open, with the stream their session writes to */
+    private final Map<Socket, WatchedOutputStream> connections = new ConcurrentHashMap<>();
+
+    /** The thread that closes connections whose writes are blocked, or null if the server is not running */
+    private ScheduledExecutorService watchdog = null;
+
+    /** The listening socket, or null if the server is not running */
+    private ServerSocket serverSocket = null;
+
+    /** The thread that accepts connections */
+    private Thread acceptor = null;
+
+    /**
+     * Constructs a terminal server.
+     *
+     * @param idleTimeoutMillis How long a connection may stay silent before it is closed, in milliseconds
+     * @param maxConnections The largest number of connections open at once
+     */
+    public TerminalServer(int idleTimeoutMillis, int maxConnections) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Starts accepting connections.
+     *
+     * @param port The port to listen on, or 0 to pick any free port
+     * @throws IOException If the port cannot be opened
+     */
+    public synchronized void start(int port) throws IOException {
+        SessionConsole.install();
+        serverSocket = new ServerSocket(port);
+        ServerSocket listening = serverSocket;
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "terminal-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::closeBlocked, WATCHDOG_INTERVAL_MILLIS, WATCHDOG_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        acceptor = Thread.ofPlatform().name("terminal-acceptor").start(() -> accept(listening));
+    }
+
+    /**
+     * Stops accepting connections and closes every open one.
+     */
+    public synchronized void stop() {
+        if (serverSocket == null) {
+            return;
+        }
+        try {
+            serverSocket.close();
+            acceptor.join();
+        } catch (IOException e) {
+            System.out.println("Error stopping terminal server: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watchdog.shutdown();
+        for (Socket socket : connections.keySet()) {
+            closeQuietly(socket);
+        }
+        serverSocket = null;
+        acceptor = null;
+        watchdog = null;
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return The port, or -1 if the server is not running
+     */
+    public synchronized int getPort() {
+        return serverSocket == null ? -1 : serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of open connections.
+     *
+     * @return The number of connections
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Accepts connections until the listening socket is closed, starting a session for each,
+     * or turning the connection away if the server already has as many as it may.
+     *
+     * @param listening The listening socket
+     */
+    private void accept(ServerSocket listening) {
+        while (!listening.isClosed()) {
+            try {
+                Socket socket = listening.accept();
+                if (connections.size() >= maxConnections) {
+                    // A short message fits in the empty send buffer, so this write does not block
+                    socket.getOutputStream().write("Too many users are connected. Please try again later.\r\n"
+                            .getBytes(StandardCharsets.UTF_8));
+                    closeQuietly(socket);
+                    continue;
+                }
+                WatchedOutputStream out = new WatchedOutputStream(socket.getOutputStream());
+                connections.put(socket, out);
+                Thread.ofVirtual().name("terminal-" + socket.getPort()).start(() -> runSession(socket, out));
+            } catch (SocketException e) {
+                // The listening socket was closed by stop()
+            } catch (IOException e) {
+                System.out.println("Error accepting connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the main menu for one connection until the user leaves.
+     *
+     * @param socket The connection
+     * @param output The connection's watched output stream
+     */
+    private void runSession(Socket socket, WatchedOutputStream output) {
+        try {
+            socket.setSoTimeout(idleTimeoutMillis);
+            // The session's own stream, used by no other thread
+            PrintStream out = new PrintStream(new BufferedOutputStream(output), true, StandardCharsets.UTF_8);
+            SessionConsole.attach(socket.getInputStream(), out);
+            new AuthenticationController().start();
+        } catch (NoSuchElementException e) {
+            // The user closed the connection or it timed out while a menu was waiting for input
+        } catch (IOException | RuntimeException e) {
+            SessionConsole.detach();
+            System.out.println("Error in terminal session: " + e);
+        } finally {
+            SessionConsole.detach();
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Closes every connection whose write has been blocked for longer than {@link #WRITE_TIMEOUT_MILLIS},
+     * which ends the write with an error and lets the session finish.
+     */
+    private void closeBlocked() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Socket, WatchedOutputStream> connection : connections.entrySet()) {
+            if (connection.getValue().isBlocked(now, WRITE_TIMEOUT_MILLIS)) {
+                System.out.println("Closing terminal connection from " + connection.getKey().getRemoteSocketAddress()
+                        + ": the client stopped reading.");
+                closeQuietly(connection.getKey());
+            }
+        }
+    }
+
+    /**
+     * Closes a connection, ignoring any error.
+     *
+     * @param socket The connection
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a connection that fails to close
+        }
+    }
+}
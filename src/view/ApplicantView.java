@@ -1,6 +1,7 @@
 package view;
 
 import controller.*;
+import helper.SessionConsole;
 import model.User;
 
 import java.util.Scanner;
@@ -31,7 +32,7 @@ public class ApplicantView implements MenuInterface {
     private final PasswordController passwordController = new PasswordController();
 
     /** Scanner for handling user input */
-    private final Scanner scanner = new Scanner(System.in);
+    private final Scanner scanner = SessionConsole.getScanner();
 
     /**
      * Displays the main menu for applicant users and processes their selections.
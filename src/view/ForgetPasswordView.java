@@ -1,6 +1,7 @@
 package view;
 
 import controller.CheckSecQuesInterface;
+import helper.SessionConsole;
 
 import java.util.Scanner;
 
@@ -28,7 +29,7 @@ public class ForgetPasswordView {
      */
     public boolean displayMenu(String nric, CheckSecQuesInterface repository) {
         String answer;
-        Scanner scanner = new Scanner(System.in);
+        Scanner scanner = SessionConsole.getScanner();
         System.out.println("| Security question: " + repository.retrieveSecQues(nric));
         System.out.print("| Answer: ");
         answer = scanner.nextLine();
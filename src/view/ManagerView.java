@@ -1,6 +1,7 @@
 package view;
 
 import controller.*;
+import helper.SessionConsole;
 import model.*;
 
 import java.util.*;
@@ -20,11 +21,17 @@ public class ManagerView implements MenuInterface {
     private final ProjectController projectController = new ProjectController();;
 
     /** Scanner for handling user input */
-    private final Scanner scanner = new Scanner(System.in);
+    private final Scanner scanner = SessionConsole.getScanner();
 
     /** Controller for HDB manager-specific operations */
     private final HDBManagerController hdbManagerController = new HDBManagerController();
 
+    /** Controller for running ballots */
+    private final BallotController ballotController = new BallotController();
+
+    /** Controller for simulating ballots */
+    private final BallotSimulationController ballotSimulationController = new BallotSimulationController();
+
     /** Controller for enquiry management */
     private final EnquiryController enquiryController = new EnquiryController();
 
@@ -66,7 +73,10 @@ public class ManagerView implements MenuInterface {
             System.out.println("| 11. View and Reply Enquiries                  |");
             System.out.println("| 12. Set Security Question for Recovery        |");
             System.out.println("| 13. Change Password                           |");
-            System.out.println("| 14. Logout                                    |");
+            System.out.println("| 14. Batch Approve or Reject Applications      |");
+            System.out.println("| 15. Run Ballot                                |");
+            System.out.println("| 16. Simulate Ballot                           |");
+            System.out.println("| 17. Logout                                    |");
             System.out.println("+-----------------------------------------------+");
             System.out.print("Enter your choice: ");
 
@@ -123,6 +133,15 @@ public class ManagerView implements MenuInterface {
                     passwordController.handlePasswordChange(user);
                     break;
                 case 14:
+                    batchApproveApplications(user);
+                    break;
+                case 15:
+                    runBallot(user);
+                    break;
+                case 16:
+                    simulateBallot(user);
+                    break;
+                case 17:
                     System.out.println("Logging out...");
                     running = false;
                     break;
@@ -208,4 +227,70 @@ public class ManagerView implements MenuInterface {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles the approval or rejection of many housing applications at once.
+     * <p>
+     * This method validates the current manager's credentials and delegates
+     * the batch approval/rejection process to the HDBManagerController.
+     * </p>
+     *
+     * @param user The manager user who is approving or rejecting the applications
+     */
+    private void batchApproveApplications(User user) {
+        System.out.println("\n===== Batch Approve Applications =====");
+        Manager currentManager = hdbManagerController.getManagerById(user.getNRIC());
+        if (currentManager == null) {
+            System.out.println("Error: No manager found with NRIC " + user.getNRIC());
+            return;
+        }
+
+        if (!hdbManagerController.batchApproveOrRejectApplications(currentManager)) {
+            System.out.println("Batch approval process was not completed.");
+        }
+    }
+
+    /**
+     * Handles running the ballot for the manager's project.
+     * <p>
+     * This method validates the current manager's credentials and delegates
+     * the ballot to the BallotController.
+     * </p>
+     *
+     * @param user The manager user running the ballot
+     */
+    private void runBallot(User user) {
+        System.out.println("\n===== Run Ballot =====");
+        Manager currentManager = hdbManagerController.getManagerById(user.getNRIC());
+        if (currentManager == null) {
+            System.out.println("Error: No manager found with NRIC " + user.getNRIC());
+            return;
+        }
+
+        if (!ballotController.runBallot(currentManager)) {
+            System.out.println("Ballot was not completed.");
+        }
+    }
+
+    /**
+     * Handles simulating the ballot for the manager's project.
+     * <p>
+     * This method validates the current manager's credentials and delegates
+     * the simulation to the BallotSimulationController.
+     * </p>
+     *
+     * @param user The manager user simulating the ballot
+     */
+    private void simulateBallot(User user) {
+        System.out.println("\n===== Simulate Ballot =====");
+        Manager currentManager = hdbManagerController.getManagerById(user.getNRIC());
+        if (currentManager == null) {
+            System.out.println("Error: No manager found with NRIC " + user.getNRIC());
+            return;
+        }
+
+        if (!ballotSimulationController.simulateBallot(currentManager)) {
+            System.out.println("Simulation was not completed.");
+        }
+    }
+}
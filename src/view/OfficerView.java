@@ -1,6 +1,7 @@
 package view;
 
 import controller.*;
+import helper.SessionConsole;
 import model.*;
 
 import java.util.Scanner;
@@ -34,7 +35,7 @@ public class OfficerView implements MenuInterface{
     private final PasswordController passwordController = new PasswordController();
 
     /** Scanner for handling user input */
-    private final Scanner scanner = new Scanner(System.in);
+    private final Scanner scanner = SessionConsole.getScanner();
 
     /**
      * Displays the main menu for officer users and processes their selections.